@@ -0,0 +1,79 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.remoting.transport.jgroups.JGroupsTransport;
+import org.infinispan.statetransfer.StateTransferManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the cache managers used by the benchmarks. The clustered ones run in the same JVM and communicate through
+ * the in-VM JGroups stack of {@link #JGROUPS_CONFIGURATION_FILE}.
+ *
+ * @since 7.0
+ */
+final class BenchmarkCacheManagers {
+
+   static final String JGROUPS_CONFIGURATION_FILE = "benchmarks-jgroups-loopback.xml";
+
+   private BenchmarkCacheManagers() {
+   }
+
+   static EmbeddedCacheManager createCacheManager(ConfigurationBuilder defaultCacheConfig) {
+      GlobalConfigurationBuilder gcb = new GlobalConfigurationBuilder();
+      gcb.globalJmxStatistics().allowDuplicateDomains(true);
+      return new DefaultCacheManager(gcb.build(), defaultCacheConfig.build());
+   }
+
+   /**
+    * Creates the members of a cluster and waits until they have all joined the default cache, and its state transfer
+    * is done, so that the iterations do not measure the rebalance.
+    */
+   static List<EmbeddedCacheManager> createClusteredCacheManagers(String clusterName, int numMembers,
+                                                                  ConfigurationBuilder defaultCacheConfig) {
+      List<EmbeddedCacheManager> cacheManagers = new ArrayList<EmbeddedCacheManager>(numMembers);
+      for (int i = 0; i < numMembers; i++) {
+         GlobalConfigurationBuilder gcb = GlobalConfigurationBuilder.defaultClusteredBuilder();
+         gcb.transport().clusterName(clusterName).nodeName(clusterName + "-" + i)
+               .addProperty(JGroupsTransport.CONFIGURATION_FILE, JGROUPS_CONFIGURATION_FILE);
+         gcb.globalJmxStatistics().allowDuplicateDomains(true);
+         EmbeddedCacheManager cacheManager = new DefaultCacheManager(gcb.build(), defaultCacheConfig.build());
+         cacheManager.getCache();
+         cacheManagers.add(cacheManager);
+      }
+      waitForRebalance(cacheManagers);
+      return cacheManagers;
+   }
+
+   static void stop(List<EmbeddedCacheManager> cacheManagers) {
+      for (int i = cacheManagers.size() - 1; i >= 0; i--) {
+         cacheManagers.get(i).stop();
+      }
+   }
+
+   private static void waitForRebalance(List<EmbeddedCacheManager> cacheManagers) {
+      long deadline = System.currentTimeMillis() + 30000;
+      for (EmbeddedCacheManager cacheManager : cacheManagers) {
+         StateTransferManager stateTransferManager = cacheManager.getCache().getAdvancedCache().getComponentRegistry()
+               .getStateTransferManager();
+         while (stateTransferManager.getCacheTopology() == null
+               || stateTransferManager.getCacheTopology().getMembers().size() < cacheManagers.size()
+               || stateTransferManager.isStateTransferInProgress()) {
+            if (System.currentTimeMillis() > deadline) {
+               throw new IllegalStateException("Timed out waiting for the rebalance of " + cacheManagers.size()
+                                                     + " members, got topology " + stateTransferManager.getCacheTopology());
+            }
+            try {
+               Thread.sleep(100);
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               throw new IllegalStateException(e);
+            }
+         }
+      }
+   }
+}
@@ -0,0 +1,89 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.context.Flag;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the reads and writes going through the whole interceptor chain of a local cache, and of a distributed
+ * cache with 3 members and 2 owners per key, whose members communicate through the in-VM JGroups stack. In the
+ * distributed cache a third of the keys read are not owned by the member the benchmark reads from.
+ *
+ * @since 7.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CacheOperationsBenchmark {
+
+   private static final int NUM_MEMBERS = 3;
+
+   @Param({"LOCAL", "DIST_SYNC"})
+   public String cacheMode;
+
+   @Param({"1000"})
+   public int numKeys;
+
+   private List<EmbeddedCacheManager> cacheManagers;
+   private AdvancedCache<Object, Object> cache;
+   private AdvancedCache<Object, Object> writeCache;
+   private Object[] keys;
+
+   @Setup
+   public void setUp() {
+      CacheMode mode = CacheMode.valueOf(cacheMode);
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      if (mode.isClustered()) {
+         builder.clustering().cacheMode(mode).hash().numOwners(2);
+         cacheManagers = BenchmarkCacheManagers.createClusteredCacheManagers("CacheOperationsBenchmark", NUM_MEMBERS,
+                                                                            builder);
+      } else {
+         cacheManagers = Collections.singletonList(BenchmarkCacheManagers.createCacheManager(builder));
+      }
+      cache = cacheManagers.get(0).getCache().getAdvancedCache();
+      writeCache = cache.withFlags(Flag.IGNORE_RETURN_VALUES);
+
+      keys = new Object[numKeys];
+      for (int i = 0; i < numKeys; i++) {
+         keys[i] = "key" + i;
+         writeCache.put(keys[i], "value" + i);
+      }
+   }
+
+   @TearDown
+   public void tearDown() {
+      BenchmarkCacheManagers.stop(cacheManagers);
+   }
+
+   @Benchmark
+   public Object get(KeySequence keySequence) {
+      return cache.get(keys[keySequence.next(numKeys)]);
+   }
+
+   @Benchmark
+   public Object put(KeySequence keySequence) {
+      int index = keySequence.next(numKeys);
+      return writeCache.put(keys[index], keys[index]);
+   }
+}
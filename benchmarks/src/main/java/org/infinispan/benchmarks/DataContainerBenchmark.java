@@ -0,0 +1,86 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.eviction.EvictionStrategy;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.metadata.Metadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the reads and writes of the data container of a cache, without eviction and with the LRU and LIRS
+ * eviction strategies. Half of the keys read or written do not fit in a bounded container, so the bounded
+ * containers evict as they are written and miss some of the reads.
+ *
+ * @since 7.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DataContainerBenchmark {
+
+   @Param({"NONE", "LRU", "LIRS"})
+   public String evictionStrategy;
+
+   @Param({"10000"})
+   public int maxEntries;
+
+   private EmbeddedCacheManager cacheManager;
+   private DataContainer dataContainer;
+   private Object[] keys;
+   private Metadata metadata;
+
+   @Setup
+   public void setUp() {
+      EvictionStrategy strategy = EvictionStrategy.valueOf(evictionStrategy);
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      if (strategy.isEnabled()) {
+         builder.eviction().strategy(strategy).maxEntries(maxEntries);
+      }
+      cacheManager = BenchmarkCacheManagers.createCacheManager(builder);
+      dataContainer = cacheManager.getCache().getAdvancedCache().getDataContainer();
+
+      keys = new Object[2 * maxEntries];
+      for (int i = 0; i < keys.length; i++) {
+         keys[i] = "key" + i;
+      }
+      metadata = new EmbeddedMetadata.Builder().build();
+      for (int i = 0; i < maxEntries; i++) {
+         dataContainer.put(keys[i], "value" + i, metadata);
+      }
+   }
+
+   @TearDown
+   public void tearDown() {
+      cacheManager.stop();
+   }
+
+   @Benchmark
+   public InternalCacheEntry get(KeySequence keySequence) {
+      return dataContainer.get(keys[keySequence.next(keys.length)]);
+   }
+
+   @Benchmark
+   public void put(KeySequence keySequence) {
+      int index = keySequence.next(keys.length);
+      dataContainer.put(keys[index], keys[index], metadata);
+   }
+}
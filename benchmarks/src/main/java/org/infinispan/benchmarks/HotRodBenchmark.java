@@ -0,0 +1,96 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.client.hotrod.RemoteCache;
+import org.infinispan.client.hotrod.RemoteCacheManager;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.server.hotrod.HotRodServer;
+import org.infinispan.server.hotrod.configuration.HotRodServerConfigurationBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Hot Rod reads and writes of a client connected to a server running in the same JVM, through the
+ * loopback interface, so that the requests and responses are encoded and decoded on both sides. The server uses either
+ * the NIO or the native epoll transport.
+ *
+ * @since 7.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class HotRodBenchmark {
+
+   private static final String HOST = "127.0.0.1";
+
+   @Param({"11322"})
+   public int port;
+
+   @Param({"false", "true"})
+   public boolean epoll;
+
+   @Param({"1000"})
+   public int numKeys;
+
+   @Param({"100", "1000"})
+   public int valueSize;
+
+   private EmbeddedCacheManager cacheManager;
+   private HotRodServer server;
+   private RemoteCacheManager remoteCacheManager;
+   private RemoteCache<Object, Object> remoteCache;
+   private Object[] keys;
+   private byte[] value;
+
+   @Setup
+   public void setUp() {
+      cacheManager = BenchmarkCacheManagers.createCacheManager(new ConfigurationBuilder());
+      server = new HotRodServer();
+      server.start(new HotRodServerConfigurationBuilder().host(HOST).port(port).epoll(epoll).build(), cacheManager);
+
+      org.infinispan.client.hotrod.configuration.ConfigurationBuilder clientBuilder =
+            new org.infinispan.client.hotrod.configuration.ConfigurationBuilder();
+      clientBuilder.addServer().host(HOST).port(port);
+      remoteCacheManager = new RemoteCacheManager(clientBuilder.build());
+      remoteCache = remoteCacheManager.getCache();
+
+      keys = new Object[numKeys];
+      value = new byte[valueSize];
+      for (int i = 0; i < numKeys; i++) {
+         keys[i] = "key" + i;
+         remoteCache.put(keys[i], value);
+      }
+   }
+
+   @TearDown
+   public void tearDown() {
+      remoteCacheManager.stop();
+      server.stop();
+      cacheManager.stop();
+   }
+
+   @Benchmark
+   public Object get(KeySequence keySequence) {
+      return remoteCache.get(keys[keySequence.next(numKeys)]);
+   }
+
+   @Benchmark
+   public Object put(KeySequence keySequence) {
+      return remoteCache.put(keys[keySequence.next(numKeys)], value);
+   }
+}
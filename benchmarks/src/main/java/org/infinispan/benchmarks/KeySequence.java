@@ -0,0 +1,24 @@
+package org.infinispan.benchmarks;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Picks the index of the next key used by a benchmark thread, pseudo randomly so that the threads do not all access
+ * the same keys in the same order, and cheaply so that it does not show in the measurements.
+ *
+ * @since 7.0
+ */
+@State(Scope.Thread)
+public class KeySequence {
+
+   private int seed = System.identityHashCode(this) | 1;
+
+   public int next(int bound) {
+      // xorshift
+      seed ^= seed << 13;
+      seed ^= seed >>> 17;
+      seed ^= seed << 5;
+      return (seed & Integer.MAX_VALUE) % bound;
+   }
+}
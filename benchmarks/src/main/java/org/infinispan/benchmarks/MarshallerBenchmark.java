@@ -0,0 +1,119 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.commons.io.ByteBuffer;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.transaction.xa.GlobalTransaction;
+import org.infinispan.transaction.xa.TransactionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the global marshaller, which the transport uses for the commands sent to the other members of the cluster,
+ * with some of the commands sent the most often, each of them wrapped in a {@code SingleRpcCommand} as the
+ * transport sends them.
+ *
+ * @since 7.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MarshallerBenchmark {
+
+   private static final int NUM_PREPARE_MODIFICATIONS = 10;
+
+   public enum Command {
+      GET, PUT, REMOVE, PREPARE
+   }
+
+   @Param({"GET", "PUT", "REMOVE", "PREPARE"})
+   public String command;
+
+   @Param({"100"})
+   public int valueSize;
+
+   private EmbeddedCacheManager cacheManager;
+   private StreamingMarshaller marshaller;
+   private ReplicableCommand rpcCommand;
+   private byte[] bytes;
+
+   @Setup
+   public void setUp() throws Exception {
+      cacheManager = BenchmarkCacheManagers.createCacheManager(new ConfigurationBuilder());
+      AdvancedCache<Object, Object> cache = cacheManager.getCache().getAdvancedCache();
+      marshaller = cacheManager.getGlobalComponentRegistry().getComponent(StreamingMarshaller.class,
+                                                                          KnownComponentNames.GLOBAL_MARSHALLER);
+      CommandsFactory commandsFactory = cache.getComponentRegistry().getCommandsFactory();
+
+      byte[] value = new byte[valueSize];
+      ReplicableCommand cacheCommand;
+      switch (Command.valueOf(command)) {
+         case GET:
+            cacheCommand = commandsFactory.buildGetKeyValueCommand("key", null, false);
+            break;
+         case PUT:
+            cacheCommand = commandsFactory.buildPutKeyValueCommand("key", value, new EmbeddedMetadata.Builder().build(), null);
+            break;
+         case REMOVE:
+            cacheCommand = commandsFactory.buildRemoveCommand("key", null, null);
+            break;
+         case PREPARE:
+            List<WriteCommand> modifications = new ArrayList<WriteCommand>(NUM_PREPARE_MODIFICATIONS);
+            for (int i = 0; i < NUM_PREPARE_MODIFICATIONS; i++) {
+               modifications.add(commandsFactory.buildPutKeyValueCommand("key" + i, value, new EmbeddedMetadata.Builder().build(), null));
+            }
+            GlobalTransaction gtx = TransactionFactory.TxFactoryEnum.NODLD_NORECOVERY_XA.newGlobalTransaction(null, false, null, false);
+            cacheCommand = commandsFactory.buildPrepareCommand(gtx, modifications, true);
+            break;
+         default:
+            throw new IllegalArgumentException("Unknown command " + command);
+      }
+      rpcCommand = commandsFactory.buildSingleRpcCommand(cacheCommand);
+      bytes = marshaller.objectToByteBuffer(rpcCommand);
+   }
+
+   @TearDown
+   public void tearDown() {
+      cacheManager.stop();
+   }
+
+   @Benchmark
+   public ByteBuffer marshall() throws Exception {
+      return marshaller.objectToBuffer(rpcCommand);
+   }
+
+   @Benchmark
+   public Object unmarshall() throws Exception {
+      return marshaller.objectFromByteBuffer(bytes);
+   }
+
+   @Benchmark
+   public Object roundTrip() throws Exception {
+      ByteBuffer buffer = marshaller.objectToBuffer(rpcCommand);
+      return marshaller.objectFromByteBuffer(buffer.getBuf(), buffer.getOffset(), buffer.getLength());
+   }
+}
@@ -0,0 +1,91 @@
+package org.infinispan.benchmarks;
+
+import net.spy.memcached.MemcachedClient;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.server.memcached.MemcachedServer;
+import org.infinispan.server.memcached.configuration.MemcachedServerConfigurationBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the memcached reads and writes of a client connected to a server running in the same JVM, through the
+ * loopback interface. The server uses either the NIO or the native epoll transport.
+ *
+ * @since 7.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MemcachedBenchmark {
+
+   private static final String HOST = "127.0.0.1";
+
+   @Param({"11211"})
+   public int port;
+
+   @Param({"false", "true"})
+   public boolean epoll;
+
+   @Param({"1000"})
+   public int numKeys;
+
+   @Param({"100", "1000"})
+   public int valueSize;
+
+   private EmbeddedCacheManager cacheManager;
+   private MemcachedServer server;
+   private MemcachedClient client;
+   private String[] keys;
+   private byte[] value;
+
+   @Setup
+   public void setUp() throws IOException, InterruptedException, ExecutionException {
+      cacheManager = BenchmarkCacheManagers.createCacheManager(new ConfigurationBuilder());
+      server = new MemcachedServer();
+      server.start(new MemcachedServerConfigurationBuilder().host(HOST).port(port).epoll(epoll).build(), cacheManager);
+      client = new MemcachedClient(new InetSocketAddress(HOST, port));
+
+      keys = new String[numKeys];
+      value = new byte[valueSize];
+      for (int i = 0; i < numKeys; i++) {
+         keys[i] = "key" + i;
+         client.set(keys[i], 0, value).get();
+      }
+   }
+
+   @TearDown
+   public void tearDown() {
+      client.shutdown();
+      server.stop();
+      cacheManager.stop();
+   }
+
+   @Benchmark
+   public Object get(KeySequence keySequence) {
+      return client.get(keys[keySequence.next(numKeys)]);
+   }
+
+   @Benchmark
+   public Object set(KeySequence keySequence) throws InterruptedException, ExecutionException {
+      return client.set(keys[keySequence.next(numKeys)], 0, value).get();
+   }
+}
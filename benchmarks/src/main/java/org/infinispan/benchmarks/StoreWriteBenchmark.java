@@ -0,0 +1,128 @@
+package org.infinispan.benchmarks;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.marshall.core.MarshalledEntryFactory;
+import org.infinispan.persistence.leveldb.configuration.LevelDBStoreConfigurationBuilder;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.infinispan.persistence.spi.BatchCacheWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the writes to the single file store and to the LevelDB store, one entry at a time and in batches, calling
+ * the store directly rather than through a cache.
+ *
+ * @since 7.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StoreWriteBenchmark {
+
+   private static final int BATCH_SIZE = 100;
+
+   @Param({"SINGLE_FILE", "LEVELDB"})
+   public String store;
+
+   @Param({"10000"})
+   public int numKeys;
+
+   @Param({"100", "1000"})
+   public int valueSize;
+
+   private File location;
+   private EmbeddedCacheManager cacheManager;
+   private AdvancedLoadWriteStore writer;
+   private MarshalledEntry[] entries;
+
+   @Setup
+   public void setUp() throws IOException {
+      location = File.createTempFile("infinispan-benchmarks-", "");
+      if (!location.delete() || !location.mkdirs()) {
+         throw new IOException("Could not create directory " + location);
+      }
+
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      if ("SINGLE_FILE".equals(store)) {
+         builder.persistence().addSingleFileStore().location(location.getAbsolutePath());
+      } else if ("LEVELDB".equals(store)) {
+         builder.persistence().addStore(LevelDBStoreConfigurationBuilder.class)
+               .location(new File(location, "data").getAbsolutePath())
+               .expiredLocation(new File(location, "expired").getAbsolutePath());
+      } else {
+         throw new IllegalArgumentException("Unknown store " + store);
+      }
+      cacheManager = BenchmarkCacheManagers.createCacheManager(builder);
+      PersistenceManager persistenceManager = cacheManager.getCache().getAdvancedCache().getComponentRegistry()
+            .getComponent(PersistenceManager.class);
+      writer = persistenceManager.getStores(AdvancedLoadWriteStore.class).iterator().next();
+
+      MarshalledEntryFactory entryFactory = cacheManager.getCache().getAdvancedCache().getComponentRegistry()
+            .getComponent(MarshalledEntryFactory.class);
+      entries = new MarshalledEntry[numKeys];
+      for (int i = 0; i < numKeys; i++) {
+         entries[i] = entryFactory.newMarshalledEntry("key" + i, new byte[valueSize], null);
+      }
+   }
+
+   @TearDown
+   public void tearDown() {
+      cacheManager.stop();
+      delete(location);
+   }
+
+   @Benchmark
+   public void write(KeySequence keySequence) {
+      writer.write(entries[keySequence.next(numKeys)]);
+   }
+
+   /**
+    * Writes {@value #BATCH_SIZE} entries at a time, through a single write batch when the store supports it.
+    */
+   @Benchmark
+   public void writeBatch(KeySequence keySequence) {
+      List<MarshalledEntry> batch = new ArrayList<MarshalledEntry>(BATCH_SIZE);
+      for (int i = 0; i < BATCH_SIZE; i++) {
+         batch.add(entries[keySequence.next(numKeys)]);
+      }
+      if (writer instanceof BatchCacheWriter) {
+         ((BatchCacheWriter) writer).writeBatch(batch);
+      } else {
+         for (MarshalledEntry entry : batch) {
+            writer.write(entry);
+         }
+      }
+   }
+
+   private static void delete(File file) {
+      File[] children = file.listFiles();
+      if (children != null) {
+         for (File child : children) {
+            delete(child);
+         }
+      }
+      file.delete();
+   }
+}
@@ -271,6 +271,17 @@
     */
    Map<K, V> getBulk(int size);
 
+   /**
+    * Retrieves all the entries for the given keys. The keys are grouped by the server owning them and a single request
+    * is sent to each of those servers, concurrently.
+    *
+    * @param keys the keys to retrieve
+    * @return a map with the entries found for the given keys; keys which are not found in the remote cache are not
+    *         present in the returned map.
+    * @since 7.0
+    */
+   Map<K, V> getAll(Set<? extends K> keys);
+
 
    /**
     * Returns the HotRod protocol version supported by this RemoteCache implementation
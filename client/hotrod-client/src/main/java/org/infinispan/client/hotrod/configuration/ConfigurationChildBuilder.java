@@ -102,6 +102,11 @@ public interface ConfigurationChildBuilder {
     */
    ConfigurationBuilder marshaller(Marshaller marshaller);
 
+   /**
+    * Configures the near cache of the remote caches
+    */
+   NearCacheConfigurationBuilder nearCache();
+
    /**
     * If true, a ping request is sent to a back end server in order to fetch cluster's topology.
     */
@@ -0,0 +1,64 @@
+package org.infinispan.client.hotrod.configuration;
+
+import java.util.Properties;
+
+import org.infinispan.client.hotrod.impl.ConfigurationProperties;
+import org.infinispan.client.hotrod.impl.TypedProperties;
+import org.infinispan.commons.configuration.Builder;
+
+/**
+ * Configures the near cache of the remote caches.
+ *
+ * @since 7.0
+ */
+public class NearCacheConfigurationBuilder extends AbstractConfigurationChildBuilder implements Builder<NearCacheConfiguration> {
+   private NearCacheMode mode = NearCacheMode.DISABLED;
+   private int maxEntries = -1;
+
+   protected NearCacheConfigurationBuilder(ConfigurationBuilder builder) {
+      super(builder);
+   }
+
+   /**
+    * Specifies whether entries read are kept in a near cache, and how it's kept consistent with the servers.
+    * Defaults to {@link NearCacheMode#DISABLED}
+    */
+   public NearCacheConfigurationBuilder mode(NearCacheMode mode) {
+      this.mode = mode;
+      return this;
+   }
+
+   /**
+    * Specifies the maximum number of entries kept in the near cache of each remote cache. When the limit is
+    * exceeded, the least recently used entry is dropped. Zero or a negative value means unbounded, which is the
+    * default.
+    */
+   public NearCacheConfigurationBuilder maxEntries(int maxEntries) {
+      this.maxEntries = maxEntries;
+      return this;
+   }
+
+   public NearCacheConfigurationBuilder withNearCacheProperties(Properties properties) {
+      TypedProperties typed = TypedProperties.toTypedProperties(properties);
+      mode(NearCacheMode.valueOf(typed.getProperty(ConfigurationProperties.NEAR_CACHE_MODE, mode.name()).toUpperCase()));
+      maxEntries(typed.getIntProperty(ConfigurationProperties.NEAR_CACHE_MAX_ENTRIES, maxEntries));
+      return this;
+   }
+
+   @Override
+   public void validate() {
+   }
+
+   @Override
+   public NearCacheConfiguration create() {
+      return new NearCacheConfiguration(mode, maxEntries);
+   }
+
+   @Override
+   public NearCacheConfigurationBuilder read(NearCacheConfiguration template) {
+      this.mode = template.mode();
+      this.maxEntries = template.maxEntries();
+      return this;
+   }
+
+}
@@ -0,0 +1,22 @@
+package org.infinispan.client.hotrod.configuration;
+
+/**
+ * Decides whether the remote caches keep a near cache of the entries read from the servers.
+ *
+ * @since 7.0
+ */
+public enum NearCacheMode {
+   /**
+    * Every read goes to the servers.
+    */
+   DISABLED,
+   /**
+    * Entries read are kept in a near cache in the client, and dropped from it when the servers notify that they
+    * have been modified. Requires protocol version 1.4 or later.
+    */
+   INVALIDATED;
+
+   public boolean enabled() {
+      return this != DISABLED;
+   }
+}
@@ -41,6 +41,8 @@ public class ConfigurationProperties {
    public static final String TRUST_STORE_FILE_NAME = "infinispan.client.hotrod.trust_store_file_name";
    public static final String TRUST_STORE_PASSWORD = "infinispan.client.hotrod.trust_store_password";
    public static final String MAX_RETRIES = "infinispan.client.hotrod.max_retries";
+   public static final String NEAR_CACHE_MODE = "infinispan.client.hotrod.near_cache.mode";
+   public static final String NEAR_CACHE_MAX_ENTRIES = "infinispan.client.hotrod.near_cache.max_entries";
 
    // defaults
 
@@ -50,11 +52,12 @@ public class ConfigurationProperties {
    public static final int DEFAULT_SO_TIMEOUT = 60000;
    public static final int DEFAULT_CONNECT_TIMEOUT = 60000;
    public static final int DEFAULT_MAX_RETRIES = 10;
+   public static final String PROTOCOL_VERSION_14 = "1.4";
    public static final String PROTOCOL_VERSION_13 = "1.3";
    public static final String PROTOCOL_VERSION_12 = "1.2";
    public static final String PROTOCOL_VERSION_11 = "1.1";
    public static final String PROTOCOL_VERSION_10 = "1.0";
-   public static final String DEFAULT_PROTOCOL_VERSION = PROTOCOL_VERSION_13;
+   public static final String DEFAULT_PROTOCOL_VERSION = PROTOCOL_VERSION_14;
 
    private final TypedProperties props;
 
@@ -172,4 +175,14 @@ public int getMaxRetries() {
       return props.getIntProperty(MAX_RETRIES, DEFAULT_MAX_RETRIES);
    }
 
+   /**
+    * Whether the given protocol version is 1.4 or later, which the put all, get all and near cache invalidation
+    * operations require.
+    */
+   public static boolean isProtocolVersion14OrLater(String protocolVersion) {
+      return !PROTOCOL_VERSION_10.equals(protocolVersion)
+            && !PROTOCOL_VERSION_11.equals(protocolVersion)
+            && !PROTOCOL_VERSION_12.equals(protocolVersion)
+            && !PROTOCOL_VERSION_13.equals(protocolVersion);
+   }
 }
@@ -0,0 +1,232 @@
+package org.infinispan.client.hotrod.impl;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.client.hotrod.RemoteCacheManager;
+import org.infinispan.client.hotrod.VersionedValue;
+import org.infinispan.client.hotrod.configuration.NearCacheConfiguration;
+import org.infinispan.client.hotrod.impl.nearcache.NearCache;
+import org.infinispan.client.hotrod.impl.nearcache.NearCacheInvalidator;
+import org.infinispan.client.hotrod.impl.operations.OperationsFactory;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+import org.infinispan.commons.marshall.Marshaller;
+import org.infinispan.commons.util.concurrent.FutureListener;
+import org.infinispan.commons.util.concurrent.NoOpFuture;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
+
+/**
+ * Remote cache that serves the reads from a {@link NearCache} when possible. The near cache is kept consistent
+ * with the servers by a {@link NearCacheInvalidator}, while this cache is started.
+ * <p/>
+ * The writes made through this cache drop the key from the near cache once they complete, so that the value
+ * written is read back even before the server's invalidation is received. Asynchronous reads are served from the
+ * near cache too, but only synchronous reads fill it.
+ *
+ * @since 7.0
+ */
+public class InvalidatedNearRemoteCache<K, V> extends RemoteCacheImpl<K, V> {
+
+   private static final Log log = LogFactory.getLog(InvalidatedNearRemoteCache.class, Log.class);
+
+   private final NearCache<K, V> nearCache;
+   private volatile NearCacheInvalidator invalidator;
+   private volatile OperationsFactory operationsFactory;
+   private volatile Marshaller marshaller;
+
+   public InvalidatedNearRemoteCache(RemoteCacheManager rcm, String name, NearCacheConfiguration nearCacheConfiguration) {
+      super(rcm, name);
+      this.nearCache = new NearCache<K, V>(nearCacheConfiguration.maxEntries());
+   }
+
+   @Override
+   public void init(Marshaller marshaller, ExecutorService executorService, OperationsFactory operationsFactory, int estimateKeySize, int estimateValueSize) {
+      super.init(marshaller, executorService, operationsFactory, estimateKeySize, estimateValueSize);
+      this.marshaller = marshaller;
+      this.operationsFactory = operationsFactory;
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public V get(Object key) {
+      VersionedValue<V> versioned = getVersioned((K) key);
+      return versioned == null ? null : versioned.getValue();
+   }
+
+   @Override
+   public VersionedValue<V> getVersioned(K key) {
+      VersionedValue<V> versioned = nearCache.get(key);
+      if (versioned != null) {
+         if (log.isTraceEnabled())
+            log.tracef("For key(%s) returning near cached %s", key, versioned);
+         return versioned;
+      }
+      long invalidations = nearCache.invalidations();
+      versioned = super.getVersioned(key);
+      if (versioned != null)
+         nearCache.putIfNotInvalidated(key, versioned, invalidations);
+      return versioned;
+   }
+
+   @Override
+   public V put(K key, V value, long lifespan, TimeUnit lifespanUnit, long maxIdleTime, TimeUnit maxIdleTimeUnit) {
+      try {
+         return super.put(key, value, lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit);
+      } finally {
+         nearCache.invalidate(key);
+      }
+   }
+
+   @Override
+   public V putIfAbsent(K key, V value, long lifespan, TimeUnit lifespanUnit, long maxIdleTime, TimeUnit maxIdleTimeUnit) {
+      try {
+         return super.putIfAbsent(key, value, lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit);
+      } finally {
+         nearCache.invalidate(key);
+      }
+   }
+
+   @Override
+   public V replace(K key, V value, long lifespan, TimeUnit lifespanUnit, long maxIdleTime, TimeUnit maxIdleTimeUnit) {
+      try {
+         return super.replace(key, value, lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit);
+      } finally {
+         nearCache.invalidate(key);
+      }
+   }
+
+   @Override
+   public boolean replaceWithVersion(K key, V newValue, long version, int lifespanSeconds, int maxIdleTimeSeconds) {
+      try {
+         return super.replaceWithVersion(key, newValue, version, lifespanSeconds, maxIdleTimeSeconds);
+      } finally {
+         nearCache.invalidate(key);
+      }
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public V remove(Object key) {
+      try {
+         return super.remove(key);
+      } finally {
+         nearCache.invalidate((K) key);
+      }
+   }
+
+   @Override
+   public boolean removeWithVersion(K key, long version) {
+      try {
+         return super.removeWithVersion(key, version);
+      } finally {
+         nearCache.invalidate(key);
+      }
+   }
+
+   @Override
+   public void putAll(Map<? extends K, ? extends V> map, long lifespan, TimeUnit lifespanUnit, long maxIdleTime, TimeUnit maxIdleTimeUnit) {
+      try {
+         super.putAll(map, lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit);
+      } finally {
+         for (K key : map.keySet())
+            nearCache.invalidate(key);
+      }
+   }
+
+   @Override
+   public void clear() {
+      try {
+         super.clear();
+      } finally {
+         nearCache.clear();
+      }
+   }
+
+   @Override
+   public NotifyingFuture<V> getAsync(K key) {
+      VersionedValue<V> versioned = nearCache.get(key);
+      if (versioned != null)
+         return new NoOpFuture<V>(versioned.getValue());
+
+      return super.getAsync(key);
+   }
+
+   @Override
+   public NotifyingFuture<V> putAsync(K key, V value, long lifespan, TimeUnit lifespanUnit, long maxIdle, TimeUnit maxIdleUnit) {
+      return invalidateOnCompletion(key, super.putAsync(key, value, lifespan, lifespanUnit, maxIdle, maxIdleUnit));
+   }
+
+   @Override
+   public NotifyingFuture<V> putIfAbsentAsync(K key, V value, long lifespan, TimeUnit lifespanUnit, long maxIdle, TimeUnit maxIdleUnit) {
+      return invalidateOnCompletion(key, super.putIfAbsentAsync(key, value, lifespan, lifespanUnit, maxIdle, maxIdleUnit));
+   }
+
+   @Override
+   public NotifyingFuture<V> replaceAsync(K key, V value, long lifespan, TimeUnit lifespanUnit, long maxIdle, TimeUnit maxIdleUnit) {
+      return invalidateOnCompletion(key, super.replaceAsync(key, value, lifespan, lifespanUnit, maxIdle, maxIdleUnit));
+   }
+
+   @Override
+   public NotifyingFuture<Boolean> replaceWithVersionAsync(K key, V newValue, long version, int lifespanSeconds, int maxIdleSeconds) {
+      return invalidateOnCompletion(key, super.replaceWithVersionAsync(key, newValue, version, lifespanSeconds, maxIdleSeconds));
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public NotifyingFuture<V> removeAsync(Object key) {
+      return invalidateOnCompletion((K) key, super.removeAsync(key));
+   }
+
+   @Override
+   public NotifyingFuture<Boolean> removeWithVersionAsync(K key, long version) {
+      return invalidateOnCompletion(key, super.removeWithVersionAsync(key, version));
+   }
+
+   @Override
+   public NotifyingFuture<Void> clearAsync() {
+      return super.clearAsync().attachListener(new FutureListener<Void>() {
+         @Override
+         public void futureDone(Future<Void> future) {
+            nearCache.clear();
+         }
+      });
+   }
+
+   private <T> NotifyingFuture<T> invalidateOnCompletion(final K key, NotifyingFuture<T> future) {
+      return future.attachListener(new FutureListener<T>() {
+         @Override
+         public void futureDone(Future<T> future) {
+            nearCache.invalidate(key);
+         }
+      });
+   }
+
+   @Override
+   public void start() {
+      stopInvalidator();
+      invalidator = new NearCacheInvalidator(getName(), nearCache, operationsFactory, marshaller);
+      invalidator.start();
+   }
+
+   @Override
+   public void stop() {
+      stopInvalidator();
+   }
+
+   private void stopInvalidator() {
+      NearCacheInvalidator invalidator = this.invalidator;
+      if (invalidator != null) {
+         invalidator.stop();
+         this.invalidator = null;
+      }
+      nearCache.disable();
+   }
+
+   public NearCache<K, V> getNearCache() {
+      return nearCache;
+   }
+
+}
@@ -11,6 +11,8 @@
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
 import org.infinispan.client.hotrod.Flag;
@@ -44,6 +46,7 @@
    private OperationsFactory operationsFactory;
    private int estimateKeySize;
    private int estimateValueSize;
+   private boolean bulkOperationsSupported;
 
 
    public RemoteCacheImpl(RemoteCacheManager rcm, String name) {
@@ -60,6 +63,9 @@ public void init(Marshaller marshaller, ExecutorService executorService, Operati
       this.operationsFactory = operationsFactory;
       this.estimateKeySize = estimateKeySize;
       this.estimateValueSize = estimateValueSize;
+      // Servers only accept put all and get all requests from protocol version 1.4 on
+      this.bulkOperationsSupported = ConfigurationProperties.isProtocolVersion14OrLater(
+            remoteCacheManager.getConfiguration().protocolVersion());
    }
 
    public OperationsFactory getOperationsFactory() {
@@ -82,30 +88,13 @@ public boolean removeWithVersion(K key, long version) {
    @Override
    public NotifyingFuture<Boolean> removeWithVersionAsync(final K key, final long version) {
       assertRemoteCacheManagerIsStarted();
-      final NotifyingFutureImpl<Boolean> result = new NotifyingFutureImpl<Boolean>();
-      Future<Boolean> future = executorService.submit(new Callable<Boolean>() {
+      final RemoveIfUnmodifiedOperation op = operationsFactory.newRemoveIfUnmodifiedOperation(obj2bytes(key, true), version);
+      return executeAsync(op, new Callable<Boolean>() {
          @Override
-         public Boolean call() throws Exception {
-            try {
-               boolean removed = removeWithVersion(key, version);
-               try {
-                  result.notifyDone(removed);
-               } catch (Throwable t) {
-                  log.trace("Error when notifying", t);
-               }
-               return removed;
-            } catch (Exception e) {
-               try {
-                  result.notifyException(e);
-               } catch (Throwable t) {
-                  log.trace("Error when notifying", t);
-               }
-               throw e;
-            }
+         public Boolean call() {
+            return op.execute().getCode().isUpdated();
          }
       });
-      result.setFuture(future);
-      return result;
    }
 
    @Override
@@ -119,30 +108,13 @@ public boolean replaceWithVersion(K key, V newValue, long version, int lifespanS
    @Override
    public NotifyingFuture<Boolean> replaceWithVersionAsync(final K key, final V newValue, final long version, final int lifespanSeconds, final int maxIdleSeconds) {
       assertRemoteCacheManagerIsStarted();
-      final NotifyingFutureImpl<Boolean> result = new NotifyingFutureImpl<Boolean>();
-      Future<Boolean> future = executorService.submit(new Callable<Boolean>() {
+      final ReplaceIfUnmodifiedOperation op = operationsFactory.newReplaceIfUnmodifiedOperation(obj2bytes(key, true), obj2bytes(newValue, false), lifespanSeconds, maxIdleSeconds, version);
+      return executeAsync(op, new Callable<Boolean>() {
          @Override
-         public Boolean call() throws Exception {
-            try {
-               boolean removed = replaceWithVersion(key, newValue, version, lifespanSeconds, maxIdleSeconds);
-               try {
-                  result.notifyDone(removed);
-               } catch (Throwable t) {
-                  log.trace("Error when notifying", t);
-               }
-               return removed;
-            } catch (Exception e) {
-               try {
-                  result.notifyException(e);
-               } catch (Throwable t) {
-                  log.trace("Error when notifying", t);
-               }
-               throw e;
-            }
+         public Boolean call() {
+            return op.execute().getCode().isUpdated();
          }
       });
-      result.setFuture(future);
-      return result;
    }
 
    @Override
@@ -164,9 +136,24 @@ public MetadataValue<V> getWithMetadata(K key) {
    @Override
    public void putAll(Map<? extends K, ? extends V> map, long lifespan, TimeUnit lifespanUnit, long maxIdleTime, TimeUnit maxIdleTimeUnit) {
       assertRemoteCacheManagerIsStarted();
+      if (!bulkOperationsSupported) {
+         for (Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            put(entry.getKey(), entry.getValue(), lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit);
+         }
+         return;
+      }
+      int lifespanSecs = toSeconds(lifespan, lifespanUnit);
+      int maxIdleSecs = toSeconds(maxIdleTime, maxIdleTimeUnit);
+      applyDefaultExpirationFlags(lifespan, maxIdleTime);
+      if (log.isTraceEnabled()) {
+         log.tracef("About to putAll entries (%s) lifespanSecs:%d, maxIdleSecs:%d", map, lifespanSecs, maxIdleSecs);
+      }
+      Map<byte[], byte[]> byteMap = new HashMap<byte[], byte[]>(map.size());
       for (Entry<? extends K, ? extends V> entry : map.entrySet()) {
-         put(entry.getKey(), entry.getValue(), lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit);
+         byteMap.put(obj2bytes(entry.getKey(), true), obj2bytes(entry.getValue(), false));
       }
+      PutAllParallelOperation op = operationsFactory.newPutAllOperation(byteMap, lifespanSecs, maxIdleSecs, executorService);
+      op.execute();
    }
 
    @Override
@@ -266,146 +253,74 @@ public V replace(K key, V value, long lifespan, TimeUnit lifespanUnit, long maxI
    @Override
    public NotifyingFuture<V> putAsync(final K key, final V value, final long lifespan, final TimeUnit lifespanUnit, final long maxIdle, final TimeUnit maxIdleUnit) {
       assertRemoteCacheManagerIsStarted();
-      final NotifyingFutureImpl<V> result = new NotifyingFutureImpl<V>();
-      Future<V> future = executorService.submit(new Callable<V>() {
+      int lifespanSecs = toSeconds(lifespan, lifespanUnit);
+      int maxIdleSecs = toSeconds(maxIdle, maxIdleUnit);
+      applyDefaultExpirationFlags(lifespan, maxIdle);
+      final PutOperation op = operationsFactory.newPutKeyValueOperation(obj2bytes(key, true), obj2bytes(value, false), lifespanSecs, maxIdleSecs);
+      return executeAsync(op, new Callable<V>() {
          @Override
-         public V call() throws Exception {
-            try {
-               V prevValue = put(key, value, lifespan, lifespanUnit, maxIdle, maxIdleUnit);
-               try {
-                  result.notifyDone(prevValue);
-               } catch (Throwable t) {
-                  log.trace("Error when notifying", t);
-               }
-               return prevValue;
-            } catch (Exception e) {
-               try {
-                  result.notifyException(e);
-               } catch (Throwable t) {
-                  log.trace("Error when notifying", t);
-               }
-               throw e;
-            }
+         @SuppressWarnings("unchecked")
+         public V call() {
+            return (V) bytes2obj(op.execute());
          }
       });
-      result.setFuture(future);
-      return result;
    }
 
    @Override
    public NotifyingFuture<Void> clearAsync() {
       assertRemoteCacheManagerIsStarted();
-      final NotifyingFutureImpl<Void> result = new NotifyingFutureImpl<Void>();
-      Future<Void> future = executorService.submit(new Callable<Void>() {
+      final ClearOperation op = operationsFactory.newClearOperation();
+      return executeAsync(op, new Callable<Void>() {
          @Override
-         public Void call() throws Exception {
-            try {
-               clear();
-               try {
-                  result.notifyDone(null);
-               } catch (Throwable t) {
-                  log.trace("Error when notifying", t);
-               }
-               return null;
-            } catch (Exception e) {
-               try {
-                  result.notifyException(e);
-               } catch (Throwable t) {
-                  log.trace("Error when notifying", t);
-               }
-               throw e;
-            }
+         public Void call() {
+            return op.execute();
          }
       });
-      result.setFuture(future);
-      return result;
    }
 
    @Override
    public NotifyingFuture<V> putIfAbsentAsync(final K key,final V value,final long lifespan,final TimeUnit lifespanUnit,final long maxIdle,final TimeUnit maxIdleUnit) {
       assertRemoteCacheManagerIsStarted();
-      final NotifyingFutureImpl<V> result = new NotifyingFutureImpl<V>();
-      Future<V> future = executorService.submit(new Callable<V>() {
+      int lifespanSecs = toSeconds(lifespan, lifespanUnit);
+      int maxIdleSecs = toSeconds(maxIdle, maxIdleUnit);
+      applyDefaultExpirationFlags(lifespan, maxIdle);
+      final PutIfAbsentOperation op = operationsFactory.newPutIfAbsentOperation(obj2bytes(key, true), obj2bytes(value, false), lifespanSecs, maxIdleSecs);
+      return executeAsync(op, new Callable<V>() {
          @Override
-         public V call() throws Exception {
-            try {
-               V prevValue = putIfAbsent(key, value, lifespan, lifespanUnit, maxIdle, maxIdleUnit);
-               try {
-                  result.notifyDone(prevValue);
-               } catch (Throwable t) {
-                  log.trace("Error when notifying", t);
-               }
-               return prevValue;
-            } catch (Exception e) {
-               try {
-                  result.notifyException(e);
-               } catch (Throwable t) {
-                  log.trace("Error when notifying", t);
-               }
-               throw e;
-            }
+         @SuppressWarnings("unchecked")
+         public V call() {
+            return (V) bytes2obj(op.execute());
          }
       });
-      result.setFuture(future);
-      return result;
    }
 
    @Override
    public NotifyingFuture<V> removeAsync(final Object key) {
       assertRemoteCacheManagerIsStarted();
-      final NotifyingFutureImpl<V> result = new NotifyingFutureImpl<V>();
-      Future<V> future = executorService.submit(new Callable<V>() {
+      final RemoveOperation op = operationsFactory.newRemoveOperation(obj2bytes(key, true));
+      return executeAsync(op, new Callable<V>() {
          @Override
-         public V call() throws Exception {
-            try {
-               V toReturn = remove(key);
-               try {
-                  result.notifyDone(toReturn);
-               } catch (Throwable t) {
-                  log.trace("Error when notifying", t);
-               }
-               return toReturn;
-            } catch (Exception e) {
-               try {
-                  result.notifyException(e);
-               } catch (Throwable t) {
-                  log.trace("Error when notifying", t);
-               }
-               throw e;
-            }
+         @SuppressWarnings("unchecked")
+         public V call() {
+            return (V) bytes2obj(op.execute());
          }
       });
-      result.setFuture(future);
-      return result;
    }
 
    @Override
    public NotifyingFuture<V> replaceAsync(final K key,final V value,final long lifespan,final TimeUnit lifespanUnit,final long maxIdle,final TimeUnit maxIdleUnit) {
       assertRemoteCacheManagerIsStarted();
-      final NotifyingFutureImpl<V> result = new NotifyingFutureImpl<V>();
-      Future<V> future = executorService.submit(new Callable<V>() {
+      int lifespanSecs = toSeconds(lifespan, lifespanUnit);
+      int maxIdleSecs = toSeconds(maxIdle, maxIdleUnit);
+      applyDefaultExpirationFlags(lifespan, maxIdle);
+      final ReplaceOperation op = operationsFactory.newReplaceOperation(obj2bytes(key, true), obj2bytes(value, false), lifespanSecs, maxIdleSecs);
+      return executeAsync(op, new Callable<V>() {
          @Override
-         public V call() throws Exception {
-            try {
-               V old = replace(key, value, lifespan, lifespanUnit, maxIdle, maxIdleUnit);
-               try {
-                  result.notifyDone(old);
-               } catch (Throwable t) {
-                  log.trace("Error when notifying", t);
-               }
-               return old;
-            } catch (Exception e) {
-               try {
-                  result.notifyException(e);
-               } catch (Throwable t) {
-                  log.trace("Error when notifying", t);
-               }
-               throw e;
-            }
+         @SuppressWarnings("unchecked")
+         public V call() {
+            return (V) bytes2obj(op.execute());
          }
       });
-      result.setFuture(future);
-      return result;
    }
 
    @Override
@@ -449,6 +364,35 @@ public Map<K, V> getBulk(int size) {
       return Collections.unmodifiableMap(toReturn);
    }
 
+   @Override
+   @SuppressWarnings("unchecked")
+   public Map<K, V> getAll(Set<? extends K> keys) {
+      assertRemoteCacheManagerIsStarted();
+      if (!bulkOperationsSupported) {
+         Map<K, V> toReturn = new HashMap<K, V>(keys.size());
+         for (K key : keys) {
+            V value = get(key);
+            if (value != null) {
+               toReturn.put(key, value);
+            }
+         }
+         return Collections.unmodifiableMap(toReturn);
+      }
+      Set<byte[]> byteKeys = new HashSet<byte[]>(keys.size());
+      for (K key : keys) {
+         byteKeys.add(obj2bytes(key, true));
+      }
+      GetAllParallelOperation op = operationsFactory.newGetAllOperation(byteKeys, executorService);
+      Map<byte[], byte[]> result = op.execute();
+      Map<K, V> toReturn = new HashMap<K, V>(result.size());
+      for (Map.Entry<byte[], byte[]> entry : result.entrySet()) {
+         V value = (V) bytes2obj(entry.getValue());
+         K key = (K) bytes2obj(entry.getKey());
+         toReturn.put(key, value);
+      }
+      return Collections.unmodifiableMap(toReturn);
+   }
+
    @Override
    @SuppressWarnings("unchecked")
    public V remove(Object key) {
@@ -505,18 +449,34 @@ public RemoteCache<K, V> withFlags(Flag... flags) {
    @Override
    public NotifyingFuture<V> getAsync(final K key) {
       assertRemoteCacheManagerIsStarted();
-      final NotifyingFutureImpl<V> result = new NotifyingFutureImpl<V>();
-      Future<V> future = executorService.submit(new Callable<V>() {
+      final GetOperation op = operationsFactory.newGetKeyOperation(obj2bytes(key, true));
+      return executeAsync(op, new Callable<V>() {
+         @Override
+         @SuppressWarnings("unchecked")
+         public V call() {
+            return (V) bytes2obj(op.execute());
+         }
+      });
+   }
+
+   /**
+    * Sends the request of the operation right away, and reads its response in the async executor once it has been
+    * received. No thread waits for the response when the transport receives it in the background, see
+    * {@link RetryOnFailureOperation#sendAsync(Runnable)}.
+    */
+   private <T> NotifyingFuture<T> executeAsync(RetryOnFailureOperation<?> op, final Callable<T> readResult) {
+      final NotifyingFutureImpl<T> result = new NotifyingFutureImpl<T>();
+      final FutureTask<T> task = new FutureTask<T>(new Callable<T>() {
          @Override
-         public V call() throws Exception {
+         public T call() throws Exception {
             try {
-               V toReturn = get(key);
+               T value = readResult.call();
                try {
-                  result.notifyDone(toReturn);
+                  result.notifyDone(value);
                } catch (Throwable t) {
                   log.trace("Error when notifying", t);
                }
-               return toReturn;
+               return value;
             } catch (Exception e) {
                try {
                   result.notifyException(e);
@@ -527,7 +487,18 @@ public V call() throws Exception {
             }
          }
       });
-      result.setFuture(future);
+      result.setFuture(task);
+      op.sendAsync(new Runnable() {
+         @Override
+         public void run() {
+            try {
+               executorService.execute(task);
+            } catch (RejectedExecutionException e) {
+               // The response has been received already, unless the transport can only block for it
+               task.run();
+            }
+         }
+      });
       return result;
    }
 
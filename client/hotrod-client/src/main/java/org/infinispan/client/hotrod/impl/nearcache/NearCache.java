@@ -0,0 +1,104 @@
+package org.infinispan.client.hotrod.impl.nearcache;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.infinispan.client.hotrod.VersionedValue;
+
+/**
+ * Entries read from the servers, kept in the client. When bounded, the least recently used entry is dropped once
+ * the maximum number of entries is exceeded.
+ * <p/>
+ * A value read from the servers is only cached if no invalidation happened while it was being read, otherwise the
+ * value could have been modified, and its invalidation missed, in between. For the same reason, nothing is cached
+ * while the near cache is disabled, which is the case whenever the client is not receiving the invalidations.
+ *
+ * @since 7.0
+ */
+@ThreadSafe
+public class NearCache<K, V> {
+
+   private final Map<K, VersionedValue<V>> entries;
+   private volatile long invalidations;
+   private volatile boolean enabled;
+
+   public NearCache(int maxEntries) {
+      this.entries = maxEntries > 0
+            ? Collections.synchronizedMap(new LruMap<K, VersionedValue<V>>(maxEntries))
+            : new ConcurrentHashMap<K, VersionedValue<V>>();
+   }
+
+   public VersionedValue<V> get(K key) {
+      return entries.get(key);
+   }
+
+   /**
+    * Returns the number of invalidations so far, to be passed to {@link #putIfNotInvalidated(Object, VersionedValue, long)}
+    * once the value has been read.
+    */
+   public long invalidations() {
+      return invalidations;
+   }
+
+   /**
+    * Caches the value read, unless an invalidation happened since the given number of invalidations was returned by
+    * {@link #invalidations()}, before the value was read.
+    */
+   public synchronized void putIfNotInvalidated(K key, VersionedValue<V> value, long invalidations) {
+      if (enabled && this.invalidations == invalidations)
+         entries.put(key, value);
+   }
+
+   public synchronized void invalidate(K key) {
+      entries.remove(key);
+      invalidations++;
+   }
+
+   public synchronized void clear() {
+      entries.clear();
+      invalidations++;
+   }
+
+   /**
+    * Starts caching the values read, once the client is receiving the invalidations.
+    */
+   public synchronized void enable() {
+      clear();
+      enabled = true;
+   }
+
+   /**
+    * Stops caching the values read and drops the cached ones, as the client is no longer receiving the invalidations.
+    */
+   public synchronized void disable() {
+      enabled = false;
+      clear();
+   }
+
+   public boolean isEnabled() {
+      return enabled;
+   }
+
+   public int size() {
+      return entries.size();
+   }
+
+   private static class LruMap<K, V> extends LinkedHashMap<K, V> {
+      private final int maxEntries;
+
+      LruMap(int maxEntries) {
+         super(16, 0.75f, true);
+         this.maxEntries = maxEntries;
+      }
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+         return size() > maxEntries;
+      }
+   }
+
+}
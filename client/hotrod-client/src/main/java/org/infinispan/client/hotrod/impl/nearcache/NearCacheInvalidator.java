@@ -0,0 +1,137 @@
+package org.infinispan.client.hotrod.impl.nearcache;
+
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.infinispan.client.hotrod.exceptions.TransportException;
+import org.infinispan.client.hotrod.impl.operations.AddNearCacheListenerOperation;
+import org.infinispan.client.hotrod.impl.operations.OperationsFactory;
+import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+import org.infinispan.client.hotrod.impl.transport.tcp.TcpTransport;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+import org.infinispan.commons.marshall.Marshaller;
+
+/**
+ * Keeps a {@link NearCache} consistent with the servers. It registers for the invalidation events of the cache
+ * through a connection of its own, outside the connection pool, and drops the keys received from the near cache.
+ * <p/>
+ * The near cache is only enabled while the events are being received. If the connection is lost, the near cache is
+ * disabled and the invalidator registers again, with the next server if there are more than one.
+ *
+ * @since 7.0
+ */
+public class NearCacheInvalidator implements Runnable {
+
+   private static final Log log = LogFactory.getLog(NearCacheInvalidator.class, Log.class);
+
+   private static final long RECONNECT_DELAY_MILLIS = 1000;
+
+   private final String cacheName;
+   private final NearCache<Object, ?> nearCache;
+   private final OperationsFactory operationsFactory;
+   private final Marshaller marshaller;
+   private final Thread thread;
+   private volatile boolean running = true;
+   private volatile TcpTransport transport;
+   private int serverIndex;
+
+   @SuppressWarnings("unchecked")
+   public NearCacheInvalidator(String cacheName, NearCache<?, ?> nearCache, OperationsFactory operationsFactory, Marshaller marshaller) {
+      this.cacheName = cacheName;
+      this.nearCache = (NearCache<Object, ?>) nearCache;
+      this.operationsFactory = operationsFactory;
+      this.marshaller = marshaller;
+      this.thread = new Thread(this, "HotRod-client-near-cache-" + cacheName);
+      this.thread.setDaemon(true);
+   }
+
+   public void start() {
+      thread.start();
+   }
+
+   public void stop() {
+      running = false;
+      TcpTransport transport = this.transport;
+      if (transport != null)
+         transport.destroy();
+      thread.interrupt();
+   }
+
+   @Override
+   public void run() {
+      while (running) {
+         SocketAddress server = null;
+         TcpTransport transport = null;
+         try {
+            server = nextServer();
+            transport = new TcpTransport(server, operationsFactory.getTransportFactory());
+            this.transport = transport;
+            if (!running)
+               break;
+
+            AddNearCacheListenerOperation op = operationsFactory.newAddNearCacheListenerOperation(transport);
+            op.execute();
+            nearCache.enable();
+            if (log.isDebugEnabled())
+               log.debugf("Receiving near cache invalidations of cache '%s' from %s", cacheName, server);
+
+            while (running) {
+               byte[] key;
+               try {
+                  key = op.readInvalidatedKey();
+               } catch (TransportException e) {
+                  // No invalidation within the socket timeout
+                  if (e.getCause() instanceof SocketTimeoutException)
+                     continue;
+                  throw e;
+               }
+               invalidate(key);
+            }
+         } catch (Exception e) {
+            nearCache.disable();
+            if (running) {
+               log.nearCacheInvalidationsLost(cacheName, server, e);
+               try {
+                  Thread.sleep(RECONNECT_DELAY_MILLIS);
+               } catch (InterruptedException ie) {
+                  Thread.currentThread().interrupt();
+                  running = false;
+               }
+            }
+         } finally {
+            this.transport = null;
+            if (transport != null)
+               transport.destroy();
+         }
+      }
+      nearCache.disable();
+   }
+
+   private void invalidate(byte[] keyBytes) {
+      Object key;
+      try {
+         key = marshaller.objectFromByteBuffer(keyBytes);
+      } catch (Exception e) {
+         // The key was not written by a client with the same marshaller, so it
+         // can't be matched against the cached keys
+         if (log.isTraceEnabled())
+            log.tracef(e, "Unable to unmarshall invalidated key, clearing the near cache of '%s'", cacheName);
+         nearCache.clear();
+         return;
+      }
+      if (log.isTraceEnabled())
+         log.tracef("Invalidating key %s in the near cache of '%s'", key, cacheName);
+      nearCache.invalidate(key);
+   }
+
+   private SocketAddress nextServer() {
+      TransportFactory transportFactory = operationsFactory.getTransportFactory();
+      List<SocketAddress> servers = new ArrayList<SocketAddress>(transportFactory.getServers());
+      serverIndex = (serverIndex + 1) % servers.size();
+      return servers.get(serverIndex);
+   }
+
+}
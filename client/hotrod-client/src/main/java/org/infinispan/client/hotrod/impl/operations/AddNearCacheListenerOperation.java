@@ -0,0 +1,52 @@
+package org.infinispan.client.hotrod.impl.operations;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.jcip.annotations.NotThreadSafe;
+
+import org.infinispan.client.hotrod.exceptions.InvalidResponseException;
+import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
+import org.infinispan.client.hotrod.impl.transport.Transport;
+
+/**
+ * Registers the client for the near cache invalidation events of a cache. Once registered, the server pushes an
+ * event carrying the key of every entry created, modified or removed in the cache, through the same transport and
+ * with the message id of the registration request. The transport is dedicated to the events from then on.
+ *
+ * @since 7.0
+ */
+@NotThreadSafe
+public class AddNearCacheListenerOperation extends HotRodOperation {
+
+   private final Transport transport;
+   private HeaderParams params;
+
+   public AddNearCacheListenerOperation(Codec codec, AtomicInteger topologyId, Transport transport, byte[] cacheName) {
+      super(codec, null, cacheName, topologyId);
+      this.transport = transport;
+   }
+
+   @Override
+   public Object execute() {
+      params = writeHeader(transport, ADD_NEAR_CACHE_LISTENER_REQUEST);
+      transport.flush();
+      short status = readHeaderAndValidate(transport, params);
+      if (status != NO_ERROR_STATUS)
+         throw new InvalidResponseException(
+               "Unexpected response status: " + Integer.toHexString(status));
+
+      // The events are pushed as responses to this request
+      params.opRespCode(NEAR_CACHE_INVALIDATION_EVENT);
+      return null;
+   }
+
+   /**
+    * Blocks until the next invalidation event is received, and returns the key it invalidates.
+    */
+   public byte[] readInvalidatedKey() {
+      readHeaderAndValidate(transport, params);
+      return transport.readArray();
+   }
+
+}
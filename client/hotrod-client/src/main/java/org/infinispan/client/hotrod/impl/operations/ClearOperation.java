@@ -30,9 +30,18 @@ protected Transport getTransport(int retryCount) {
 
    @Override
    protected Void executeOperation(Transport transport) {
+      return readResponse(transport, sendRequest(transport));
+   }
+
+   @Override
+   protected HeaderParams sendRequest(Transport transport) {
       HeaderParams params = writeHeader(transport, CLEAR_REQUEST);
       transport.flush();
+      return params;
+   }
 
+   @Override
+   protected Void readResponse(Transport transport, HeaderParams params) {
       readHeaderAndValidate(transport, params);
       return null;
    }
@@ -0,0 +1,63 @@
+package org.infinispan.client.hotrod.impl.operations;
+
+import net.jcip.annotations.Immutable;
+import org.infinispan.client.hotrod.Flag;
+import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
+import org.infinispan.client.hotrod.impl.transport.Transport;
+import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+
+import java.net.SocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implements "getAll" operation as described by <a href="http://community.jboss.org/wiki/HotRodProtocol">Hot Rod
+ * protocol specification</a>. All the keys are sent to a single server, normally the one owning all of them.
+ *
+ * @since 7.0
+ */
+@Immutable
+public class GetAllOperation extends RetryOnFailureOperation<Map<byte[], byte[]>> {
+
+   private final Set<byte[]> keys;
+
+   private final SocketAddress server;
+
+   public GetAllOperation(Codec codec, TransportFactory transportFactory, Set<byte[]> keys, byte[] cacheName,
+                          AtomicInteger topologyId, Flag[] flags, SocketAddress server) {
+      super(codec, transportFactory, cacheName, topologyId, flags);
+      this.keys = keys;
+      this.server = server;
+   }
+
+   @Override
+   protected Transport getTransport(int retryCount) {
+      if (retryCount == 0 && server != null) {
+         return transportFactory.getAddressTransport(server);
+      } else {
+         return transportFactory.getTransport();
+      }
+   }
+
+   //[header][key count][key length][key]...
+   @Override
+   protected Map<byte[], byte[]> executeOperation(Transport transport) {
+      HeaderParams params = writeHeader(transport, GET_ALL_REQUEST);
+      transport.writeVInt(keys.size());
+      for (byte[] key : keys) {
+         transport.writeArray(key);
+      }
+      transport.flush();
+
+      readHeaderAndValidate(transport, params);
+      int size = transport.readVInt();
+      Map<byte[], byte[]> result = new HashMap<byte[], byte[]>(size);
+      for (int i = 0; i < size; i++) {
+         result.put(transport.readArray(), transport.readArray());
+      }
+      return result;
+   }
+}
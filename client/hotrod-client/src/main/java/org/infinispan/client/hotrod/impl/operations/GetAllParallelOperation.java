@@ -0,0 +1,65 @@
+package org.infinispan.client.hotrod.impl.operations;
+
+import net.jcip.annotations.Immutable;
+import org.infinispan.client.hotrod.Flag;
+import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Splits the keys of a get all by the server owning them and sends a {@link GetAllOperation} to each of those
+ * servers concurrently.
+ *
+ * @since 7.0
+ */
+@Immutable
+public class GetAllParallelOperation extends ParallelHotRodOperation<Map<byte[], byte[]>, GetAllOperation> {
+
+   private final Set<byte[]> keys;
+
+   public GetAllParallelOperation(Codec codec, TransportFactory transportFactory, Set<byte[]> keys,
+                                  byte[] cacheName, AtomicInteger topologyId, Flag[] flags,
+                                  ExecutorService executorService) {
+      super(codec, transportFactory, cacheName, topologyId, flags, executorService);
+      this.keys = keys;
+   }
+
+   @Override
+   protected List<GetAllOperation> mapOperations() {
+      Map<SocketAddress, Set<byte[]>> keysByServer = new HashMap<SocketAddress, Set<byte[]>>();
+      for (byte[] key : keys) {
+         SocketAddress server = transportFactory.getSocketAddress(key);
+         Set<byte[]> serverKeys = keysByServer.get(server);
+         if (serverKeys == null) {
+            serverKeys = new HashSet<byte[]>();
+            keysByServer.put(server, serverKeys);
+         }
+         serverKeys.add(key);
+      }
+
+      List<GetAllOperation> operations = new ArrayList<GetAllOperation>(keysByServer.size());
+      for (Map.Entry<SocketAddress, Set<byte[]>> entry : keysByServer.entrySet()) {
+         operations.add(new GetAllOperation(codec, transportFactory, entry.getValue(), cacheName, topologyId,
+               flags, entry.getKey()));
+      }
+      return operations;
+   }
+
+   @Override
+   protected Map<byte[], byte[]> mergeResults(List<Map<byte[], byte[]>> results) {
+      Map<byte[], byte[]> merged = new HashMap<byte[], byte[]>();
+      for (Map<byte[], byte[]> result : results) {
+         merged.putAll(result);
+      }
+      return merged;
+   }
+}
@@ -12,6 +12,9 @@
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -47,6 +50,10 @@ public OperationsFactory(TransportFactory transportFactory, String cacheName,
       this.codec = codec;
    }
 
+   public TransportFactory getTransportFactory() {
+      return transportFactory;
+   }
+
    public GetOperation newGetKeyOperation(byte[] key) {
       return new GetOperation(
             codec, transportFactory, key, cacheNameBytes, topologyId, flags());
@@ -115,6 +122,18 @@ public ClearOperation newClearOperation() {
             codec, transportFactory, cacheNameBytes, topologyId, flags());
    }
 
+   public PutAllParallelOperation newPutAllOperation(Map<byte[], byte[]> map, int lifespanSeconds,
+            int maxIdleTimeSeconds, ExecutorService executorService) {
+      return new PutAllParallelOperation(
+            codec, transportFactory, map, cacheNameBytes, topologyId, flags(),
+            lifespanSeconds, maxIdleTimeSeconds, executorService);
+   }
+
+   public GetAllParallelOperation newGetAllOperation(Set<byte[]> keys, ExecutorService executorService) {
+      return new GetAllParallelOperation(
+            codec, transportFactory, keys, cacheNameBytes, topologyId, flags(), executorService);
+   }
+
    public BulkGetOperation newBulkGetOperation(int size) {
       return new BulkGetOperation(
             codec, transportFactory, cacheNameBytes, topologyId, flags(), size);
@@ -135,6 +154,14 @@ public PingOperation newPingOperation(Transport transport) {
       return new PingOperation(codec, topologyId, transport, cacheNameBytes);
    }
 
+   /**
+    * Construct a request registering for the near cache invalidation events
+    * of the cache, which are then received through the given transport.
+    */
+   public AddNearCacheListenerOperation newAddNearCacheListenerOperation(Transport transport) {
+      return new AddNearCacheListenerOperation(codec, topologyId, transport, cacheNameBytes);
+   }
+
    /**
     * Construct a fault tolerant ping request. This operation should be capable
     * to deal with nodes being down, so it will find the first node successful
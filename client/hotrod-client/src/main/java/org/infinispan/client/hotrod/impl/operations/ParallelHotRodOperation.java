@@ -0,0 +1,97 @@
+package org.infinispan.client.hotrod.impl.operations;
+
+import net.jcip.annotations.Immutable;
+import org.infinispan.client.hotrod.Flag;
+import org.infinispan.client.hotrod.exceptions.HotRodClientException;
+import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An operation which is split into several single server operations, one per server owning some of its keys. The
+ * single server operations are sent concurrently and their results are merged once all of them have completed.
+ *
+ * @since 7.0
+ */
+@Immutable
+public abstract class ParallelHotRodOperation<T, SUBOP extends RetryOnFailureOperation<T>> extends HotRodOperation {
+
+   protected final TransportFactory transportFactory;
+
+   private final ExecutorService executorService;
+
+   protected ParallelHotRodOperation(Codec codec, TransportFactory transportFactory, byte[] cacheName,
+                                     AtomicInteger topologyId, Flag[] flags, ExecutorService executorService) {
+      super(codec, flags, cacheName, topologyId);
+      this.transportFactory = transportFactory;
+      this.executorService = executorService;
+   }
+
+   @Override
+   public T execute() {
+      List<SUBOP> operations = mapOperations();
+      if (operations.size() == 1) {
+         // Only one server involved, no need to hand the operation over to another thread
+         return mergeResults(Collections.singletonList(operations.get(0).execute()));
+      }
+
+      List<FutureTask<T>> futures = new ArrayList<FutureTask<T>>(operations.size());
+      for (final SUBOP operation : operations) {
+         FutureTask<T> future = new FutureTask<T>(new Callable<T>() {
+            @Override
+            public T call() {
+               return operation.execute();
+            }
+         });
+         futures.add(future);
+         executorService.execute(future);
+      }
+      // Run the operations not picked up by the executor yet in the calling thread: running a started or
+      // completed task is a no-op, and this avoids a deadlock when called from an async executor thread
+      for (FutureTask<T> future : futures) {
+         future.run();
+      }
+
+      List<T> results = new ArrayList<T>(futures.size());
+      try {
+         for (FutureTask<T> future : futures) {
+            results.add(future.get());
+         }
+      } catch (InterruptedException e) {
+         cancelAll(futures);
+         Thread.currentThread().interrupt();
+         throw new HotRodClientException(e);
+      } catch (ExecutionException e) {
+         cancelAll(futures);
+         if (e.getCause() instanceof HotRodClientException)
+            throw (HotRodClientException) e.getCause();
+         throw new HotRodClientException(e.getCause());
+      }
+      return mergeResults(results);
+   }
+
+   private void cancelAll(List<FutureTask<T>> futures) {
+      for (FutureTask<T> future : futures) {
+         future.cancel(true);
+      }
+   }
+
+   /**
+    * Splits this operation into single server operations, one per server owning some of the keys.
+    */
+   protected abstract List<SUBOP> mapOperations();
+
+   /**
+    * Merges the results of the single server operations into the result of this operation.
+    */
+   protected abstract T mergeResults(List<T> results);
+
+}
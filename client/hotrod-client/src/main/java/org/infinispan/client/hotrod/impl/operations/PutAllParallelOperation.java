@@ -0,0 +1,65 @@
+package org.infinispan.client.hotrod.impl.operations;
+
+import net.jcip.annotations.Immutable;
+import org.infinispan.client.hotrod.Flag;
+import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Splits the entries of a put all by the server owning their keys and sends a {@link PutAllOperation} to each of
+ * those servers concurrently.
+ *
+ * @since 7.0
+ */
+@Immutable
+public class PutAllParallelOperation extends ParallelHotRodOperation<Void, PutAllOperation> {
+
+   private final Map<byte[], byte[]> map;
+
+   private final int lifespan;
+
+   private final int maxIdle;
+
+   public PutAllParallelOperation(Codec codec, TransportFactory transportFactory, Map<byte[], byte[]> map,
+                                  byte[] cacheName, AtomicInteger topologyId, Flag[] flags, int lifespan,
+                                  int maxIdle, ExecutorService executorService) {
+      super(codec, transportFactory, cacheName, topologyId, flags, executorService);
+      this.map = map;
+      this.lifespan = lifespan;
+      this.maxIdle = maxIdle;
+   }
+
+   @Override
+   protected List<PutAllOperation> mapOperations() {
+      Map<SocketAddress, Map<byte[], byte[]>> mapsByServer = new HashMap<SocketAddress, Map<byte[], byte[]>>();
+      for (Map.Entry<byte[], byte[]> entry : map.entrySet()) {
+         SocketAddress server = transportFactory.getSocketAddress(entry.getKey());
+         Map<byte[], byte[]> serverMap = mapsByServer.get(server);
+         if (serverMap == null) {
+            serverMap = new HashMap<byte[], byte[]>();
+            mapsByServer.put(server, serverMap);
+         }
+         serverMap.put(entry.getKey(), entry.getValue());
+      }
+
+      List<PutAllOperation> operations = new ArrayList<PutAllOperation>(mapsByServer.size());
+      for (Map.Entry<SocketAddress, Map<byte[], byte[]>> entry : mapsByServer.entrySet()) {
+         operations.add(new PutAllOperation(codec, transportFactory, entry.getValue(), cacheName, topologyId,
+               flags, lifespan, maxIdle, entry.getKey()));
+      }
+      return operations;
+   }
+
+   @Override
+   protected Void mergeResults(List<Void> results) {
+      return null;
+   }
+}
@@ -30,6 +30,11 @@ public RemoveIfUnmodifiedOperation(Codec codec, TransportFactory transportFactor
 
    @Override
    protected VersionedOperationResponse executeOperation(Transport transport) {
+      return readResponse(transport, sendRequest(transport));
+   }
+
+   @Override
+   protected HeaderParams sendRequest(Transport transport) {
       // 1) write header
       HeaderParams params = writeHeader(transport, REMOVE_IF_UNMODIFIED_REQUEST);
 
@@ -37,7 +42,11 @@ protected VersionedOperationResponse executeOperation(Transport transport) {
       transport.writeArray(key);
       transport.writeLong(version);
       transport.flush();
+      return params;
+   }
 
+   @Override
+   protected VersionedOperationResponse readResponse(Transport transport, HeaderParams params) {
       //process response and return
       return returnVersionedOperationResponse(transport, params);
    }
@@ -1,11 +1,13 @@
 package org.infinispan.client.hotrod.impl.operations;
 
-import net.jcip.annotations.Immutable;
+import net.jcip.annotations.NotThreadSafe;
 import org.infinispan.client.hotrod.Flag;
 import org.infinispan.client.hotrod.exceptions.HotRodClientException;
 import org.infinispan.client.hotrod.exceptions.RemoteNodeSuspectException;
 import org.infinispan.client.hotrod.exceptions.TransportException;
 import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
+import org.infinispan.client.hotrod.impl.transport.NonBlockingTransport;
 import org.infinispan.client.hotrod.impl.transport.Transport;
 import org.infinispan.client.hotrod.impl.transport.TransportFactory;
 import org.infinispan.client.hotrod.logging.Log;
@@ -22,13 +24,17 @@
  * @since 4.1
  * @param T the return type of this operation
  */
-@Immutable
+@NotThreadSafe
 public abstract class RetryOnFailureOperation<T> extends HotRodOperation {
 
    private static final Log log = LogFactory.getLog(RetryOnFailureOperation.class, Log.class);
 
    protected final TransportFactory transportFactory;
 
+   // The request sent by sendAsync(), whose response is read by execute()
+   private Transport sentTransport;
+   private HeaderParams sentParams;
+
    protected RetryOnFailureOperation(Codec codec, TransportFactory transportFactory,
             byte[] cacheName, AtomicInteger topologyId, Flag[] flags) {
       super(codec, flags, cacheName, topologyId);
@@ -41,6 +47,11 @@ public T execute() {
       while (shouldRetry(retryCount)) {
          Transport transport = null;
          try {
+            if (sentTransport != null) {
+               transport = sentTransport;
+               sentTransport = null;
+               return readResponse(transport, sentParams);
+            }
             // Transport retrieval should be retried
             transport = getTransport(retryCount);
             return executeOperation(transport);
@@ -65,6 +76,34 @@ public T execute() {
       throw new IllegalStateException("We should not reach here!");
    }
 
+   /**
+    * Sends the request without waiting for its response, and runs the callback once the response has been received,
+    * so that {@link #execute()} can then read it without blocking. This needs a {@link NonBlockingTransport} and an
+    * operation implementing {@link #sendRequest(Transport)} and {@link #readResponse(Transport, HeaderParams)}.
+    * Otherwise, or if sending the request fails, the callback runs at once and {@link #execute()} sends the request
+    * again as usual, retrying it if needed.
+    */
+   public void sendAsync(Runnable responseReceived) {
+      Transport transport = null;
+      try {
+         transport = getTransport(0);
+         if (transport instanceof NonBlockingTransport) {
+            sentParams = sendRequest(transport);
+            sentTransport = transport;
+            transport = null;
+         }
+      } catch (TransportException te) {
+         transportFactory.invalidateTransport(te.getServerAddress(), transport);
+      } finally {
+         releaseTransport(transport);
+      }
+
+      if (sentTransport != null)
+         ((NonBlockingTransport) sentTransport).whenResponseReceived(responseReceived);
+      else
+         responseReceived.run();
+   }
+
    protected boolean shouldRetry(int retryCount) {
       return retryCount <= transportFactory.getMaxRetries();
    }
@@ -87,4 +126,20 @@ protected void releaseTransport(Transport transport) {
    protected abstract Transport getTransport(int retryCount);
 
    protected abstract T executeOperation(Transport transport);
+
+   /**
+    * Writes and flushes the request, for {@link #sendAsync(Runnable)}.
+    *
+    * @return the header to validate the response against
+    */
+   protected HeaderParams sendRequest(Transport transport) {
+      throw new UnsupportedOperationException(getClass().getSimpleName() + " can't be sent asynchronously");
+   }
+
+   /**
+    * Reads the response to the request written by {@link #sendRequest(Transport)}.
+    */
+   protected T readResponse(Transport transport, HeaderParams params) {
+      throw new UnsupportedOperationException(getClass().getSimpleName() + " can't be sent asynchronously");
+   }
 }
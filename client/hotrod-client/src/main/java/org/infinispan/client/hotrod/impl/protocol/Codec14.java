@@ -0,0 +1,26 @@
+package org.infinispan.client.hotrod.impl.protocol;
+
+import org.infinispan.client.hotrod.impl.transport.Transport;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+
+/**
+ * A Hot Rod encoder/decoder for version 1.4 of the protocol, which adds bulk put all and get all operations.
+ *
+ * @since 7.0
+ */
+public class Codec14 extends Codec13 {
+
+   private static final Log log = LogFactory.getLog(Codec14.class, Log.class);
+
+   @Override
+   public HeaderParams writeHeader(Transport transport, HeaderParams params) {
+      return writeHeader(transport, params, HotRodConstants.VERSION_14);
+   }
+
+   @Override
+   public Log getLog() {
+      return log;
+   }
+
+}
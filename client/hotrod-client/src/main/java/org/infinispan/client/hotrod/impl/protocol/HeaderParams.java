@@ -27,6 +27,15 @@ public HeaderParams opCode(short opCode) {
       return this;
    }
 
+   /**
+    * Overrides the response operation code expected for the request, for the events the server pushes as
+    * responses to an earlier request.
+    */
+   public HeaderParams opRespCode(short opRespCode) {
+      this.opRespCode = opRespCode;
+      return this;
+   }
+
    public HeaderParams cacheName(byte[] cacheName) {
       this.cacheName = cacheName;
       return this;
@@ -91,6 +100,12 @@ private short toOpRespCode(short opCode) {
             return HotRodConstants.BULK_GET_KEYS_RESPONSE;
          case HotRodConstants.QUERY_REQUEST:
             return HotRodConstants.QUERY_RESPONSE;
+         case HotRodConstants.PUT_ALL_REQUEST:
+            return HotRodConstants.PUT_ALL_RESPONSE;
+         case HotRodConstants.GET_ALL_REQUEST:
+            return HotRodConstants.GET_ALL_RESPONSE;
+         case HotRodConstants.ADD_NEAR_CACHE_LISTENER_REQUEST:
+            return HotRodConstants.ADD_NEAR_CACHE_LISTENER_RESPONSE;
          default:
             throw new IllegalStateException("Unknown operation code: " + opCode);
       }
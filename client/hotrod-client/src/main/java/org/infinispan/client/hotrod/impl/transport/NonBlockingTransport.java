@@ -0,0 +1,17 @@
+package org.infinispan.client.hotrod.impl.transport;
+
+/**
+ * A transport that receives the response to its request in the background, so that no thread has to wait for it.
+ *
+ * @since 7.0
+ */
+public interface NonBlockingTransport extends Transport {
+
+   /**
+    * Runs the callback once the response to the flushed request has been received, or once it can't be received
+    * anymore because the request timed out or the connection was closed. Reading the response after that does not
+    * block. The callback may run in the thread receiving the responses, so it must not block itself.
+    */
+   void whenResponseReceived(Runnable callback);
+
+}
@@ -28,6 +28,11 @@ public interface TransportFactory {
 
    void updateServers(Collection<SocketAddress> newServers);
 
+   /**
+    * Returns the addresses of the servers the client currently knows about.
+    */
+   Collection<SocketAddress> getServers();
+
    void destroy();
 
    void updateHashFunction(Map<SocketAddress, Set<Integer>> servers2Hash, int numKeyOwners, short hashFunctionVersion, int hashSpace);
@@ -36,6 +41,14 @@ public interface TransportFactory {
 
    Transport getTransport(byte[] key);
 
+   /**
+    * Returns the address of the server owning the given key, or null if the client is not aware of the
+    * key distribution yet.
+    */
+   SocketAddress getSocketAddress(byte[] key);
+
+   Transport getAddressTransport(SocketAddress server);
+
    boolean isTcpNoDelay();
 
    int getMaxRetries();
@@ -0,0 +1,337 @@
+package org.infinispan.client.hotrod.impl.transport.tcp;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+
+import org.infinispan.client.hotrod.exceptions.InvalidResponseException;
+import org.infinispan.client.hotrod.exceptions.TransportException;
+import org.infinispan.client.hotrod.impl.protocol.HotRodConstants;
+import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+
+/**
+ * A single non-blocking TCP connection to a server, shared by many concurrent {@link MultiplexedTransport}s.
+ * <p/>
+ * Requests are written to the socket as soon as they are flushed, without waiting for the responses of the
+ * requests sent before them. The {@link MultiplexedSelector} reads the responses as they arrive, finds where each
+ * one ends with a {@link ResponseFrameDecoder}, and hands it over as a whole to the transport that sent the request
+ * with the same message id. No thread waits on the socket for a given request, and a transport that is slow to read
+ * its response doesn't hold up the responses after it.
+ * <p/>
+ * A request that times out only fails on its own, and its response is dropped once it arrives. I/O errors and
+ * responses that can't be parsed close the connection, failing all the requests still in flight on it with a
+ * {@link TransportException}. So do error responses with message id 0, sent by the server when it could not read
+ * the message id of a request: there's no telling which request failed.
+ *
+ * @since 7.0
+ */
+@ThreadSafe
+public class MultiplexedConnection {
+
+   private static final Log log = LogFactory.getLog(MultiplexedConnection.class, Log.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private static final int INITIAL_READ_BUFFER_SIZE = 64 * 1024;
+
+   //needed for debugging
+   private static final AtomicLong ID_COUNTER = new AtomicLong(0);
+
+   private final SocketAddress serverAddress;
+   private final TransportFactory transportFactory;
+   private final MultiplexedSelector selector;
+   private final SocketChannel channel;
+   private final ResponseFrameDecoder decoder = new ResponseFrameDecoder(this);
+   private final long id = ID_COUNTER.incrementAndGet();
+
+   @GuardedBy("this")
+   private final Map<Long, MultiplexedTransport> pending = new LinkedHashMap<Long, MultiplexedTransport>();
+   @GuardedBy("this")
+   private final Deque<ByteBuffer> writeQueue = new ArrayDeque<ByteBuffer>();
+
+   // Only used by the selector thread
+   private SelectionKey key;
+   private ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_READ_BUFFER_SIZE);
+
+   private volatile short protocolVersion = HotRodConstants.VERSION_11;
+   private volatile boolean closed;
+
+   private final Runnable register = new Runnable() {
+      @Override
+      public void run() {
+         try {
+            key = channel.register(selector.getSelector(), SelectionKey.OP_READ, MultiplexedConnection.this);
+            enableWrites.run();
+         } catch (ClosedChannelException e) {
+            close();
+         }
+      }
+   };
+
+   private final Runnable enableWrites = new Runnable() {
+      @Override
+      public void run() {
+         synchronized (MultiplexedConnection.this) {
+            if (key != null && key.isValid() && !writeQueue.isEmpty())
+               key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+         }
+      }
+   };
+
+   public MultiplexedConnection(SocketAddress serverAddress, TransportFactory transportFactory,
+                                MultiplexedSelector selector) {
+      this.serverAddress = serverAddress;
+      this.transportFactory = transportFactory;
+      this.selector = selector;
+      try {
+         channel = SocketChannel.open();
+         channel.socket().connect(serverAddress, transportFactory.getConnectTimeout());
+         channel.socket().setTcpNoDelay(transportFactory.isTcpNoDelay());
+         channel.configureBlocking(false);
+      } catch (Exception e) {
+         String message = String.format("Could not connect to server: %s", serverAddress);
+         log.tracef(e, "Could not connect to server: %s", serverAddress);
+         throw new TransportException(message, e, serverAddress);
+      }
+      selector.execute(register);
+   }
+
+   /**
+    * Returns a transport that writes exactly one request through this connection and reads its response.
+    */
+   public MultiplexedTransport newTransport() {
+      if (closed)
+         throw new TransportException(String.format("Connection to %s is closed", serverAddress), serverAddress);
+
+      return new MultiplexedTransport(this, transportFactory);
+   }
+
+   /**
+    * Registers the transport as waiting for the response to the given request and writes the request. Both happen
+    * under the same lock, so the requests are registered in the order they are written to the socket. What doesn't
+    * fit in the socket buffer is written by the selector thread.
+    */
+   void send(MultiplexedTransport transport, byte[] request) {
+      long messageId = transport.getMessageId();
+      ByteBuffer buffer = ByteBuffer.wrap(request);
+      boolean queued = false;
+      IOException failure = null;
+      synchronized (this) {
+         if (closed)
+            throw new TransportException(String.format("Connection to %s is closed", serverAddress), serverAddress);
+
+         pending.put(messageId, transport);
+         protocolVersion = transport.getVersion();
+         try {
+            if (writeQueue.isEmpty())
+               channel.write(buffer);
+            if (buffer.hasRemaining()) {
+               queued = writeQueue.isEmpty();
+               writeQueue.add(buffer);
+            }
+         } catch (IOException e) {
+            failure = e;
+         }
+      }
+      if (failure != null) {
+         TransportException cause = new TransportException("Problems writing data to stream", failure, serverAddress);
+         close(cause);
+         throw cause;
+      }
+      if (trace)
+         log.tracef("Sent request for message id %d through %s", messageId, this);
+
+      if (queued)
+         selector.execute(enableWrites);
+   }
+
+   /**
+    * Writes the requests that didn't fit in the socket buffer when they were sent. Called by the selector thread
+    * once the socket is writable.
+    */
+   void writeQueued() {
+      try {
+         synchronized (this) {
+            ByteBuffer buffer;
+            while ((buffer = writeQueue.peek()) != null) {
+               channel.write(buffer);
+               if (buffer.hasRemaining())
+                  return;
+
+               writeQueue.poll();
+            }
+            key.interestOps(SelectionKey.OP_READ);
+         }
+      } catch (IOException e) {
+         close(new TransportException("Problems writing data to stream", e, serverAddress));
+      }
+   }
+
+   /**
+    * Reads the bytes available on the socket and hands over the responses received completely. Called by the
+    * selector thread.
+    */
+   void read() {
+      try {
+         if (channel.read(readBuffer) == -1) {
+            close(new TransportException(String.format(
+                  "Connection to %s closed by the server", serverAddress), serverAddress));
+            return;
+         }
+         readBuffer.flip();
+         int length;
+         while (!closed && (length = decoder.frameLength(readBuffer)) >= 0) {
+            byte[] response = new byte[length];
+            readBuffer.get(response);
+            responseReceived(response);
+         }
+         readBuffer.compact();
+         if (!readBuffer.hasRemaining()) {
+            // The response being read is larger than the buffer
+            ByteBuffer larger = ByteBuffer.allocate(readBuffer.capacity() * 2);
+            readBuffer.flip();
+            larger.put(readBuffer);
+            readBuffer = larger;
+         }
+      } catch (IOException e) {
+         if (trace)
+            log.tracef(e, "Error reading from %s", this);
+         close(new TransportException("Problems reading data from stream", e, serverAddress));
+      } catch (InvalidResponseException e) {
+         log.invalidMultiplexedResponse(serverAddress, e.getMessage());
+         close(new TransportException(e.getMessage(), e, serverAddress));
+      }
+   }
+
+   private void responseReceived(byte[] response) {
+      long messageId = decoder.getMessageId();
+      if (messageId == 0) {
+         String message = decoder.getErrorMessage();
+         log.errorFromServer(message);
+         close(new TransportException(String.format(
+               "Server %s could not read the message id of a request: %s", serverAddress, message), serverAddress));
+         return;
+      }
+
+      MultiplexedTransport transport;
+      synchronized (this) {
+         transport = pending.remove(messageId);
+      }
+      if (transport == null)
+         return; // closed concurrently
+
+      if (trace)
+         log.tracef("Received response for message id %d through %s", messageId, this);
+      try {
+         transport.responseReceived(response);
+      } catch (RuntimeException e) {
+         log.errorInMultiplexedSelector(e);
+      }
+   }
+
+   synchronized MultiplexedTransport pendingRequest(long messageId) {
+      return pending.get(messageId);
+   }
+
+   short getProtocolVersion() {
+      return protocolVersion;
+   }
+
+   /**
+    * Fails the requests whose socket timeout expired. They stay registered until their response arrives, so that
+    * it can be dropped. Called by the selector thread.
+    */
+   void expireRequests(long now) {
+      List<MultiplexedTransport> expired = null;
+      synchronized (this) {
+         // All the requests have the same timeout, and they are registered in the order they were sent
+         for (MultiplexedTransport transport : pending.values()) {
+            if (transport.getDeadline() - now > 0)
+               break;
+
+            if (expired == null)
+               expired = new ArrayList<MultiplexedTransport>();
+            expired.add(transport);
+         }
+      }
+      if (expired != null) {
+         for (MultiplexedTransport transport : expired) {
+            try {
+               transport.timedOut();
+            } catch (RuntimeException e) {
+               log.errorInMultiplexedSelector(e);
+            }
+         }
+      }
+   }
+
+   /**
+    * Closes the socket and fails all the requests still waiting for a response.
+    */
+   public void close() {
+      close(new TransportException(String.format("Connection to %s closed", serverAddress), serverAddress));
+   }
+
+   private void close(TransportException cause) {
+      List<MultiplexedTransport> failed;
+      synchronized (this) {
+         if (closed)
+            return;
+
+         closed = true;
+         failed = new ArrayList<MultiplexedTransport>(pending.values());
+         pending.clear();
+         writeQueue.clear();
+      }
+      try {
+         // Also cancels the selection key
+         channel.close();
+         if (trace)
+            log.tracef("Successfully closed %s", this);
+      } catch (IOException e) {
+         log.errorClosingMultiplexedConnection(serverAddress, e);
+      }
+      for (MultiplexedTransport transport : failed) {
+         try {
+            transport.connectionClosed(cause);
+         } catch (RuntimeException e) {
+            log.errorInMultiplexedSelector(e);
+         }
+      }
+   }
+
+   public boolean isValid() {
+      return !closed;
+   }
+
+   public SocketAddress getServerAddress() {
+      return serverAddress;
+   }
+
+   SocketAddress getRemoteSocketAddress() {
+      return channel.socket().getRemoteSocketAddress();
+   }
+
+   @Override
+   public String toString() {
+      return "MultiplexedConnection{" +
+            "channel=" + channel +
+            ", serverAddress=" + serverAddress +
+            ", id=" + id +
+            "}";
+   }
+}
@@ -0,0 +1,138 @@
+package org.infinispan.client.hotrod.impl.transport.tcp;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.infinispan.client.hotrod.exceptions.TransportException;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+
+/**
+ * The thread doing the I/O of all the {@link MultiplexedConnection}s of a {@link MultiplexedTransportFactory}.
+ * <p/>
+ * It reads the responses as they arrive, writes the requests that didn't fit in the socket buffer when they were
+ * sent, and fails the requests whose socket timeout expired. Registering a connection and changing its interest set
+ * are done by the selector thread itself, through {@link #execute(Runnable)}.
+ *
+ * @since 7.0
+ */
+@ThreadSafe
+public class MultiplexedSelector implements Runnable {
+
+   private static final Log log = LogFactory.getLog(MultiplexedSelector.class, Log.class);
+
+   public static final String THREAD_NAME = "HotRod-client-selector";
+   private static final AtomicInteger counter = new AtomicInteger(0);
+
+   /**
+    * How often the timeouts of the requests in flight are checked.
+    */
+   private static final long TIMEOUT_CHECK_INTERVAL_MILLIS = 100;
+
+   private final Selector selector;
+   private final Thread thread;
+   private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+
+   private volatile boolean running = true;
+
+   public MultiplexedSelector() {
+      try {
+         selector = Selector.open();
+      } catch (IOException e) {
+         throw new TransportException("Could not open a selector", e, null);
+      }
+      thread = new Thread(this, THREAD_NAME + "-" + counter.getAndIncrement());
+      thread.setDaemon(true);
+      thread.start();
+   }
+
+   /**
+    * Runs the task in the selector thread.
+    */
+   void execute(Runnable task) {
+      tasks.add(task);
+      selector.wakeup();
+   }
+
+   Selector getSelector() {
+      return selector;
+   }
+
+   @Override
+   public void run() {
+      long lastTimeoutCheck = System.nanoTime();
+      try {
+         while (running) {
+            try {
+               selector.select(TIMEOUT_CHECK_INTERVAL_MILLIS);
+               runTasks();
+               processSelectedKeys();
+
+               long now = System.nanoTime();
+               if (now - lastTimeoutCheck >= TimeUnit.MILLISECONDS.toNanos(TIMEOUT_CHECK_INTERVAL_MILLIS)) {
+                  lastTimeoutCheck = now;
+                  for (SelectionKey key : selector.keys())
+                     ((MultiplexedConnection) key.attachment()).expireRequests(now);
+               }
+            } catch (Throwable t) {
+               if (running)
+                  log.errorInMultiplexedSelector(t);
+            }
+         }
+      } finally {
+         for (SelectionKey key : new ArrayList<SelectionKey>(selector.keys()))
+            ((MultiplexedConnection) key.attachment()).close();
+         try {
+            selector.close();
+         } catch (IOException e) {
+            log.tracef(e, "Error closing the selector");
+         }
+      }
+   }
+
+   private void runTasks() {
+      Runnable task;
+      while ((task = tasks.poll()) != null)
+         task.run();
+   }
+
+   private void processSelectedKeys() {
+      Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+      while (it.hasNext()) {
+         SelectionKey key = it.next();
+         it.remove();
+         MultiplexedConnection connection = (MultiplexedConnection) key.attachment();
+         try {
+            if (key.isWritable())
+               connection.writeQueued();
+            if (key.isReadable())
+               connection.read();
+         } catch (CancelledKeyException e) {
+            // The connection was closed by another thread
+         }
+      }
+   }
+
+   /**
+    * Stops the selector thread, closing the connections still registered with it.
+    */
+   public void stop() {
+      running = false;
+      selector.wakeup();
+      try {
+         thread.join(TimeUnit.SECONDS.toMillis(10));
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+   }
+}
@@ -0,0 +1,333 @@
+package org.infinispan.client.hotrod.impl.transport.tcp;
+
+import static org.infinispan.commons.io.UnsignedNumeric.readUnsignedInt;
+import static org.infinispan.commons.io.UnsignedNumeric.readUnsignedLong;
+import static org.infinispan.commons.io.UnsignedNumeric.writeUnsignedInt;
+import static org.infinispan.commons.io.UnsignedNumeric.writeUnsignedLong;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.NotThreadSafe;
+
+import org.infinispan.client.hotrod.exceptions.TransportException;
+import org.infinispan.client.hotrod.impl.transport.AbstractTransport;
+import org.infinispan.client.hotrod.impl.transport.NonBlockingTransport;
+import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+
+/**
+ * Transport used for a single request/response exchange over a {@link MultiplexedConnection}.
+ * <p/>
+ * The request is buffered in memory and written to the connection in one go on {@link #flush()}. The connection
+ * decodes the complete response before handing it over, so reading it never touches the socket. The first read
+ * waits until the response is received, or until the socket timeout expires; {@link #whenResponseReceived(Runnable)}
+ * lets asynchronous operations be called back instead. A request that times out only fails on its own: its late
+ * response is dropped by the connection.
+ *
+ * @since 7.0
+ */
+@NotThreadSafe
+public class MultiplexedTransport extends AbstractTransport implements NonBlockingTransport {
+
+   private static final Log log = LogFactory.getLog(MultiplexedTransport.class, Log.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private final MultiplexedConnection connection;
+   private final ByteArrayOutputStream request = new ByteArrayOutputStream();
+   private final CountDownLatch responseLatch = new CountDownLatch(1);
+
+   @GuardedBy("this")
+   private boolean completed;
+   @GuardedBy("this")
+   private Runnable callback;
+
+   private volatile InputStream response;
+   private volatile TransportException failure;
+   private volatile boolean invalid;
+   private boolean sent;
+
+   private long messageId;
+   private short version;
+   private short requestOpCode;
+   private int requestFlags;
+   private long deadline;
+
+   MultiplexedTransport(MultiplexedConnection connection, TransportFactory transportFactory) {
+      super(transportFactory);
+      this.connection = connection;
+   }
+
+   @Override
+   public void writeVInt(int vInt) {
+      try {
+         writeUnsignedInt(request, vInt);
+      } catch (IOException e) {
+         throw new TransportException(e, getServerAddress());
+      }
+   }
+
+   @Override
+   public void writeVLong(long l) {
+      try {
+         writeUnsignedLong(request, l);
+      } catch (IOException e) {
+         throw new TransportException(e, getServerAddress());
+      }
+   }
+
+   @Override
+   protected void writeBytes(byte[] toAppend) {
+      request.write(toAppend, 0, toAppend.length);
+   }
+
+   @Override
+   public void writeByte(short toWrite) {
+      request.write(toWrite);
+   }
+
+   @Override
+   public void flush() {
+      if (sent)
+         throw new IllegalStateException("The request was already sent through " + this);
+
+      byte[] bytes = request.toByteArray();
+      request.reset();
+      sent = true;
+      readRequestHeader(bytes);
+      deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(getTransportFactory().getSoTimeout());
+      try {
+         connection.send(this, bytes);
+      } catch (TransportException e) {
+         invalid = true;
+         throw e;
+      }
+   }
+
+   /**
+    * Keeps the message id, version, operation code and flags of the request, which the connection needs to find
+    * where its response ends.
+    */
+   private void readRequestHeader(byte[] bytes) {
+      try {
+         InputStream in = new ByteArrayInputStream(bytes);
+         in.read(); // magic
+         messageId = readUnsignedLong(in);
+         version = (short) in.read();
+         requestOpCode = (short) in.read();
+         in.skip(readUnsignedInt(in)); // cache name
+         requestFlags = readUnsignedInt(in);
+      } catch (IOException e) {
+         throw new TransportException(e, getServerAddress());
+      }
+   }
+
+   @Override
+   public long readVLong() {
+      try {
+         return readUnsignedLong(response());
+      } catch (IOException e) {
+         throw new TransportException(e, getServerAddress());
+      }
+   }
+
+   @Override
+   public int readVInt() {
+      try {
+         return readUnsignedInt(response());
+      } catch (IOException e) {
+         throw new TransportException(e, getServerAddress());
+      }
+   }
+
+   @Override
+   public short readByte() {
+      int resultInt;
+      try {
+         resultInt = response().read();
+      } catch (IOException e) {
+         throw new TransportException(e, getServerAddress());
+      }
+      if (resultInt == -1)
+         throw new TransportException("End of response reached!", getServerAddress());
+      return (short) resultInt;
+   }
+
+   @Override
+   public byte[] readByteArray(int size) {
+      byte[] result = new byte[size];
+      int offset = 0;
+      try {
+         InputStream in = response();
+         while (offset < size) {
+            int read = in.read(result, offset, size - offset);
+            if (read == -1)
+               throw new TransportException("End of response reached!", getServerAddress());
+            offset += read;
+         }
+      } catch (IOException e) {
+         throw new TransportException(e, getServerAddress());
+      }
+      if (trace) {
+         log.tracef("Successfully read array with size: %d", size);
+      }
+      return result;
+   }
+
+   /**
+    * Waits for the connection to hand over the response to this transport's request.
+    */
+   private InputStream response() {
+      InputStream in = response;
+      if (in != null)
+         return in;
+
+      if (!sent)
+         throw new IllegalStateException("Reading the response of a request that was not sent: " + this);
+
+      try {
+         if (!responseLatch.await(getTransportFactory().getSoTimeout(), TimeUnit.MILLISECONDS))
+            timedOut();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         failed(new TransportException(e, getServerAddress()));
+      }
+      in = response;
+      if (in == null)
+         throw failure;
+      return in;
+   }
+
+   @Override
+   public void whenResponseReceived(Runnable callback) {
+      if (!sent)
+         throw new IllegalStateException("Waiting for the response of a request that was not sent: " + this);
+
+      synchronized (this) {
+         if (!completed) {
+            this.callback = callback;
+            return;
+         }
+      }
+      callback.run();
+   }
+
+   void responseReceived(byte[] bytes) {
+      complete(new ByteArrayInputStream(bytes), null);
+   }
+
+   /**
+    * Fails the request after the socket timeout. The connection is still usable by the other requests, and drops
+    * the response if it arrives later.
+    */
+   void timedOut() {
+      if (complete(null, new TransportException(String.format(
+            "Timed out waiting for a response from %s", getServerAddress()), getServerAddress())) && trace)
+         log.tracef("Request for message id %d timed out on %s", messageId, connection);
+   }
+
+   void connectionClosed(TransportException cause) {
+      invalid = true;
+      complete(null, cause);
+   }
+
+   private void failed(TransportException cause) {
+      complete(null, cause);
+   }
+
+   private boolean complete(InputStream in, TransportException cause) {
+      Runnable callback;
+      synchronized (this) {
+         if (completed)
+            return false;
+
+         completed = true;
+         failure = cause;
+         response = in;
+         callback = this.callback;
+      }
+      responseLatch.countDown();
+      if (callback != null)
+         callback.run();
+      return true;
+   }
+
+   @Override
+   public void release() {
+      // Nothing to give back: the response is dropped by the connection if it arrives after the release
+   }
+
+   @Override
+   public byte[] dumpStream() {
+      InputStream in = response;
+      if (in == null)
+         return new byte[0];
+
+      ByteArrayOutputStream remaining = new ByteArrayOutputStream();
+      int b;
+      try {
+         while ((b = in.read()) != -1)
+            remaining.write(b);
+      } catch (IOException e) {
+         // Can't happen with an in-memory response
+      }
+      return remaining.toByteArray();
+   }
+
+   @Override
+   public SocketAddress getRemoteSocketAddress() {
+      return connection.getRemoteSocketAddress();
+   }
+
+   @Override
+   public void invalidate() {
+      invalid = true;
+   }
+
+   public boolean isValid() {
+      return !invalid && connection.isValid();
+   }
+
+   public SocketAddress getServerAddress() {
+      return connection.getServerAddress();
+   }
+
+   long getMessageId() {
+      return messageId;
+   }
+
+   short getVersion() {
+      return version;
+   }
+
+   short getRequestOpCode() {
+      return requestOpCode;
+   }
+
+   int getRequestFlags() {
+      return requestFlags;
+   }
+
+   long getDeadline() {
+      return deadline;
+   }
+
+   public MultiplexedConnection getConnection() {
+      return connection;
+   }
+
+   @Override
+   public String toString() {
+      return "MultiplexedTransport{" +
+            "messageId=" + messageId +
+            ", connection=" + connection +
+            "}";
+   }
+}
@@ -0,0 +1,132 @@
+package org.infinispan.client.hotrod.impl.transport.tcp;
+
+import java.net.SocketAddress;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.infinispan.client.hotrod.configuration.Configuration;
+import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.transport.Transport;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+
+/**
+ * Transport factory that keeps a single {@link MultiplexedConnection} per server and pipelines all the requests
+ * to that server through it, instead of borrowing a dedicated connection from the pool for every request.
+ * <p/>
+ * Many requests can be in flight on the same socket, and their responses are matched to the requests by message
+ * id. This keeps the number of sockets independent from the number of threads using the client. The sockets are
+ * non-blocking, and a single {@link MultiplexedSelector} thread does their I/O, so no thread waits for a response
+ * unless the operation itself is synchronous. Server selection, topology and consistent hash handling are the same
+ * as in {@link TcpTransportFactory}. SSL is not supported yet, so pooled connections are used when it is enabled.
+ * <p/>
+ * It can be enabled with {@link org.infinispan.client.hotrod.configuration.ConfigurationBuilder#transportFactory(Class)}
+ * or the <tt>infinispan.client.hotrod.transport_factory</tt> property.
+ *
+ * @since 7.0
+ */
+@ThreadSafe
+public class MultiplexedTransportFactory extends TcpTransportFactory {
+
+   private static final Log log = LogFactory.getLog(MultiplexedTransportFactory.class, Log.class);
+
+   private final ConcurrentMap<SocketAddress, MultiplexedConnection> connections =
+         new ConcurrentHashMap<SocketAddress, MultiplexedConnection>();
+
+   private volatile MultiplexedSelector selector;
+
+   @Override
+   public void start(Codec codec, Configuration configuration, AtomicInteger topologyId) {
+      super.start(codec, configuration, topologyId);
+      if (getSSLContext() != null)
+         log.multiplexedConnectionsWithoutSsl();
+      else
+         selector = new MultiplexedSelector();
+   }
+
+   @Override
+   protected Transport borrowTransport(SocketAddress server) {
+      if (selector == null)
+         return super.borrowTransport(server);
+
+      return getConnection(server).newTransport();
+   }
+
+   private MultiplexedConnection getConnection(SocketAddress server) {
+      MultiplexedConnection connection = connections.get(server);
+      if (connection == null || !connection.isValid()) {
+         synchronized (connections) {
+            connection = connections.get(server);
+            if (connection == null || !connection.isValid()) {
+               connection = new MultiplexedConnection(server, this, selector);
+               if (log.isTraceEnabled()) {
+                  log.tracef("Created multiplexed connection: %s", connection);
+               }
+               connections.put(server, connection);
+            }
+         }
+      }
+      return connection;
+   }
+
+   @Override
+   public void releaseTransport(Transport transport) {
+      if (!(transport instanceof MultiplexedTransport)) {
+         super.releaseTransport(transport);
+      } else {
+         MultiplexedTransport multiplexedTransport = (MultiplexedTransport) transport;
+         // Responses are decoded apart from each other, so only a failed connection or a protocol error flagged by
+         // the codec make the connection unusable, not a response read partially
+         if (!multiplexedTransport.isValid())
+            multiplexedTransport.getConnection().close();
+      }
+   }
+
+   @Override
+   public void invalidateTransport(SocketAddress serverAddress, Transport transport) {
+      if (selector == null) {
+         super.invalidateTransport(serverAddress, transport);
+      } else if (transport != null) {
+         // A request that timed out only fails on its own, and the connection is still usable by the others
+         MultiplexedTransport multiplexedTransport = (MultiplexedTransport) transport;
+         if (!multiplexedTransport.isValid())
+            multiplexedTransport.getConnection().close();
+      } else {
+         // Invalidate all connections to the server, as with the pool
+         MultiplexedConnection connection = connections.remove(serverAddress);
+         if (connection != null)
+            connection.close();
+      }
+   }
+
+   @Override
+   public void updateServers(Collection<SocketAddress> newServers) {
+      super.updateServers(newServers);
+      Iterator<Map.Entry<SocketAddress, MultiplexedConnection>> it = connections.entrySet().iterator();
+      while (it.hasNext()) {
+         Map.Entry<SocketAddress, MultiplexedConnection> entry = it.next();
+         if (!newServers.contains(entry.getKey())) {
+            entry.getValue().close();
+            it.remove();
+         }
+      }
+   }
+
+   @Override
+   public void destroy() {
+      synchronized (connections) {
+         for (MultiplexedConnection connection : connections.values())
+            connection.close();
+         connections.clear();
+      }
+      if (selector != null)
+         selector.stop();
+      super.destroy();
+   }
+}
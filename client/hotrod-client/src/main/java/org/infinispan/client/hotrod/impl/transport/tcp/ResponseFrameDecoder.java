@@ -0,0 +1,233 @@
+package org.infinispan.client.hotrod.impl.transport.tcp;
+
+import java.nio.ByteBuffer;
+
+import net.jcip.annotations.NotThreadSafe;
+
+import org.infinispan.client.hotrod.Flag;
+import org.infinispan.client.hotrod.exceptions.InvalidResponseException;
+import org.infinispan.client.hotrod.impl.protocol.HotRodConstants;
+
+/**
+ * Finds where the responses received by a {@link MultiplexedConnection} end.
+ * <p/>
+ * Hot Rod responses carry no length, so the decoder walks the header and the body of each response, as described
+ * in the <a href="http://community.jboss.org/wiki/HotRodProtocol">Hot Rod protocol specification</a>, using the
+ * version, operation code and flags of the request with the same message id. It only skips over the fields: the
+ * operation decodes the complete response once it has been handed over.
+ *
+ * @since 7.0
+ */
+@NotThreadSafe
+class ResponseFrameDecoder {
+
+   /**
+    * Signals that the buffer ends before the response does.
+    */
+   private static final class Incomplete extends Exception {
+      @Override
+      public synchronized Throwable fillInStackTrace() {
+         return this;
+      }
+   }
+
+   private static final Incomplete INCOMPLETE = new Incomplete();
+
+   private final MultiplexedConnection connection;
+
+   private long messageId;
+   private short status;
+   private String errorMessage;
+
+   ResponseFrameDecoder(MultiplexedConnection connection) {
+      this.connection = connection;
+   }
+
+   /**
+    * Returns the length of the response starting at the position of the buffer, or -1 if the buffer doesn't hold all
+    * of it yet. The position of the buffer is left unchanged.
+    *
+    * @throws InvalidResponseException if the response can't be parsed, which leaves the connection unusable
+    */
+   int frameLength(ByteBuffer in) {
+      int start = in.position();
+      try {
+         short magic = readByte(in);
+         if (magic != HotRodConstants.RESPONSE_MAGIC)
+            throw new InvalidResponseException(String.format(
+                  "Invalid magic number. Expected %#x and received %#x", HotRodConstants.RESPONSE_MAGIC, magic));
+
+         messageId = readVLong(in);
+         // Errors detected before the server could read the message id are reported with message id 0
+         MultiplexedTransport request = messageId != 0 ? connection.pendingRequest(messageId) : null;
+         if (messageId != 0 && request == null)
+            throw new InvalidResponseException(String.format("Unknown message id %d", messageId));
+
+         short opCode = readByte(in);
+         status = readByte(in);
+         errorMessage = null;
+         if (readByte(in) == 1)
+            skipTopology(in, request != null ? request.getVersion() : connection.getProtocolVersion());
+
+         if (opCode == HotRodConstants.ERROR_RESPONSE) {
+            // The body of an error response is just a message
+            errorMessage = readString(in);
+         } else if (request == null) {
+            throw new InvalidResponseException(String.format(
+                  "Invalid response operation %#x for message id 0", opCode));
+         } else {
+            skipBody(in, request);
+         }
+         return in.position() - start;
+      } catch (Incomplete e) {
+         return -1;
+      } finally {
+         in.position(start);
+      }
+   }
+
+   long getMessageId() {
+      return messageId;
+   }
+
+   short getStatus() {
+      return status;
+   }
+
+   /**
+    * Returns the message of the last response if it was an error response, or null otherwise.
+    */
+   String getErrorMessage() {
+      return errorMessage;
+   }
+
+   private void skipTopology(ByteBuffer in, short version) throws Incomplete {
+      readVInt(in); // topology id
+      skip(in, 2); // num key owners
+      readByte(in); // hash function version
+      readVInt(in); // hash space
+      int clusterSize = readVInt(in);
+      if (version >= HotRodConstants.VERSION_11)
+         readVInt(in); // num virtual nodes
+      for (int i = 0; i < clusterSize; i++) {
+         skipArray(in); // host
+         skip(in, 2); // port
+         skip(in, 4); // hash code
+      }
+   }
+
+   private void skipBody(ByteBuffer in, MultiplexedTransport request) throws Incomplete {
+      boolean success = status == HotRodConstants.NO_ERROR_STATUS;
+      switch (request.getRequestOpCode()) {
+         case HotRodConstants.GET_REQUEST:
+            if (success)
+               skipArray(in);
+            break;
+         case HotRodConstants.GET_WITH_VERSION:
+            if (success) {
+               skip(in, 8);
+               skipArray(in);
+            }
+            break;
+         case HotRodConstants.GET_WITH_METADATA:
+            if (success) {
+               short flags = readByte(in);
+               if ((flags & HotRodConstants.INFINITE_LIFESPAN) != HotRodConstants.INFINITE_LIFESPAN) {
+                  skip(in, 8);
+                  readVInt(in);
+               }
+               if ((flags & HotRodConstants.INFINITE_MAXIDLE) != HotRodConstants.INFINITE_MAXIDLE) {
+                  skip(in, 8);
+                  readVInt(in);
+               }
+               skip(in, 8);
+               skipArray(in);
+            }
+            break;
+         case HotRodConstants.PUT_REQUEST:
+         case HotRodConstants.PUT_IF_ABSENT_REQUEST:
+         case HotRodConstants.REPLACE_REQUEST:
+         case HotRodConstants.REPLACE_IF_UNMODIFIED_REQUEST:
+         case HotRodConstants.REMOVE_REQUEST:
+         case HotRodConstants.REMOVE_IF_UNMODIFIED_REQUEST:
+            // The server always returns the previous value, possibly empty, when it was asked for it
+            if ((request.getRequestFlags() & Flag.FORCE_RETURN_VALUE.getFlagInt()) != 0)
+               skipArray(in);
+            break;
+         case HotRodConstants.STATS_REQUEST:
+            int numStats = readVInt(in);
+            for (int i = 0; i < numStats; i++) {
+               skipArray(in);
+               skipArray(in);
+            }
+            break;
+         case HotRodConstants.BULK_GET_REQUEST:
+            while (readByte(in) == 1) {
+               skipArray(in);
+               skipArray(in);
+            }
+            break;
+         case HotRodConstants.BULK_GET_KEYS_REQUEST:
+            while (readByte(in) == 1)
+               skipArray(in);
+            break;
+         case HotRodConstants.QUERY_REQUEST:
+            skipArray(in);
+            break;
+         case HotRodConstants.GET_ALL_REQUEST:
+            int numEntries = readVInt(in);
+            for (int i = 0; i < numEntries; i++) {
+               skipArray(in);
+               skipArray(in);
+            }
+            break;
+         case HotRodConstants.CONTAINS_KEY_REQUEST:
+         case HotRodConstants.CLEAR_REQUEST:
+         case HotRodConstants.PING_REQUEST:
+         case HotRodConstants.PUT_ALL_REQUEST:
+            break;
+         default:
+            throw new InvalidResponseException(String.format(
+                  "Can't find the end of the response to operation %#x", request.getRequestOpCode()));
+      }
+   }
+
+   private static short readByte(ByteBuffer in) throws Incomplete {
+      if (!in.hasRemaining())
+         throw INCOMPLETE;
+      return (short) (in.get() & 0xFF);
+   }
+
+   private static int readVInt(ByteBuffer in) throws Incomplete {
+      return (int) readVLong(in);
+   }
+
+   private static long readVLong(ByteBuffer in) throws Incomplete {
+      short b = readByte(in);
+      long i = b & 0x7F;
+      for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+         b = readByte(in);
+         i |= (b & 0x7FL) << shift;
+      }
+      return i;
+   }
+
+   private static void skip(ByteBuffer in, int length) throws Incomplete {
+      if (in.remaining() < length)
+         throw INCOMPLETE;
+      in.position(in.position() + length);
+   }
+
+   private static void skipArray(ByteBuffer in) throws Incomplete {
+      skip(in, readVInt(in));
+   }
+
+   private static String readString(ByteBuffer in) throws Incomplete {
+      int length = readVInt(in);
+      if (in.remaining() < length)
+         throw INCOMPLETE;
+      byte[] bytes = new byte[length];
+      in.get(bytes);
+      return new String(bytes, HotRodConstants.HOTROD_STRING_CHARSET);
+   }
+}
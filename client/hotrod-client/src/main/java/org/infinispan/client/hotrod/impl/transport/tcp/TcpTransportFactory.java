@@ -162,7 +162,7 @@ public Transport getTransport() {
       synchronized (lock) {
          server = balancer.nextServer();
       }
-      return borrowTransportFromPool(server);
+      return borrowTransport(server);
    }
 
    @Override
@@ -181,7 +181,19 @@ public Transport getTransport(byte[] key) {
             }
          }
       }
-      return borrowTransportFromPool(server);
+      return borrowTransport(server);
+   }
+
+   @Override
+   public SocketAddress getSocketAddress(byte[] key) {
+      synchronized (lock) {
+         return consistentHash != null ? consistentHash.getServer(key) : null;
+      }
+   }
+
+   @Override
+   public Transport getAddressTransport(SocketAddress server) {
+      return borrowTransport(server);
    }
 
    @Override
@@ -265,6 +277,7 @@ public void updateServers(Collection<SocketAddress> newServers) {
       }
    }
 
+   @Override
    public Collection<SocketAddress> getServers() {
       synchronized (lock) {
          return servers;
@@ -279,7 +292,10 @@ private void logConnectionInfo(SocketAddress server) {
       }
    }
 
-   private Transport borrowTransportFromPool(SocketAddress server) {
+   /**
+    * Returns a transport for the given server, borrowed from the connection pool.
+    */
+   protected Transport borrowTransport(SocketAddress server) {
       // The borrowObject() call could take a long time, so we hold the lock only until we get the connection pool reference
       KeyedObjectPool<SocketAddress, TcpTransport> pool = getConnectionPool();
       try {
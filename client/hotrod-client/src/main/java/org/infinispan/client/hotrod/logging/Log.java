@@ -131,4 +131,27 @@ public interface Log extends BasicLogger {
 
    @Message(value = "Invalid max_retries (value=%s). Value should be greater or equal than zero.", id = 4029)
    CacheConfigurationException invalidMaxRetries(int retriesPerServer);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Issues closing multiplexed connection to %s", id = 4030)
+   void errorClosingMultiplexedConnection(SocketAddress serverAddress, @Cause IOException e);
+
+   @LogMessage(level = ERROR)
+   @Message(value = "Received an invalid response from server %s, closing the connection: %s", id = 4031)
+   void invalidMultiplexedResponse(SocketAddress serverAddress, String reason);
+
+   @Message(value = "Near caching requires protocol version 1.4 or later, but protocol version %s is configured", id = 4032)
+   CacheConfigurationException nearCacheRequiresProtocolVersion14(String protocolVersion);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Lost the near cache invalidation events of cache '%s' from server %s, clearing the near cache and reconnecting", id = 4033)
+   void nearCacheInvalidationsLost(String cacheName, SocketAddress serverAddress, @Cause Exception e);
+
+   @LogMessage(level = ERROR)
+   @Message(value = "Unexpected error in the selector of the multiplexed connections", id = 4034)
+   void errorInMultiplexedSelector(@Cause Throwable t);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Multiplexed connections don't support SSL, using pooled connections instead", id = 4035)
+   void multiplexedConnectionsWithoutSsl();
 }
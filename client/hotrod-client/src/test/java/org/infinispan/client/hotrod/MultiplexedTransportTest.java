@@ -0,0 +1,209 @@
+package org.infinispan.client.hotrod;
+
+import org.infinispan.client.hotrod.configuration.ConfigurationBuilder;
+import org.infinispan.client.hotrod.exceptions.TransportException;
+import org.infinispan.client.hotrod.impl.ConfigurationProperties;
+import org.infinispan.client.hotrod.impl.transport.tcp.MultiplexedConnection;
+import org.infinispan.client.hotrod.impl.transport.tcp.MultiplexedTransportFactory;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated;
+import org.infinispan.notifications.cachelistener.event.CacheEntryEvent;
+import org.infinispan.server.hotrod.HotRodServer;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.infinispan.client.hotrod.test.HotRodClientTestingUtil.killRemoteCacheManager;
+import static org.infinispan.client.hotrod.test.HotRodClientTestingUtil.killServers;
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.hotRodCacheConfiguration;
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.unmarshall;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.AssertJUnit.fail;
+
+/**
+ * Tests that concurrent requests pipelined through a single connection by {@link MultiplexedTransportFactory} get
+ * their own responses back, and that asynchronous requests don't hold a thread while waiting for them.
+ *
+ * @since 7.0
+ */
+@Test(testName = "client.hotrod.MultiplexedTransportTest", groups = "functional")
+public class MultiplexedTransportTest extends SingleCacheManagerTest {
+
+   private static final int NUM_THREADS = 10;
+   private static final int NUM_KEYS = 100;
+
+   private HotRodServer hotRodServer;
+   private RemoteCacheManager remoteCacheManager;
+   private RemoteCache<String, String> remoteCache;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      cacheManager = TestCacheManagerFactory.createCacheManager(hotRodCacheConfiguration());
+      hotRodServer = TestHelper.startHotRodServer(cacheManager);
+
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.addServer().host(hotRodServer.getHost()).port(hotRodServer.getPort())
+            .transportFactory(MultiplexedTransportFactory.class);
+      remoteCacheManager = new RemoteCacheManager(builder.build());
+      remoteCache = remoteCacheManager.getCache();
+      return cacheManager;
+   }
+
+   @AfterClass
+   @Override
+   protected void destroyAfterClass() {
+      super.destroyAfterClass();
+      killRemoteCacheManager(remoteCacheManager);
+      killServers(hotRodServer);
+   }
+
+   public void testConcurrentRequestsShareOneConnection() throws Exception {
+      List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      for (int i = 0; i < NUM_THREADS; i++) {
+         final String prefix = "t" + i + "-";
+         futures.add(fork(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+               for (int j = 0; j < NUM_KEYS; j++) {
+                  String key = prefix + j;
+                  assertNull(remoteCache.get(key));
+                  remoteCache.put(key, "v" + j);
+                  assertEquals("v" + j, remoteCache.get(key));
+               }
+               return null;
+            }
+         }));
+      }
+      for (Future<Void> future : futures) {
+         future.get();
+      }
+
+      assertEquals(NUM_THREADS * NUM_KEYS, cache.size());
+      MultiplexedTransportFactory transportFactory = (MultiplexedTransportFactory)
+            TestingUtil.extractField(remoteCacheManager, "transportFactory");
+      Map<?, ?> connections = (Map<?, ?>) TestingUtil.extractField(transportFactory, "connections");
+      assertEquals(1, connections.size());
+   }
+
+   public void testAsyncRequests() throws Exception {
+      List<Future<String>> futures = new ArrayList<Future<String>>();
+      for (int i = 0; i < NUM_KEYS; i++) {
+         futures.add(remoteCache.putAsync("async-" + i, "v" + i));
+      }
+      for (Future<String> future : futures) {
+         future.get();
+      }
+      for (int i = 0; i < NUM_KEYS; i++) {
+         assertEquals("v" + i, remoteCache.get("async-" + i));
+      }
+   }
+
+   public void testAsyncRequestsDontHoldExecutorThreads() throws Exception {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.addServer().host(hotRodServer.getHost()).port(hotRodServer.getPort())
+            .transportFactory(MultiplexedTransportFactory.class)
+            .asyncExecutorFactory().addExecutorProperty(ConfigurationProperties.DEFAULT_EXECUTOR_FACTORY_POOL_SIZE, "1");
+      RemoteCacheManager singleThreadCacheManager = new RemoteCacheManager(builder.build());
+      SlowListener listener = new SlowListener("slow-async", 2000);
+      cache.addListener(listener);
+      try {
+         RemoteCache<String, String> singleThreadCache = singleThreadCacheManager.getCache();
+         Future<String> slowPut = singleThreadCache.putAsync("slow-async", "v1");
+
+         // The only thread of the async executor is free while the put waits for its response
+         ExecutorService asyncExecutor = (ExecutorService)
+               TestingUtil.extractField(singleThreadCacheManager, "asyncExecutorService");
+         Future<Boolean> probe = asyncExecutor.submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+               return Boolean.TRUE;
+            }
+         });
+         assertTrue(probe.get(1, TimeUnit.SECONDS));
+         assertFalse(slowPut.isDone());
+
+         assertNull(slowPut.get(10, TimeUnit.SECONDS));
+         assertTrue(listener.done.await(10, TimeUnit.SECONDS));
+         assertEquals("v1", singleThreadCache.getAsync("slow-async").get(10, TimeUnit.SECONDS));
+      } finally {
+         cache.removeListener(listener);
+         killRemoteCacheManager(singleThreadCacheManager);
+      }
+   }
+
+   public void testTimeoutOnlyFailsItsOwnRequest() throws Exception {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.addServer().host(hotRodServer.getHost()).port(hotRodServer.getPort())
+            .transportFactory(MultiplexedTransportFactory.class).socketTimeout(1000).maxRetries(0);
+      RemoteCacheManager timingOutCacheManager = new RemoteCacheManager(builder.build());
+      SlowListener listener = new SlowListener("slow", 2000);
+      cache.addListener(listener);
+      try {
+         RemoteCache<String, String> timingOutCache = timingOutCacheManager.getCache();
+         timingOutCache.put("fast", "v1");
+         MultiplexedConnection connection = connection(timingOutCacheManager);
+
+         try {
+            timingOutCache.withFlags(Flag.FORCE_RETURN_VALUE).put("slow", "v2");
+            fail("The put should have timed out");
+         } catch (TransportException expected) {
+         }
+         assertTrue(connection.isValid());
+
+         // The late response of the put is skipped, and the next one is read from the same connection
+         assertTrue(listener.done.await(10, TimeUnit.SECONDS));
+         assertEquals("v1", timingOutCache.get("fast"));
+         assertEquals("v2", timingOutCache.get("slow"));
+         assertSame(connection, connection(timingOutCacheManager));
+         assertTrue(connection.isValid());
+      } finally {
+         cache.removeListener(listener);
+         killRemoteCacheManager(timingOutCacheManager);
+      }
+   }
+
+   private MultiplexedConnection connection(RemoteCacheManager remoteCacheManager) {
+      MultiplexedTransportFactory transportFactory = (MultiplexedTransportFactory)
+            TestingUtil.extractField(remoteCacheManager, "transportFactory");
+      Map<?, ?> connections = (Map<?, ?>) TestingUtil.extractField(transportFactory, "connections");
+      assertEquals(1, connections.size());
+      return (MultiplexedConnection) connections.values().iterator().next();
+   }
+
+   @Listener
+   public static class SlowListener {
+      private final String key;
+      private final long delay;
+      final CountDownLatch done = new CountDownLatch(1);
+
+      SlowListener(String key, long delay) {
+         this.key = key;
+         this.delay = delay;
+      }
+
+      @CacheEntryCreated
+      @SuppressWarnings("unused")
+      public void entryCreated(CacheEntryEvent<byte[], byte[]> event) throws Exception {
+         if (event.isPre() && key.equals(unmarshall(event.getKey()))) {
+            Thread.sleep(delay);
+            done.countDown();
+         }
+      }
+   }
+}
@@ -0,0 +1,123 @@
+package org.infinispan.client.hotrod;
+
+import org.infinispan.client.hotrod.configuration.ConfigurationBuilder;
+import org.infinispan.client.hotrod.configuration.NearCacheMode;
+import org.infinispan.client.hotrod.impl.InvalidatedNearRemoteCache;
+import org.infinispan.client.hotrod.impl.nearcache.NearCache;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.server.hotrod.HotRodServer;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import static org.infinispan.client.hotrod.test.HotRodClientTestingUtil.killRemoteCacheManager;
+import static org.infinispan.client.hotrod.test.HotRodClientTestingUtil.killServers;
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.hotRodCacheConfiguration;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+
+/**
+ * Tests that the near cache serves the reads locally, and that the entries modified through other clients are
+ * invalidated in it.
+ *
+ * @since 7.0
+ */
+@Test(testName = "client.hotrod.NearCacheInvalidationTest", groups = "functional")
+public class NearCacheInvalidationTest extends SingleCacheManagerTest {
+
+   private HotRodServer hotRodServer;
+   private RemoteCacheManager nearRemoteCacheManager;
+   private RemoteCacheManager remoteCacheManager;
+   private InvalidatedNearRemoteCache<String, String> nearRemoteCache;
+   private RemoteCache<String, String> remoteCache;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      cacheManager = TestCacheManagerFactory.createCacheManager(hotRodCacheConfiguration());
+      hotRodServer = TestHelper.startHotRodServer(cacheManager);
+
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.addServer().host(hotRodServer.getHost()).port(hotRodServer.getPort())
+            .nearCache().mode(NearCacheMode.INVALIDATED).maxEntries(10);
+      nearRemoteCacheManager = new RemoteCacheManager(builder.build());
+      nearRemoteCache = (InvalidatedNearRemoteCache<String, String>) nearRemoteCacheManager.<String, String>getCache();
+
+      remoteCacheManager = new RemoteCacheManager("127.0.0.1:" + hotRodServer.getPort());
+      remoteCache = remoteCacheManager.getCache();
+      return cacheManager;
+   }
+
+   @AfterClass
+   @Override
+   protected void destroyAfterClass() {
+      super.destroyAfterClass();
+      killRemoteCacheManager(nearRemoteCacheManager);
+      killRemoteCacheManager(remoteCacheManager);
+      killServers(hotRodServer);
+   }
+
+   public void testReadsServedLocallyUntilInvalidated() throws Exception {
+      final NearCache<String, String> nearCache = nearRemoteCache.getNearCache();
+      remoteCache.put("k", "v1");
+      waitForNearCacheToBeEnabled();
+
+      assertEquals("v1", nearRemoteCache.get("k"));
+      assertNotNull(nearCache.get("k"));
+      // Changed behind the client's back, so only the near cache has the old value
+      cache.getAdvancedCache().withFlags(org.infinispan.context.Flag.SKIP_LISTENER_NOTIFICATION)
+            .put(marshall("k"), marshall("v2"));
+      assertEquals("v1", nearRemoteCache.get("k"));
+
+      remoteCache.put("k", "v3");
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return nearCache.get("k") == null;
+         }
+      });
+      assertEquals("v3", nearRemoteCache.get("k"));
+
+      remoteCache.remove("k");
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return nearCache.get("k") == null;
+         }
+      });
+      assertNull(nearRemoteCache.get("k"));
+   }
+
+   public void testOwnWritesReadBack() {
+      nearRemoteCache.put("own", "v1");
+      assertEquals("v1", nearRemoteCache.get("own"));
+      nearRemoteCache.put("own", "v2");
+      assertEquals("v2", nearRemoteCache.get("own"));
+      nearRemoteCache.remove("own");
+      assertNull(nearRemoteCache.get("own"));
+   }
+
+   public void testMaxEntries() throws Exception {
+      waitForNearCacheToBeEnabled();
+      for (int i = 0; i < 20; i++) {
+         remoteCache.put("bounded-" + i, "v" + i);
+         assertEquals("v" + i, nearRemoteCache.get("bounded-" + i));
+      }
+      assertEquals(10, nearRemoteCache.getNearCache().size());
+   }
+
+   private void waitForNearCacheToBeEnabled() {
+      // Nothing is cached until the invalidation events are being received
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return nearRemoteCache.getNearCache().isEnabled();
+         }
+      });
+   }
+
+   private byte[] marshall(Object o) throws Exception {
+      return nearRemoteCacheManager.getMarshaller().objectToByteBuffer(o);
+   }
+}
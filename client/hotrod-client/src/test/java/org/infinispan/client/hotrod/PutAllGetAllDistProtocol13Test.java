@@ -0,0 +1,22 @@
+package org.infinispan.client.hotrod;
+
+import org.infinispan.client.hotrod.configuration.ConfigurationBuilder;
+import org.infinispan.client.hotrod.impl.ConfigurationProperties;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that put all and get all fall back to one request per key with a protocol version older than 1.4, which
+ * has no bulk operations.
+ *
+ * @since 7.0
+ */
+@Test(testName = "client.hotrod.PutAllGetAllDistProtocol13Test", groups = "functional")
+public class PutAllGetAllDistProtocol13Test extends PutAllGetAllDistTest {
+
+   @Override
+   protected RemoteCacheManager createRemoteCacheManager(String servers) {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.addServers(servers).protocolVersion(ConfigurationProperties.PROTOCOL_VERSION_13);
+      return new RemoteCacheManager(builder.build());
+   }
+}
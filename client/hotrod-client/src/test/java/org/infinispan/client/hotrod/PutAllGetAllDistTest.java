@@ -0,0 +1,81 @@
+package org.infinispan.client.hotrod;
+
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.server.hotrod.HotRodServer;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.infinispan.client.hotrod.test.HotRodClientTestingUtil.killRemoteCacheManager;
+import static org.infinispan.client.hotrod.test.HotRodClientTestingUtil.killServers;
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.hotRodCacheConfiguration;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+
+/**
+ * Tests the bulk put all and get all operations against a distributed cluster, where the entries are split by
+ * owner on the client side.
+ *
+ * @since 7.0
+ */
+@Test(testName = "client.hotrod.PutAllGetAllDistTest", groups = "functional")
+public class PutAllGetAllDistTest extends MultipleCacheManagersTest {
+
+   private static final int NUM_SERVERS = 3;
+
+   private HotRodServer[] hotrodServers;
+   private RemoteCacheManager remoteCacheManager;
+   private RemoteCache<Object, Object> remoteCache;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      hotrodServers = new HotRodServer[NUM_SERVERS];
+      createCluster(hotRodCacheConfiguration(getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false)), NUM_SERVERS);
+
+      for (int i = 0; i < NUM_SERVERS; i++) {
+         EmbeddedCacheManager cm = cacheManagers.get(i);
+         hotrodServers[i] = TestHelper.startHotRodServer(cm);
+      }
+
+      remoteCacheManager = createRemoteCacheManager(TestHelper.getServersString(hotrodServers));
+      remoteCache = remoteCacheManager.getCache();
+   }
+
+   protected RemoteCacheManager createRemoteCacheManager(String servers) {
+      return new RemoteCacheManager(servers);
+   }
+
+   @AfterClass
+   public void release() {
+      killRemoteCacheManager(remoteCacheManager);
+      killServers(hotrodServers);
+   }
+
+   public void testPutAllAndGetAll() {
+      Map<Object, Object> data = new HashMap<Object, Object>();
+      for (int i = 0; i < 100; i++) {
+         data.put(i, "v" + i);
+      }
+      remoteCache.putAll(data);
+
+      for (int i = 0; i < 100; i++) {
+         assertEquals("v" + i, remoteCache.get(i));
+      }
+
+      Set<Object> keys = new HashSet<Object>(data.keySet());
+      keys.add("missing");
+      Map<Object, Object> found = remoteCache.getAll(keys);
+      assertEquals(data, found);
+      assertFalse(found.containsKey("missing"));
+   }
+
+   public void testGetAllWithNoKeys() {
+      assertEquals(0, remoteCache.getAll(new HashSet<Object>()).size());
+   }
+}
@@ -22,6 +22,8 @@
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * An advanced interface that exposes additional methods not available on {@link Cache}.
@@ -301,6 +303,18 @@
     */
    V put(K key, V value, Metadata metadata);
 
+   /**
+    * An overloaded form of {@link #putAll(Map)}, which takes in an instance of
+    * {@link org.infinispan.metadata.Metadata} which can be used to provide metadata information for
+    * the entries being stored, such as lifespan, version of value...etc.
+    *
+    * @param map the values to store
+    * @param metadata information to store alongside the values
+    *
+    * @since 7.0
+    */
+   void putAll(Map<? extends K, ? extends V> map, Metadata metadata);
+
    /**
     * An overloaded form of {@link #replace(K, V)}, which takes in an
     * instance of {@link Metadata} which can be used to provide metadata
@@ -381,4 +395,33 @@
     * @since 5.3
     */
    CacheEntry getCacheEntry(K key);
+
+   /**
+    * Gets a collection of entries, returning them as {@link Map} of the values associated with the set of keys
+    * requested.
+    * <p/>
+    * If the cache is configured read-through, and a get for a key would return null because an entry is missing from
+    * the cache, the Cache's {@link org.infinispan.persistence.spi.CacheLoader} is called in an attempt to load the
+    * entry. In clustered caches the keys that are not available locally are fetched with a single remote call per
+    * primary owner, and the remote calls are sent in parallel.
+    *
+    * @param keys The keys whose associated values are to be returned.
+    * @return A map of entries that were found for the given keys. Keys not found in the cache are not present in the
+    *         returned map.
+    *
+    * @since 7.0
+    */
+   Map<K, V> getAll(Set<?> keys);
+
+   /**
+    * Retrieves the {@link CacheEntry} of every key in the given set, the way {@link #getCacheEntry(Object)} does for a
+    * single key. The lookups are performed in a single invocation, see {@link #getAll(java.util.Set)}.
+    *
+    * @param keys The keys whose associated entries are to be returned.
+    * @return A map of the entries that were found for the given keys. Keys not found in the cache are not present in
+    *         the returned map.
+    *
+    * @since 7.0
+    */
+   Map<K, CacheEntry> getAllCacheEntries(Set<?> keys);
 }
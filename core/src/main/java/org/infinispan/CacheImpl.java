@@ -34,6 +34,7 @@
 import org.infinispan.commands.VisitableCommand;
 import org.infinispan.commands.control.LockControlCommand;
 import org.infinispan.commands.read.EntrySetCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.KeySetCommand;
 import org.infinispan.commands.read.SizeCommand;
@@ -402,6 +403,37 @@ public final CacheEntry getCacheEntry(K key) {
       return getCacheEntry(key, null, null);
    }
 
+   @Override
+   public final Map<K, V> getAll(Set<?> keys) {
+      return getAll(keys, null, null);
+   }
+
+   @SuppressWarnings("unchecked")
+   final Map<K, V> getAll(Set<?> keys, EnumSet<Flag> explicitFlags, ClassLoader explicitClassLoader) {
+      return (Map<K, V>) getAll(keys, explicitFlags, explicitClassLoader, false);
+   }
+
+   @Override
+   public final Map<K, CacheEntry> getAllCacheEntries(Set<?> keys) {
+      return getAllCacheEntries(keys, null, null);
+   }
+
+   @SuppressWarnings("unchecked")
+   final Map<K, CacheEntry> getAllCacheEntries(Set<?> keys, EnumSet<Flag> explicitFlags,
+                                               ClassLoader explicitClassLoader) {
+      return (Map<K, CacheEntry>) getAll(keys, explicitFlags, explicitClassLoader, true);
+   }
+
+   private Map<?, ?> getAll(Set<?> keys, EnumSet<Flag> explicitFlags, ClassLoader explicitClassLoader,
+                            boolean returnEntries) {
+      for (Object key : keys) {
+         assertKeyNotNull(key);
+      }
+      InvocationContext ctx = getInvocationContextForRead(explicitClassLoader, keys.size());
+      GetAllCommand command = commandsFactory.buildGetAllCommand(keys, explicitFlags, returnEntries);
+      return (Map<?, ?>) invoker.invoke(ctx, command);
+   }
+
    @Override
    public final V remove(Object key) {
       return remove(key, null, null);
@@ -1464,6 +1496,11 @@ public V put(K key, V value, Metadata metadata) {
       return put(key, value, metadata, null, null);
    }
 
+   @Override
+   public void putAll(Map<? extends K, ? extends V> map, Metadata metadata) {
+      putAll(map, metadata, null, null);
+   }
+
    @Override
    public V replace(K key, V value, Metadata metadata) {
       return replace(key, value, metadata, null, null);
@@ -146,6 +146,11 @@ public V put(K key, V value, long lifespan, TimeUnit unit) {
       return cacheImplementation.put(key, value, metadata, flags, classLoader.get());
    }
 
+   @Override
+   public void putAll(Map<? extends K, ? extends V> map, Metadata metadata) {
+      cacheImplementation.putAll(map, metadata, flags, classLoader.get());
+   }
+
    @Override
    public V putIfAbsent(K key, V value, long lifespan, TimeUnit unit) {
       Metadata metadata = new EmbeddedMetadata.Builder()
@@ -497,4 +502,14 @@ public CacheEntry getCacheEntry(K key) {
       return cacheImplementation.getCacheEntry(key, flags, classLoader.get());
    }
 
+   @Override
+   public Map<K, V> getAll(Set<?> keys) {
+      return cacheImplementation.getAll(keys, flags, classLoader.get());
+   }
+
+   @Override
+   public Map<K, CacheEntry> getAllCacheEntries(Set<?> keys) {
+      return cacheImplementation.getAllCacheEntries(keys, flags, classLoader.get());
+   }
+
 }
@@ -10,12 +10,14 @@
 import org.infinispan.commands.module.ModuleCommandInitializer;
 import org.infinispan.commands.read.DistributedExecuteCommand;
 import org.infinispan.commands.read.EntrySetCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.KeySetCommand;
 import org.infinispan.commands.read.MapCombineCommand;
 import org.infinispan.commands.read.ReduceCommand;
 import org.infinispan.commands.read.SizeCommand;
 import org.infinispan.commands.read.ValuesCommand;
+import org.infinispan.commands.remote.ClusteredGetAllCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
 import org.infinispan.commands.remote.MultipleRpcCommand;
 import org.infinispan.commands.remote.SingleRpcCommand;
@@ -75,6 +77,7 @@
 import org.infinispan.util.logging.LogFactory;
 import org.infinispan.xsite.BackupSender;
 import org.infinispan.xsite.XSiteAdminCommand;
+import org.infinispan.xsite.XSiteStateProvider;
 
 import javax.transaction.xa.Xid;
 import java.util.Collection;
@@ -115,6 +118,7 @@ public class CommandsFactoryImpl implements CommandsFactory {
    private MapReduceManager mapReduceManager;
    private StateTransferManager stateTransferManager;
    private BackupSender backupSender;
+   private XSiteStateProvider xSiteStateProvider;
    private CancellationService cancellationService;
    private TimeService timeService;
    private GroupManager groupManager;
@@ -129,7 +133,8 @@ public void setupDependencies(DataContainer container, CacheNotifier notifier, C
                                  RecoveryManager recoveryManager, StateProvider stateProvider, StateConsumer stateConsumer,
                                  LockManager lockManager, InternalEntryFactory entryFactory, MapReduceManager mapReduceManager, 
                                  StateTransferManager stm, BackupSender backupSender, CancellationService cancellationService,
-                                 TimeService timeService, GroupManager groupManager) {
+                                 TimeService timeService, GroupManager groupManager,
+                                 XSiteStateProvider xSiteStateProvider) {
       this.dataContainer = container;
       this.notifier = notifier;
       this.cache = cache;
@@ -147,6 +152,7 @@ public void setupDependencies(DataContainer container, CacheNotifier notifier, C
       this.mapReduceManager = mapReduceManager;
       this.stateTransferManager = stm;
       this.backupSender = backupSender;
+      this.xSiteStateProvider = xSiteStateProvider;
       this.cancellationService = cancellationService;
       this.timeService = timeService;
       this.groupManager = groupManager;
@@ -215,6 +221,11 @@ public GetKeyValueCommand buildGetKeyValueCommand(Object key, Set<Flag> flags, b
       return new GetKeyValueCommand(key, flags, returnEntry);
    }
 
+   @Override
+   public GetAllCommand buildGetAllCommand(Collection<?> keys, Set<Flag> flags, boolean returnEntries) {
+      return new GetAllCommand(keys, flags, returnEntries, configuration.dataContainer().keyEquivalence());
+   }
+
    @Override
    public PutMapCommand buildPutMapCommand(Map<?, ?> map, Metadata metadata, Set<Flag> flags) {
       return new PutMapCommand(map, notifier, metadata, flags);
@@ -275,6 +286,11 @@ public ClusteredGetCommand buildClusteredGetCommand(Object key, Set<Flag> flags,
             configuration.dataContainer().keyEquivalence());
    }
 
+   @Override
+   public ClusteredGetAllCommand buildClusteredGetAllCommand(List<?> keys, Set<Flag> flags) {
+      return new ClusteredGetAllCommand(cacheName, keys, flags);
+   }
+
    /**
     * @param isRemote true if the command is deserialized and is executed remote.
     */
@@ -358,6 +374,10 @@ public void initializeReplicableCommand(ReplicableCommand c, boolean isRemote) {
                   interceptorChain, distributionManager, txTable,
                   configuration.dataContainer().keyEquivalence());
             break;
+         case ClusteredGetAllCommand.COMMAND_ID:
+            ClusteredGetAllCommand clusteredGetAllCommand = (ClusteredGetAllCommand) c;
+            clusteredGetAllCommand.initialize(icf, this, entryFactory, interceptorChain);
+            break;
          case LockControlCommand.COMMAND_ID:
             LockControlCommand lcc = (LockControlCommand) c;
             lcc.init(interceptorChain, icf, txTable);
@@ -424,7 +444,7 @@ public void initializeReplicableCommand(ReplicableCommand c, boolean isRemote) {
             break;
          case XSiteAdminCommand.COMMAND_ID:
             XSiteAdminCommand xSiteAdminCommand = (XSiteAdminCommand)c;
-            xSiteAdminCommand.init(backupSender);
+            xSiteAdminCommand.init(backupSender, xSiteStateProvider);
             break;
          case CancelCommand.COMMAND_ID:
             CancelCommand cancelCommand = (CancelCommand)c;
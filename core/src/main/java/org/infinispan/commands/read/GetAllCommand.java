@@ -0,0 +1,145 @@
+package org.infinispan.commands.read;
+
+import org.infinispan.commands.AbstractFlagAffectedCommand;
+import org.infinispan.commands.LocalCommand;
+import org.infinispan.commands.Visitor;
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.equivalence.Equivalence;
+import org.infinispan.commons.util.CollectionFactory;
+import org.infinispan.container.entries.CacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.context.Flag;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.lifecycle.ComponentStatus;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Implements functionality defined by {@link org.infinispan.AdvancedCache#getAll(java.util.Set)}.
+ * <p/>
+ * The keys are looked up in the invocation context, so the interceptors wrap, load or remotely fetch all of them
+ * in a single pass through the interceptor chain. Keys that are not found are not part of the returned map.
+ *
+ * @since 7.0
+ */
+public class GetAllCommand extends AbstractFlagAffectedCommand implements LocalCommand {
+
+   private static final Log log = LogFactory.getLog(GetAllCommand.class);
+   private static final boolean trace = log.isTraceEnabled();
+   private static final Object[] EMPTY_ARRAY = new Object[0];
+
+   private Collection<?> keys;
+   private final boolean returnEntries;
+   private final Equivalence keyEquivalence;
+   private Map<Object, InternalCacheEntry> remotelyFetched;
+
+   public GetAllCommand(Collection<?> keys, Set<Flag> flags, boolean returnEntries, Equivalence keyEquivalence) {
+      this.keys = keys;
+      this.flags = flags;
+      this.returnEntries = returnEntries;
+      this.keyEquivalence = keyEquivalence;
+   }
+
+   @Override
+   public Object acceptVisitor(InvocationContext ctx, Visitor visitor) throws Throwable {
+      return visitor.visitGetAllCommand(ctx, this);
+   }
+
+   @Override
+   public boolean shouldInvoke(InvocationContext ctx) {
+      return true;
+   }
+
+   @Override
+   public boolean ignoreCommandOnStatus(ComponentStatus status) {
+      return false;
+   }
+
+   @Override
+   public byte getCommandId() {
+      return 0;  // no-op
+   }
+
+   @Override
+   public Object[] getParameters() {
+      return EMPTY_ARRAY;  // no-op
+   }
+
+   @Override
+   public void setParameters(int commandId, Object[] parameters) {
+      // no-op
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return true;
+   }
+
+   @Override
+   public boolean canBlock() {
+      return false;
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public Map<Object, Object> perform(InvocationContext ctx) throws Throwable {
+      Map<Object, Object> map = CollectionFactory.makeMap(keys.size(), keyEquivalence, AnyEquivalence.getInstance());
+      for (Object key : keys) {
+         CacheEntry entry = ctx.lookupEntry(key);
+         if (entry == null || entry.isNull() || entry.isRemoved()) {
+            if (trace) {
+               log.tracef("Entry for key %s not found", key);
+            }
+            continue;
+         }
+         map.put(key, returnEntries ? entry : entry.getValue());
+      }
+      return map;
+   }
+
+   public Collection<?> getKeys() {
+      return keys;
+   }
+
+   public void setKeys(Collection<?> keys) {
+      this.keys = keys;
+   }
+
+   public boolean isReturnEntries() {
+      return returnEntries;
+   }
+
+   public Equivalence getKeyEquivalence() {
+      return keyEquivalence;
+   }
+
+   /**
+    * @see #getRemotelyFetched()
+    */
+   public void setRemotelyFetched(Map<Object, InternalCacheEntry> remotelyFetched) {
+      this.remotelyFetched = remotelyFetched;
+   }
+
+   /**
+    * The entries that had to be fetched from other nodes in order to complete the command, if any. As with
+    * {@link GetKeyValueCommand#getRemotelyFetchedValue()}, their values have already been processed by the owners.
+    */
+   public Map<Object, InternalCacheEntry> getRemotelyFetched() {
+      return remotelyFetched;
+   }
+
+   @Override
+   public String toString() {
+      return new StringBuilder()
+            .append("GetAllCommand{keys=")
+            .append(keys)
+            .append(", returnEntries=").append(returnEntries)
+            .append(", flags=").append(flags)
+            .append("}")
+            .toString();
+   }
+}
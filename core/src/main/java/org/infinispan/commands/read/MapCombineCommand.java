@@ -31,6 +31,7 @@
    private String taskId;
    private boolean reducePhaseDistributed;
    private boolean emitCompositeIntermediateKeys;
+   private long spillThreshold;
    private MapReduceManager mrManager;
    private UUID uuid;
 
@@ -81,6 +82,18 @@ public void setEmitCompositeIntermediateKeys(boolean emitCompositeIntermediateKe
       this.emitCompositeIntermediateKeys = emitCompositeIntermediateKeys;
    }
 
+   /**
+    * @return the number of bytes of intermediate results kept in memory before spilling them to the local disk, or 0
+    *         if they are always kept in memory
+    */
+   public long getSpillThreshold() {
+      return spillThreshold;
+   }
+
+   public void setSpillThreshold(long spillThreshold) {
+      this.spillThreshold = spillThreshold;
+   }
+
    public boolean isReducePhaseDistributed() {
       return reducePhaseDistributed;
    }
@@ -122,7 +135,7 @@ public UUID getUUID() {
    @Override
    public Object[] getParameters() {
       return new Object[] { taskId, keys, mapper, combiner, reducePhaseDistributed,
-               emitCompositeIntermediateKeys, uuid };
+               emitCompositeIntermediateKeys, uuid, spillThreshold };
    }
 
    @SuppressWarnings("unchecked")
@@ -138,6 +151,7 @@ public void setParameters(int commandId, Object[] args) {
       reducePhaseDistributed = (Boolean) args[i++];
       emitCompositeIntermediateKeys = (Boolean) args[i++];
       uuid = (UUID) args[i++];
+      spillThreshold = (Long) args[i++];
    }
 
    @Override
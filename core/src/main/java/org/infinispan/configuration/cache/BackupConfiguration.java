@@ -14,9 +14,18 @@ public class BackupConfiguration {
    private final boolean useTwoPhaseCommit;
    private final TakeOfflineConfiguration takeOfflineConfiguration;
    private final boolean enabled;
+   private final int batchSize;
+   private final String queueLocation;
 
    public BackupConfiguration(String site, BackupStrategy strategy, long timeout, BackupFailurePolicy backupFailurePolicy,
                               String failurePolicyClass, boolean useTwoPhaseCommit, TakeOfflineConfiguration takeOfflineConfiguration, boolean enabled) {
+      this(site, strategy, timeout, backupFailurePolicy, failurePolicyClass, useTwoPhaseCommit, takeOfflineConfiguration,
+           enabled, 0, null);
+   }
+
+   public BackupConfiguration(String site, BackupStrategy strategy, long timeout, BackupFailurePolicy backupFailurePolicy,
+                              String failurePolicyClass, boolean useTwoPhaseCommit, TakeOfflineConfiguration takeOfflineConfiguration,
+                              boolean enabled, int batchSize, String queueLocation) {
       this.site = site;
       this.strategy = strategy;
       this.timeout = timeout;
@@ -25,6 +34,8 @@ public BackupConfiguration(String site, BackupStrategy strategy, long timeout, B
       this.useTwoPhaseCommit = useTwoPhaseCommit;
       this.takeOfflineConfiguration = takeOfflineConfiguration;
       this.enabled = enabled;
+      this.batchSize = batchSize;
+      this.queueLocation = queueLocation;
    }
 
    /**
@@ -80,6 +91,27 @@ public boolean enabled() {
       return enabled;
    }
 
+   /**
+    * @see BackupConfigurationBuilder#batchSize(int).
+    */
+   public int batchSize() {
+      return batchSize;
+   }
+
+   /**
+    * @see BackupConfigurationBuilder#queueLocation(String).
+    */
+   public String queueLocation() {
+      return queueLocation;
+   }
+
+   /**
+    * Whether the asynchronous backups are queued and sent in batches, see {@link BackupConfigurationBuilder#batchSize(int)}.
+    */
+   public boolean isQueued() {
+      return isAsyncBackup() && batchSize > 0;
+   }
+
    @Override
    public boolean equals(Object o) {
       if (this == o) return true;
@@ -95,6 +127,8 @@ public boolean equals(Object o) {
       if( useTwoPhaseCommit != that.useTwoPhaseCommit ) return false;
       if (strategy != that.strategy) return false;
       if (enabled != that.enabled) return false;
+      if (batchSize != that.batchSize) return false;
+      if (queueLocation != null ? !queueLocation.equals(that.queueLocation) : that.queueLocation != null) return false;
 
       return true;
    }
@@ -107,6 +141,8 @@ public int hashCode() {
       result = 31 * result + (backupFailurePolicy != null ? backupFailurePolicy.hashCode() : 0);
       result = 31 * result + (failurePolicyClass != null ? failurePolicyClass.hashCode() : 0);
       result = 31 * result + (useTwoPhaseCommit ? 1 : 0);
+      result = 31 * result + batchSize;
+      result = 31 * result + (queueLocation != null ? queueLocation.hashCode() : 0);
       return result;
    }
 
@@ -120,6 +156,8 @@ public String toString() {
             ", backupFailurePolicy=" + backupFailurePolicy +
             ", failurePolicyClass='" + failurePolicyClass + '\'' +
             ", enabled='" + enabled + '\'' +
+            ", batchSize=" + batchSize +
+            ", queueLocation='" + queueLocation + '\'' +
             '}';
    }
 }
@@ -25,6 +25,10 @@ public class BackupConfigurationBuilder extends AbstractConfigurationChildBuilde
 
    private boolean enabled = true;
 
+   private int batchSize = 0;
+
+   private String queueLocation;
+
    public BackupConfigurationBuilder(ConfigurationBuilder builder) {
       super(builder);
       takeOfflineBuilder = new TakeOfflineConfigurationBuilder(builder, this);
@@ -130,6 +134,42 @@ public BackupConfigurationBuilder enabled(boolean isEnabled) {
       return this;
    }
 
+   /**
+    * Only applies to the asynchronous backups of non transactional caches. If greater than 0, the modifications are
+    * not sent to the site one at a time: they are queued locally, the modifications of the same key are coalesced,
+    * and they are sent in batches of up to batchSize modifications. The batches which fail are retried, and while the
+    * site is offline the modifications are kept in the queue until the site is brought back online.
+    * The default value is 0, which sends every modification on its own.
+    */
+   public BackupConfigurationBuilder batchSize(int batchSize) {
+      this.batchSize = batchSize;
+      return this;
+   }
+
+   /**
+    * @see #batchSize(int)
+    */
+   public int batchSize() {
+      return batchSize;
+   }
+
+   /**
+    * Only applies when the modifications are queued, see {@link #batchSize(int)}. The directory where the queued
+    * modifications are also written, so that the ones which were not backed up yet are sent when the cache is
+    * restarted rather than lost. By default the queue is only kept in memory.
+    */
+   public BackupConfigurationBuilder queueLocation(String queueLocation) {
+      this.queueLocation = queueLocation;
+      return this;
+   }
+
+   /**
+    * @see #queueLocation(String)
+    */
+   public String queueLocation() {
+      return queueLocation;
+   }
+
    @Override
    public void validate() {
       takeOfflineBuilder.validate();
@@ -139,12 +179,15 @@ public void validate() {
          throw new CacheConfigurationException("It is required to specify a 'failurePolicyClass' when using a " +
                                                 "custom backup failure policy!");
       }
+      if (batchSize < 0)
+         throw new CacheConfigurationException("The 'batchSize' can not be negative!");
    }
 
    @Override
    public BackupConfiguration create() {
       return new BackupConfiguration(site, strategy, replicationTimeout, backupFailurePolicy, failurePolicyClass,
-                                     useTwoPhaseCommit, takeOfflineBuilder.create(), enabled);
+                                     useTwoPhaseCommit, takeOfflineBuilder.create(), enabled, batchSize,
+                                     queueLocation);
    }
 
    @Override
@@ -157,6 +200,8 @@ public Builder read(BackupConfiguration template) {
       this.failurePolicyClass = template.failurePolicyClass();
       this.useTwoPhaseCommit = template.isTwoPhaseCommit();
       this.enabled = template.enabled();
+      this.batchSize = template.batchSize();
+      this.queueLocation = template.queueLocation();
       return this;
    }
 
@@ -177,6 +222,8 @@ public boolean equals(Object o) {
          return false;
       if( useTwoPhaseCommit != that.useTwoPhaseCommit ) return false;
       if( enabled != that.enabled) return false;
+      if (batchSize != that.batchSize) return false;
+      if (queueLocation != null ? !queueLocation.equals(that.queueLocation) : that.queueLocation != null) return false;
 
       return true;
    }
@@ -190,6 +237,8 @@ public int hashCode() {
       result = 31 * result + (failurePolicyClass != null ? failurePolicyClass.hashCode() : 0);
       result = 31 * result + (takeOfflineBuilder != null ? takeOfflineBuilder.hashCode() : 0);
       result = 31 * result + (useTwoPhaseCommit ? 1 : 0);
+      result = 31 * result + batchSize;
+      result = 31 * result + (queueLocation != null ? queueLocation.hashCode() : 0);
       return result;
    }
 
@@ -204,6 +253,8 @@ public String toString() {
             ", failurePolicyClass='" + failurePolicyClass + '\'' +
             ", takeOfflineBuilder=" + takeOfflineBuilder +
             ", enabled=" + enabled +
+            ", batchSize=" + batchSize +
+            ", queueLocation='" + queueLocation + '\'' +
             '}';
    }
 }
@@ -0,0 +1,109 @@
+package org.infinispan.configuration.cache;
+
+import org.infinispan.commons.configuration.Builder;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * Log-structured file cache store configuration builder.
+ *
+ * @since 7.0
+ */
+public class LogFileStoreConfigurationBuilder
+      extends AbstractStoreConfigurationBuilder<LogFileStoreConfiguration, LogFileStoreConfigurationBuilder> {
+
+   private static final Log log = LogFactory.getLog(LogFileStoreConfigurationBuilder.class);
+
+   private String location = "Infinispan-LogFileStore";
+
+   private int maxFileSize = 16 * 1024 * 1024;
+
+   private int indexSegments = 16;
+
+   private double compactionThreshold = 0.5;
+
+   public LogFileStoreConfigurationBuilder(PersistenceConfigurationBuilder builder) {
+      super(builder);
+   }
+
+   @Override
+   public LogFileStoreConfigurationBuilder self() {
+      return this;
+   }
+
+   /**
+    * Sets a location on disk where the store can write.
+    */
+   public LogFileStoreConfigurationBuilder location(String location) {
+      this.location = location;
+      return this;
+   }
+
+   /**
+    * Entries are appended to a log split in files of this size, in bytes. A file is compacted as a whole, so
+    * smaller files are compacted sooner and faster, at the cost of more open files. Defaults to 16MB.
+    */
+   public LogFileStoreConfigurationBuilder maxFileSize(int maxFileSize) {
+      this.maxFileSize = maxFileSize;
+      return this;
+   }
+
+   /**
+    * The on-disk index is split in this many segments, each of them with its own lock for writers. Readers
+    * don't lock the index. Defaults to 16.
+    */
+   public LogFileStoreConfigurationBuilder indexSegments(int indexSegments) {
+      this.indexSegments = indexSegments;
+      return this;
+   }
+
+   /**
+    * A log file is compacted, copying its live entries to the end of the log and deleting it, once the ratio of
+    * its space taken by overwritten or removed entries reaches this threshold. Defaults to 0.5.
+    */
+   public LogFileStoreConfigurationBuilder compactionThreshold(double compactionThreshold) {
+      this.compactionThreshold = compactionThreshold;
+      return this;
+   }
+
+   @Override
+   public void validate() {
+      super.validate();
+      if (maxFileSize <= 0)
+         throw log.invalidLogFileStoreSetting("maxFileSize", String.valueOf(maxFileSize));
+      if (indexSegments <= 0)
+         throw log.invalidLogFileStoreSetting("indexSegments", String.valueOf(indexSegments));
+      if (compactionThreshold <= 0 || compactionThreshold > 1)
+         throw log.invalidLogFileStoreSetting("compactionThreshold", String.valueOf(compactionThreshold));
+   }
+
+   @Override
+   public LogFileStoreConfiguration create() {
+      return new LogFileStoreConfiguration(purgeOnStartup, fetchPersistentState, ignoreModifications,
+                                           async.create(), singletonStore.create(), preload,
+                                           shared, properties, location, maxFileSize, indexSegments,
+                                           compactionThreshold);
+   }
+
+   @Override
+   public Builder<?> read(LogFileStoreConfiguration template) {
+      // LogFileStore-specific configuration
+      location = template.location();
+      maxFileSize = template.maxFileSize();
+      indexSegments = template.indexSegments();
+      compactionThreshold = template.compactionThreshold();
+
+      // AbstractStore-specific configuration
+      fetchPersistentState = template.fetchPersistentState();
+      ignoreModifications = template.ignoreModifications();
+      properties = template.properties();
+      purgeOnStartup = template.purgeOnStartup();
+      async.read(template.async());
+      singletonStore.read(template.singletonStore());
+      preload = template.preload();
+      shared = template.shared();
+
+      return this;
+   }
+
+}
@@ -21,6 +21,7 @@ public class StateTransferConfigurationBuilder extends
    private Boolean fetchInMemoryState = null;
    private Boolean awaitInitialTransfer = null;
    private int chunkSize = 10000;
+   private int maxInFlightChunks = 1;
    private long timeout = TimeUnit.MINUTES.toMillis(4);
 
    StateTransferConfigurationBuilder(ClusteringConfigurationBuilder builder) {
@@ -62,6 +63,17 @@ public StateTransferConfigurationBuilder chunkSize(int i) {
       return this;
    }
 
+   /**
+    * The maximum number of chunks a node sends to another node before waiting for them to be acknowledged.
+    * If 1, each chunk is sent only after the previous one was applied by the receiver. Higher values keep
+    * several chunks in flight, which speeds up state transfer when it is bound by the network latency rather
+    * than by the bandwidth.
+    */
+   public StateTransferConfigurationBuilder maxInFlightChunks(int i) {
+      this.maxInFlightChunks = i;
+      return this;
+   }
+
    /**
     * This is the maximum amount of time - in milliseconds - to wait for state from neighboring
     * caches, before throwing an exception and aborting startup.
@@ -89,6 +101,8 @@ public void validate() {
             && !getClusteringBuilder().cacheMode().isReplicated() && !getClusteringBuilder().cacheMode().isDistributed())
          throw new CacheConfigurationException(
                "awaitInitialTransfer can be enabled only if cache mode is distributed or replicated.");
+      if (maxInFlightChunks <= 0)
+         throw new CacheConfigurationException("maxInFlightChunks must be greater than 0.");
    }
 
    @Override
@@ -118,7 +132,7 @@ public  StateTransferConfiguration create() {
          _awaitInitialTransfer = false;
       }
       return new StateTransferConfiguration(_fetchInMemoryState, fetchInMemoryState,
-            timeout, chunkSize, _awaitInitialTransfer, awaitInitialTransfer);
+            timeout, chunkSize, maxInFlightChunks, _awaitInitialTransfer, awaitInitialTransfer);
    }
 
    @Override
@@ -127,6 +141,7 @@ public StateTransferConfigurationBuilder read(StateTransferConfiguration templat
       this.awaitInitialTransfer = template.originalAwaitInitialTransfer();
       this.timeout = template.timeout();
       this.chunkSize = template.chunkSize();
+      this.maxInFlightChunks = template.maxInFlightChunks();
       return this;
    }
 
@@ -134,6 +149,7 @@ public StateTransferConfigurationBuilder read(StateTransferConfiguration templat
    public String toString() {
       return "StateTransferConfigurationBuilder{" +
             "chunkSize=" + chunkSize +
+            ", maxInFlightChunks=" + maxInFlightChunks +
             ", fetchInMemoryState=" + fetchInMemoryState +
             ", awaitInitialTransfer=" + awaitInitialTransfer +
             ", timeout=" + timeout +
@@ -48,6 +48,11 @@ public ExecutorFactoryConfigurationBuilder remoteCommandsExecutor() {
       return globalConfig.remoteCommandsExecutor();
    }
 
+   @Override
+   public ExecutorFactoryConfigurationBuilder stateTransferExecutor() {
+      return globalConfig.stateTransferExecutor();
+   }
+
    @Override
    public ScheduledExecutorFactoryConfigurationBuilder evictionScheduledExecutor() {
       return globalConfig.evictionScheduledExecutor();
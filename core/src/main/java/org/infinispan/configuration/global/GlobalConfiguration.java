@@ -42,6 +42,7 @@ public class GlobalConfiguration {
    private final ExecutorFactoryConfiguration asyncTransportExecutor;
    private final ExecutorFactoryConfiguration remoteCommandsExecutor;
    private final ExecutorFactoryConfiguration totalOrderExecutor;
+   private final ExecutorFactoryConfiguration stateTransferExecutor;
    private final ScheduledExecutorFactoryConfiguration evictionScheduledExecutor;
    private final ScheduledExecutorFactoryConfiguration replicationQueueScheduledExecutor;
    private final GlobalJmxStatisticsConfiguration globalJmxStatistics;
@@ -58,7 +59,8 @@ public class GlobalConfiguration {
          ScheduledExecutorFactoryConfiguration evictionScheduledExecutor,
          ScheduledExecutorFactoryConfiguration replicationQueueScheduledExecutor, GlobalJmxStatisticsConfiguration globalJmxStatistics,
          TransportConfiguration transport, GlobalSecurityConfiguration security, SerializationConfiguration serialization, ShutdownConfiguration shutdown,
-         List<?> modules, SiteConfiguration site,ClassLoader cl, ExecutorFactoryConfiguration totalOrderExecutor, ExecutorFactoryConfiguration persistenceExecutor) {
+         List<?> modules, SiteConfiguration site,ClassLoader cl, ExecutorFactoryConfiguration totalOrderExecutor, ExecutorFactoryConfiguration persistenceExecutor,
+         ExecutorFactoryConfiguration stateTransferExecutor) {
       this.asyncListenerExecutor = asyncListenerExecutor;
       this.persistenceExecutor = persistenceExecutor;
       this.asyncTransportExecutor = asyncTransportExecutor;
@@ -78,6 +80,7 @@ public class GlobalConfiguration {
       this.site = site;
       this.cl = new WeakReference<ClassLoader>(cl);
       this.totalOrderExecutor = totalOrderExecutor;
+      this.stateTransferExecutor = stateTransferExecutor;
    }
 
    public ExecutorFactoryConfiguration asyncListenerExecutor() {
@@ -96,6 +99,10 @@ public ExecutorFactoryConfiguration remoteCommandsExecutor() {
       return remoteCommandsExecutor;
    }
 
+   public ExecutorFactoryConfiguration stateTransferExecutor() {
+      return stateTransferExecutor;
+   }
+
    public ScheduledExecutorFactoryConfiguration evictionScheduledExecutor() {
       return evictionScheduledExecutor;
    }
@@ -161,6 +168,7 @@ public String toString() {
             ", site=" + site +
             ", cl=" + cl +
             ", totalOrderExecutor=" + totalOrderExecutor +
+            ", stateTransferExecutor=" + stateTransferExecutor +
             '}';
    }
 
@@ -22,6 +22,7 @@ public class GlobalConfigurationBuilder implements GlobalConfigurationChildBuild
    private final ExecutorFactoryConfigurationBuilder persistenceExecutor;
    private final ExecutorFactoryConfigurationBuilder remoteCommandsExecutor;
    private final ExecutorFactoryConfigurationBuilder totalOrderExecutor;
+   private final ExecutorFactoryConfigurationBuilder stateTransferExecutor;
    private final ScheduledExecutorFactoryConfigurationBuilder evictionScheduledExecutor;
    private final ScheduledExecutorFactoryConfigurationBuilder replicationQueueScheduledExecutor;
    private final GlobalSecurityConfigurationBuilder security;
@@ -38,6 +39,7 @@ public GlobalConfigurationBuilder() {
       this.persistenceExecutor = new ExecutorFactoryConfigurationBuilder(this);
       this.asyncTransportExecutor = new ExecutorFactoryConfigurationBuilder(this);
       this.remoteCommandsExecutor = new ExecutorFactoryConfigurationBuilder(this);
+      this.stateTransferExecutor = new ExecutorFactoryConfigurationBuilder(this);
       this.evictionScheduledExecutor = new ScheduledExecutorFactoryConfigurationBuilder(this);
       this.replicationQueueScheduledExecutor = new ScheduledExecutorFactoryConfigurationBuilder(this);
       this.security = new GlobalSecurityConfigurationBuilder(this);
@@ -122,6 +124,15 @@ public ExecutorFactoryConfigurationBuilder remoteCommandsExecutor() {
       return remoteCommandsExecutor;
    }
 
+   /**
+    * Configuration for the executor that scans the data container and the cache store, one segment per task,
+    * when pushing state to other nodes.
+    */
+   @Override
+   public ExecutorFactoryConfigurationBuilder stateTransferExecutor() {
+      return stateTransferExecutor;
+   }
+
    @Override
    public ScheduledExecutorFactoryConfigurationBuilder evictionScheduledExecutor() {
       return evictionScheduledExecutor;
@@ -175,7 +186,7 @@ public ExecutorFactoryConfigurationBuilder totalOrderExecutor() {
    public void validate() {
       for (Builder<?> validatable : asList(asyncListenerExecutor, persistenceExecutor, asyncTransportExecutor,
             remoteCommandsExecutor, evictionScheduledExecutor, replicationQueueScheduledExecutor, globalJmxStatistics, transport,
-            serialization, shutdown, site, totalOrderExecutor)) {
+            serialization, shutdown, site, totalOrderExecutor, stateTransferExecutor)) {
          validatable.validate();
       }
       for (Builder<?> m : modules) {
@@ -204,7 +215,8 @@ public GlobalConfiguration build() {
             site.create(),
             cl.get(),
             totalOrderExecutor.create(),
-            persistenceExecutor.create()
+            persistenceExecutor.create(),
+            stateTransferExecutor.create()
             );
    }
 
@@ -230,6 +242,7 @@ public GlobalConfigurationBuilder read(GlobalConfiguration template) {
       transport.read(template.transport());
       site.read(template.sites());
       totalOrderExecutor.read(template.totalOrderExecutor());
+      stateTransferExecutor.read(template.stateTransferExecutor());
       return this;
    }
 
@@ -250,7 +263,7 @@ public String toString() {
             + globalJmxStatistics + ", serialization=" + serialization + ", asyncTransportExecutor="
             + asyncTransportExecutor + ", asyncListenerExecutor=" + asyncListenerExecutor + ", persistenceExecutor="
             + persistenceExecutor + ", remoteCommandsExecutor=" + remoteCommandsExecutor + ", totalOrderExecutor="
-            + totalOrderExecutor + ", evictionScheduledExecutor=" + evictionScheduledExecutor
+            + totalOrderExecutor + ", stateTransferExecutor=" + stateTransferExecutor + ", evictionScheduledExecutor=" + evictionScheduledExecutor
             + ", replicationQueueScheduledExecutor=" + replicationQueueScheduledExecutor + ", security=" + security
             + ", shutdown=" + shutdown + ", modules=" + modules + ", site=" + site + "]";
    }
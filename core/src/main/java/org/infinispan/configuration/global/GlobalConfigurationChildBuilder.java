@@ -15,6 +15,8 @@ public interface GlobalConfigurationChildBuilder {
 
    ExecutorFactoryConfigurationBuilder remoteCommandsExecutor();
 
+   ExecutorFactoryConfigurationBuilder stateTransferExecutor();
+
    ScheduledExecutorFactoryConfigurationBuilder evictionScheduledExecutor();
 
    ScheduledExecutorFactoryConfigurationBuilder replicationQueueScheduledExecutor();
@@ -43,6 +43,7 @@ public enum Attribute {
     IGNORE_MODIFICATIONS("ignoreModifications"),
     INDEX("index"),
     INDEX_LOCAL_ONLY("indexLocalOnly"),
+    INDEX_SEGMENTS("indexSegments"),
     INITIAL_RETRY_WAIT_TIME("initialRetryWaitTime"),
     INVALIDATION_THRESHOLD("invalidationThreshold"),
     ISOLATION_LEVEL("isolationLevel"),
@@ -56,7 +57,9 @@ public enum Attribute {
     MACHINE_ID("machineId"),
     MARSHALLER_CLASS("marshallerClass"),
     MAX_ENTRIES("maxEntries"),
+    MAX_FILE_SIZE("maxFileSize"),
     MAX_IDLE("maxIdle"),
+    MAX_IN_FLIGHT_CHUNKS("maxInFlightChunks"),
     MAX_NON_PROGRESSING_LOG_WRITES("maxProgressingLogWrites"),
     MBEAN_SERVER_LOOKUP("mBeanServerLookup"),
     MODE("mode"),
@@ -127,6 +130,7 @@ public enum Attribute {
     USE_TWO_PHASE_COMMIT("useTwoPhaseCommit"),
     REAPER_WAKE_UP_INTERVAL("reaperWakeUpInterval"),
     COMPLETED_TX_TIMEOUT("completedTxTimeout"),
+    COMPACTION_THRESHOLD("compactionThreshold"),
     TRANSACTION_PROTOCOL("transactionProtocol"),
     KEY_EQUIVALENCE("keyEquivalence"),
     VALUE_EQUIVALENCE("valueEquivalence"),
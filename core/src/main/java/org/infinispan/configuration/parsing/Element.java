@@ -44,6 +44,7 @@ public enum Element {
     LAZY_DESERIALIZATION("lazyDeserialization"),
     PERSISTENCE("persistence"),
     LOCKING("locking"),
+    LOG_FILE_STORE("logFile"),
     MODULES("modules"),
     NAMED_CACHE("namedCache"),
     PROPERTIES("properties"),
@@ -56,6 +57,7 @@ public enum Element {
     SINGLETON_STORE("singleton"),
     STATE_RETRIEVAL("stateRetrieval"),
     STATE_TRANSFER("stateTransfer"),
+    STATE_TRANSFER_EXECUTOR("stateTransferExecutor"),
     STORE("store"),
     STORE_AS_BINARY("storeAsBinary"),
     SYNC("sync"),
@@ -551,6 +551,9 @@ private void parsePersistence(final XMLExtendedStreamReader reader, final Config
             case SINGLE_FILE_STORE:
                parseSingleFileStore(reader, holder);
                break;
+            case LOG_FILE_STORE:
+               parseLogFileStore(reader, holder);
+               break;
             case STORE:
                parseStore(reader, holder);
                break;
@@ -583,6 +586,35 @@ private void parseSingleFileStore(XMLExtendedStreamReader reader, ConfigurationB
       parseStoreChildren(reader, storeBuilder);
    }
 
+   private void parseLogFileStore(XMLExtendedStreamReader reader, ConfigurationBuilderHolder holder) throws XMLStreamException {
+      ConfigurationBuilder builder = holder.getCurrentConfigurationBuilder();
+      LogFileStoreConfigurationBuilder storeBuilder = builder.persistence().addLogFileStore();
+      for (int i = 0; i < reader.getAttributeCount(); i++) {
+         ParseUtils.requireNoNamespaceAttribute(reader, i);
+         String value = replaceProperties(reader.getAttributeValue(i));
+         String attrName = reader.getAttributeLocalName(i);
+         Attribute attribute = Attribute.forName(attrName);
+         switch (attribute) {
+            case LOCATION:
+               storeBuilder.location(value);
+               break;
+            case MAX_FILE_SIZE:
+               storeBuilder.maxFileSize(Integer.parseInt(value));
+               break;
+            case INDEX_SEGMENTS:
+               storeBuilder.indexSegments(Integer.parseInt(value));
+               break;
+            case COMPACTION_THRESHOLD:
+               storeBuilder.compactionThreshold(Double.parseDouble(value));
+               break;
+            default:
+               parseCommonStoreAttributes(reader, storeBuilder, attrName, value, i);
+               break;
+         }
+      }
+      parseStoreChildren(reader, storeBuilder);
+   }
+
    private void parseClusterLoader(XMLExtendedStreamReader reader, ConfigurationBuilderHolder holder) throws XMLStreamException {
       ConfigurationBuilder builder = holder.getCurrentConfigurationBuilder();
       ClusterLoaderConfigurationBuilder cclb = builder.persistence().addClusterLoader();
@@ -1181,6 +1213,9 @@ private void parseStateTransfer(final XMLExtendedStreamReader reader, final Conf
             case CHUNK_SIZE:
                builder.clustering().stateTransfer().chunkSize(Integer.parseInt(value));
                break;
+            case MAX_IN_FLIGHT_CHUNKS:
+               builder.clustering().stateTransfer().maxInFlightChunks(Integer.parseInt(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -1368,6 +1403,11 @@ private void parseGlobal(final XMLExtendedStreamReader reader, final Configurati
                              holder.getClassLoader());
                break;
             }
+            case STATE_TRANSFER_EXECUTOR: {
+               parseExecutor(reader, holder.getGlobalConfigurationBuilder().stateTransferExecutor(),
+                             holder.getClassLoader());
+               break;
+            }
             case EVICTION_SCHEDULED_EXECUTOR: {
                parseScheduledExecutor(reader, holder.getGlobalConfigurationBuilder().evictionScheduledExecutor(),
                                       holder.getClassLoader());
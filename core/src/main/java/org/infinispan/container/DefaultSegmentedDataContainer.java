@@ -0,0 +1,280 @@
+package org.infinispan.container;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.infinispan.commons.equivalence.Equivalence;
+import org.infinispan.commons.util.concurrent.ParallelIterableMap;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.eviction.ActivationManager;
+import org.infinispan.eviction.EvictionManager;
+import org.infinispan.eviction.PassivationManager;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Stop;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.persistence.spi.AdvancedCacheLoader;
+import org.infinispan.util.TimeService;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Unbounded {@link SegmentedDataContainer} keeping a separate {@link DefaultDataContainer} for each segment.
+ * <p/>
+ * Single key operations are routed to the container of the key's segment, whole container operations visit
+ * the segments one by one. The segment of a key is computed with the consistent hash passed in at construction
+ * time, which only needs to use the same hash function and number of segments as the cache topology.
+ *
+ * @since 7.0
+ */
+@ThreadSafe
+public class DefaultSegmentedDataContainer implements SegmentedDataContainer {
+
+   private final ConsistentHash consistentHash;
+   private final DefaultDataContainer[] segments;
+
+   public DefaultSegmentedDataContainer(int concurrencyLevel, ConsistentHash consistentHash,
+         Equivalence keyEquivalence, Equivalence valueEquivalence) {
+      this.consistentHash = consistentHash;
+      int numSegments = consistentHash.getNumSegments();
+      // spread the requested concurrency over the segments
+      int segmentConcurrencyLevel = Math.max(1, concurrencyLevel / numSegments);
+      segments = new DefaultDataContainer[numSegments];
+      for (int i = 0; i < numSegments; i++) {
+         segments[i] = new DefaultDataContainer(segmentConcurrencyLevel, keyEquivalence, valueEquivalence);
+      }
+   }
+
+   @Inject
+   public void initialize(EvictionManager evictionManager, PassivationManager passivator,
+         InternalEntryFactory entryFactory, ActivationManager activator, PersistenceManager clm, TimeService timeService) {
+      for (DefaultDataContainer segment : segments) {
+         segment.initialize(evictionManager, passivator, entryFactory, activator, clm, timeService);
+      }
+   }
+
+   @Override
+   public int getNumSegments() {
+      return segments.length;
+   }
+
+   @Override
+   public int getSegment(Object key) {
+      return consistentHash.getSegment(key);
+   }
+
+   private DefaultDataContainer containerFor(Object key) {
+      return segments[consistentHash.getSegment(key)];
+   }
+
+   @Override
+   public Iterable<InternalCacheEntry> entriesInSegment(int segment) {
+      return segments[segment];
+   }
+
+   @Override
+   public int sizeOfSegment(int segment) {
+      return segments[segment].size();
+   }
+
+   @Override
+   public void clearSegment(int segment) {
+      segments[segment].clear();
+   }
+
+   @Override
+   public InternalCacheEntry get(Object k) {
+      return containerFor(k).get(k);
+   }
+
+   @Override
+   public InternalCacheEntry peek(Object k) {
+      return containerFor(k).peek(k);
+   }
+
+   @Override
+   public void put(Object k, Object v, Metadata metadata) {
+      containerFor(k).put(k, v, metadata);
+   }
+
+   @Override
+   public boolean containsKey(Object k) {
+      return containerFor(k).containsKey(k);
+   }
+
+   @Override
+   public InternalCacheEntry remove(Object k) {
+      return containerFor(k).remove(k);
+   }
+
+   @Override
+   public int size() {
+      int size = 0;
+      for (DefaultDataContainer segment : segments) {
+         size += segment.size();
+      }
+      return size;
+   }
+
+   // the component metadata scan doesn't see the @Stop declared on DataContainer through SegmentedDataContainer
+   @Override
+   @Stop(priority = 999)
+   public void clear() {
+      for (DefaultDataContainer segment : segments) {
+         segment.clear();
+      }
+   }
+
+   @Override
+   public Set<Object> keySet() {
+      return new KeySet();
+   }
+
+   @Override
+   public Collection<Object> values() {
+      return new Values();
+   }
+
+   @Override
+   public Set<InternalCacheEntry> entrySet() {
+      return new EntrySet();
+   }
+
+   @Override
+   public void purgeExpired() {
+      for (DefaultDataContainer segment : segments) {
+         segment.purgeExpired();
+      }
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry> iterator() {
+      return new SegmentsIterator<InternalCacheEntry>() {
+         @Override
+         Iterator<InternalCacheEntry> segmentIterator(DefaultDataContainer segment) {
+            return segment.iterator();
+         }
+      };
+   }
+
+   @Override
+   public <K> void executeTask(AdvancedCacheLoader.KeyFilter<K> filter,
+         ParallelIterableMap.KeyValueAction<Object, InternalCacheEntry> action) throws InterruptedException {
+      for (DefaultDataContainer segment : segments) {
+         segment.executeTask(filter, action);
+      }
+   }
+
+   /**
+    * Iterates over the segment containers in order, chaining the iterators obtained from each of them.
+    */
+   private abstract class SegmentsIterator<E> implements Iterator<E> {
+      private int nextSegment;
+      private Iterator<E> current;
+
+      abstract Iterator<E> segmentIterator(DefaultDataContainer segment);
+
+      @Override
+      public boolean hasNext() {
+         while (current == null || !current.hasNext()) {
+            if (nextSegment == segments.length) {
+               return false;
+            }
+            current = segmentIterator(segments[nextSegment++]);
+         }
+         return true;
+      }
+
+      @Override
+      public E next() {
+         if (!hasNext()) {
+            throw new NoSuchElementException();
+         }
+         return current.next();
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Set
+    */
+   private class KeySet extends AbstractSet<Object> {
+      @Override
+      public boolean contains(Object o) {
+         return containerFor(o).keySet().contains(o);
+      }
+
+      @Override
+      public Iterator<Object> iterator() {
+         return new SegmentsIterator<Object>() {
+            @Override
+            Iterator<Object> segmentIterator(DefaultDataContainer segment) {
+               return segment.keySet().iterator();
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return DefaultSegmentedDataContainer.this.size();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Set
+    */
+   private class EntrySet extends AbstractSet<InternalCacheEntry> {
+      @Override
+      public boolean contains(Object o) {
+         if (!(o instanceof Map.Entry)) {
+            return false;
+         }
+         return containerFor(((Map.Entry) o).getKey()).entrySet().contains(o);
+      }
+
+      @Override
+      public Iterator<InternalCacheEntry> iterator() {
+         return new SegmentsIterator<InternalCacheEntry>() {
+            @Override
+            Iterator<InternalCacheEntry> segmentIterator(DefaultDataContainer segment) {
+               return segment.entrySet().iterator();
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return DefaultSegmentedDataContainer.this.size();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Collection
+    */
+   private class Values extends AbstractCollection<Object> {
+      @Override
+      public Iterator<Object> iterator() {
+         return new SegmentsIterator<Object>() {
+            @Override
+            Iterator<Object> segmentIterator(DefaultDataContainer segment) {
+               return segment.values().iterator();
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return DefaultSegmentedDataContainer.this.size();
+      }
+   }
+}
@@ -0,0 +1,49 @@
+package org.infinispan.container;
+
+import org.infinispan.container.entries.InternalCacheEntry;
+
+/**
+ * A {@link DataContainer} that partitions its entries by consistent hash segment, so that the entries of a
+ * single segment can be iterated, counted or dropped without walking the whole container.
+ * <p/>
+ * The segment of a key is the one returned by {@link org.infinispan.distribution.ch.ConsistentHash#getSegment(Object)},
+ * which does not depend on the routing table and is therefore the same for every topology of a cache.
+ *
+ * @since 7.0
+ */
+public interface SegmentedDataContainer extends DataContainer {
+
+   /**
+    * @return the number of segments the entries are partitioned into
+    */
+   int getNumSegments();
+
+   /**
+    * @param key a key, which need not be present in the container
+    * @return the segment the key belongs to
+    */
+   int getSegment(Object key);
+
+   /**
+    * Returns the entries of a single segment. As with {@link #keySet()}, clients iterating through the returned
+    * entries should use {@link #peek(Object)} rather than {@link #get(Object)}.
+    *
+    * @param segment the segment id
+    * @return a live, read-only view of the entries in the given segment
+    */
+   Iterable<InternalCacheEntry> entriesInSegment(int segment);
+
+   /**
+    * @param segment the segment id
+    * @return count of the number of entries in the given segment
+    */
+   int sizeOfSegment(int segment);
+
+   /**
+    * Removes all entries of the given segment. This only affects the container, no notifications are fired and
+    * the cache stores are not updated.
+    *
+    * @param segment the segment id
+    */
+   void clearSegment(int segment);
+}
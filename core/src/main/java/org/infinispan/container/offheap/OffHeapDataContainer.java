@@ -0,0 +1,507 @@
+package org.infinispan.container.offheap;
+
+import static org.infinispan.factories.KnownComponentNames.CACHE_MARSHALLER;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.infinispan.commons.CacheException;
+import org.infinispan.commons.hash.Hash;
+import org.infinispan.commons.hash.MurmurHash3;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.commons.util.TypedProperties;
+import org.infinispan.commons.util.concurrent.ParallelIterableMap;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.InternalEntryFactory;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.versioning.NumericVersion;
+import org.infinispan.eviction.ActivationManager;
+import org.infinispan.eviction.EvictionManager;
+import org.infinispan.eviction.PassivationManager;
+import org.infinispan.factories.annotations.ComponentName;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.persistence.spi.AdvancedCacheLoader;
+import org.infinispan.util.CoreImmutables;
+import org.infinispan.util.TimeService;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * Data container keeping the entries out of the Java heap, in slabs of direct memory, so that the number of
+ * entries doesn't add to the garbage collection pauses.
+ * <p/>
+ * Keys, values and metadata are stored in binary form. <tt>byte[]</tt> keys and values, such as the ones stored
+ * by the Hot Rod and memcached servers, are stored as they are, while any other key or value is marshalled with
+ * the cache marshaller. Keys are compared by their binary form, so keys other than <tt>byte[]</tt> must marshall
+ * to the same bytes when equal. Entries are only turned into {@link InternalCacheEntry} instances when read, and
+ * those instances are copies: changes to them only take effect when they're put back in the container.
+ * <p/>
+ * The memory used can be bounded with the <tt>maxMemory</tt> property, in bytes, and the number of entries with
+ * the eviction configuration. When either bound is reached, least recently used entries are evicted, and
+ * passivated if passivation is enabled. The eviction strategy is always LRU, approximated per size class as
+ * memcached does. Entries must fit in a slab, whose size is set with the <tt>slabSize</tt> property and defaults
+ * to 1MB. Since the slabs are direct buffers, <tt>-XX:MaxDirectMemorySize</tt> must allow for <tt>maxMemory</tt>.
+ * <p/>
+ * It can be configured with:
+ * <pre>
+ * &lt;dataContainer class="org.infinispan.container.offheap.OffHeapDataContainer"&gt;
+ *    &lt;properties&gt;
+ *       &lt;property name="maxMemory" value="34359738368"/&gt;
+ *    &lt;/properties&gt;
+ * &lt;/dataContainer&gt;
+ * </pre>
+ *
+ * @since 7.0
+ */
+@ThreadSafe
+public class OffHeapDataContainer implements DataContainer {
+
+   public static final String MAX_MEMORY = "maxMemory";
+   public static final String SLAB_SIZE = "slabSize";
+
+   private static final Log log = LogFactory.getLog(OffHeapDataContainer.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private static final int DEFAULT_SLAB_SIZE = 1024 * 1024;
+   private static final int MIN_SLABS_PER_SEGMENT = 4;
+   private static final Hash HASH = new MurmurHash3();
+
+   private long maxMemory;
+   private int slabSize;
+   private volatile OffHeapSegment[] segments;
+   private int segmentShift;
+   private int segmentMask;
+   private boolean bounded;
+
+   private StreamingMarshaller marshaller;
+   private InternalEntryFactory entryFactory;
+   private TimeService timeService;
+   private EvictionManager evictionManager;
+   private PassivationManager passivator;
+   private ActivationManager activator;
+   private PersistenceManager pm;
+
+   public OffHeapDataContainer() {
+      this(-1, DEFAULT_SLAB_SIZE);
+   }
+
+   /**
+    * @param maxMemory maximum number of bytes of slabs, or -1 for unbounded
+    * @param slabSize size of each slab, which is also the maximum size of an entry
+    */
+   public OffHeapDataContainer(long maxMemory, int slabSize) {
+      this.maxMemory = maxMemory;
+      this.slabSize = slabSize;
+   }
+
+   @Inject
+   public void initialize(Configuration configuration, @ComponentName(CACHE_MARSHALLER) StreamingMarshaller marshaller,
+         InternalEntryFactory entryFactory, TimeService timeService, EvictionManager evictionManager,
+         PassivationManager passivator, ActivationManager activator, PersistenceManager pm) {
+      this.marshaller = marshaller;
+      this.entryFactory = entryFactory;
+      this.timeService = timeService;
+      this.evictionManager = evictionManager;
+      this.passivator = passivator;
+      this.activator = activator;
+      this.pm = pm;
+
+      TypedProperties properties = configuration.dataContainer().properties();
+      maxMemory = properties.getLongProperty(MAX_MEMORY, maxMemory);
+      slabSize = properties.getIntProperty(SLAB_SIZE, slabSize);
+      int maxEntries = configuration.eviction().strategy().isEnabled() ? configuration.eviction().maxEntries() : -1;
+      bounded = maxMemory > 0 || maxEntries > 0;
+
+      long maxSlabs = maxMemory > 0 ? maxMemory / slabSize : Integer.MAX_VALUE;
+      int numSegments = 1;
+      while (numSegments < configuration.locking().concurrencyLevel())
+         numSegments <<= 1;
+      // Don't split the memory in segments too small to balance their slabs among size classes
+      while (numSegments > 1 && maxSlabs / numSegments < MIN_SLABS_PER_SEGMENT)
+         numSegments >>= 1;
+
+      OffHeapSegment[] newSegments = new OffHeapSegment[numSegments];
+      OffHeapSegment.EvictionListener evictionListener = new PassivatingEvictionListener();
+      for (int i = 0; i < numSegments; i++) {
+         newSegments[i] = new OffHeapSegment(slabSize, (int) Math.min(Integer.MAX_VALUE, maxSlabs / numSegments),
+               maxEntries > 0 ? (maxEntries + numSegments - 1) / numSegments : -1, evictionListener);
+      }
+      segmentShift = 32 - Integer.numberOfTrailingZeros(numSegments);
+      segmentMask = numSegments - 1;
+      segments = newSegments;
+   }
+
+   @Override
+   public InternalCacheEntry get(Object k) {
+      byte[] key = toBytes(k);
+      int hash = hash(key);
+      OffHeapEntry e = segmentFor(hash).get(hash, keyFlags(k), key, timeService.wallClockTime(), true);
+      return e == null ? null : toInternalCacheEntry(k, e);
+   }
+
+   @Override
+   public InternalCacheEntry peek(Object k) {
+      byte[] key = toBytes(k);
+      int hash = hash(key);
+      OffHeapEntry e = segmentFor(hash).peek(hash, keyFlags(k), key);
+      return e == null ? null : toInternalCacheEntry(k, e);
+   }
+
+   @Override
+   public void put(Object k, Object v, Metadata metadata) {
+      byte[] key = toBytes(k);
+      int hash = hash(key);
+      OffHeapEntry e = toOffHeapEntry(k, key, hash, v, metadata);
+      OffHeapSegment segment = segmentFor(hash);
+      if (!segment.fits(e))
+         throw log.offHeapEntryTooLarge(e.size(), slabSize);
+
+      if (trace)
+         log.tracef("Store entry with key %s and %d bytes in container", k, e.size());
+
+      List<OffHeapEntry> evicted = new ArrayList<OffHeapEntry>(0);
+      boolean created = segment.put(e, evicted);
+      if (bounded && created)
+         activator.activate(k);
+      if (!evicted.isEmpty())
+         notifyEviction(evicted);
+   }
+
+   @Override
+   public boolean containsKey(Object k) {
+      byte[] key = toBytes(k);
+      int hash = hash(key);
+      return segmentFor(hash).get(hash, keyFlags(k), key, timeService.wallClockTime(), false) != null;
+   }
+
+   @Override
+   public InternalCacheEntry remove(Object k) {
+      byte[] key = toBytes(k);
+      int hash = hash(key);
+      OffHeapEntry e = segmentFor(hash).remove(hash, keyFlags(k), key);
+      if (bounded && pm != null)
+         pm.deleteFromAllStores(k, false);
+      return e == null || OffHeapEntry.isExpired(e.lifespan, e.created, e.maxIdle, e.lastUsed, timeService.wallClockTime()) ? null : toInternalCacheEntry(k, e);
+   }
+
+   @Override
+   public int size() {
+      int size = 0;
+      for (OffHeapSegment segment : segments)
+         size += segment.size();
+      return size;
+   }
+
+   @Override
+   public void clear() {
+      OffHeapSegment[] segments = this.segments;
+      // Not initialized if the cache failed to start
+      if (segments != null) {
+         for (OffHeapSegment segment : segments)
+            segment.clear();
+      }
+   }
+
+   @Override
+   public Set<Object> keySet() {
+      return new KeySet();
+   }
+
+   @Override
+   public Collection<Object> values() {
+      return new Values();
+   }
+
+   @Override
+   public Set<InternalCacheEntry> entrySet() {
+      return new EntrySet();
+   }
+
+   @Override
+   public void purgeExpired() {
+      long currentTimeMillis = timeService.wallClockTime();
+      for (OffHeapSegment segment : segments)
+         segment.purgeExpired(currentTimeMillis);
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry> iterator() {
+      return new EntryIterator();
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public <K> void executeTask(AdvancedCacheLoader.KeyFilter<K> filter,
+         ParallelIterableMap.KeyValueAction<Object, InternalCacheEntry> action) throws InterruptedException {
+      if (filter == null)
+         throw new IllegalArgumentException("No filter specified");
+      if (action == null)
+         throw new IllegalArgumentException("No action specified");
+
+      for (OffHeapSegment segment : segments) {
+         for (OffHeapEntry e : segment.entries()) {
+            InternalCacheEntry ice = toInternalCacheEntry(null, e);
+            if (filter.shouldLoadKey((K) ice.getKey()))
+               action.apply(ice.getKey(), ice);
+         }
+         if (Thread.currentThread().isInterrupted())
+            throw new InterruptedException();
+      }
+   }
+
+   private OffHeapSegment segmentFor(int hash) {
+      return segments[(hash >>> segmentShift) & segmentMask];
+   }
+
+   private static int hash(byte[] key) {
+      return HASH.hash(key);
+   }
+
+   private static byte keyFlags(Object k) {
+      return k instanceof byte[] ? OffHeapEntry.KEY_BYTES : 0;
+   }
+
+   private OffHeapEntry toOffHeapEntry(Object k, byte[] key, int hash, Object v, Metadata metadata) {
+      byte flags = keyFlags(k);
+      if (v instanceof byte[])
+         flags |= OffHeapEntry.VALUE_BYTES;
+
+      // Most metadata is made of just the expiration settings and maybe a numeric
+      // version, which are kept in the entry header instead of marshalling it
+      long version = 0;
+      byte[] metadataBytes;
+      if (metadata instanceof EmbeddedMetadata
+            && (metadata.version() == null || metadata.version() instanceof NumericVersion)) {
+         if (metadata.version() != null) {
+            flags |= OffHeapEntry.NUMERIC_VERSION;
+            version = ((NumericVersion) metadata.version()).getVersion();
+         }
+         metadataBytes = new byte[0];
+      } else {
+         flags |= OffHeapEntry.MARSHALLED_METADATA;
+         metadataBytes = marshall(metadata);
+      }
+
+      long lifespan = metadata.lifespan();
+      long maxIdle = metadata.maxIdle();
+      long now = lifespan > -1 || maxIdle > -1 ? timeService.wallClockTime() : -1;
+      return new OffHeapEntry(flags, hash, key, toBytes(v), metadataBytes,
+            lifespan > -1 ? now : -1, maxIdle > -1 ? now : -1, lifespan, maxIdle, version);
+   }
+
+   private InternalCacheEntry toInternalCacheEntry(Object k, OffHeapEntry e) {
+      Object key = k != null ? k : e.isSet(OffHeapEntry.KEY_BYTES) ? e.key : unmarshall(e.key);
+      Object value = e.isSet(OffHeapEntry.VALUE_BYTES) ? e.value : unmarshall(e.value);
+      Metadata metadata;
+      if (e.isSet(OffHeapEntry.MARSHALLED_METADATA)) {
+         metadata = (Metadata) unmarshall(e.metadata);
+      } else {
+         metadata = new EmbeddedMetadata.Builder()
+               .lifespan(e.lifespan).maxIdle(e.maxIdle)
+               .version(e.isSet(OffHeapEntry.NUMERIC_VERSION) ? new NumericVersion(e.version) : null)
+               .build();
+      }
+      return entryFactory.create(key, value, metadata, e.created, e.lifespan, e.lastUsed, e.maxIdle);
+   }
+
+   private byte[] toBytes(Object o) {
+      return o instanceof byte[] ? (byte[]) o : marshall(o);
+   }
+
+   private byte[] marshall(Object o) {
+      try {
+         return marshaller.objectToByteBuffer(o);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheException(e);
+      } catch (Exception e) {
+         throw new CacheException("Unable to marshall " + o, e);
+      }
+   }
+
+   private Object unmarshall(byte[] bytes) {
+      try {
+         return marshaller.objectFromByteBuffer(bytes);
+      } catch (Exception e) {
+         throw new CacheException("Unable to unmarshall entry", e);
+      }
+   }
+
+   private void notifyEviction(List<OffHeapEntry> evicted) {
+      Map<Object, InternalCacheEntry> entries = new HashMap<Object, InternalCacheEntry>(evicted.size());
+      for (OffHeapEntry e : evicted) {
+         InternalCacheEntry ice = toInternalCacheEntry(null, e);
+         entries.put(ice.getKey(), ice);
+      }
+      evictionManager.onEntryEviction(entries);
+   }
+
+   private final class PassivatingEvictionListener implements OffHeapSegment.EvictionListener {
+      @Override
+      public void onEntryChosenForEviction(OffHeapEntry entry) {
+         // Materializing the entry is only worth it when it's going to be stored
+         if (passivator.isEnabled())
+            passivator.passivate(toInternalCacheEntry(null, entry));
+      }
+   }
+
+   /**
+    * Iterates over copies of the entries, taken one segment at a time.
+    */
+   private class EntryIterator implements Iterator<InternalCacheEntry> {
+      private final OffHeapSegment[] segments = OffHeapDataContainer.this.segments;
+      private int nextSegment;
+      private Iterator<OffHeapEntry> current = Collections.<OffHeapEntry>emptyList().iterator();
+
+      @Override
+      public boolean hasNext() {
+         while (!current.hasNext() && nextSegment < segments.length)
+            current = segments[nextSegment++].entries().iterator();
+         return current.hasNext();
+      }
+
+      @Override
+      public InternalCacheEntry next() {
+         if (!hasNext())
+            throw new NoSuchElementException();
+         return toInternalCacheEntry(null, current.next());
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Set
+    *
+    */
+   private class EntrySet extends AbstractSet<InternalCacheEntry> {
+
+      @Override
+      public boolean contains(Object o) {
+         if (!(o instanceof Map.Entry)) {
+            return false;
+         }
+
+         @SuppressWarnings("rawtypes")
+         Map.Entry e = (Map.Entry) o;
+         InternalCacheEntry ice = peek(e.getKey());
+         return ice != null && ice.getValue().equals(e.getValue());
+      }
+
+      @Override
+      public Iterator<InternalCacheEntry> iterator() {
+         final Iterator<InternalCacheEntry> it = new EntryIterator();
+         return new Iterator<InternalCacheEntry>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public InternalCacheEntry next() {
+               return CoreImmutables.immutableInternalCacheEntry(it.next());
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return OffHeapDataContainer.this.size();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Set
+    *
+    */
+   private class KeySet extends AbstractSet<Object> {
+
+      @Override
+      public boolean contains(Object o) {
+         return peek(o) != null;
+      }
+
+      @Override
+      public Iterator<Object> iterator() {
+         final Iterator<InternalCacheEntry> it = new EntryIterator();
+         return new Iterator<Object>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public Object next() {
+               return it.next().getKey();
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return OffHeapDataContainer.this.size();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Collection
+    *
+    */
+   private class Values extends AbstractCollection<Object> {
+
+      @Override
+      public Iterator<Object> iterator() {
+         final Iterator<InternalCacheEntry> it = new EntryIterator();
+         return new Iterator<Object>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public Object next() {
+               return it.next().getValue();
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return OffHeapDataContainer.this.size();
+      }
+   }
+
+}
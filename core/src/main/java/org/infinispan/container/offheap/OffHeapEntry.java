@@ -0,0 +1,147 @@
+package org.infinispan.container.offheap;
+
+import org.infinispan.container.entries.ExpiryHelper;
+
+/**
+ * Copy of an entry stored off heap, with its key, value and metadata still in binary form.
+ * <p/>
+ * Entries are laid out in their chunk as follows:
+ * <pre>
+ * offset  size
+ *  0      1     flags
+ *  1      1     size class
+ *  4      4     hash of the key bytes
+ *  8      8     address of the next entry in the hash bucket
+ * 16      8     address of the previous entry in the LRU list
+ * 24      8     address of the next entry in the LRU list
+ * 32      8     access stamp
+ * 40      8     created
+ * 48      8     last used
+ * 56      8     lifespan
+ * 64      8     max idle
+ * 72      8     numeric version
+ * 80      4     key length
+ * 84      4     value length
+ * 88      4     metadata length
+ * 92            key, value and metadata bytes
+ * </pre>
+ *
+ * @since 7.0
+ */
+final class OffHeapEntry {
+
+   static final byte IN_USE = 1;
+   static final byte KEY_BYTES = 1 << 1;
+   static final byte VALUE_BYTES = 1 << 2;
+   static final byte NUMERIC_VERSION = 1 << 3;
+   static final byte MARSHALLED_METADATA = 1 << 4;
+
+   static final int FLAGS = 0;
+   static final int SIZE_CLASS = 1;
+   static final int HASH = 4;
+   static final int NEXT = SlabAllocator.NEXT_OFFSET;
+   static final int LRU_PREVIOUS = 16;
+   static final int LRU_NEXT = 24;
+   static final int STAMP = 32;
+   static final int CREATED = 40;
+   static final int LAST_USED = 48;
+   static final int LIFESPAN = 56;
+   static final int MAX_IDLE = 64;
+   static final int VERSION = 72;
+   static final int KEY_LENGTH = 80;
+   static final int VALUE_LENGTH = 84;
+   static final int METADATA_LENGTH = 88;
+   static final int HEADER_SIZE = 92;
+
+   final byte flags;
+   final int hash;
+   final byte[] key;
+   final byte[] value;
+   final byte[] metadata;
+   final long lifespan;
+   final long maxIdle;
+   final long version;
+   long created;
+   long lastUsed;
+
+   OffHeapEntry(byte flags, int hash, byte[] key, byte[] value, byte[] metadata,
+         long created, long lastUsed, long lifespan, long maxIdle, long version) {
+      this.flags = flags;
+      this.hash = hash;
+      this.key = key;
+      this.value = value;
+      this.metadata = metadata;
+      this.created = created;
+      this.lastUsed = lastUsed;
+      this.lifespan = lifespan;
+      this.maxIdle = maxIdle;
+      this.version = version;
+   }
+
+   boolean isSet(byte flag) {
+      return (flags & flag) != 0;
+   }
+
+   int size() {
+      return HEADER_SIZE + key.length + value.length + metadata.length;
+   }
+
+   static boolean isExpired(long lifespan, long created, long maxIdle, long lastUsed, long now) {
+      return ExpiryHelper.isExpiredTransientMortal(maxIdle, lastUsed, lifespan, created, now);
+   }
+
+   static boolean isExpired(SlabAllocator allocator, long address, long now) {
+      return isExpired(allocator.getLong(address + LIFESPAN), allocator.getLong(address + CREATED),
+            allocator.getLong(address + MAX_IDLE), allocator.getLong(address + LAST_USED), now);
+   }
+
+   static OffHeapEntry read(SlabAllocator allocator, long address) {
+      int keyLength = allocator.getInt(address + KEY_LENGTH);
+      int valueLength = allocator.getInt(address + VALUE_LENGTH);
+      int metadataLength = allocator.getInt(address + METADATA_LENGTH);
+      long data = address + HEADER_SIZE;
+      return new OffHeapEntry(
+            allocator.getByte(address + FLAGS),
+            allocator.getInt(address + HASH),
+            allocator.getBytes(data, keyLength),
+            allocator.getBytes(data + keyLength, valueLength),
+            allocator.getBytes(data + keyLength + valueLength, metadataLength),
+            allocator.getLong(address + CREATED),
+            allocator.getLong(address + LAST_USED),
+            allocator.getLong(address + LIFESPAN),
+            allocator.getLong(address + MAX_IDLE),
+            allocator.getLong(address + VERSION));
+   }
+
+   /**
+    * Writes everything but the links, which are maintained by the segment.
+    */
+   void write(SlabAllocator allocator, long address, int sizeClass) {
+      allocator.putByte(address + FLAGS, (byte) (flags | IN_USE));
+      allocator.putByte(address + SIZE_CLASS, (byte) sizeClass);
+      allocator.putInt(address + HASH, hash);
+      allocator.putLong(address + CREATED, created);
+      allocator.putLong(address + LAST_USED, lastUsed);
+      allocator.putLong(address + LIFESPAN, lifespan);
+      allocator.putLong(address + MAX_IDLE, maxIdle);
+      allocator.putLong(address + VERSION, version);
+      allocator.putInt(address + KEY_LENGTH, key.length);
+      allocator.putInt(address + VALUE_LENGTH, value.length);
+      allocator.putInt(address + METADATA_LENGTH, metadata.length);
+      long data = address + HEADER_SIZE;
+      allocator.putBytes(data, key);
+      allocator.putBytes(data + key.length, value);
+      allocator.putBytes(data + key.length + value.length, metadata);
+   }
+
+   /**
+    * Whether the entry at the given address has the given key.
+    */
+   static boolean hasKey(SlabAllocator allocator, long address, int hash, byte keyFlags, byte[] key) {
+      return allocator.getInt(address + HASH) == hash
+            && (allocator.getByte(address + FLAGS) & KEY_BYTES) == keyFlags
+            && allocator.getInt(address + KEY_LENGTH) == key.length
+            && allocator.equalBytes(address + HEADER_SIZE, key);
+   }
+
+}
@@ -0,0 +1,311 @@
+package org.infinispan.container.offheap;
+
+import static org.infinispan.container.offheap.OffHeapEntry.*;
+import static org.infinispan.container.offheap.SlabAllocator.NULL;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Part of an {@link OffHeapDataContainer} holding the entries whose key hashes fall in it, guarded by its own
+ * lock. The entries live in chunks of its own {@link SlabAllocator}, and the hash index, made of buckets of
+ * chained entries, lives in direct memory as well.
+ * <p/>
+ * Entries are kept in a LRU list per size class. When a new entry can't be allocated, the least recently used
+ * entry of its size class is evicted, and if the size class has no entries yet, the slab holding the least
+ * recently used entry of any size class is emptied and reassigned to it.
+ *
+ * @since 7.0
+ */
+@ThreadSafe
+final class OffHeapSegment {
+
+   /**
+    * Gets notified, while the segment is locked, of the entries evicted to make room for new ones.
+    */
+   interface EvictionListener {
+      void onEntryChosenForEviction(OffHeapEntry entry);
+   }
+
+   private static final int INITIAL_CAPACITY = 64;
+   private static final int MAXIMUM_CAPACITY = 1 << 27;
+
+   private final SlabAllocator allocator;
+   private final int maxEntries;
+   private final EvictionListener evictionListener;
+   private final long[] lruHeads;
+   private final long[] lruTails;
+   private ByteBuffer buckets;
+   private int capacity;
+   private int count;
+   private long stamp;
+
+   OffHeapSegment(int slabSize, int maxSlabs, int maxEntries, EvictionListener evictionListener) {
+      this.allocator = new SlabAllocator(slabSize, maxSlabs, 128);
+      this.maxEntries = maxEntries;
+      this.evictionListener = evictionListener;
+      this.lruHeads = new long[allocator.sizeClasses()];
+      this.lruTails = new long[allocator.sizeClasses()];
+      initBuckets(INITIAL_CAPACITY);
+   }
+
+   /**
+    * Whether the entry fits in a slab.
+    */
+   boolean fits(OffHeapEntry entry) {
+      return allocator.sizeClass(entry.size()) >= 0;
+   }
+
+   int slabSize() {
+      return allocator.slabSize();
+   }
+
+   /**
+    * Returns a copy of the entry with the given key, or null if there's none or it has expired, in which case it's
+    * removed. When touched, the entry's last used time is updated and it becomes the most recently used one.
+    */
+   synchronized OffHeapEntry get(int hash, byte keyFlags, byte[] key, long now, boolean touch) {
+      long address = find(hash, keyFlags, key);
+      if (address == NULL)
+         return null;
+      if (OffHeapEntry.isExpired(allocator, address, now)) {
+         removeAt(address);
+         return null;
+      }
+      if (touch) {
+         if (allocator.getLong(address + MAX_IDLE) > -1)
+            allocator.putLong(address + LAST_USED, now);
+         int sizeClass = sizeClass(address);
+         lruRemove(address, sizeClass);
+         lruAddFirst(address, sizeClass);
+      }
+      return OffHeapEntry.read(allocator, address);
+   }
+
+   /**
+    * Returns a copy of the entry with the given key, without checking its expiration or updating its usage.
+    */
+   synchronized OffHeapEntry peek(int hash, byte keyFlags, byte[] key) {
+      long address = find(hash, keyFlags, key);
+      return address == NULL ? null : OffHeapEntry.read(allocator, address);
+   }
+
+   /**
+    * Stores the entry, replacing the one with the same key if any, and adds the entries evicted to make room for
+    * it to the given list. Returns whether there was no entry with the same key.
+    */
+   synchronized boolean put(OffHeapEntry entry, List<OffHeapEntry> evicted) {
+      long existing = find(entry.hash, (byte) (entry.flags & KEY_BYTES), entry.key);
+      if (existing != NULL)
+         removeAt(existing);
+
+      int sizeClass = allocator.sizeClass(entry.size());
+      long address = allocate(sizeClass, evicted);
+      entry.write(allocator, address, sizeClass);
+      int bucket = bucket(entry.hash);
+      allocator.putLong(address + NEXT, buckets.getLong(bucket));
+      buckets.putLong(bucket, address);
+      lruAddFirst(address, sizeClass);
+      count++;
+
+      if (maxEntries > 0 && count > maxEntries)
+         evictLeastRecentlyUsed(evicted);
+      if (count > capacity - (capacity >>> 2) && capacity < MAXIMUM_CAPACITY)
+         resize(capacity << 1);
+      return existing == NULL;
+   }
+
+   /**
+    * Removes the entry with the given key, returning a copy of it or null if there was none.
+    */
+   synchronized OffHeapEntry remove(int hash, byte keyFlags, byte[] key) {
+      long address = find(hash, keyFlags, key);
+      if (address == NULL)
+         return null;
+      OffHeapEntry entry = OffHeapEntry.read(allocator, address);
+      removeAt(address);
+      return entry;
+   }
+
+   synchronized int size() {
+      return count;
+   }
+
+   synchronized void clear() {
+      allocator.clear();
+      Arrays.fill(lruHeads, NULL);
+      Arrays.fill(lruTails, NULL);
+      count = 0;
+      initBuckets(INITIAL_CAPACITY);
+   }
+
+   synchronized void purgeExpired(long now) {
+      for (int sizeClass = 0; sizeClass < lruHeads.length; sizeClass++) {
+         long address = lruHeads[sizeClass];
+         while (address != NULL) {
+            long next = allocator.getLong(address + LRU_NEXT);
+            if (OffHeapEntry.isExpired(allocator, address, now))
+               removeAt(address);
+            address = next;
+         }
+      }
+   }
+
+   /**
+    * Returns copies of all the entries in the segment.
+    */
+   synchronized List<OffHeapEntry> entries() {
+      List<OffHeapEntry> entries = new ArrayList<OffHeapEntry>(count);
+      for (int sizeClass = 0; sizeClass < lruHeads.length; sizeClass++) {
+         for (long address = lruHeads[sizeClass]; address != NULL; address = allocator.getLong(address + LRU_NEXT))
+            entries.add(OffHeapEntry.read(allocator, address));
+      }
+      return entries;
+   }
+
+   private long find(int hash, byte keyFlags, byte[] key) {
+      long address = buckets.getLong(bucket(hash));
+      while (address != NULL && !OffHeapEntry.hasKey(allocator, address, hash, keyFlags, key))
+         address = allocator.getLong(address + NEXT);
+      return address;
+   }
+
+   private long allocate(int sizeClass, List<OffHeapEntry> evicted) {
+      long address = allocator.allocate(sizeClass);
+      while (address == NULL) {
+         if (lruTails[sizeClass] != NULL) {
+            evict(lruTails[sizeClass], evicted);
+         } else {
+            // No room for the size class, so take over the slab of the least recently used entry
+            int slab = victimSlab(sizeClass);
+            int slabClass = allocator.slabClass(slab);
+            for (int i = 0; i < allocator.chunksPerSlab(slabClass); i++) {
+               long chunk = allocator.chunk(slab, slabClass, i);
+               if ((allocator.getByte(chunk + FLAGS) & IN_USE) != 0)
+                  evict(chunk, evicted);
+            }
+            allocator.reassign(slab, sizeClass);
+         }
+         address = allocator.allocate(sizeClass);
+      }
+      return address;
+   }
+
+   private int victimSlab(int sizeClass) {
+      long oldest = leastRecentlyUsed();
+      if (oldest != NULL)
+         return allocator.slabOf(oldest);
+      // No entries at all, so every slab is free
+      for (int slab = 0; slab < allocator.slabs(); slab++) {
+         if (allocator.slabClass(slab) != sizeClass)
+            return slab;
+      }
+      throw new IllegalStateException("No slab to reassign to size class " + sizeClass);
+   }
+
+   private void evictLeastRecentlyUsed(List<OffHeapEntry> evicted) {
+      long oldest = leastRecentlyUsed();
+      if (oldest != NULL)
+         evict(oldest, evicted);
+   }
+
+   private long leastRecentlyUsed() {
+      long oldest = NULL;
+      long oldestStamp = Long.MAX_VALUE;
+      for (long tail : lruTails) {
+         if (tail != NULL) {
+            long tailStamp = allocator.getLong(tail + STAMP);
+            if (tailStamp < oldestStamp) {
+               oldest = tail;
+               oldestStamp = tailStamp;
+            }
+         }
+      }
+      return oldest;
+   }
+
+   private void evict(long address, List<OffHeapEntry> evicted) {
+      OffHeapEntry entry = OffHeapEntry.read(allocator, address);
+      evictionListener.onEntryChosenForEviction(entry);
+      evicted.add(entry);
+      removeAt(address);
+   }
+
+   private void removeAt(long address) {
+      int hash = allocator.getInt(address + HASH);
+      int bucket = bucket(hash);
+      long current = buckets.getLong(bucket);
+      long next = allocator.getLong(address + NEXT);
+      if (current == address) {
+         buckets.putLong(bucket, next);
+      } else {
+         while (allocator.getLong(current + NEXT) != address)
+            current = allocator.getLong(current + NEXT);
+         allocator.putLong(current + NEXT, next);
+      }
+      int sizeClass = sizeClass(address);
+      lruRemove(address, sizeClass);
+      allocator.free(address, sizeClass);
+      count--;
+   }
+
+   private int sizeClass(long address) {
+      return allocator.getByte(address + SIZE_CLASS) & 0xFF;
+   }
+
+   private void lruAddFirst(long address, int sizeClass) {
+      long head = lruHeads[sizeClass];
+      allocator.putLong(address + STAMP, ++stamp);
+      allocator.putLong(address + LRU_PREVIOUS, NULL);
+      allocator.putLong(address + LRU_NEXT, head);
+      if (head != NULL)
+         allocator.putLong(head + LRU_PREVIOUS, address);
+      else
+         lruTails[sizeClass] = address;
+      lruHeads[sizeClass] = address;
+   }
+
+   private void lruRemove(long address, int sizeClass) {
+      long previous = allocator.getLong(address + LRU_PREVIOUS);
+      long next = allocator.getLong(address + LRU_NEXT);
+      if (previous != NULL)
+         allocator.putLong(previous + LRU_NEXT, next);
+      else
+         lruHeads[sizeClass] = next;
+      if (next != NULL)
+         allocator.putLong(next + LRU_PREVIOUS, previous);
+      else
+         lruTails[sizeClass] = previous;
+   }
+
+   private int bucket(int hash) {
+      // Byte offset of the bucket's address
+      return (hash & (capacity - 1)) << 3;
+   }
+
+   private void initBuckets(int capacity) {
+      this.capacity = capacity;
+      this.buckets = ByteBuffer.allocateDirect(capacity << 3);
+   }
+
+   private void resize(int newCapacity) {
+      ByteBuffer oldBuckets = buckets;
+      int oldCapacity = capacity;
+      initBuckets(newCapacity);
+      for (int i = 0; i < oldCapacity; i++) {
+         long address = oldBuckets.getLong(i << 3);
+         while (address != NULL) {
+            long next = allocator.getLong(address + NEXT);
+            int bucket = bucket(allocator.getInt(address + HASH));
+            allocator.putLong(address + NEXT, buckets.getLong(bucket));
+            buckets.putLong(bucket, address);
+            address = next;
+         }
+      }
+   }
+
+}
@@ -0,0 +1,231 @@
+package org.infinispan.container.offheap;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Allocates fixed size chunks of native memory, out of slabs of direct memory, the same way memcached does.
+ * <p/>
+ * Chunk sizes are grouped in size classes growing by a constant factor, and every slab is split into chunks of
+ * a single size class when it's assigned to it. Freed chunks are kept in a free list per size class and reused
+ * for allocations of the same size class. Slabs are only allocated up to the given maximum, after which callers
+ * have to free chunks, or {@link #reassign(int, int)} whole slabs, to get new chunks.
+ * <p/>
+ * Chunks are identified by an address made of the slab index and the offset of the chunk in the slab, which is
+ * never {@link #NULL}. The first byte of a chunk is zero while the chunk is free and the long at
+ * {@link #NEXT_OFFSET} links the free chunks, both of which callers can reuse while the chunk is allocated.
+ *
+ * @since 7.0
+ */
+@NotThreadSafe
+final class SlabAllocator {
+
+   static final long NULL = 0;
+   static final int NEXT_OFFSET = 8;
+
+   private static final float GROWTH_FACTOR = 1.25f;
+
+   private final int slabSize;
+   private final int maxSlabs;
+   private final int[] chunkSizes;
+   private final long[] freeLists;
+   private final List<ByteBuffer> slabs = new ArrayList<ByteBuffer>();
+   private int[] slabClasses = new int[16];
+
+   SlabAllocator(int slabSize, int maxSlabs, int minChunkSize) {
+      this.slabSize = slabSize;
+      this.maxSlabs = Math.max(1, maxSlabs);
+      this.chunkSizes = chunkSizes(minChunkSize, slabSize);
+      this.freeLists = new long[chunkSizes.length];
+   }
+
+   private static int[] chunkSizes(int minChunkSize, int slabSize) {
+      List<Integer> sizes = new ArrayList<Integer>();
+      int size = minChunkSize;
+      while (size < slabSize / 2) {
+         sizes.add(size);
+         // Keep the chunks 8 byte aligned
+         size = ((int) (size * GROWTH_FACTOR) + 7) & ~7;
+      }
+      sizes.add(slabSize);
+      int[] result = new int[sizes.size()];
+      for (int i = 0; i < result.length; i++)
+         result[i] = sizes.get(i);
+      return result;
+   }
+
+   /**
+    * Returns the smallest size class holding the given number of bytes, or -1 if they don't fit in a slab.
+    */
+   int sizeClass(int size) {
+      int sizeClass = Arrays.binarySearch(chunkSizes, size);
+      if (sizeClass < 0)
+         sizeClass = -sizeClass - 1;
+      return sizeClass < chunkSizes.length ? sizeClass : -1;
+   }
+
+   int sizeClasses() {
+      return chunkSizes.length;
+   }
+
+   int slabSize() {
+      return slabSize;
+   }
+
+   /**
+    * Returns a free chunk of the given size class, allocating a new slab if needed and allowed, or {@link #NULL}
+    * if there are neither free chunks nor slabs left.
+    */
+   long allocate(int sizeClass) {
+      if (freeLists[sizeClass] == NULL) {
+         if (slabs.size() >= maxSlabs)
+            return NULL;
+         int slab = slabs.size();
+         slabs.add(ByteBuffer.allocateDirect(slabSize));
+         if (slab == slabClasses.length)
+            slabClasses = Arrays.copyOf(slabClasses, slab * 2);
+         assign(slab, sizeClass);
+      }
+      long address = freeLists[sizeClass];
+      freeLists[sizeClass] = getLong(address + NEXT_OFFSET);
+      return address;
+   }
+
+   void free(long address, int sizeClass) {
+      putByte(address, (byte) 0);
+      putLong(address + NEXT_OFFSET, freeLists[sizeClass]);
+      freeLists[sizeClass] = address;
+   }
+
+   int slabs() {
+      return slabs.size();
+   }
+
+   int slabOf(long address) {
+      return (int) (address >>> 32) - 1;
+   }
+
+   int slabClass(int slab) {
+      return slabClasses[slab];
+   }
+
+   int chunksPerSlab(int sizeClass) {
+      return slabSize / chunkSizes[sizeClass];
+   }
+
+   long chunk(int slab, int sizeClass, int index) {
+      return ((long) (slab + 1) << 32) | ((long) index * chunkSizes[sizeClass]);
+   }
+
+   /**
+    * Splits a slab, all of whose chunks must be free, into chunks of another size class.
+    */
+   void reassign(int slab, int sizeClass) {
+      int oldClass = slabClasses[slab];
+      // Drop the slab's chunks from the free list of its old size class
+      long previous = NULL;
+      long address = freeLists[oldClass];
+      while (address != NULL) {
+         long next = getLong(address + NEXT_OFFSET);
+         if (slabOf(address) == slab) {
+            if (previous == NULL)
+               freeLists[oldClass] = next;
+            else
+               putLong(previous + NEXT_OFFSET, next);
+         } else {
+            previous = address;
+         }
+         address = next;
+      }
+      assign(slab, sizeClass);
+   }
+
+   private void assign(int slab, int sizeClass) {
+      slabClasses[slab] = sizeClass;
+      // Push in reverse so that the chunks are handed out in address order
+      for (int i = chunksPerSlab(sizeClass) - 1; i >= 0; i--)
+         free(chunk(slab, sizeClass, i), sizeClass);
+   }
+
+   /**
+    * Drops all the slabs, whose memory is released once they're garbage collected.
+    */
+   void clear() {
+      slabs.clear();
+      Arrays.fill(freeLists, NULL);
+   }
+
+   byte getByte(long address) {
+      return buffer(address).get(offset(address));
+   }
+
+   void putByte(long address, byte b) {
+      buffer(address).put(offset(address), b);
+   }
+
+   int getInt(long address) {
+      return buffer(address).getInt(offset(address));
+   }
+
+   void putInt(long address, int i) {
+      buffer(address).putInt(offset(address), i);
+   }
+
+   long getLong(long address) {
+      return buffer(address).getLong(offset(address));
+   }
+
+   void putLong(long address, long l) {
+      buffer(address).putLong(offset(address), l);
+   }
+
+   byte[] getBytes(long address, int length) {
+      byte[] bytes = new byte[length];
+      ByteBuffer buffer = buffer(address);
+      buffer.position(offset(address));
+      buffer.get(bytes);
+      return bytes;
+   }
+
+   void putBytes(long address, byte[] bytes) {
+      ByteBuffer buffer = buffer(address);
+      buffer.position(offset(address));
+      buffer.put(bytes);
+   }
+
+   boolean equalBytes(long address, byte[] bytes) {
+      ByteBuffer buffer = buffer(address);
+      int offset = offset(address);
+      int i = 0;
+      for (; i + 8 <= bytes.length; i += 8) {
+         if (buffer.getLong(offset + i) != readLong(bytes, i))
+            return false;
+      }
+      for (; i < bytes.length; i++) {
+         if (buffer.get(offset + i) != bytes[i])
+            return false;
+      }
+      return true;
+   }
+
+   private static long readLong(byte[] bytes, int i) {
+      // Big endian, like the direct buffers
+      return ((long) bytes[i] << 56) | ((long) (bytes[i + 1] & 0xFF) << 48)
+            | ((long) (bytes[i + 2] & 0xFF) << 40) | ((long) (bytes[i + 3] & 0xFF) << 32)
+            | ((long) (bytes[i + 4] & 0xFF) << 24) | ((bytes[i + 5] & 0xFF) << 16)
+            | ((bytes[i + 6] & 0xFF) << 8) | (bytes[i + 7] & 0xFF);
+   }
+
+   private ByteBuffer buffer(long address) {
+      return slabs.get(slabOf(address));
+   }
+
+   private static int offset(long address) {
+      return (int) address;
+   }
+
+}
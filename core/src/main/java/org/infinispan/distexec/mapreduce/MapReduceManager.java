@@ -50,6 +50,18 @@ <KIn, VIn, KOut, VOut> Set<KOut> mapAndCombineForDistributedReduction(
    <KIn, VIn, KOut, VOut> Map<KOut, List<VOut>> mapAndCombineForLocalReduction(
             MapCombineCommand<KIn, VIn, KOut, VOut> mcc) throws InterruptedException;
 
+   /**
+    * Invoked when MapReduceTask runs on a local cache, with no map phase results to gather from other nodes.
+    * The values collected for each intermediate key are reduced as soon as the map phase is over, without
+    * collecting them into a map first.
+    * 
+    * @param mcc MapCombineCommand built by MapReduceTask
+    * @param reducer the reducer of the task
+    * @return map of reduced output keys and values returned to MapReduceTask
+    */
+   <KIn, VIn, KOut, VOut> Map<KOut, VOut> mapAndReduceLocally(MapCombineCommand<KIn, VIn, KOut, VOut> mcc,
+            Reducer<KOut, VOut> reducer) throws InterruptedException;
+
    /**
     * Invoked when ReduceCommand arrives to a target Infinispan node. Implementations should return
     * a map of reduced output keys and values to be returned to invoker of MapReduceTask
@@ -6,6 +6,7 @@
 import org.infinispan.commands.read.MapCombineCommand;
 import org.infinispan.commands.read.ReduceCommand;
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.commons.util.concurrent.ParallelIterableMap;
 import org.infinispan.configuration.cache.Configuration;
@@ -30,21 +31,21 @@
 
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import static org.infinispan.distexec.mapreduce.MapReduceTask.DEFAULT_TMP_CACHE_CONFIGURATION_NAME;
 import static org.infinispan.factories.KnownComponentNames.ASYNC_TRANSPORT_EXECUTOR;
+import static org.infinispan.factories.KnownComponentNames.CACHE_MARSHALLER;
 
 /**
  * Default implementation of {@link MapReduceManager}.
@@ -63,6 +64,7 @@ public class MapReduceManagerImpl implements MapReduceManager {
    private PersistenceManager persistenceManager;
    private ExecutorService executorService;
    private TimeService timeService;
+   private StreamingMarshaller marshaller;
    private int chunkSize;
 
    MapReduceManagerImpl() {
@@ -71,12 +73,14 @@ public class MapReduceManagerImpl implements MapReduceManager {
    @Inject
    public void init(EmbeddedCacheManager cacheManager, PersistenceManager persistenceManager,
             @ComponentName(ASYNC_TRANSPORT_EXECUTOR) ExecutorService asyncTransportExecutor,
-            ClusteringDependentLogic cdl, TimeService timeService, Configuration configuration) {
+            ClusteringDependentLogic cdl, TimeService timeService, Configuration configuration,
+            @ComponentName(CACHE_MARSHALLER) StreamingMarshaller marshaller) {
       this.cacheManager = cacheManager;
       this.persistenceManager = persistenceManager;
       this.cdl = cdl;
       this.executorService = asyncTransportExecutor;
       this.timeService = timeService;
+      this.marshaller = marshaller;
       this.chunkSize = configuration.clustering().stateTransfer().chunkSize();
    }
 
@@ -88,18 +92,83 @@ public ExecutorService getExecutorService() {
    @Override
    public <KIn, VIn, KOut, VOut> Map<KOut, List<VOut>> mapAndCombineForLocalReduction(
             MapCombineCommand<KIn, VIn, KOut, VOut> mcc) throws InterruptedException {
-      CollectableCollector<KOut, VOut> collector = map(mcc);
-      return combineForLocalReduction(mcc, collector);
+      startCombiner(mcc);
+      try {
+         CollectableCollector<KOut, VOut> collector = map(mcc);
+         return combineForLocalReduction(mcc, collector);
+      } finally {
+         stopCombiner(mcc);
+      }
+   }
+
+   @Override
+   public <KIn, VIn, KOut, VOut> Map<KOut, VOut> mapAndReduceLocally(MapCombineCommand<KIn, VIn, KOut, VOut> mcc,
+            final Reducer<KOut, VOut> reducer) throws InterruptedException {
+      CollectableCollector<KOut, VOut> collector;
+      startCombiner(mcc);
+      try {
+         collector = map(mcc);
+      } finally {
+         stopCombiner(mcc);
+      }
+      final String taskId = mcc.getTaskId();
+      final Map<KOut, VOut> result = new HashMap<KOut, VOut>();
+      MapReduceTaskLifecycleService taskLifecycleService = MapReduceTaskLifecycleService.getInstance();
+      long start = log.isTraceEnabled() ? timeService.time() : 0;
+      try {
+         Cache<?, ?> cache = cacheManager.getCache(mcc.getCacheName());
+         taskLifecycleService.onPreExecute(reducer, cache);
+         // the values of each key are read from the merged runs as the reducer iterates over them
+         collector.visitCollected(new CollectableCollector.CollectedValuesVisitor<KOut, VOut>() {
+            @Override
+            public void visit(KOut key, List<VOut> values) {
+               VOut reduced = reducer.reduce(key, values.iterator());
+               result.put(key, reduced);
+               log.tracef("For m/r task %s reduced %s to %s at %s ", taskId, key, reduced, cdl.getAddress());
+            }
+         });
+      } finally {
+         if (log.isTraceEnabled()) {
+            log.tracef("Reduce for task %s took %s milliseconds", taskId,
+                       timeService.timeDuration(start, TimeUnit.MILLISECONDS));
+         }
+         taskLifecycleService.onPostExecute(reducer);
+         collector.dispose();
+      }
+      return result;
    }
 
    @Override
    public <KIn, VIn, KOut, VOut> Set<KOut> mapAndCombineForDistributedReduction(
             MapCombineCommand<KIn, VIn, KOut, VOut> mcc) throws InterruptedException {
-      CollectableCollector<KOut, VOut> collector = map(mcc);
+      startCombiner(mcc);
       try {
+         CollectableCollector<KOut, VOut> collector = map(mcc);
          return combine(mcc, collector);
+      } catch (InterruptedException e) {
+         throw e;
       } catch (Exception e) {
          throw new CacheException(e);
+      } finally {
+         stopCombiner(mcc);
+      }
+   }
+
+   /**
+    * The combiner is used both by the collectors during the map phase and by the combine phase, so its lifecycle
+    * spans both.
+    */
+   private <KIn, VIn, KOut, VOut> void startCombiner(MapCombineCommand<KIn, VIn, KOut, VOut> mcc) {
+      if (mcc.hasCombiner()) {
+         Cache<?, ?> cache = cacheManager.getCache(mcc.getCacheName());
+         log.tracef("For m/r task %s invoking combiner %s at %s", mcc.getTaskId(), mcc, cdl.getAddress());
+         MapReduceTaskLifecycleService.getInstance().onPreExecute(mcc.getCombiner(), cache);
+      }
+   }
+
+   private <KIn, VIn, KOut, VOut> void stopCombiner(MapCombineCommand<KIn, VIn, KOut, VOut> mcc) {
+      if (mcc.hasCombiner()) {
+         MapReduceTaskLifecycleService.getInstance().onPostExecute(mcc.getCombiner());
       }
    }
 
@@ -172,13 +241,23 @@ protected <KIn, VIn, KOut, VOut> CollectableCollector<KOut, VOut> map(
       Set<KIn> keys = mcc.getKeys();
       final Mapper<KIn, VIn, KOut, VOut> mapper = mcc.getMapper();
       final boolean inputKeysSpecified = keys != null && !keys.isEmpty();
+      final boolean spill = mcc.getSpillThreshold() > 0;
 
       // hook map function into lifecycle and execute it
       MapReduceTaskLifecycleService taskLifecycleService = MapReduceTaskLifecycleService.getInstance();
-      final DefaultCollector<KOut, VOut> collector = new DefaultCollector<KOut, VOut>(!inputKeysSpecified);
+      final CollectableCollector<KOut, VOut> collector;
+      if (spill) {
+         // the combiner runs whenever intermediate results are spilled
+         collector = new SpillingCollector<KOut, VOut>(marshaller, mcc.getCombiner(), mcc.getSpillThreshold(),
+                                                       mcc.getTaskId());
+      } else {
+         // the combiner runs eagerly on the values collected by each mapping thread
+         collector = new PerThreadCollector<KOut, VOut>(mcc.getCombiner(), marshaller, cache);
+      }
       DataContainer dc = cache.getAdvancedCache().getDataContainer();
       log.tracef("For m/r task %s invoking %s with input keys %s",  mcc.getTaskId(), mcc, keys);
       long start = log.isTraceEnabled() ? timeService.time() : 0;
+      boolean success = false;
       try {
          taskLifecycleService.onPreExecute(mapper, cache);
          //User specified input taks keys, most likely a short list of input keys (<10^3), iterate serially
@@ -205,21 +284,25 @@ public void apply(Object key , InternalCacheEntry v) {
                persistenceManager.processOnAllStores(keyFilter, new MapReduceCacheLoaderTask(mapper, collector),
                      true, false);
          }
+         success = true;
       } finally {
          if (log.isTraceEnabled()) {
             log.tracef("Map phase for task %s took %s milliseconds",
                        mcc.getTaskId(), timeService.timeDuration(start, TimeUnit.MILLISECONDS));
          }
          taskLifecycleService.onPostExecute(mapper);
+         if (!success) {
+            collector.dispose();
+         }
       }
       return collector;
    }
 
-   protected <KIn, VIn, KOut, VOut> Set<KOut> combine(MapCombineCommand<KIn, VIn, KOut, VOut> mcc,
+   protected <KIn, VIn, KOut, VOut> Set<KOut> combine(final MapCombineCommand<KIn, VIn, KOut, VOut> mcc,
             CollectableCollector<KOut, VOut> collector) throws Exception{
 
-      String taskId =  mcc.getTaskId();
-      Set<KOut> mapPhaseKeys = new HashSet<KOut>();
+      final String taskId =  mcc.getTaskId();
+      final Set<KOut> mapPhaseKeys = new HashSet<KOut>();
       Cache<Object, DeltaAwareList<VOut>> tmpCache = null;
       if (mcc.isEmitCompositeIntermediateKeys()) {
          tmpCache = cacheManager.getCache(DEFAULT_TMP_CACHE_CONFIGURATION_NAME);
@@ -227,82 +310,56 @@ protected <KIn, VIn, KOut, VOut> Set<KOut> combine(MapCombineCommand<KIn, VIn, K
          tmpCache = cacheManager.getCache(taskId);
       }
       if (tmpCache == null) {
+         collector.dispose();
          throw new IllegalStateException("Temporary cache for MapReduceTask " + taskId
                   + " not found on " + cdl.getAddress());
       }
-      if (mcc.hasCombiner()) {
-         Reducer <KOut,VOut> combiner = mcc.getCombiner();
-         Cache<?, ?> cache = cacheManager.getCache(mcc.getCacheName());
-         log.tracef("For m/r task %s invoking combiner %s at %s",  taskId, mcc, cdl.getAddress());
-         MapReduceTaskLifecycleService taskLifecycleService = MapReduceTaskLifecycleService.getInstance();
-         Map<KOut, List<VOut>> combinedMap = new ConcurrentHashMap<KOut, List<VOut>>();
-         long start = log.isTraceEnabled() ? timeService.time() : 0;
-         try {
-            taskLifecycleService.onPreExecute(combiner, cache);
-            Map<KOut, List<VOut>> collectedValues = collector.collectedValues();
-            for (Entry<KOut, List<VOut>> e : collectedValues.entrySet()) {
-               List<VOut> mapped = e.getValue();
-               List<VOut> combined;
-               if (mapped.size() == 1) {
-                  combined = mapped;
-               } else {
-                  combined = Arrays.asList(combiner.reduce(e.getKey(), mapped.iterator()));
+      final Cache<Object, DeltaAwareList<VOut>> intermediateCache = tmpCache;
+      final Reducer<KOut, VOut> combiner = mcc.getCombiner();
+      long start = log.isTraceEnabled() ? timeService.time() : 0;
+      try {
+         // combine and insert each key/value list pair into tmp cache as they are visited, so that
+         // the intermediate results of a key need not be kept in memory once migrated
+         collector.visitCollected(new CollectableCollector.CollectedValuesVisitor<KOut, VOut>() {
+            @Override
+            public void visit(KOut key, List<VOut> values) {
+               List<VOut> combined = values;
+               if (combiner != null && values.size() > 1) {
+                  combined = Collections.singletonList(combiner.reduce(key, values.iterator()));
+                  log.tracef("For m/r task %s combined %s to %s at %s" , taskId, key, combined, cdl.getAddress());
                }
-               combinedMap.put(e.getKey(), combined);
-               log.tracef("For m/r task %s combined %s to %s at %s" , taskId, e.getKey(), combined, cdl.getAddress());
+               migrateIntermediateKey(mcc, intermediateCache, key, combined);
+               mapPhaseKeys.add(key);
             }
-         } finally {
-            if (log.isTraceEnabled()) {
-               log.tracef("Combine for task %s took %s milliseconds", mcc.getTaskId(),
-                          timeService.timeDuration(start, TimeUnit.MILLISECONDS));
-            }
-            taskLifecycleService.onPostExecute(combiner);
+         });
+      } finally {
+         if (log.isTraceEnabled()) {
+            log.tracef("Combine and migration of keys for task %s took %s milliseconds (Migrated %s keys)",
+                  taskId, timeService.timeDuration(start, TimeUnit.MILLISECONDS), mapPhaseKeys.size());
          }
-         migrateIntermediateKeys(mcc, mapPhaseKeys, tmpCache, combinedMap);
-      } else {
-         // Combiner not specified so lets insert each key/uncombined-List pair into tmp cache
-         Map<KOut, List<VOut>> collectedValues = collector.collectedValues();
-         migrateIntermediateKeys(mcc, mapPhaseKeys, tmpCache, collectedValues);
+         collector.dispose();
       }
       return mapPhaseKeys;
    }
 
-   private <KIn, VIn, KOut, VOut> void migrateIntermediateKeys(MapCombineCommand<KIn, VIn, KOut, VOut> mcc,
-         Set<KOut> mapPhaseKeys, Cache<Object, DeltaAwareList<VOut>> tmpCache, Map<KOut, List<VOut>> collectedValues) {
-      DistributionManager dm = tmpCache.getAdvancedCache().getDistributionManager();
+   private <KIn, VIn, KOut, VOut> void migrateIntermediateKey(MapCombineCommand<KIn, VIn, KOut, VOut> mcc,
+         Cache<Object, DeltaAwareList<VOut>> tmpCache, KOut key, List<VOut> values) {
       String taskId = mcc.getTaskId();
       boolean emitCompositeIntermediateKeys = mcc.isEmitCompositeIntermediateKeys();
-      Map<Address, List<KOut>> keysToNodes = mapKeysToNodes(dm, taskId, collectedValues.keySet(),
-            emitCompositeIntermediateKeys);
-      long start = log.isTraceEnabled() ? timeService.time() : 0;
       try {
-         for (Entry<Address, List<KOut>> entry : keysToNodes.entrySet()) {
-            List<KOut> keysHashedToAddress = entry.getValue();
-            try {
-               log.tracef("For m/r task %s migrating intermediate keys %s to %s", taskId, keysHashedToAddress, entry.getKey());
-               for (KOut key : keysHashedToAddress) {
-                  List<VOut> values = collectedValues.get(key);
-                  int entryTransferCount = chunkSize > 0 ? chunkSize :values.size();
-                  for (int i = 0; i < values.size(); i += entryTransferCount) {
-                     List<VOut> chunk = values.subList(i, Math.min(values.size(), i + entryTransferCount));
-                     DeltaAwareList<VOut> delta = new DeltaAwareList<VOut>(chunk);
-                     if (emitCompositeIntermediateKeys) {
-                        tmpCache.put(new IntermediateCompositeKey<KOut>(taskId, key), delta);
-                     } else {
-                        tmpCache.put(key, delta);
-                     }
-                  }
-                  mapPhaseKeys.add(key);
-               }
-            } catch (Exception e) {
-               throw new CacheException("Could not move intermediate keys/values for M/R task " + taskId, e);
+         log.tracef("For m/r task %s migrating intermediate key %s", taskId, key);
+         int entryTransferCount = chunkSize > 0 ? chunkSize :values.size();
+         for (int i = 0; i < values.size(); i += entryTransferCount) {
+            List<VOut> chunk = values.subList(i, Math.min(values.size(), i + entryTransferCount));
+            DeltaAwareList<VOut> delta = new DeltaAwareList<VOut>(chunk);
+            if (emitCompositeIntermediateKeys) {
+               tmpCache.put(new IntermediateCompositeKey<KOut>(taskId, key), delta);
+            } else {
+               tmpCache.put(key, delta);
             }
          }
-      } finally {
-         if (log.isTraceEnabled()) {
-            log.tracef("Migrating keys for task %s took %s milliseconds (Migrated %s keys)",
-                  mcc.getTaskId(), timeService.timeDuration(start, TimeUnit.MILLISECONDS), mapPhaseKeys.size());
-         }
+      } catch (Exception e) {
+         throw new CacheException("Could not move intermediate keys/values for M/R task " + taskId, e);
       }
    }
 
@@ -310,42 +367,36 @@ private <KIn, VIn, KOut, VOut> Map<KOut, List<VOut>> combineForLocalReduction(
             MapCombineCommand<KIn, VIn, KOut, VOut> mcc,
             CollectableCollector<KOut, VOut> collector) {
 
-      String taskId =  mcc.getTaskId();
-      Reducer <KOut,VOut> combiner = mcc.getCombiner();
-      Map<KOut, List<VOut>> result;
-
-      if (combiner != null) {
-         result = new HashMap<KOut, List<VOut>>();
-         log.tracef("For m/r task %s invoking combiner %s at %s",  taskId, mcc, cdl.getAddress());
-         MapReduceTaskLifecycleService taskLifecycleService = MapReduceTaskLifecycleService.getInstance();
-         long start = log.isTraceEnabled() ? timeService.time() : 0;
-         try {
-            Cache<?, ?> cache = cacheManager.getCache(mcc.getCacheName());
-            taskLifecycleService.onPreExecute(combiner, cache);
-            Map<KOut, List<VOut>> collectedValues = collector.collectedValues();
-            for (Entry<KOut, List<VOut>> e : collectedValues.entrySet()) {
-               VOut combined;
-               List<VOut> list = e.getValue();
-               List<VOut> l = new LinkedList<VOut>();
-               if (list.size() > 1) {
-                  combined = combiner.reduce(e.getKey(), list.iterator());
+      final String taskId =  mcc.getTaskId();
+      final Reducer <KOut,VOut> combiner = mcc.getCombiner();
+      final Map<KOut, List<VOut>> result = new HashMap<KOut, List<VOut>>();
+      long start = log.isTraceEnabled() ? timeService.time() : 0;
+      try {
+         collector.visitCollected(new CollectableCollector.CollectedValuesVisitor<KOut, VOut>() {
+            @Override
+            public void visit(KOut key, List<VOut> values) {
+               if (combiner == null) {
+                  // Combiner not specified, all the values are sent to the master node for reduction
+                  result.put(key, new ArrayList<VOut>(values));
                } else {
-                  combined = list.get(0);
+                  // only the combined value is kept, the values are read from the merged runs as it iterates
+                  VOut combined;
+                  if (values.size() > 1) {
+                     combined = combiner.reduce(key, values.iterator());
+                  } else {
+                     combined = values.get(0);
+                  }
+                  result.put(key, Collections.singletonList(combined));
+                  log.tracef("For m/r task %s combined %s to %s at %s" , taskId, key, combined, cdl.getAddress());
                }
-               l.add(combined);
-               result.put(e.getKey(), l);
-               log.tracef("For m/r task %s combined %s to %s at %s" , taskId, e.getKey(), combined, cdl.getAddress());
-            }
-         } finally {
-            if (log.isTraceEnabled()) {
-               log.tracef("Combine for task %s took %s milliseconds", mcc.getTaskId(),
-                          timeService.timeDuration(start, TimeUnit.MILLISECONDS));
             }
-            taskLifecycleService.onPostExecute(combiner);
+         });
+      } finally {
+         if (combiner != null && log.isTraceEnabled()) {
+            log.tracef("Combine for task %s took %s milliseconds", mcc.getTaskId(),
+                       timeService.timeDuration(start, TimeUnit.MILLISECONDS));
          }
-      } else {
-         // Combiner not specified
-         result = collector.collectedValues();
+         collector.dispose();
       }
       return result;
    }
@@ -420,46 +471,197 @@ public boolean shouldLoadKey(IntermediateCompositeKey<T> key) {
 
 
    /**
+    * Collector used by a single mapping thread. Once a key has {@link #EAGER_COMBINE_THRESHOLD} values, they are
+    * replaced by their combined value, if the collector has a combiner.
+    *
     * @author Sanne Grinovero <sanne@hibernate.org> (C) 2011 Red Hat Inc.
     */
    private static class DefaultCollector<KOut, VOut> implements CollectableCollector<KOut, VOut> {
-      
-      private final boolean atomicEmit;
+
+      private static final int EAGER_COMBINE_THRESHOLD = 32;
+
+      private final Reducer<KOut, VOut> combiner;
       private final Map<KOut, List<VOut>> store;
       
-      public DefaultCollector(boolean atomicEmit) {
-         this.atomicEmit = atomicEmit;
-         store = CollectionFactory.makeConcurrentMap();         
+      public DefaultCollector(Reducer<KOut, VOut> combiner) {
+         this.combiner = combiner;
+         store = new HashMap<KOut, List<VOut>>();
       }
 
       @Override
       public void emit(KOut key, VOut value) {
-         if (atomicEmit) {
-            synchronized (this) {
-               emitHelper(key, value);
-            }
-         } else {
-            emitHelper(key, value);
-         }
-      }
-
-      protected void emitHelper(KOut key, VOut value) {
          List<VOut> list = store.get(key);
          if (list == null) {
-            list = new LinkedList<VOut>();
+            list = new ArrayList<VOut>(2);
             store.put(key, list);
          }
          list.add(value);
+         if (combiner != null && list.size() >= EAGER_COMBINE_THRESHOLD) {
+            VOut combined = combiner.reduce(key, list.iterator());
+            list.clear();
+            list.add(combined);
+         }
+      }
+
+      /**
+       * Moves the values collected by another collector into this one.
+       */
+      void merge(DefaultCollector<KOut, VOut> other) {
+         for (Map.Entry<KOut, List<VOut>> e : other.store.entrySet()) {
+            List<VOut> list = store.get(e.getKey());
+            if (list == null) {
+               store.put(e.getKey(), e.getValue());
+            } else {
+               list.addAll(e.getValue());
+            }
+         }
+         other.store.clear();
+      }
+
+      int size() {
+         return store.size();
+      }
+
+      @Override
+      public void visitCollected(CollectedValuesVisitor<KOut, VOut> visitor) {
+         for (Map.Entry<KOut, List<VOut>> e : store.entrySet()) {
+            visitor.visit(e.getKey(), e.getValue());
+         }
+      }
+
+      @Override
+      public void dispose() {
+         store.clear();
+      }
+   }
+
+   /**
+    * Collector giving each mapping thread its own {@link DefaultCollector}, so that the threads do not contend while
+    * emitting. The collectors are merged the first time the collected values are visited.
+    * <p/>
+    * The combiner is not required to be thread safe, so each thread combines eagerly with its own copy of the combiner
+    * of the task, obtained by marshalling it. The copies get their own lifecycle callbacks, and are stopped once the
+    * map phase is over. If the combiner can't be marshalled, the values are only combined after the map phase.
+    */
+   private static class PerThreadCollector<KOut, VOut> implements CollectableCollector<KOut, VOut> {
+
+      private final Reducer<KOut, VOut> combiner;
+      private final StreamingMarshaller marshaller;
+      private final Cache<?, ?> cache;
+      private final ConcurrentMap<Thread, DefaultCollector<KOut, VOut>> collectors = CollectionFactory.makeConcurrentMap();
+      // guarded by itself
+      private final List<Reducer<KOut, VOut>> combinerCopies = new ArrayList<Reducer<KOut, VOut>>();
+      private volatile boolean combinerCopyable = true;
+      private DefaultCollector<KOut, VOut> merged;
+
+      PerThreadCollector(Reducer<KOut, VOut> combiner, StreamingMarshaller marshaller, Cache<?, ?> cache) {
+         this.combiner = combiner;
+         this.marshaller = marshaller;
+         this.cache = cache;
+      }
+
+      @Override
+      public void emit(KOut key, VOut value) {
+         Thread thread = Thread.currentThread();
+         // only the current thread adds its own collector
+         DefaultCollector<KOut, VOut> collector = collectors.get(thread);
+         if (collector == null) {
+            collector = new DefaultCollector<KOut, VOut>(copyCombiner());
+            collectors.put(thread, collector);
+         }
+         collector.emit(key, value);
+      }
+
+      /**
+       * @return a started copy of the combiner for the calling thread, or null if the values collected by the thread
+       *         can't be combined eagerly
+       */
+      @SuppressWarnings("unchecked")
+      private Reducer<KOut, VOut> copyCombiner() {
+         if (combiner == null || !combinerCopyable) {
+            return null;
+         }
+         Reducer<KOut, VOut> copy;
+         try {
+            copy = (Reducer<KOut, VOut>) marshaller.objectFromByteBuffer(marshaller.objectToByteBuffer(combiner));
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+         } catch (Exception e) {
+            combinerCopyable = false;
+            log.tracef(e, "Combiner %s can not be copied, its values will only be combined after the map phase",
+                       combiner);
+            return null;
+         }
+         MapReduceTaskLifecycleService.getInstance().onPreExecute(copy, cache);
+         synchronized (combinerCopies) {
+            combinerCopies.add(copy);
+         }
+         return copy;
+      }
+
+      private void stopCombinerCopies() {
+         synchronized (combinerCopies) {
+            for (Reducer<KOut, VOut> copy : combinerCopies) {
+               MapReduceTaskLifecycleService.getInstance().onPostExecute(copy);
+            }
+            combinerCopies.clear();
+         }
+      }
+
+      @Override
+      public synchronized void visitCollected(CollectedValuesVisitor<KOut, VOut> visitor) {
+         if (merged == null) {
+            // the map phase is over
+            stopCombinerCopies();
+            merged = merge();
+         }
+         merged.visitCollected(visitor);
+      }
+
+      private DefaultCollector<KOut, VOut> merge() {
+         // merge into the largest collector, so that the fewest entries are moved
+         DefaultCollector<KOut, VOut> largest = null;
+         for (DefaultCollector<KOut, VOut> collector : collectors.values()) {
+            if (largest == null || collector.size() > largest.size()) {
+               largest = collector;
+            }
+         }
+         if (largest == null) {
+            largest = new DefaultCollector<KOut, VOut>(null);
+         }
+         for (DefaultCollector<KOut, VOut> collector : collectors.values()) {
+            if (collector != largest) {
+               largest.merge(collector);
+            }
+         }
+         collectors.clear();
+         return largest;
       }
 
       @Override
-      public Map<KOut, List<VOut>> collectedValues() {
-         return store;
+      public synchronized void dispose() {
+         stopCombinerCopies();
+         collectors.clear();
+         merged = null;
       }
    }
 
-   private interface CollectableCollector<K,V> extends Collector<K, V>{
-      Map<K, List<V>> collectedValues();
+   interface CollectableCollector<K,V> extends Collector<K, V>{
+
+      /**
+       * Visits each collected key once, with all the values emitted for it.
+       */
+      void visitCollected(CollectedValuesVisitor<K, V> visitor);
+
+      /**
+       * Releases the resources held by the collected values.
+       */
+      void dispose();
+
+      interface CollectedValuesVisitor<K, V> {
+         void visit(K key, List<V> values);
+      }
    }
 
    private static class DeltaAwareList<E> extends LinkedList<E> implements DeltaAware, Delta{
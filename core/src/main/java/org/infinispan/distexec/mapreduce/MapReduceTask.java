@@ -148,6 +148,7 @@
    protected final ClusteringDependentLogic clusteringDependentLogic;
    protected final boolean isLocalOnly;
    protected RpcOptionsBuilder rpcOptionsBuilder;
+   protected long spillThreshold;
 
    /**
     * Create a new MapReduceTask given a master cache node. All distributed task executions will be
@@ -272,6 +273,11 @@ public MapReduceTask<KIn, VIn, KOut, VOut> reducedWith(Reducer<KOut, VOut> reduc
     * serializing such an inner class instance will result in serialization of its associated outer
     * class instance as well.
     *
+    * <p>
+    * The combiner is invoked by each mapping thread on the values it has emitted, so it might be
+    * invoked several times for the values of the same key. The threads take turns, so it is never
+    * invoked concurrently.
+    *
     * @param combiner used to immediately combine results of map phase before reduce phase is invoked
     * @return this MapReduceTask itself
     * @since 5.2
@@ -283,6 +289,29 @@ public MapReduceTask<KIn, VIn, KOut, VOut> combinedWith(Reducer<KOut, VOut> comb
       return this;
    }
 
+   /**
+    * Keeps at most the given number of bytes of intermediate results of the map phase in memory on each node. Once
+    * they take more, the intermediate results are sorted, combined and spilled to a file in the temporary directory,
+    * and the files are merged when the map phase is over. This allows the map phase to emit more intermediate results
+    * than fit in the heap of a node, at the cost of marshalling them.
+    * <p>
+    * Note that with spilling, the {@link #combinedWith(Reducer) combiner} might be applied several times to the
+    * values of an intermediate key, including to values it has already combined. On a local cache, the reducer reads
+    * the values of each intermediate key from the files directly.
+    *
+    * @param spillThreshold
+    *           the number of bytes of marshalled intermediate results kept in memory, or 0 to keep them all in memory,
+    *           which is the default
+    * @return this MapReduceTask itself
+    * @since 7.0
+    */
+   public MapReduceTask<KIn, VIn, KOut, VOut> spillIntermediateResults(long spillThreshold) {
+      if (spillThreshold < 0)
+         throw new IllegalArgumentException("Spill threshold can not be negative " + spillThreshold);
+      this.spillThreshold = spillThreshold;
+      return this;
+   }
+
    /**
     * See {@link #timeout(TimeUnit)}.
     *
@@ -459,6 +488,9 @@ protected Set<KOut> executeMapPhase(boolean useCompositeKeys) throws Interrupted
 
    protected Map<KOut, VOut> executeMapPhaseWithLocalReduction() throws InterruptedException,
             ExecutionException {
+      if (isLocalOnly && spillThreshold > 0) {
+         return executeMapAndReducePhaseLocally();
+      }
       RpcManager rpc = cache.getRpcManager();
       MapCombineCommand<KIn, VIn, KOut, VOut> cmd = null;
       Map<KOut, List<VOut>> mapPhasesResult = new HashMap<KOut, List<VOut>>();
@@ -536,6 +568,18 @@ protected Map<KOut, VOut> executeMapPhaseWithLocalReduction() throws Interrupted
       return reducedResult;
    }
 
+   /**
+    * With a local cache, the map phase results need not be gathered from other nodes, so the spilled intermediate
+    * results are streamed key by key into the reducer instead of being merged into a map first.
+    */
+   protected Map<KOut, VOut> executeMapAndReducePhaseLocally() throws InterruptedException {
+      MapCombineCommand<KIn, VIn, KOut, VOut> cmd = buildMapCombineCommand(taskId.toString(), clone(mapper),
+               clone(combiner), inputTaskKeysEmpty() ? null : keys, false, false);
+      log.tracef("For m/r task %s invoking %s and %s locally", taskId, mapper, reducer);
+      cmd.init(mapReduceManager);
+      return mapReduceManager.mapAndReduceLocally(cmd, reducer);
+   }
+
    protected <V> MapTaskPart<V> createTaskMapPart(MapCombineCommand<KIn, VIn, KOut, VOut> cmd,
             Address target, boolean distributedReduce) {
       MapTaskPart<V> mapTaskPart = new MapTaskPart<V>(target, cmd, distributedReduce);
@@ -625,6 +669,7 @@ private MapCombineCommand<KIn, VIn, KOut, VOut> buildMapCombineCommand(
       MapCombineCommand<KIn, VIn, KOut, VOut> c = factory.buildMapCombineCommand(taskId, m, r, keys);
       c.setReducePhaseDistributed(reducePhaseDistributed);
       c.setEmitCompositeIntermediateKeys(emitCompositeIntermediateKeys);
+      c.setSpillThreshold(spillThreshold);
       return c;
    }
 
@@ -0,0 +1,446 @@
+package org.infinispan.distexec.mapreduce;
+
+import org.infinispan.commons.CacheException;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Collector which keeps the intermediate key/value pairs of the map phase in a byte buffer, in marshalled form.
+ * <p>
+ * Once the buffer takes more than the spill threshold, its pairs are sorted by key hash code, the values of each key
+ * are combined and the result is written to a new file in the temporary directory, called a run. When the map phase
+ * is over, the runs and the pairs left in the buffer are merged, and each key is visited with all its values. Only the
+ * values of the key being visited are held in memory, so the number of intermediate results is bounded by the disk
+ * rather than by the heap.
+ * <p>
+ * This is an internal class, not intended to be used by clients.
+ *
+ * @since 7.0
+ */
+class SpillingCollector<KOut, VOut> implements MapReduceManagerImpl.CollectableCollector<KOut, VOut> {
+
+   private static final Log log = LogFactory.getLog(SpillingCollector.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   /**
+    * The memory taken by each pair besides its marshalled key and value: its entry in records.
+    */
+   private static final int RECORD_OVERHEAD = 8;
+
+   private static final int MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
+
+   private static final Comparator<Run> RUN_COMPARATOR = new Comparator<Run>() {
+      @Override
+      public int compare(Run r1, Run r2) {
+         return r1.hash < r2.hash ? -1 : (r1.hash == r2.hash ? 0 : 1);
+      }
+   };
+
+   private final StreamingMarshaller marshaller;
+   private final Reducer<KOut, VOut> combiner;
+   private final long spillThreshold;
+   private final String taskId;
+
+   /**
+    * The pairs emitted since the last spill, each stored as key length, key, value length and value.
+    */
+   private byte[] buffer = new byte[1024];
+   private int bufferSize;
+
+   /**
+    * For each pair in the buffer, the hash code of its key in the high bits and its offset in the low bits, so that
+    * sorting them sorts the pairs by hash code.
+    */
+   private long[] records = new long[64];
+   private int recordCount;
+
+   private final List<File> runFiles = new ArrayList<File>();
+
+   SpillingCollector(StreamingMarshaller marshaller, Reducer<KOut, VOut> combiner, long spillThreshold, String taskId) {
+      if (spillThreshold <= 0) {
+         throw new IllegalArgumentException("Spill threshold must be greater than 0");
+      }
+      this.marshaller = marshaller;
+      this.combiner = combiner;
+      this.spillThreshold = spillThreshold;
+      this.taskId = taskId;
+   }
+
+   @Override
+   public void emit(KOut key, VOut value) {
+      // marshall outside of the lock, the mappers run in parallel
+      byte[] keyBytes = marshall(key);
+      byte[] valueBytes = marshall(value);
+      int hash = key == null ? 0 : key.hashCode();
+      synchronized (this) {
+         int size = 8 + keyBytes.length + valueBytes.length;
+         if (recordCount > 0 && (long) bufferSize + size > MAX_BUFFER_SIZE) {
+            spill();
+         }
+         append(hash, keyBytes, valueBytes);
+         if (bufferSize + (long) recordCount * RECORD_OVERHEAD > spillThreshold) {
+            spill();
+         }
+      }
+   }
+
+   @Override
+   public synchronized void visitCollected(CollectedValuesVisitor<KOut, VOut> visitor) {
+      List<Run> runs = new ArrayList<Run>(runFiles.size() + 1);
+      try {
+         for (File file : runFiles) {
+            runs.add(new FileRun(file));
+         }
+         runs.add(sortBuffer());
+         Run merged = runs.size() == 1 ? runs.get(0) : new MergedRun(runs);
+         visitKeys(merged, visitor);
+      } catch (IOException e) {
+         throw new CacheException("Could not read intermediate results of M/R task " + taskId, e);
+      } finally {
+         for (Run run : runs) {
+            run.close();
+         }
+      }
+   }
+
+   @Override
+   public synchronized void dispose() {
+      for (File file : runFiles) {
+         if (!file.delete() && file.exists()) {
+            log.debugf("Could not delete intermediate results file %s of M/R task %s", file, taskId);
+         }
+      }
+      runFiles.clear();
+      buffer = new byte[0];
+      records = new long[0];
+      bufferSize = 0;
+      recordCount = 0;
+   }
+
+   private void append(int hash, byte[] keyBytes, byte[] valueBytes) {
+      int size = 8 + keyBytes.length + valueBytes.length;
+      if (bufferSize + size > buffer.length) {
+         long capacity = Math.max((long) buffer.length * 2, (long) bufferSize + size);
+         buffer = Arrays.copyOf(buffer, (int) Math.min(capacity, MAX_BUFFER_SIZE));
+      }
+      if (recordCount == records.length) {
+         records = Arrays.copyOf(records, records.length * 2);
+      }
+      records[recordCount++] = ((long) hash << 32) | bufferSize;
+      bufferSize = putBytes(keyBytes, bufferSize);
+      bufferSize = putBytes(valueBytes, bufferSize);
+   }
+
+   private int putBytes(byte[] bytes, int offset) {
+      putInt(bytes.length, offset);
+      System.arraycopy(bytes, 0, buffer, offset + 4, bytes.length);
+      return offset + 4 + bytes.length;
+   }
+
+   private void putInt(int i, int offset) {
+      buffer[offset] = (byte) (i >>> 24);
+      buffer[offset + 1] = (byte) (i >>> 16);
+      buffer[offset + 2] = (byte) (i >>> 8);
+      buffer[offset + 3] = (byte) i;
+   }
+
+   private int getInt(int offset) {
+      return ((buffer[offset] & 0xFF) << 24) | ((buffer[offset + 1] & 0xFF) << 16)
+            | ((buffer[offset + 2] & 0xFF) << 8) | (buffer[offset + 3] & 0xFF);
+   }
+
+   private byte[] getBytes(int offset) {
+      int length = getInt(offset);
+      return Arrays.copyOfRange(buffer, offset + 4, offset + 4 + length);
+   }
+
+   /**
+    * Writes the pairs in the buffer, combined and sorted, to a new run file and empties the buffer.
+    */
+   private void spill() {
+      File file = null;
+      try {
+         file = File.createTempFile("infinispan-mapreduce-" + taskId + "-", ".run");
+         runFiles.add(file);
+         final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+         try {
+            if (trace) {
+               log.tracef("For m/r task %s spilling %d intermediate values (%d bytes) to %s", taskId, recordCount,
+                          bufferSize, file);
+            }
+            visitGroups(sortBuffer(), new GroupVisitor() {
+               @Override
+               void visit(int hash, KeyGroup group) throws IOException {
+                  List<byte[]> values = group.values;
+                  if (combiner != null && values.size() > 1) {
+                     KOut key = group.getKey();
+                     VOut combined = combiner.reduce(key, new UnmarshallingList<VOut>(values).iterator());
+                     values = Collections.singletonList(marshall(combined));
+                  }
+                  out.writeInt(hash);
+                  out.writeInt(group.keyBytes.length);
+                  out.write(group.keyBytes);
+                  out.writeInt(values.size());
+                  for (byte[] value : values) {
+                     out.writeInt(value.length);
+                     out.write(value);
+                  }
+               }
+            });
+         } finally {
+            out.close();
+         }
+      } catch (IOException e) {
+         throw new CacheException("Could not spill intermediate results of M/R task " + taskId + " to " + file, e);
+      }
+      bufferSize = 0;
+      recordCount = 0;
+   }
+
+   private Run sortBuffer() {
+      Arrays.sort(records, 0, recordCount);
+      return new BufferRun();
+   }
+
+   private void visitKeys(Run run, final CollectedValuesVisitor<KOut, VOut> visitor) throws IOException {
+      visitGroups(run, new GroupVisitor() {
+         @Override
+         void visit(int hash, KeyGroup group) {
+            visitor.visit(group.getKey(), new UnmarshallingList<VOut>(group.values));
+         }
+      });
+   }
+
+   /**
+    * Visits each key of a run sorted by hash code once, with the values of all its pairs. The pairs with the same
+    * hash code are adjacent, so only those need to be compared to find the pairs of a key.
+    */
+   private void visitGroups(Run run, GroupVisitor visitor) throws IOException {
+      boolean hasNext = run.next();
+      List<KeyGroup> groups = new ArrayList<KeyGroup>(1);
+      while (hasNext) {
+         int hash = run.hash;
+         do {
+            addToGroup(groups, run.key, run.values);
+            hasNext = run.next();
+         } while (hasNext && run.hash == hash);
+         for (KeyGroup group : groups) {
+            visitor.visit(hash, group);
+         }
+         groups.clear();
+      }
+   }
+
+   private void addToGroup(List<KeyGroup> groups, byte[] keyBytes, List<byte[]> values) {
+      for (KeyGroup group : groups) {
+         if (Arrays.equals(group.keyBytes, keyBytes)) {
+            group.values.addAll(values);
+            return;
+         }
+      }
+      KeyGroup newGroup = new KeyGroup(keyBytes, values);
+      // equal keys are not guaranteed to be marshalled to the same bytes
+      if (!groups.isEmpty()) {
+         KOut key = newGroup.getKey();
+         for (KeyGroup group : groups) {
+            KOut groupKey = group.getKey();
+            if (key == null ? groupKey == null : key.equals(groupKey)) {
+               group.values.addAll(values);
+               return;
+            }
+         }
+      }
+      groups.add(newGroup);
+   }
+
+   private byte[] marshall(Object o) {
+      try {
+         return marshaller.objectToByteBuffer(o);
+      } catch (IOException e) {
+         throw new CacheException(e);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheException(e);
+      }
+   }
+
+   @SuppressWarnings("unchecked")
+   private <T> T unmarshall(byte[] bytes) {
+      try {
+         return (T) marshaller.objectFromByteBuffer(bytes);
+      } catch (IOException e) {
+         throw new CacheException(e);
+      } catch (ClassNotFoundException e) {
+         throw new CacheException(e);
+      }
+   }
+
+   private abstract class GroupVisitor {
+      abstract void visit(int hash, KeyGroup group) throws IOException;
+   }
+
+   /**
+    * The values of a key, in marshalled form.
+    */
+   private class KeyGroup {
+      final byte[] keyBytes;
+      final List<byte[]> values;
+      private KOut key;
+      private boolean unmarshalled;
+
+      KeyGroup(byte[] keyBytes, List<byte[]> values) {
+         this.keyBytes = keyBytes;
+         this.values = new ArrayList<byte[]>(values);
+      }
+
+      KOut getKey() {
+         if (!unmarshalled) {
+            key = unmarshall(keyBytes);
+            unmarshalled = true;
+         }
+         return key;
+      }
+   }
+
+   /**
+    * Unmarshalls the values as they are read, so that a chunk of the values does not unmarshall the others.
+    */
+   private class UnmarshallingList<V> extends AbstractList<V> {
+      private final List<byte[]> values;
+
+      UnmarshallingList(List<byte[]> values) {
+         this.values = values;
+      }
+
+      @Override
+      public V get(int index) {
+         return unmarshall(values.get(index));
+      }
+
+      @Override
+      public int size() {
+         return values.size();
+      }
+   }
+
+   /**
+    * A sequence of keys with their values, sorted by key hash code.
+    */
+   private abstract static class Run {
+      int hash;
+      byte[] key;
+      List<byte[]> values;
+
+      abstract boolean next() throws IOException;
+
+      void close() {
+      }
+   }
+
+   private class BufferRun extends Run {
+      private int index;
+
+      @Override
+      boolean next() {
+         if (index == recordCount) {
+            return false;
+         }
+         long record = records[index++];
+         hash = (int) (record >> 32);
+         int offset = (int) record;
+         key = getBytes(offset);
+         values = Collections.singletonList(getBytes(offset + 4 + key.length));
+         return true;
+      }
+   }
+
+   private static class FileRun extends Run {
+      private final DataInputStream in;
+
+      FileRun(File file) throws IOException {
+         in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+      }
+
+      @Override
+      boolean next() throws IOException {
+         try {
+            hash = in.readInt();
+         } catch (EOFException e) {
+            return false;
+         }
+         key = readBytes();
+         int count = in.readInt();
+         values = new ArrayList<byte[]>(count);
+         for (int i = 0; i < count; i++) {
+            values.add(readBytes());
+         }
+         return true;
+      }
+
+      private byte[] readBytes() throws IOException {
+         byte[] bytes = new byte[in.readInt()];
+         in.readFully(bytes);
+         return bytes;
+      }
+
+      @Override
+      void close() {
+         try {
+            in.close();
+         } catch (IOException e) {
+            log.debugf(e, "Could not close intermediate results file");
+         }
+      }
+   }
+
+   /**
+    * Merges several runs into one.
+    */
+   private static class MergedRun extends Run {
+      private final PriorityQueue<Run> queue;
+      private final List<Run> pending;
+
+      MergedRun(List<Run> runs) {
+         queue = new PriorityQueue<Run>(runs.size(), RUN_COMPARATOR);
+         pending = new ArrayList<Run>(runs);
+      }
+
+      @Override
+      boolean next() throws IOException {
+         // advance the run whose pair was returned last, it is not in the queue
+         for (Run run : pending) {
+            if (run.next()) {
+               queue.add(run);
+            }
+         }
+         pending.clear();
+         Run run = queue.poll();
+         if (run == null) {
+            return false;
+         }
+         hash = run.hash;
+         key = run.key;
+         values = run.values;
+         pending.add(run);
+         return true;
+      }
+   }
+}
@@ -3,11 +3,23 @@
 import org.infinispan.commons.equivalence.AnyEquivalence;
 import org.infinispan.commons.equivalence.Equivalence;
 import org.infinispan.commons.CacheConfigurationException;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.HashConfiguration;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.DefaultDataContainer;
+import org.infinispan.container.DefaultSegmentedDataContainer;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.distribution.ch.ConsistentHashFactory;
+import org.infinispan.distribution.group.GroupManager;
+import org.infinispan.distribution.group.GroupingConsistentHash;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionThreadPolicy;
 import org.infinispan.factories.annotations.DefaultFactoryFor;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.remoting.transport.Transport;
+import org.infinispan.statetransfer.StateTransferManagerImpl;
+
+import java.util.Collections;
 
 /**
  * Constructs the data container
@@ -33,8 +45,7 @@ public <T> T construct(Class<T> componentType) {
 
          switch (st) {
             case NONE:
-               return (T) DefaultDataContainer.unBoundedDataContainer(
-                     level, keyEquivalence, valueEquivalence);
+               return (T) unBoundedDataContainer(level, keyEquivalence, valueEquivalence);
             case UNORDERED:
             case LRU:
             case FIFO:
@@ -42,8 +53,7 @@ public <T> T construct(Class<T> componentType) {
                int maxEntries = configuration.eviction().maxEntries();
                //handle case when < 0 value signifies unbounded container 
                if(maxEntries < 0) {
-                   return (T) DefaultDataContainer.unBoundedDataContainer(
-                         level, keyEquivalence, valueEquivalence);
+                   return (T) unBoundedDataContainer(level, keyEquivalence, valueEquivalence);
                }
 
                EvictionThreadPolicy policy = configuration.eviction().threadPolicy();
@@ -56,4 +66,33 @@ public <T> T construct(Class<T> componentType) {
          }
       }
    }
+
+   /**
+    * Clustered caches get a container partitioned by segment, so that state transfer can work on individual
+    * segments instead of scanning all the entries.
+    */
+   private DataContainer unBoundedDataContainer(int level, Equivalence keyEquivalence, Equivalence valueEquivalence) {
+      CacheMode cacheMode = configuration.clustering().cacheMode();
+      if (cacheMode.isDistributed() || cacheMode.isReplicated()) {
+         return new DefaultSegmentedDataContainer(level, segmentingConsistentHash(), keyEquivalence, valueEquivalence);
+      }
+      return DefaultDataContainer.unBoundedDataContainer(level, keyEquivalence, valueEquivalence);
+   }
+
+   /**
+    * Creates a consistent hash that maps keys to the same segments as the ones installed by state transfer.
+    * The segment of a key only depends on the hash function, the number of segments and the grouping
+    * configuration, so a single member consistent hash is enough.
+    */
+   private ConsistentHash segmentingConsistentHash() {
+      GlobalComponentRegistry gcr = componentRegistry.getGlobalComponentRegistry();
+      ConsistentHashFactory factory = StateTransferManagerImpl.pickConsistentHashFactory(
+            gcr.getGlobalConfiguration(), configuration);
+      Address localAddress = gcr.getComponent(Transport.class).getAddress();
+      HashConfiguration hashConfiguration = configuration.clustering().hash();
+      ConsistentHash ch = factory.create(hashConfiguration.hash(), hashConfiguration.numOwners(),
+            hashConfiguration.numSegments(), Collections.singletonList(localAddress), null);
+      GroupManager groupManager = componentRegistry.getOrCreateComponent(GroupManager.class);
+      return groupManager == null ? ch : new GroupingConsistentHash(ch, groupManager);
+   }
 }
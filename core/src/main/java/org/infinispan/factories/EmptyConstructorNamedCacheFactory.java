@@ -45,6 +45,8 @@
 import org.infinispan.util.concurrent.locks.containers.ReentrantStripedLockContainer;
 import org.infinispan.xsite.BackupSender;
 import org.infinispan.xsite.BackupSenderImpl;
+import org.infinispan.xsite.XSiteStateProvider;
+import org.infinispan.xsite.XSiteStateProviderImpl;
 
 import static org.infinispan.commons.util.Util.getInstance;
 
@@ -63,7 +65,7 @@
                               ClusteringDependentLogic.class, LockContainer.class,
                               L1Manager.class, TransactionFactory.class, BackupSender.class,
                               TotalOrderManager.class, ByteBufferFactory.class, MarshalledEntryFactory.class,
-                              RemoteValueRetrievedListener.class, InvocationContextFactory.class})
+                              RemoteValueRetrievedListener.class, InvocationContextFactory.class, XSiteStateProvider.class})
 public class EmptyConstructorNamedCacheFactory extends AbstractNamedCacheComponentFactory implements AutoInstantiableFactory {
 
    @Override
@@ -123,6 +125,8 @@ public <T> T construct(Class<T> componentType) {
             return (T) new TransactionFactory();
          } else if (componentType.equals(BackupSender.class)) {
             return (T) new BackupSenderImpl(globalConfiguration.sites().localSite());
+         } else if (componentType.equals(XSiteStateProvider.class)) {
+            return (T) new XSiteStateProviderImpl();
          } else if (componentType.equals(TotalOrderManager.class)) {
             return (T) new TotalOrderManager();
          } else if (componentType.equals(ByteBufferFactory.class)) {
@@ -31,6 +31,7 @@ public class NamedExecutorsFactory extends NamedComponentFactory implements Auto
    private ExecutorService notificationExecutor;
    private ExecutorService asyncTransportExecutor;
    private ExecutorService persistenceExecutor;
+   private ExecutorService stateTransferExecutor;
    private BlockingTaskAwareExecutorService remoteCommandsExecutor;
    private ScheduledExecutorService evictionExecutor;
    private ScheduledExecutorService asyncReplicationExecutor;
@@ -62,6 +63,15 @@ public <T> T construct(Class<T> componentType, String componentName) {
                }
             }
             return (T) persistenceExecutor;
+         } else if (componentName.equals(STATE_TRANSFER_EXECUTOR)) {
+            synchronized (this) {
+               if (stateTransferExecutor == null) {
+                  stateTransferExecutor = buildAndConfigureExecutorService(
+                        globalConfiguration.stateTransferExecutor().factory(),
+                        globalConfiguration.stateTransferExecutor().properties(), componentName, nodeName);
+               }
+            }
+            return (T) stateTransferExecutor;
          } else if (componentName.equals(ASYNC_TRANSPORT_EXECUTOR)) {
             synchronized (this) {
                if (asyncTransportExecutor == null) {
@@ -123,6 +133,7 @@ public void stop() {
       if (remoteCommandsExecutor != null) remoteCommandsExecutor.shutdownNow();
       if (notificationExecutor != null) notificationExecutor.shutdownNow();
       if (persistenceExecutor != null) persistenceExecutor.shutdownNow();
+      if (stateTransferExecutor != null) stateTransferExecutor.shutdownNow();
       if (asyncTransportExecutor != null) asyncTransportExecutor.shutdownNow();
       if (asyncReplicationExecutor != null) asyncReplicationExecutor.shutdownNow();
       if (evictionExecutor != null) evictionExecutor.shutdownNow();
@@ -1,6 +1,7 @@
 package org.infinispan.interceptors;
 
 import org.infinispan.commands.FlagAffectedCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.write.EvictCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
@@ -107,6 +108,36 @@ public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand
       return retval;
    }
 
+   @Override
+   @SuppressWarnings("unchecked")
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      long start = 0;
+      boolean statisticsEnabled = getStatisticsEnabled(command);
+      if (statisticsEnabled)
+         start = timeService.time();
+
+      Map<Object, Object> retval = (Map<Object, Object>) invokeNextInterceptor(ctx, command);
+
+      if (statisticsEnabled) {
+         long intervalMilliseconds = timeService.timeDuration(start, TimeUnit.MILLISECONDS);
+         if (ctx.isOriginLocal()) {
+            int requests = command.getKeys().size();
+            int hitCount = retval.size();
+            int missCount = requests - hitCount;
+            if (hitCount > 0) {
+               hits.add(hitCount);
+               hitTimes.add(intervalMilliseconds * hitCount / requests);
+            }
+            if (missCount > 0) {
+               misses.add(missCount);
+               missTimes.add(intervalMilliseconds * missCount / requests);
+            }
+         }
+      }
+
+      return retval;
+   }
+
    @Override
    public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) throws Throwable {
       long start = 0;
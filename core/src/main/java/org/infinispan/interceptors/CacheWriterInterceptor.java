@@ -27,6 +27,7 @@
 import org.infinispan.jmx.annotations.ManagedOperation;
 import org.infinispan.jmx.annotations.MeasurementType;
 import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.marshall.core.MarshalledEntry;
 import org.infinispan.marshall.core.MarshalledEntryImpl;
 import org.infinispan.metadata.EmbeddedMetadata;
 import org.infinispan.metadata.Metadata;
@@ -38,6 +39,8 @@
 import javax.transaction.SystemException;
 import javax.transaction.Transaction;
 import javax.transaction.TransactionManager;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
@@ -188,11 +191,13 @@ public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) t
       if (!isStoreEnabled(command) || ctx.isInTxScope()) return returnValue;
 
       Map<Object, Object> map = command.getMap();
+      List<Object> keys = new ArrayList<Object>(map.size());
       for (Object key : map.keySet()) {
          if (isProperWriter(ctx, command, key)) {
-            storeEntry(ctx, key, command);
+            keys.add(key);
          }
       }
+      storeEntries(ctx, keys, command);
       if (getStatisticsEnabled()) cacheStores.getAndAdd(map.size());
       return returnValue;
    }
@@ -278,8 +283,15 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
       @Override
       public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) throws Throwable {
          Map<Object, Object> map = command.getMap();
-         for (Object key : map.keySet())
-            visitSingleStore(ctx, command, key);
+         List<MarshalledEntry> entries = new ArrayList<MarshalledEntry>(map.size());
+         for (Object key : map.keySet()) {
+            if (isProperWriter(ctx, command, key)) {
+               if (generateStatistics) putCount++;
+               entries.add(marshalledEntry(ctx, key));
+            }
+         }
+         if (!entries.isEmpty())
+            persistenceManager.writeBatchToAllStores(entries, command.hasFlag(Flag.SKIP_SHARED_CACHE_STORE));
          return null;
       }
 
@@ -301,9 +313,7 @@ public Object visitClearCommand(InvocationContext ctx, ClearCommand command) thr
       protected Object visitSingleStore(InvocationContext ctx, FlagAffectedCommand command, Object key) throws Throwable {
          if (isProperWriter(ctx, command, key)) {
             if (generateStatistics) putCount++;
-            InternalCacheValue sv = getStoredValue(key, ctx);
-            MarshalledEntryImpl me = new MarshalledEntryImpl(key, sv.getValue(), internalMetadata(sv), marshaller);
-            persistenceManager.writeToAllStores(me, command.hasFlag(Flag.SKIP_SHARED_CACHE_STORE));
+            persistenceManager.writeToAllStores(marshalledEntry(ctx, key), command.hasFlag(Flag.SKIP_SHARED_CACHE_STORE));
          }
          return null;
       }
@@ -334,6 +344,32 @@ void storeEntry(InvocationContext ctx, Object key, FlagAffectedCommand command)
       if (getLog().isTraceEnabled()) getLog().tracef("Stored entry %s under key %s", sv, key);
    }
 
+   /**
+    * Writes the entries of all the given keys, in one batch for the stores that support it.
+    */
+   protected void storeEntries(InvocationContext ctx, Collection<Object> keys, FlagAffectedCommand command) {
+      List<MarshalledEntry> entries = new ArrayList<MarshalledEntry>(keys.size());
+      List<MarshalledEntry> entriesSkippingSharedStores = new ArrayList<MarshalledEntry>();
+      for (Object key : keys) {
+         MarshalledEntry me = marshalledEntry(ctx, key);
+         if (skipSharedStores(ctx, key, command)) {
+            entriesSkippingSharedStores.add(me);
+         } else {
+            entries.add(me);
+         }
+      }
+      if (!entries.isEmpty())
+         persistenceManager.writeBatchToAllStores(entries, false);
+      if (!entriesSkippingSharedStores.isEmpty())
+         persistenceManager.writeBatchToAllStores(entriesSkippingSharedStores, true);
+      if (getLog().isTraceEnabled()) getLog().tracef("Stored entries under keys %s", keys);
+   }
+
+   private MarshalledEntry marshalledEntry(InvocationContext ctx, Object key) {
+      InternalCacheValue sv = getStoredValue(key, ctx);
+      return new MarshalledEntryImpl(key, sv.getValue(), internalMetadata(sv), marshaller);
+   }
+
    protected boolean skipSharedStores(InvocationContext ctx, Object key, FlagAffectedCommand command) {
       return !ctx.isOriginLocal() || command.hasFlag(Flag.SKIP_SHARED_CACHE_STORE);
    }
@@ -2,6 +2,7 @@
 
 import org.infinispan.commands.control.LockControlCommand;
 import org.infinispan.commands.read.EntrySetCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.KeySetCommand;
 import org.infinispan.commands.read.ValuesCommand;
@@ -18,7 +19,9 @@
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.interceptors.base.CommandInterceptor;
 import org.infinispan.marshall.core.MarshalledValue;
+import org.infinispan.commons.equivalence.AnyEquivalence;
 import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.commons.util.Immutables;
 import org.infinispan.commons.util.InfinispanCollections;
 import org.infinispan.util.CoreImmutables;
@@ -29,6 +32,7 @@
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -165,6 +169,38 @@ public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand
       return processRetVal(retVal, ctx);
    }
 
+   @Override
+   @SuppressWarnings("unchecked")
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      if (!wrapKeys && !wrapValues) {
+         return invokeNextInterceptor(ctx, command);
+      }
+      Map<Object, Object> originalKeys = null;
+      if (wrapKeys) {
+         originalKeys = CollectionFactory.makeMap(command.getKeys().size(), command.getKeyEquivalence(),
+               AnyEquivalence.getInstance());
+         List<Object> keys = new ArrayList<Object>(command.getKeys().size());
+         for (Object key : command.getKeys()) {
+            Object newKey = isTypeExcluded(key.getClass()) ? key : createMarshalledValue(key, ctx);
+            originalKeys.put(newKey, key);
+            keys.add(newKey);
+         }
+         command.setKeys(keys);
+      }
+      Map<Object, Object> retVal = (Map<Object, Object>) invokeNextInterceptor(ctx, command);
+      Map<Object, Object> copy = CollectionFactory.makeMap(retVal.size(), command.getKeyEquivalence(),
+            AnyEquivalence.getInstance());
+      for (Map.Entry<Object, Object> entry : retVal.entrySet()) {
+         Object key = entry.getKey();
+         if (originalKeys != null && originalKeys.containsKey(key)) {
+            key = originalKeys.get(key);
+         }
+         Object value = command.isReturnEntries() ? entry.getValue() : processRetVal(entry.getValue(), ctx);
+         copy.put(key, value);
+      }
+      return copy;
+   }
+
    @Override
    @SuppressWarnings("unchecked")
    public Object visitKeySetCommand(InvocationContext ctx, KeySetCommand command) throws Throwable {
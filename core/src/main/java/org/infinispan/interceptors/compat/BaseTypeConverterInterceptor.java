@@ -2,11 +2,14 @@
 
 import org.infinispan.commands.MetadataAwareCommand;
 import org.infinispan.commands.read.EntrySetCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.KeySetCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.RemoveCommand;
 import org.infinispan.commands.write.ReplaceCommand;
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.commons.util.Immutables;
 import org.infinispan.compat.TypeConverter;
 import org.infinispan.container.InternalEntryFactory;
@@ -20,7 +23,10 @@
 import org.infinispan.metadata.Metadata;
 import org.infinispan.util.TimeService;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -95,6 +101,47 @@ public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand
       return null;
    }
 
+   @Override
+   @SuppressWarnings("unchecked")
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      TypeConverter<Object, Object, Object, Object> converter =
+            determineTypeConverter(command.getFlags());
+      Map<Object, Object> originalKeys = null;
+      if (ctx.isOriginLocal()) {
+         originalKeys = CollectionFactory.makeMap(command.getKeys().size(), command.getKeyEquivalence(),
+               AnyEquivalence.getInstance());
+         List<Object> boxedKeys = new ArrayList<Object>(command.getKeys().size());
+         for (Object key : command.getKeys()) {
+            Object boxedKey = converter.boxKey(key);
+            originalKeys.put(boxedKey, key);
+            boxedKeys.add(boxedKey);
+         }
+         command.setKeys(boxedKeys);
+      }
+      Map<Object, Object> ret = (Map<Object, Object>) invokeNextInterceptor(ctx, command);
+      Map<Object, InternalCacheEntry> remotelyFetched = command.getRemotelyFetched();
+      Map<Object, Object> unboxed = CollectionFactory.makeMap(ret.size(), command.getKeyEquivalence(),
+            AnyEquivalence.getInstance());
+      for (Map.Entry<Object, Object> entry : ret.entrySet()) {
+         Object key = entry.getKey();
+         boolean isRemote = remotelyFetched != null && remotelyFetched.containsKey(key);
+         if (originalKeys != null && originalKeys.containsKey(key)) {
+            key = originalKeys.get(key);
+         }
+         if (command.isReturnEntries()) {
+            CacheEntry cacheEntry = (CacheEntry) entry.getValue();
+            Object returnValue = isRemote ? cacheEntry.getValue() : converter.unboxValue(cacheEntry.getValue());
+            // Create a copy of the entry to avoid modifying the internal entry
+            unboxed.put(key, entryFactory.create(
+                  key, returnValue, cacheEntry.getMetadata(),
+                  cacheEntry.getLifespan(), cacheEntry.getMaxIdle()));
+         } else {
+            unboxed.put(key, isRemote ? entry.getValue() : converter.unboxValue(entry.getValue()));
+         }
+      }
+      return unboxed;
+   }
+
    @Override
    public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command) throws Throwable {
       Object key = command.getKey();
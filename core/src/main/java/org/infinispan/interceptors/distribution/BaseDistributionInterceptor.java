@@ -1,17 +1,23 @@
 package org.infinispan.interceptors.distribution;
 
 import org.infinispan.commands.FlagAffectedCommand;
+import org.infinispan.commands.remote.ClusteredGetAllCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
 import org.infinispan.commands.write.DataWriteCommand;
 import org.infinispan.commands.write.ValueMatcher;
 import org.infinispan.commands.write.WriteCommand;
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.util.CollectionFactory;
+import org.infinispan.commons.util.concurrent.NotifyingFutureImpl;
+import org.infinispan.commons.util.concurrent.NotifyingNotifiableFuture;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.container.entries.InternalCacheValue;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.impl.TxInvocationContext;
 import org.infinispan.distribution.DistributionManager;
 import org.infinispan.distribution.RemoteValueRetrievedListener;
+import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.interceptors.ClusteringInterceptor;
 import org.infinispan.interceptors.locking.ClusteringDependentLogic;
@@ -37,9 +43,11 @@
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Base class for distribution of entries across a cluster.
@@ -157,6 +165,93 @@ private InternalCacheEntry invokeClusterGetCommandRemotely(List<Address> targets
       return null;
    }
 
+   /**
+    * Retrieves several cache entries from remote sources. The keys are grouped by their primary owner in the read
+    * consistent hash, and a single {@link ClusteredGetAllCommand} is sent to each owner. The commands are sent in
+    * parallel. If an owner does not reply with a valid response, e.g. because it left the cluster, its keys are
+    * retrieved one by one with {@link #retrieveFromRemoteSource(Object, InvocationContext, boolean, FlagAffectedCommand, boolean)}.
+    *
+    * @param keys the keys to look up, none of them should be owned by the local node
+    * @return the entries that were found, keyed by their key
+    */
+   @SuppressWarnings("unchecked")
+   protected final Map<Object, InternalCacheEntry> retrieveAllFromRemoteSources(Collection<?> keys, InvocationContext ctx,
+                                                                                FlagAffectedCommand command) throws Throwable {
+      ConsistentHash ch = stateTransferManager.getCacheTopology().getReadConsistentHash();
+      Address self = rpcManager.getAddress();
+      Map<Address, List<Object>> keysByOwner = new HashMap<Address, List<Object>>();
+      for (Object key : keys) {
+         Address owner = ch.locatePrimaryOwner(key);
+         if (self.equals(owner)) {
+            continue;
+         }
+         List<Object> ownerKeys = keysByOwner.get(owner);
+         if (ownerKeys == null) {
+            ownerKeys = new ArrayList<Object>();
+            keysByOwner.put(owner, ownerKeys);
+         }
+         ownerKeys.add(key);
+      }
+
+      RpcOptions options = rpcManager.getDefaultRpcOptions(true);
+      Map<Address, NotifyingNotifiableFuture<Object>> futures =
+            new HashMap<Address, NotifyingNotifiableFuture<Object>>(keysByOwner.size());
+      for (Map.Entry<Address, List<Object>> e : keysByOwner.entrySet()) {
+         ClusteredGetAllCommand get = cf.buildClusteredGetAllCommand(e.getValue(), command.getFlags());
+         NotifyingNotifiableFuture<Object> future = new NotifyingFutureImpl<Object>();
+         if (trace) log.tracef("Perform remote get for keys %s on %s", e.getValue(), e.getKey());
+         rpcManager.invokeRemotelyInFuture(Collections.singletonList(e.getKey()), get, options, future);
+         futures.put(e.getKey(), future);
+      }
+
+      Map<Object, InternalCacheEntry> entries = CollectionFactory.makeMap(keys.size(),
+            cacheConfiguration.dataContainer().keyEquivalence(), AnyEquivalence.<InternalCacheEntry>getInstance());
+      for (Map.Entry<Address, NotifyingNotifiableFuture<Object>> e : futures.entrySet()) {
+         Address owner = e.getKey();
+         List<Object> ownerKeys = keysByOwner.get(owner);
+         Response response = null;
+         try {
+            Map<Address, Response> responses = (Map<Address, Response>) e.getValue().get();
+            if (responses != null) {
+               response = responses.get(owner);
+            }
+         } catch (ExecutionException ee) {
+            if (!(ee.getCause() instanceof SuspectException)) {
+               throw ee.getCause();
+            }
+            if (trace) log.tracef("Owner %s was suspected while retrieving keys %s", owner, ownerKeys);
+         }
+
+         if (response instanceof SuccessfulResponse) {
+            List<InternalCacheValue> values = (List<InternalCacheValue>) ((SuccessfulResponse) response).getResponseValue();
+            for (int i = 0; i < ownerKeys.size(); i++) {
+               Object key = ownerKeys.get(i);
+               InternalCacheValue cacheValue = values.get(i);
+               if (cacheValue == null) {
+                  if (rvrl != null) {
+                     rvrl.remoteValueNotFound(key);
+                  }
+                  continue;
+               }
+               InternalCacheEntry ice = cacheValue.toInternalCacheEntry(key);
+               if (rvrl != null) {
+                  rvrl.remoteValueFound(ice);
+               }
+               entries.put(key, ice);
+            }
+         } else {
+            if (trace) log.tracef("Got response %s from %s, retrieving keys %s one by one", response, owner, ownerKeys);
+            for (Object key : ownerKeys) {
+               InternalCacheEntry ice = retrieveFromRemoteSource(key, ctx, false, command, false);
+               if (ice != null) {
+                  entries.put(key, ice);
+               }
+            }
+         }
+      }
+      return entries;
+   }
+
    protected final Object handleNonTxWriteCommand(InvocationContext ctx, DataWriteCommand command) throws Throwable {
       if (ctx.isInTxScope()) {
          throw new CacheException("Attempted execution of non-transactional write command in a transactional invocation context");
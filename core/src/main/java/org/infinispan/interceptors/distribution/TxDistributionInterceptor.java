@@ -4,6 +4,7 @@
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.commands.control.LockControlCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.tx.CommitCommand;
 import org.infinispan.commands.tx.PrepareCommand;
@@ -20,6 +21,7 @@
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.impl.LocalTxInvocationContext;
 import org.infinispan.context.impl.TxInvocationContext;
+import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.remoting.rpc.ResponseMode;
 import org.infinispan.remoting.rpc.RpcOptions;
@@ -31,7 +33,9 @@
 import org.infinispan.util.logging.LogFactory;
 
 import java.util.Collection;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeoutException;
 
 import static org.infinispan.util.DeltaCompositeKeyUtil.filterDeltaCompositeKey;
@@ -157,6 +161,44 @@ private Object visitGetCommand(InvocationContext ctx, GetKeyValueCommand command
       }
    }
 
+   @Override
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      if (ctx.isOriginLocal() && !command.hasFlag(Flag.CACHE_MODE_LOCAL)
+            && !command.hasFlag(Flag.SKIP_REMOTE_LOOKUP) && !command.hasFlag(Flag.IGNORE_RETURN_VALUES)) {
+         ConsistentHash ch = dm.getReadConsistentHash();
+         List<Object> remoteKeys = new ArrayList<Object>();
+         for (Object key : command.getKeys()) {
+            //if the cache entry has the value lock flag set, skip the remote get.
+            CacheEntry entry = ctx.lookupEntry(key);
+            boolean skipRemoteGet = entry != null && entry.skipLookup();
+            if (!skipRemoteGet && (entry == null || entry.isNull()) && !isValueAvailableLocally(ch, key)) {
+               remoteKeys.add(key);
+            }
+         }
+         if (!remoteKeys.isEmpty()) {
+            Map<Object, InternalCacheEntry> remoteEntries = retrieveAllFromRemoteSources(remoteKeys, ctx, command);
+            command.setRemotelyFetched(remoteEntries);
+            for (Object key : remoteKeys) {
+               InternalCacheEntry ice = remoteEntries.get(key);
+               if (ice != null) {
+                  if (useClusteredWriteSkewCheck && ctx.isInTxScope()) {
+                     ((TxInvocationContext) ctx).getCacheTransaction().putLookedUpRemoteVersion(key, ice.getMetadata().version());
+                  }
+                  if (!ctx.replaceValue(key, ice)) {
+                     ctx.putLookedUpEntry(key, ice);
+                     if (ctx.isInTxScope()) {
+                        ((TxInvocationContext) ctx).getCacheTransaction().replaceVersionRead(key, ice.getMetadata().version());
+                     }
+                  }
+               } else if (!ctx.isEntryRemovedInContext(key)) {
+                  localGet(ctx, key, false, command, false);
+               }
+            }
+         }
+      }
+      return invokeNextInterceptor(ctx, command);
+   }
+
    protected void lockAndWrap(InvocationContext ctx, Object key, InternalCacheEntry ice, FlagAffectedCommand command) throws InterruptedException {
       boolean skipLocking = hasSkipLocking(command);
       long lockTimeout = getLockAcquisitionTimeout(command, skipLocking);
@@ -9,6 +9,7 @@
 import org.infinispan.commands.read.MapCombineCommand;
 import org.infinispan.commands.read.ReduceCommand;
 import org.infinispan.commands.remote.CacheRpcCommand;
+import org.infinispan.commands.remote.ClusteredGetAllCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
 import org.infinispan.commands.remote.GetKeysInGroup;
 import org.infinispan.commands.remote.MultipleRpcCommand;
@@ -81,7 +82,8 @@ public Set<Class<? extends CacheRpcCommand>> getTypeClasses() {
                VersionedPrepareCommand.class, CreateCacheCommand.class, CancelCommand.class,
                VersionedCommitCommand.class, XSiteAdminCommand.class, TotalOrderNonVersionedPrepareCommand.class,
                TotalOrderVersionedPrepareCommand.class, TotalOrderCommitCommand.class,
-               TotalOrderVersionedCommitCommand.class, TotalOrderRollbackCommand.class, GetKeysInGroup.class);
+               TotalOrderVersionedCommitCommand.class, TotalOrderRollbackCommand.class, GetKeysInGroup.class,
+               ClusteredGetAllCommand.class);
       // Only interested in cache specific replicable commands
       coreCommands.addAll(gcr.getModuleProperties().moduleCacheRpcCommands());
       return coreCommands;
@@ -8,6 +8,7 @@
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
 import org.infinispan.notifications.cachelistener.event.EventImpl;
+import org.infinispan.util.TimeService;
 import org.infinispan.util.concurrent.WithinThreadExecutor;
 import org.infinispan.util.logging.Log;
 
@@ -22,6 +23,7 @@
 import java.security.PrivilegedAction;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -29,7 +31,10 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Functionality common to both {@link org.infinispan.notifications.cachemanagerlistener.CacheManagerNotifierImpl} and
@@ -45,10 +50,19 @@ public abstract class AbstractListenerImpl {
    // two separate executor services, one for sync and one for async listeners
    protected ExecutorService syncProcessor;
    protected ExecutorService asyncProcessor;
+   protected TimeService timeService;
+
+   // the event queues of the asynchronous listeners, by listener id
+   private final ConcurrentMap<UUID, ListenerEventQueue> eventQueues = new ConcurrentHashMap<UUID, ListenerEventQueue>();
+   private final AtomicLong droppedEvents = new AtomicLong();
+   private final AtomicLong coalescedEvents = new AtomicLong();
+   private final AtomicLong overCapacityEvents = new AtomicLong();
 
    @Inject
-   void injectExecutor(@ComponentName(KnownComponentNames.ASYNC_NOTIFICATION_EXECUTOR) ExecutorService executor) {
+   void injectExecutor(@ComponentName(KnownComponentNames.ASYNC_NOTIFICATION_EXECUTOR) ExecutorService executor,
+                       TimeService timeService) {
       this.asyncProcessor = executor;
+      this.timeService = timeService;
    }
 
    @Start (priority = 9)
@@ -64,6 +78,7 @@ void stop() {
       for (List<ListenerInvocation> list : listenersMap.values()) {
          if (list != null) list.clear();
       }
+      eventQueues.clear();
 
       if (syncProcessor != null) syncProcessor.shutdownNow();
    }
@@ -88,7 +103,10 @@ private void removeListenerInvocation(Class<? extends Annotation> annotation, Ob
       List<ListenerInvocation> l = getListenerCollectionForAnnotation(annotation);
       Set<Object> markedForRemoval = new HashSet<Object>(4);
       for (ListenerInvocation li : l) {
-         if (listener.equals(li.target)) markedForRemoval.add(li);
+         if (listener.equals(li.target)) {
+            markedForRemoval.add(li);
+            eventQueues.remove(li.generatedId);
+         }
       }
       l.removeAll(markedForRemoval);
    }
@@ -101,6 +119,11 @@ public void addListener(Object listener, ClassLoader classLoader) {
       validateAndAddListenerInvocation(listener, null, null, classLoader);
    }
 
+   public boolean hasListener(Class<? extends Annotation> annotationClass) {
+      List<ListenerInvocation> list = listenersMap.get(annotationClass);
+      return list != null && !list.isEmpty();
+   }
+
    public Set<Object> getListeners() {
       Set<Object> result = new HashSet<Object>(listenersMap.size());
       for (List<ListenerInvocation> list : listenersMap.values()) {
@@ -119,6 +142,12 @@ protected void validateAndAddListenerInvocation(Object listener, KeyValueFilter
                                                    ClassLoader classLoader) {
       Listener l = testListenerClassValidity(listener.getClass());
       UUID generatedId = UUID.randomUUID();
+      if (l.queueSize() < 0)
+         throw new IncorrectListenerException(String.format("The queue size of listener %s must not be negative", listener.getClass().getName()));
+      // all the methods of an asynchronous listener share its event queue, so that its events are delivered in order
+      ListenerEventQueue eventQueue = l.sync() || l.queueSize() == 0 ? null : new ListenerEventQueue(asyncProcessor,
+            timeService, listener.getClass().getName() + "@" + generatedId, l.queueSize(), l.overflowPolicy(),
+            droppedEvents, coalescedEvents, overCapacityEvents);
       boolean foundMethods = false;
       boolean foundClusterMethods = false;
       Map<Class<? extends Annotation>, Class<?>> allowedListeners = getAllowedMethodAnnotations();
@@ -131,7 +160,9 @@ protected void validateAndAddListenerInvocation(Object listener, KeyValueFilter
             if (m.isAnnotationPresent(key)) {
                testListenerMethodValidity(m, value, key.getName());
                m.setAccessible(true);
-               addListenerInvocation(key, createListenerInvocation(listener, m, l, filter, converter, classLoader, generatedId, Subject.getSubject(AccessController.getContext())));
+               ListenerInvocation li = createListenerInvocation(listener, m, l, filter, converter, classLoader, generatedId, Subject.getSubject(AccessController.getContext()));
+               li.eventQueue = eventQueue;
+               addListenerInvocation(key, li);
                foundMethods = true;
                // If the annotation is also a cluster listener available event we need to replicate listener
                if (l.clustered()) {
@@ -144,6 +175,7 @@ protected void validateAndAddListenerInvocation(Object listener, KeyValueFilter
       if (!foundMethods)
          getLog().noAnnotateMethodsFoundInListener(listener.getClass());
       else {
+         if (eventQueue != null) eventQueues.put(generatedId, eventQueue);
          addedListener(listener, generatedId, foundClusterMethods, filter, converter);
       }
    }
@@ -184,6 +216,72 @@ protected static void testListenerMethodValidity(Method m, Class<?> allowedParam
          throw new IncorrectListenerException("Methods annotated with " + annotationName + " should have a return type of void.");
    }
 
+   /**
+    * @return the number of events waiting to be delivered to asynchronous listeners
+    */
+   protected int getPendingEventCount() {
+      int count = 0;
+      for (ListenerEventQueue queue : eventQueues.values()) {
+         count += queue.size();
+      }
+      return count;
+   }
+
+   /**
+    * @return for how many milliseconds the oldest event waiting to be delivered to an asynchronous listener has been
+    *         waiting
+    */
+   protected long getOldestPendingEventAge() {
+      long age = 0;
+      for (ListenerEventQueue queue : eventQueues.values()) {
+         age = Math.max(age, queue.getOldestEventAge());
+      }
+      return age;
+   }
+
+   /**
+    * @return the number of events discarded because the queue of an asynchronous listener was full
+    */
+   protected long getDroppedEventCount() {
+      return droppedEvents.get();
+   }
+
+   /**
+    * @return the number of events which replaced a pending event for the same key because the queue of an asynchronous
+    *         listener was full
+    */
+   protected long getCoalescedEventCount() {
+      return coalescedEvents.get();
+   }
+
+   /**
+    * @return the number of events queued past the capacity of the queue of an asynchronous listener, because the
+    *         listener was busy with another batch when the queue was full
+    */
+   protected long getOverCapacityEventCount() {
+      return overCapacityEvents.get();
+   }
+
+   /**
+    * @return the statistics of the event queue of each asynchronous listener, one listener per line
+    */
+   protected String printEventQueueStatistics() {
+      StringBuilder sb = new StringBuilder();
+      for (ListenerEventQueue queue : eventQueues.values()) {
+         sb.append(queue.printStatistics()).append('\n');
+      }
+      return sb.toString();
+   }
+
+   protected void resetEventStatistics() {
+      droppedEvents.set(0);
+      coalescedEvents.set(0);
+      overCapacityEvents.set(0);
+      for (ListenerEventQueue queue : eventQueues.values()) {
+         queue.resetStatistics();
+      }
+   }
+
    protected abstract Transaction suspendIfNeeded();
 
    protected abstract void resumeIfNeeded(Transaction transaction);
@@ -203,6 +301,7 @@ protected class ListenerInvocation {
       public final Converter converter;
       public final UUID generatedId;
       public final Subject subject;
+      private ListenerEventQueue eventQueue;
 
       public ListenerInvocation(Object target, Method method, boolean sync, boolean onlyPrimary, boolean clustered,
                                 KeyValueFilter filter, Converter converter, ClassLoader classLoader, UUID generatedId, Subject subject) {
@@ -232,72 +331,89 @@ public void invoke(final Object event, boolean isLocalNodePrimaryOwner, final bo
 
                @Override
                public void run() {
-                  ClassLoader contextClassLoader = null;
-                  Transaction transaction = suspendIfNeeded();
-                  if (classLoader != null && classLoader.get() != null) {
-                     contextClassLoader = setContextClassLoader(classLoader.get());
-                  }
-                  try {
-                     // Only run converter on events we can change and if it was keyed
-                     if (!unKeyed && converter != null) {
-                        if (event instanceof EventImpl) {
-                           EventImpl eventImpl = (EventImpl)event;
-                           eventImpl.setValue(converter.convert(eventImpl.getKey(), eventImpl.getValue(),
-                                                                eventImpl.getMetadata()));
-                        } else {
-                           throw new IllegalArgumentException("Provided event should be EventImpl when a converter is" +
-                                                                    "being used!");
-                        }
-                     }
-                     if (subject != null) {
-                        try {
-                           Subject.doAs(subject, new PrivilegedExceptionAction<Void>() {
-                              @Override
-                              public Void run() throws Exception {
-                                 method.invoke(target, event);
-                                 return null;
-                              }
-                           });
-                        } catch (PrivilegedActionException e) {
-                           Throwable cause = e.getCause();
-                           if (cause instanceof InvocationTargetException) {
-                              throw (InvocationTargetException)cause;
-                           } else if (cause instanceof IllegalAccessException) {
-                              throw (IllegalAccessException)cause;
-                           } else {
-                              throw new InvocationTargetException(cause);
-                           }
-                        }
-                     } else {
-                        method.invoke(target, event);
-                     }
-                  } catch (InvocationTargetException exception) {
-                     Throwable cause = getRealException(exception);
-                     if (sync) {
-                        throw getLog().exceptionInvokingListener(
-                              cause.getClass().getName(), method, target, cause);
-                     } else {
-                        getLog().unableToInvokeListenerMethod(method, target, cause);
-                     }
-                  } catch (IllegalAccessException exception) {
-                     getLog().unableToInvokeListenerMethod(method, target, exception);
-                     removeListener(target);
-                  } finally {
-                     if (classLoader != null && classLoader.get() != null) {
-                        setContextClassLoader(contextClassLoader);
-                     }
-                     resumeIfNeeded(transaction);
-                  }
+                  deliver(event, unKeyed);
                }
             };
 
             if (sync)
                syncProcessor.execute(r);
+            else if (eventQueue != null)
+               eventQueue.offer(coalescingKey(event, unKeyed), r);
             else
                asyncProcessor.execute(r);
          }
       }
 
+      private void deliver(final Object event, boolean unKeyed) {
+         ClassLoader contextClassLoader = null;
+         Transaction transaction = suspendIfNeeded();
+         if (classLoader != null && classLoader.get() != null) {
+            contextClassLoader = setContextClassLoader(classLoader.get());
+         }
+         try {
+            // Only run converter on events we can change and if it was keyed
+            if (!unKeyed && converter != null) {
+               if (event instanceof EventImpl) {
+                  EventImpl eventImpl = (EventImpl)event;
+                  eventImpl.setValue(converter.convert(eventImpl.getKey(), eventImpl.getValue(),
+                                                       eventImpl.getMetadata()));
+               } else {
+                  throw new IllegalArgumentException("Provided event should be EventImpl when a converter is" +
+                                                           "being used!");
+               }
+            }
+            if (subject != null) {
+               try {
+                  Subject.doAs(subject, new PrivilegedExceptionAction<Void>() {
+                     @Override
+                     public Void run() throws Exception {
+                        method.invoke(target, event);
+                        return null;
+                     }
+                  });
+               } catch (PrivilegedActionException e) {
+                  Throwable cause = e.getCause();
+                  if (cause instanceof InvocationTargetException) {
+                     throw (InvocationTargetException)cause;
+                  } else if (cause instanceof IllegalAccessException) {
+                     throw (IllegalAccessException)cause;
+                  } else {
+                     throw new InvocationTargetException(cause);
+                  }
+               }
+            } else {
+               method.invoke(target, event);
+            }
+         } catch (InvocationTargetException exception) {
+            Throwable cause = getRealException(exception);
+            if (sync) {
+               throw getLog().exceptionInvokingListener(
+                     cause.getClass().getName(), method, target, cause);
+            } else {
+               getLog().unableToInvokeListenerMethod(method, target, cause);
+            }
+         } catch (IllegalAccessException exception) {
+            getLog().unableToInvokeListenerMethod(method, target, exception);
+            removeListener(target);
+         } finally {
+            if (classLoader != null && classLoader.get() != null) {
+               setContextClassLoader(contextClassLoader);
+            }
+            resumeIfNeeded(transaction);
+         }
+      }
+
+      /**
+       * Events of the same type for the same key replace each other when the event queue is full, if the listener
+       * coalesces its events.
+       */
+      private Object coalescingKey(Object event, boolean unKeyed) {
+         if (unKeyed || !eventQueue.isCoalescing() || !(event instanceof EventImpl)) return null;
+         EventImpl eventImpl = (EventImpl) event;
+         if (eventImpl.getKey() == null) return null;
+         return Arrays.asList(this, eventImpl.getType(), eventImpl.isPre(), eventImpl.getKey());
+      }
+
       private boolean shouldInvoke(Object event, boolean isLocalNodePrimaryOwner) {
          if (onlyPrimary && !isLocalNodePrimaryOwner) return false;
          if (event instanceof  EventImpl) {
@@ -230,4 +230,62 @@
     * <b>Currently this is not supported!</b>
     **/
    boolean includeCurrentState() default false;
+
+   /**
+    * Only used by clustered listeners. If greater than 0, each node collects the events raised for the listener during
+    * this many milliseconds and sends them to the node which registered the listener in a single batch, where the
+    * events for the same key are coalesced into one event holding the latest value. The batches are sent asynchronously,
+    * so the writes raising the events do not wait for them to be delivered. Events raised by transactions are not
+    * batched. If 0, which is the default, each event is sent as soon as it is raised.
+    *
+    * @return the batching window of the events sent to a clustered listener, in milliseconds
+    * @since 7.0
+    */
+   long clusterEventBatchWindow() default 0;
+
+   /**
+    * The maximum number of events waiting to be delivered to an asynchronous listener. If greater than 0, the events
+    * are delivered to the listener in order, in batches, by the threads of the asynchronous notification executor, and
+    * the {@link #overflowPolicy()} applies when the queue is full. If 0, which is the default, each event is handed
+    * to the asynchronous notification executor on its own, without any bound or ordering. Ignored by synchronous
+    * listeners.
+    *
+    * @return the capacity of the event queue of the listener, or 0 for no queue
+    * @since 7.0
+    */
+   int queueSize() default 0;
+
+   /**
+    * Specifies what happens to a new event when the event queue of an asynchronous listener is full. Ignored by
+    * synchronous listeners and when {@link #queueSize()} is 0.
+    *
+    * @return the overflow policy of the event queue of the listener
+    * @since 7.0
+    */
+   OverflowPolicy overflowPolicy() default OverflowPolicy.BLOCK;
+
+   /**
+    * What happens to a new event when the event queue of an asynchronous listener is full.
+    *
+    * @since 7.0
+    */
+   enum OverflowPolicy {
+      /**
+       * The notifying thread delivers a batch of the oldest events itself, so that writers are slowed down to the
+       * pace of the listener. No event is lost. If the listener is still busy with another batch after a short wait,
+       * the event is queued over capacity instead, since the notifying thread might hold locks the listener needs:
+       * the queue is only bounded as long as the listener keeps up. The events queued over capacity are counted in the
+       * statistics of the notifier.
+       */
+      BLOCK,
+      /**
+       * The oldest event in the queue is discarded.
+       */
+      DROP_OLDEST,
+      /**
+       * The new event replaces the pending event of the same type for the same key, if any, so the listener only
+       * sees the latest of them. Events without a pending event to replace are handled as with {@link #BLOCK}.
+       */
+      COALESCE
+   }
 }
@@ -0,0 +1,292 @@
+package org.infinispan.notifications;
+
+import org.infinispan.util.TimeService;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded queue of the events waiting to be delivered to an asynchronous listener.
+ * <p>
+ * At most one task per queue runs on the asynchronous notification executor. It takes the pending events in batches
+ * and delivers them in order, then resubmits itself if more events arrived in the meantime, so that a slow listener
+ * occupies a single notification thread and does not delay the other listeners more than one batch at a time.
+ * <p>
+ * When the queue is full, the notifying thread delivers a batch itself. It might hold locks that the listener is
+ * waiting for in the drain task, so it waits at most {@link #MAX_BLOCK_MILLIS} for the drain task to finish its batch,
+ * and then queues its event over capacity. These events are counted, so that a queue which keeps growing past its
+ * capacity shows up in the statistics.
+ *
+ * @since 7.0
+ */
+class ListenerEventQueue {
+
+   private static final Log log = LogFactory.getLog(ListenerEventQueue.class);
+
+   static final int MAX_BATCH_SIZE = 64;
+   static final long MAX_BLOCK_MILLIS = 100;
+
+   private final Executor executor;
+   private final TimeService timeService;
+   private final String listenerName;
+   private final int capacity;
+   private final Listener.OverflowPolicy overflowPolicy;
+   // the counters of all the queues of the notifier
+   private final AtomicLong totalDroppedEvents;
+   private final AtomicLong totalCoalescedEvents;
+   private final AtomicLong totalOverCapacityEvents;
+   // the counters of this queue
+   private final AtomicLong droppedEvents = new AtomicLong();
+   private final AtomicLong coalescedEvents = new AtomicLong();
+   private final AtomicLong overCapacityEvents = new AtomicLong();
+
+   private final ReentrantLock lock = new ReentrantLock();
+   // guarded by lock
+   private final ArrayDeque<PendingEvent> events;
+   // guarded by lock, only used by the COALESCE policy
+   private final Map<Object, PendingEvent> eventsByKey;
+   // guarded by lock
+   private boolean drainScheduled;
+
+   // serializes the delivery of the batches, so that the events are delivered in order
+   private final ReentrantLock deliveryLock = new ReentrantLock();
+
+   private final Runnable drainTask = new Runnable() {
+      @Override
+      public void run() {
+         deliverBatch();
+         boolean reschedule;
+         lock.lock();
+         try {
+            reschedule = !events.isEmpty();
+            drainScheduled = reschedule;
+         } finally {
+            lock.unlock();
+         }
+         if (reschedule) {
+            executor.execute(this);
+         }
+      }
+   };
+
+   ListenerEventQueue(Executor executor, TimeService timeService, String listenerName, int capacity,
+                      Listener.OverflowPolicy overflowPolicy, AtomicLong totalDroppedEvents,
+                      AtomicLong totalCoalescedEvents, AtomicLong totalOverCapacityEvents) {
+      if (capacity <= 0)
+         throw new IllegalArgumentException("The event queue size of a listener must be greater than 0");
+      this.executor = executor;
+      this.timeService = timeService;
+      this.listenerName = listenerName;
+      this.capacity = capacity;
+      this.overflowPolicy = overflowPolicy;
+      this.totalDroppedEvents = totalDroppedEvents;
+      this.totalCoalescedEvents = totalCoalescedEvents;
+      this.totalOverCapacityEvents = totalOverCapacityEvents;
+      this.events = new ArrayDeque<PendingEvent>(Math.min(capacity, 16));
+      this.eventsByKey = overflowPolicy == Listener.OverflowPolicy.COALESCE ? new HashMap<Object, PendingEvent>() : null;
+   }
+
+   boolean isCoalescing() {
+      return eventsByKey != null;
+   }
+
+   /**
+    * Queues the delivery of an event.
+    *
+    * @param coalescingKey identifies the events which can replace each other, or {@code null} if the event can not be
+    *                      replaced
+    * @param delivery      delivers the event to the listener
+    */
+   void offer(Object coalescingKey, Runnable delivery) {
+      boolean overCapacity = false;
+      while (true) {
+         boolean added = false;
+         boolean schedule = false;
+         lock.lock();
+         try {
+            if (events.size() >= capacity && !overCapacity) {
+               if (overflowPolicy == Listener.OverflowPolicy.DROP_OLDEST) {
+                  remove(events.poll());
+                  increment(droppedEvents, totalDroppedEvents);
+               } else if (eventsByKey != null && coalescingKey != null) {
+                  PendingEvent pending = eventsByKey.get(coalescingKey);
+                  if (pending != null) {
+                     pending.delivery = delivery;
+                     increment(coalescedEvents, totalCoalescedEvents);
+                     return;
+                  }
+               }
+            }
+            if (events.size() < capacity || overCapacity) {
+               PendingEvent event = new PendingEvent(coalescingKey, delivery, timeService.time());
+               events.add(event);
+               if (eventsByKey != null && coalescingKey != null) {
+                  eventsByKey.put(coalescingKey, event);
+               }
+               added = true;
+               if (overCapacity) {
+                  increment(overCapacityEvents, totalOverCapacityEvents);
+               }
+               if (!drainScheduled) {
+                  drainScheduled = true;
+                  schedule = true;
+               }
+            }
+         } finally {
+            lock.unlock();
+         }
+         if (added) {
+            if (schedule) {
+               executor.execute(drainTask);
+            }
+            return;
+         }
+         // the queue is full: make room by delivering a batch in this thread
+         overCapacity = !tryDeliverBatch();
+      }
+   }
+
+   /**
+    * @return the number of events waiting to be delivered
+    */
+   int size() {
+      lock.lock();
+      try {
+         return events.size();
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * @return for how many milliseconds the oldest pending event has been waiting to be delivered, or 0 if there are
+    *         no pending events
+    */
+   long getOldestEventAge() {
+      lock.lock();
+      try {
+         PendingEvent oldest = events.peek();
+         return oldest == null ? 0 : timeService.timeDuration(oldest.queuedTime, TimeUnit.MILLISECONDS);
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * @return the number of events discarded by this queue
+    */
+   long getDroppedEvents() {
+      return droppedEvents.get();
+   }
+
+   /**
+    * @return the number of events which replaced a pending event of this queue
+    */
+   long getCoalescedEvents() {
+      return coalescedEvents.get();
+   }
+
+   /**
+    * @return the number of events queued past the capacity of this queue
+    */
+   long getOverCapacityEvents() {
+      return overCapacityEvents.get();
+   }
+
+   void resetStatistics() {
+      droppedEvents.set(0);
+      coalescedEvents.set(0);
+      overCapacityEvents.set(0);
+   }
+
+   /**
+    * @return the statistics of this queue, in a single line
+    */
+   String printStatistics() {
+      return String.format("%s: capacity=%d, overflowPolicy=%s, pending=%d, lag=%dms, dropped=%d, coalesced=%d, " +
+                                 "overCapacity=%d", listenerName, capacity, overflowPolicy, size(), getOldestEventAge(),
+                           droppedEvents.get(), coalescedEvents.get(), overCapacityEvents.get());
+   }
+
+   private static void increment(AtomicLong counter, AtomicLong total) {
+      counter.incrementAndGet();
+      total.incrementAndGet();
+   }
+
+   /**
+    * Delivers a batch in the notifying thread, unless the drain task does not finish delivering its own batch within
+    * {@link #MAX_BLOCK_MILLIS}.
+    *
+    * @return {@code false} if no batch was delivered
+    */
+   private boolean tryDeliverBatch() {
+      try {
+         if (!deliveryLock.tryLock(MAX_BLOCK_MILLIS, TimeUnit.MILLISECONDS)) {
+            log.trace("Timed out waiting to deliver a batch of events, queueing the event over capacity");
+            return false;
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         return false;
+      }
+      try {
+         deliverBatch();
+      } finally {
+         deliveryLock.unlock();
+      }
+      return true;
+   }
+
+   private void deliverBatch() {
+      PendingEvent[] batch = new PendingEvent[MAX_BATCH_SIZE];
+      deliveryLock.lock();
+      try {
+         int count = 0;
+         lock.lock();
+         try {
+            PendingEvent event;
+            while (count < MAX_BATCH_SIZE && (event = events.poll()) != null) {
+               remove(event);
+               batch[count++] = event;
+            }
+         } finally {
+            lock.unlock();
+         }
+         for (int i = 0; i < count; i++) {
+            try {
+               batch[i].delivery.run();
+            } catch (Throwable t) {
+               log.unexpectedErrorInAsyncProcessor(t);
+            }
+         }
+      } finally {
+         deliveryLock.unlock();
+      }
+   }
+
+   private void remove(PendingEvent event) {
+      if (eventsByKey != null && event != null && event.coalescingKey != null
+            && eventsByKey.get(event.coalescingKey) == event) {
+         eventsByKey.remove(event.coalescingKey);
+      }
+   }
+
+   private static class PendingEvent {
+      final Object coalescingKey;
+      final long queuedTime;
+      Runnable delivery;
+
+      PendingEvent(Object coalescingKey, Runnable delivery, long queuedTime) {
+         this.coalescingKey = coalescingKey;
+         this.delivery = delivery;
+         this.queuedTime = queuedTime;
+      }
+   }
+}
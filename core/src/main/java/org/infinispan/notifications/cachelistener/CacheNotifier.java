@@ -11,6 +11,7 @@
 import org.infinispan.notifications.FilteringListenable;
 import org.infinispan.transaction.xa.GlobalTransaction;
 
+import java.lang.annotation.Annotation;
 import java.util.Collection;
 
 /**
@@ -105,4 +106,10 @@ void notifyCacheEntryPassivated(Object key, Object value, boolean pre,
 
    void notifyTopologyChanged(ConsistentHash oldConsistentHash, ConsistentHash newConsistentHash, int newTopologyId, boolean pre);
 
+   /**
+    * @param annotationClass the annotation of an event, e.g. {@link org.infinispan.notifications.cachelistener.annotation.CacheEntryInvalidated}
+    * @return true if at least one registered listener is notified of the event
+    */
+   boolean hasListener(Class<? extends Annotation> annotationClass);
+
 }
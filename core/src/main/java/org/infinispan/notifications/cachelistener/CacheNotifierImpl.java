@@ -17,6 +17,12 @@
 import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.interceptors.locking.ClusteringDependentLogic;
+import org.infinispan.jmx.annotations.DisplayType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.notifications.AbstractListenerImpl;
 import org.infinispan.notifications.Converter;
@@ -67,6 +73,7 @@
  * @author Mircea.Markus@jboss.com
  * @since 4.0
  */
+@MBean(objectName = "CacheNotifier", description = "Delivers the cache events to the registered listeners.")
 public final class CacheNotifierImpl extends AbstractListenerImpl implements ClusterCacheNotifier {
 
    private static final Log log = LogFactory.getLog(CacheNotifierImpl.class);
@@ -534,19 +541,23 @@ private void registerClusterListenerCallablesToInstall(Set<Object> enlistedAlrea
             if (listener.clustered) {
                callables.add(new ClusterListenerReplicateCallable(listener.generatedId,
                                                                   cache.getCacheManager().getAddress(), listener.filter,
-                                                                  listener.converter));
+                                                                  listener.converter, getBatchWindow(listener.target)));
                enlistedAlready.add(listener.target);
             }
             else if (listener.target instanceof RemoteClusterListener) {
                RemoteClusterListener lcl = (RemoteClusterListener)listener.target;
                callables.add(new ClusterListenerReplicateCallable(lcl.getId(), lcl.getOwnerAddress(), listener.filter,
-                                                                  listener.converter));
+                                                                  listener.converter, lcl.getBatchWindow()));
                enlistedAlready.add(listener.target);
             }
          }
       }
    }
 
+   private static long getBatchWindow(Object clusterListener) {
+      return testListenerClassValidity(clusterListener.getClass()).clusterEventBatchWindow();
+   }
+
    public boolean isNotificationAllowed(
          FlagAffectedCommand cmd, List<ListenerInvocation> listeners) {
       return (cmd == null || !cmd.hasFlag(Flag.SKIP_LISTENER_NOTIFICATION))
@@ -586,7 +597,8 @@ protected void addedListener(Object listener, UUID generatedId, boolean hasClust
 
             log.tracef("Replicating cluster listener to other nodes %s for cluster listener with id %s",
                        members, generatedId);
-            Callable callable = new ClusterListenerReplicateCallable(generatedId, ourAddress, filter, converter);
+            Callable callable = new ClusterListenerReplicateCallable(generatedId, ourAddress, filter, converter,
+                                                                     getBatchWindow(listener));
             for (Address member : members) {
                if (!member.equals(ourAddress)) {
                   decs.submit(member, callable);
@@ -629,6 +641,41 @@ protected void addedListener(Object listener, UUID generatedId, boolean hasClust
       }
    }
 
+   @ManagedAttribute(description = "Number of events waiting to be delivered to asynchronous listeners", displayName = "Pending asynchronous events", displayType = DisplayType.SUMMARY)
+   public int getPendingAsyncEvents() {
+      return getPendingEventCount();
+   }
+
+   @ManagedAttribute(description = "Time the oldest event waiting to be delivered to an asynchronous listener has been waiting", displayName = "Asynchronous listener lag", units = Units.MILLISECONDS, displayType = DisplayType.SUMMARY)
+   public long getAsyncListenerLag() {
+      return getOldestPendingEventAge();
+   }
+
+   @ManagedAttribute(description = "Number of events discarded because the queue of an asynchronous listener was full", displayName = "Dropped asynchronous events", measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getDroppedAsyncEvents() {
+      return getDroppedEventCount();
+   }
+
+   @ManagedAttribute(description = "Number of events which replaced a pending event for the same key because the queue of an asynchronous listener was full", displayName = "Coalesced asynchronous events", measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getCoalescedAsyncEvents() {
+      return getCoalescedEventCount();
+   }
+
+   @ManagedAttribute(description = "Number of events queued past the capacity of the queue of an asynchronous listener because the listener was busy", displayName = "Over capacity asynchronous events", measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getOverCapacityAsyncEvents() {
+      return getOverCapacityEventCount();
+   }
+
+   @ManagedOperation(description = "Shows the event queue statistics of each asynchronous listener", displayName = "Show asynchronous listener statistics")
+   public String showAsyncListenerStatistics() {
+      return printEventQueueStatistics();
+   }
+
+   @ManagedOperation(description = "Resets statistics gathered by this component", displayName = "Reset statistics")
+   public void resetStatistics() {
+      resetEventStatistics();
+   }
+
    @Override
    protected ListenerInvocation createListenerInvocation(Object listener, Method m, Listener l, KeyValueFilter filter,
                                                          Converter converter, ClassLoader classLoader, UUID generatedId, Subject subject) {
@@ -89,6 +89,20 @@ public static <K, V>ClusterEvent<K, V> fromEvent(CacheEntryEvent<K, V> event) {
       this.commandRetried = commandRetried;
    }
 
+   /**
+    * Merges this event with a later event for the same key, so that the cluster listener receives a single event with
+    * the latest value. An entry which was created and then modified is still reported as created.
+    */
+   ClusterEvent<K, V> coalesce(ClusterEvent<K, V> next) {
+      if (type != Type.CACHE_ENTRY_CREATED || next.type != Type.CACHE_ENTRY_MODIFIED) {
+         return next;
+      }
+      ClusterEvent<K, V> coalesced = new ClusterEvent<K, V>(key, next.value, oldValue, next.metadata, type, next.origin,
+                                                            next.transaction, next.commandRetried);
+      coalesced.cache = next.cache;
+      return coalesced;
+   }
+
    @Override
    public V getValue() {
       return value;
@@ -6,6 +6,7 @@
 import org.infinispan.distexec.DefaultExecutorService;
 import org.infinispan.distexec.DistributedCallable;
 import org.infinispan.distexec.DistributedExecutorService;
+import org.infinispan.factories.KnownComponentNames;
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.marshall.core.Ids;
 import org.infinispan.notifications.Converter;
@@ -22,6 +23,8 @@
 import java.io.ObjectOutput;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * This DistributedCallable is used to install a {@link RemoteClusterListener} on the resulting node.  This class
@@ -39,18 +42,27 @@
    private transient CacheManagerNotifier cacheManagerNotifier;
    private transient DistributedExecutorService distExecutor;
    private transient Address ourAddress;
+   private transient ScheduledExecutorService batchScheduler;
+   private transient ExecutorService batchExecutor;
 
    private final UUID identifier;
    private final KeyValueFilter<K, V> filter;
    private final Converter<K, V, ?> converter;
    private final Address origin;
+   private final long batchWindow;
 
    public ClusterListenerReplicateCallable(UUID identifier, Address origin, KeyValueFilter<K, V> filter,
                                            Converter<K, V, ?> converter) {
+      this(identifier, origin, filter, converter, 0);
+   }
+
+   public ClusterListenerReplicateCallable(UUID identifier, Address origin, KeyValueFilter<K, V> filter,
+                                           Converter<K, V, ?> converter, long batchWindow) {
       this.identifier = identifier;
       this.origin = origin;
       this.filter = filter;
       this.converter = converter;
+      this.batchWindow = batchWindow;
    }
 
    @Override
@@ -61,6 +73,10 @@ public void setEnvironment(Cache<K, V> cache, Set<K> inputKeys) {
             CacheManagerNotifier.class);
       distExecutor = new DefaultExecutorService(cache, new WithinThreadExecutor());
       ourAddress = cache.getCacheManager().getAddress();
+      batchScheduler = cache.getCacheManager().getGlobalComponentRegistry().getComponent(
+            ScheduledExecutorService.class, KnownComponentNames.EVICTION_SCHEDULED_EXECUTOR);
+      batchExecutor = cache.getCacheManager().getGlobalComponentRegistry().getComponent(
+            ExecutorService.class, KnownComponentNames.ASYNC_TRANSPORT_EXECUTOR);
    }
 
    @Override
@@ -83,7 +99,8 @@ public Void call() throws Exception {
                }
                if (!alreadyInstalled) {
                   RemoteClusterListener listener = new RemoteClusterListener(identifier, origin, distExecutor, cacheNotifier,
-                                                                           cacheManagerNotifier);
+                                                                           cacheManagerNotifier, batchWindow, batchScheduler,
+                                                                           batchExecutor);
                   cacheNotifier.addListener(listener, filter, converter);
                   cacheManagerNotifier.addListener(listener);
                   // It is possible the member is now gone after registered, if so we have to remove just to be sure
@@ -124,12 +141,14 @@ public void writeObject(ObjectOutput output, ClusterListenerReplicateCallable ob
          output.writeObject(object.origin);
          output.writeObject(object.filter);
          output.writeObject(object.converter);
+         output.writeLong(object.batchWindow);
       }
 
       @Override
       public ClusterListenerReplicateCallable readObject(ObjectInput input) throws IOException, ClassNotFoundException {
          return new ClusterListenerReplicateCallable((UUID)input.readObject(), (Address)input.readObject(),
-                                                     (KeyValueFilter)input.readObject(), (Converter)input.readObject());
+                                                     (KeyValueFilter)input.readObject(), (Converter)input.readObject(),
+                                                     input.readLong());
       }
 
       @Override
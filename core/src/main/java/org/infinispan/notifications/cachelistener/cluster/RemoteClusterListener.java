@@ -1,5 +1,6 @@
 package org.infinispan.notifications.cachelistener.cluster;
 
+import net.jcip.annotations.GuardedBy;
 import net.jcip.annotations.ThreadSafe;
 import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.distexec.DistributedExecutorService;
@@ -21,12 +22,19 @@
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -45,17 +53,51 @@ public class RemoteClusterListener {
    private final DistributedExecutorService distExecService;
    private final CacheNotifier cacheNotifier;
    private final CacheManagerNotifier cacheManagerNotifier;
+   private final long batchWindow;
+   private final ScheduledExecutorService batchScheduler;
+   private final Executor batchExecutor;
+   // the events raised during the current batching window, with only the latest event for each key
+   @GuardedBy("this")
+   private Map<Object, ClusterEvent> currentBatch;
+   // the batches whose window is over, waiting to be sent in order
+   @GuardedBy("this")
+   private final Queue<Collection<ClusterEvent>> pendingBatches = new ArrayDeque<Collection<ClusterEvent>>();
+   @GuardedBy("this")
+   private boolean sending;
+
+   private final Runnable batchCloser = new Runnable() {
+      @Override
+      public void run() {
+         closeBatch();
+      }
+   };
+
+   private final Runnable batchSender = new Runnable() {
+      @Override
+      public void run() {
+         sendPendingBatches();
+      }
+   };
 
    private final ConcurrentMap<GlobalTransaction, Queue<CacheEntryEvent>> transactionChanges =
          CollectionFactory.makeConcurrentMap();
 
    public RemoteClusterListener(UUID id, Address origin, DistributedExecutorService distExecService, CacheNotifier cacheNotifier,
                                 CacheManagerNotifier cacheManagerNotifier) {
+      this(id, origin, distExecService, cacheNotifier, cacheManagerNotifier, 0, null, null);
+   }
+
+   public RemoteClusterListener(UUID id, Address origin, DistributedExecutorService distExecService, CacheNotifier cacheNotifier,
+                                CacheManagerNotifier cacheManagerNotifier, long batchWindow,
+                                ScheduledExecutorService batchScheduler, Executor batchExecutor) {
       this.id = id;
       this.origin = origin;
       this.distExecService = distExecService;
       this.cacheNotifier = cacheNotifier;
       this.cacheManagerNotifier = cacheManagerNotifier;
+      this.batchWindow = batchWindow;
+      this.batchScheduler = batchScheduler;
+      this.batchExecutor = batchExecutor;
    }
 
    public UUID getId() {
@@ -66,6 +108,14 @@ public Address getOwnerAddress() {
       return origin;
    }
 
+   /**
+    * @return for how many milliseconds events are collected before being sent to the cluster listener, or 0 if they
+    *         are sent as soon as they are raised
+    */
+   public long getBatchWindow() {
+      return batchWindow;
+   }
+
    @ViewChanged
    public void viewChange(ViewChangedEvent event) {
       if (!event.getNewMembers().contains(origin)) {
@@ -91,7 +141,9 @@ public void handleClusterEvents(CacheEntryEvent event) throws Exception {
          if (transaction != null) {
             Queue<CacheEntryEvent> events = transactionChanges.get(transaction);
             events.add(event);
-         }  else {
+         } else if (batchWindow > 0 && batchScheduler != null && batchExecutor != null) {
+            sendBatched(ClusterEvent.fromEvent(event));
+         } else {
             // Send event back to origin who has the cluster listener
             if (log.isTraceEnabled()) {
                log.tracef("Submitting Event %s to cluster listener to %s", event, origin);
@@ -114,16 +166,84 @@ public void transactionCompleted(TransactionCompletedEvent event) throws Excepti
          List<ClusterEvent> eventsToSend = new ArrayList<ClusterEvent>(events.size());
          for (CacheEntryEvent cacheEvent : events) {
             eventsToSend.add(ClusterEvent.fromEvent(cacheEvent));
-            // Send event back to origin who has the cluster listener
-            if (log.isTraceEnabled()) {
-               log.tracef("Submitting Event(s) %s to cluster listener to %s", eventsToSend, origin);
+         }
+         // Send event back to origin who has the cluster listener
+         if (log.isTraceEnabled()) {
+            log.tracef("Submitting Event(s) %s to cluster listener to %s", eventsToSend, origin);
+         }
+         // Force the execution to wait until completed
+         distExecService.submit(origin,
+                                distExecService.createDistributedTaskBuilder(
+                                      new ClusterEventCallable(id, eventsToSend)).timeout(Long.MAX_VALUE, TimeUnit.DAYS)
+                                      .build()).get();
+      }
+   }
+
+   /**
+    * Adds the event to the batch of the current window, replacing the previous event for the same key. The first event
+    * of a window schedules the batch to be closed once the window is over.
+    */
+   @SuppressWarnings("unchecked")
+   private void sendBatched(ClusterEvent event) {
+      boolean newBatch;
+      synchronized (this) {
+         newBatch = currentBatch == null;
+         if (newBatch) {
+            currentBatch = new LinkedHashMap<Object, ClusterEvent>();
+         }
+         ClusterEvent previous = currentBatch.get(event.getKey());
+         currentBatch.put(event.getKey(), previous == null ? event : previous.coalesce(event));
+      }
+      if (newBatch) {
+         batchScheduler.schedule(batchCloser, batchWindow, TimeUnit.MILLISECONDS);
+      }
+   }
+
+   /**
+    * Queues the batch of the window that is over for sending. Runs on the shared scheduled executor, so it must not
+    * block: the batch is sent by a task on the batch executor, at most one per listener, so that the listener
+    * receives the batches in order.
+    */
+   private void closeBatch() {
+      boolean startSending;
+      synchronized (this) {
+         pendingBatches.add(currentBatch.values());
+         currentBatch = null;
+         startSending = !sending;
+         sending = true;
+      }
+      if (startSending) {
+         batchExecutor.execute(batchSender);
+      }
+   }
+
+   private void sendPendingBatches() {
+      while (true) {
+         Collection<ClusterEvent> events;
+         synchronized (this) {
+            events = pendingBatches.poll();
+            if (events == null) {
+               sending = false;
+               return;
             }
-            // Force the execution to wait until completed
-            distExecService.submit(origin,
-                                   distExecService.createDistributedTaskBuilder(
-                                         new ClusterEventCallable(id, eventsToSend)).timeout(Long.MAX_VALUE, TimeUnit.DAYS)
-                                         .build()).get();
          }
+         sendBatch(events);
+      }
+   }
+
+   private void sendBatch(Collection<ClusterEvent> events) {
+      if (log.isTraceEnabled()) {
+         log.tracef("Submitting batch of %d event(s) %s to cluster listener to %s", events.size(), events, origin);
+      }
+      try {
+         // Bounded by the default task timeout, the replication timeout of the cache
+         distExecService.submit(origin, new ClusterEventCallable(id, new ArrayList<ClusterEvent>(events))).get();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      } catch (ExecutionException e) {
+         log.failedToSendClusterEventBatch(events.size(), id, origin, e.getCause());
+      } catch (RuntimeException e) {
+         log.failedToSendClusterEventBatch(events.size(), id, origin, e);
       }
    }
 }
@@ -6,7 +6,9 @@
 import org.infinispan.configuration.cache.AsyncStoreConfiguration;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.persistence.spi.PersistenceException;
+import org.infinispan.persistence.PersistenceUtil;
 import org.infinispan.persistence.modifications.Modification;
+import org.infinispan.persistence.modifications.ModificationsList;
 import org.infinispan.persistence.modifications.Remove;
 import org.infinispan.persistence.modifications.Store;
 import org.infinispan.commons.util.CollectionFactory;
@@ -147,19 +149,48 @@ public boolean delete(Object key) {
       return true;
    }
 
+   @Override
+   public void writeBatch(Iterable entries) {
+      List<Modification> mods = new ArrayList<Modification>();
+      for (Object e : entries) {
+         MarshalledEntry entry = (MarshalledEntry) e;
+         mods.add(new Store(entry.getKey(), entry));
+      }
+      putAll(mods);
+   }
+
+   @Override
+   public void deleteBatch(Iterable keys) {
+      List<Modification> mods = new ArrayList<Modification>();
+      for (Object key : keys) {
+         mods.add(new Remove(key));
+      }
+      putAll(mods);
+   }
+
+   /**
+    * Applies the modifications to the underlying store. Modifications are coalesced by key, so the stores and
+    * removals can be handed over to the store as two independent batches.
+    */
    protected void applyModificationsSync(List<Modification> mods) throws PersistenceException {
+      List<MarshalledEntry> entriesToWrite = new ArrayList<MarshalledEntry>(mods.size());
+      List<Object> keysToDelete = new ArrayList<Object>();
       for (Modification m : mods) {
          switch (m.getType()) {
             case STORE:
-               actual.write(((Store) m).getStoredValue());
+               entriesToWrite.add(((Store) m).getStoredValue());
                break;
             case REMOVE:
-               actual.delete(((Remove) m).getKey());
+               keysToDelete.add(((Remove) m).getKey());
                break;
             default:
                throw new IllegalArgumentException("Unknown modification type " + m.getType());
          }
       }
+      if (!entriesToWrite.isEmpty())
+         PersistenceUtil.writeBatch(actual, entriesToWrite);
+      if (!keysToDelete.isEmpty())
+         PersistenceUtil.deleteBatch(actual, keysToDelete);
    }
 
 
@@ -180,6 +211,11 @@ private void put(Modification mod, int count) {
       }
    }
 
+   private void putAll(List<Modification> mods) {
+      if (!mods.isEmpty())
+         put(new ModificationsList(mods), mods.size());
+   }
+
    public AtomicReference<State> getState() {
       return state;
    }
@@ -12,6 +12,7 @@
 import org.infinispan.persistence.PersistenceUtil;
 import org.infinispan.persistence.TaskContextImpl;
 import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.infinispan.persistence.spi.BatchCacheWriter;
 import org.infinispan.persistence.spi.InitializationContext;
 import org.infinispan.util.KeyValuePair;
 import org.infinispan.util.logging.Log;
@@ -25,6 +26,7 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -56,7 +58,7 @@
  * and hence, it only makes sense configuring a maximum limit if Infinispan
  * is used as a cache where loss of data in the cache store does not lead to
  * data loss, and data can be recomputed or re-queried from the original data
- * source.
+ * source. {@link org.infinispan.persistence.logfile.LogFileStore} doesn't keep the keys in memory.
  * <p/>
  * This class is fully thread safe, yet allows for concurrent load / store
  * of individual cache entries.
@@ -65,7 +67,7 @@
  * @author Mircea Markus
  * @since 6.0
  */
-public class SingleFileStore implements AdvancedLoadWriteStore {
+public class SingleFileStore implements AdvancedLoadWriteStore, BatchCacheWriter {
    private static final Log log = LogFactory.getLog(SingleFileStore.class);
    private static final boolean trace = log.isTraceEnabled();
 
@@ -73,6 +75,8 @@ public class SingleFileStore implements AdvancedLoadWriteStore {
    private static final byte[] ZERO_INT = {0, 0, 0, 0};
    private static final int KEYLEN_POS = 4;
    private static final int KEY_POS = 4 + 4 + 4 + 4 + 8;
+   // upper bound for the buffer used to write adjacent entries of a batch at once
+   private static final int MAX_COALESCED_WRITE = 4 * 1024 * 1024;
 
    private SingleFileStoreConfiguration configuration;
 
@@ -289,15 +293,7 @@ public void write(MarshalledEntry marshalledEntry) {
             fe = new FileEntry(fe, key.getLength(), data.getLength(), metadataLength, expiryTime);
 
             ByteBuffer buf = ByteBuffer.allocate(len);
-            buf.putInt(fe.size);
-            buf.putInt(fe.keyLen);
-            buf.putInt(fe.dataLen);
-            buf.putInt(fe.metadataLen);
-            buf.putLong(fe.expiryTime);
-            buf.put(key.getBuf(), key.getOffset(), key.getLength());
-            buf.put(data.getBuf(), data.getOffset(), data.getLength());
-            if (metadata != null)
-               buf.put(metadata.getBuf(), metadata.getOffset(), metadata.getLength());
+            putEntry(buf, fe, key, data, metadata);
             buf.flip();
             channel.write(buf, fe.offset);
             if (trace) log.tracef("Wrote entry %s at %d:%d", marshalledEntry.getKey(), fe.offset, len);
@@ -321,6 +317,109 @@ public void write(MarshalledEntry marshalledEntry) {
       }
    }
 
+   /**
+    * Writes all the entries with as few file writes as possible: the space for all the entries is allocated
+    * first, and entries that end up in adjacent blocks (e.g. appended at the end of the file) are written with
+    * a single {@link FileChannel#write(ByteBuffer, long)} call.
+    */
+   @Override
+   public void writeBatch(Iterable marshalledEntries) {
+      try {
+         List<BatchEntry> batch = new ArrayList<BatchEntry>();
+         List<FileEntry> toFree = new ArrayList<FileEntry>();
+         resizeLock.readLock().lock();
+         try {
+            for (Object o : marshalledEntries) {
+               MarshalledEntry marshalledEntry = (MarshalledEntry) o;
+               org.infinispan.commons.io.ByteBuffer key = marshalledEntry.getKeyBytes();
+               org.infinispan.commons.io.ByteBuffer data = marshalledEntry.getValueBytes();
+               org.infinispan.commons.io.ByteBuffer metadata = marshalledEntry.getMetadataBytes();
+               int metadataLength = metadata == null ? 0 : metadata.getLength();
+               int len = KEY_POS + key.getLength() + data.getLength() + metadataLength;
+               FileEntry fe = allocate(len);
+               long expiryTime = metadata != null ? marshalledEntry.getMetadata().expiryTime() : -1;
+               fe = new FileEntry(fe, key.getLength(), data.getLength(), metadataLength, expiryTime);
+               batch.add(new BatchEntry(marshalledEntry.getKey(), fe, key, data, metadata));
+               // until they are added to the index, the allocated entries must be freed if anything goes wrong
+               toFree.add(fe);
+            }
+
+            writeCoalesced(batch);
+
+            // add the new entries to in-memory index
+            toFree.clear();
+            for (BatchEntry be : batch) {
+               FileEntry fe = entries.put(be.key, be.fileEntry);
+               // if we added an entry, check if we need to evict something
+               if (fe == null)
+                  fe = evict();
+               if (fe != null)
+                  toFree.add(fe);
+            }
+         } finally {
+            // free the replaced and evicted entries
+            try {
+               for (FileEntry fe : toFree)
+                  free(fe);
+            } finally {
+               resizeLock.readLock().unlock();
+            }
+         }
+      } catch (Exception e) {
+         throw new PersistenceException(e);
+      }
+   }
+
+   private void writeCoalesced(List<BatchEntry> batch) throws IOException {
+      List<BatchEntry> sorted = new ArrayList<BatchEntry>(batch);
+      Collections.sort(sorted, new Comparator<BatchEntry>() {
+         @Override
+         public int compare(BatchEntry e1, BatchEntry e2) {
+            long o1 = e1.fileEntry.offset;
+            long o2 = e2.fileEntry.offset;
+            return o1 < o2 ? -1 : (o1 == o2 ? 0 : 1);
+         }
+      });
+      int runStart = 0;
+      while (runStart < sorted.size()) {
+         // find the run of adjacent blocks starting at runStart
+         FileEntry first = sorted.get(runStart).fileEntry;
+         long runEnd = first.offset + first.size;
+         int next = runStart + 1;
+         while (next < sorted.size() && sorted.get(next).fileEntry.offset == runEnd
+               && runEnd - first.offset + sorted.get(next).fileEntry.size <= MAX_COALESCED_WRITE) {
+            runEnd += sorted.get(next).fileEntry.size;
+            next++;
+         }
+
+         ByteBuffer buf = ByteBuffer.allocate((int) (runEnd - first.offset));
+         for (int i = runStart; i < next; i++) {
+            BatchEntry be = sorted.get(i);
+            buf.position((int) (be.fileEntry.offset - first.offset));
+            putEntry(buf, be.fileEntry, be.keyBytes, be.valueBytes, be.metadataBytes);
+         }
+         // the unused tail of a reused block does not need to be rewritten
+         FileEntry last = sorted.get(next - 1).fileEntry;
+         buf.position(0).limit((int) (last.offset - first.offset) + last.actualSize());
+         channel.write(buf, first.offset);
+         if (trace) log.tracef("Wrote %d entries at %d:%d", next - runStart, first.offset, buf.limit());
+         runStart = next;
+      }
+   }
+
+   private static void putEntry(ByteBuffer buf, FileEntry fe, org.infinispan.commons.io.ByteBuffer key,
+                                org.infinispan.commons.io.ByteBuffer data, org.infinispan.commons.io.ByteBuffer metadata) {
+      buf.putInt(fe.size);
+      buf.putInt(fe.keyLen);
+      buf.putInt(fe.dataLen);
+      buf.putInt(fe.metadataLen);
+      buf.putLong(fe.expiryTime);
+      buf.put(key.getBuf(), key.getOffset(), key.getLength());
+      buf.put(data.getBuf(), data.getOffset(), data.getLength());
+      if (metadata != null)
+         buf.put(metadata.getBuf(), metadata.getOffset(), metadata.getLength());
+   }
+
    /**
     * Try to evict an entry if the capacity of the cache store is reached.
     *
@@ -384,6 +483,20 @@ public boolean delete(Object key) {
       }
    }
 
+   @Override
+   public void deleteBatch(Iterable keys) {
+      resizeLock.readLock().lock();
+      try {
+         for (Object key : keys) {
+            free(entries.remove(key));
+         }
+      } catch (Exception e) {
+         throw new PersistenceException(e);
+      } finally {
+         resizeLock.readLock().unlock();
+      }
+   }
+
    @Override
    public MarshalledEntry load(Object key) {
       return _load(key, true, true);
@@ -553,6 +666,26 @@ public SingleFileStoreConfiguration getConfiguration() {
       return configuration;
    }
 
+   /**
+    * An entry of {@link #writeBatch(Iterable)}, with its serialized form and the file block allocated for it.
+    */
+   private static class BatchEntry {
+      final Object key;
+      final FileEntry fileEntry;
+      final org.infinispan.commons.io.ByteBuffer keyBytes;
+      final org.infinispan.commons.io.ByteBuffer valueBytes;
+      final org.infinispan.commons.io.ByteBuffer metadataBytes;
+
+      BatchEntry(Object key, FileEntry fileEntry, org.infinispan.commons.io.ByteBuffer keyBytes,
+                 org.infinispan.commons.io.ByteBuffer valueBytes, org.infinispan.commons.io.ByteBuffer metadataBytes) {
+         this.key = key;
+         this.fileEntry = fileEntry;
+         this.keyBytes = keyBytes;
+         this.valueBytes = valueBytes;
+         this.metadataBytes = metadataBytes;
+      }
+   }
+
    /**
     * Helper class to represent an entry in the cache file.
     * <p/>
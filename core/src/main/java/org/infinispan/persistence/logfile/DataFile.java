@@ -0,0 +1,154 @@
+package org.infinispan.persistence.logfile;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One of the files of the log. Only the last file is appended to, the others are immutable until they're compacted
+ * and deleted.
+ * <p/>
+ * Reading a file that has been deleted by a concurrent compaction throws a {@link ClosedChannelException}: by then
+ * the index has been updated, so readers look the entry up again.
+ *
+ * @since 7.0
+ */
+final class DataFile {
+
+   private static final String SUFFIX = ".log";
+
+   final int id;
+   private final File file;
+   private FileChannel channel;
+   private boolean deleted;
+
+   private volatile int size;
+   private final AtomicLong deadBytes = new AtomicLong();
+   private final AtomicBoolean scheduled = new AtomicBoolean();
+
+   DataFile(File dir, int id) {
+      this.id = id;
+      this.file = new File(dir, id + SUFFIX);
+      this.size = (int) file.length();
+   }
+
+   /**
+    * @return the id of the data file, or -1 if the file is not a data file
+    */
+   static int id(File file) {
+      String name = file.getName();
+      if (!name.endsWith(SUFFIX))
+         return -1;
+      try {
+         return Integer.parseInt(name.substring(0, name.length() - SUFFIX.length()));
+      } catch (NumberFormatException e) {
+         return -1;
+      }
+   }
+
+   String path() {
+      return file.getPath();
+   }
+
+   int size() {
+      return size;
+   }
+
+   private synchronized FileChannel channel() throws IOException {
+      if (deleted)
+         throw new ClosedChannelException();
+      // Reopen the channel if it was closed by the interruption of a reader
+      if (channel == null || !channel.isOpen())
+         channel = new RandomAccessFile(file, "rw").getChannel();
+      return channel;
+   }
+
+   /**
+    * Fills the buffer with the bytes of the file starting at the given position.
+    */
+   void read(ByteBuffer buf, long position) throws IOException {
+      FileChannel ch = channel();
+      while (buf.hasRemaining()) {
+         int read = ch.read(buf, position);
+         if (read < 0)
+            throw new EOFException();
+         position += read;
+      }
+   }
+
+   byte[] read(int offset, int length) throws IOException {
+      byte[] bytes = new byte[length];
+      read(ByteBuffer.wrap(bytes), offset);
+      return bytes;
+   }
+
+   /**
+    * Writes the buffer at the end of the file. Only called by the {@link LogAppender}.
+    */
+   void append(ByteBuffer buf) throws IOException {
+      FileChannel ch = channel();
+      long position = size;
+      int length = buf.remaining();
+      while (buf.hasRemaining())
+         position += ch.write(buf, position);
+      size += length;
+   }
+
+   void truncate(int newSize) throws IOException {
+      channel().truncate(newSize);
+      size = newSize;
+   }
+
+   void addDeadBytes(int bytes) {
+      deadBytes.addAndGet(bytes);
+   }
+
+   double deadRatio() {
+      int size = this.size;
+      return size == 0 ? 0 : (double) deadBytes.get() / size;
+   }
+
+   /**
+    * @return true if the file was not already scheduled for compaction
+    */
+   boolean schedule() {
+      return scheduled.compareAndSet(false, true);
+   }
+
+   synchronized void delete() throws IOException {
+      close();
+      deleted = true;
+      if (!file.delete() && file.exists())
+         throw new IOException("Unable to delete " + file);
+   }
+
+   /**
+    * Writes the file to the storage device.
+    */
+   synchronized void force() throws IOException {
+      if (channel != null && channel.isOpen())
+         channel.force(false);
+   }
+
+   synchronized void close() throws IOException {
+      if (channel != null) {
+         channel.close();
+         channel = null;
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "DataFile{" +
+            "id=" + id +
+            ", size=" + size +
+            ", deadBytes=" + deadBytes +
+            '}';
+   }
+}
@@ -0,0 +1,99 @@
+package org.infinispan.persistence.logfile;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Format of the entries appended to the log files.
+ * <p/>
+ * The format of an entry on disk is as follows:
+ * <ul>
+ * <li>4 bytes: key length</li>
+ * <li>4 bytes: value length, {@link #REMOVED} if the entry records the removal of the key</li>
+ * <li>4 bytes: metadata length</li>
+ * <li>8 bytes: expiry time, -1 if the entry doesn't expire</li>
+ * <li>key length bytes: serialized key</li>
+ * <li>value length bytes: serialized value</li>
+ * <li>metadata length bytes: serialized metadata</li>
+ * </ul>
+ *
+ * @since 7.0
+ */
+final class EntryRecord {
+
+   static final int KEY_LENGTH = 0;
+   static final int VALUE_LENGTH = 4;
+   static final int METADATA_LENGTH = 8;
+   static final int EXPIRY_TIME = 12;
+   static final int HEADER_SIZE = 20;
+
+   static final int REMOVED = -1;
+
+   private EntryRecord() {
+   }
+
+   static int size(int keyLength, int valueLength, int metadataLength) {
+      return HEADER_SIZE + keyLength + Math.max(valueLength, 0) + metadataLength;
+   }
+
+   /**
+    * @return the size of the entry whose header is at the start of the buffer
+    */
+   static int size(ByteBuffer header) {
+      return size(header.getInt(KEY_LENGTH), header.getInt(VALUE_LENGTH), header.getInt(METADATA_LENGTH));
+   }
+
+   static boolean isRemoval(ByteBuffer header) {
+      return header.getInt(VALUE_LENGTH) == REMOVED;
+   }
+
+   static long expiryTime(ByteBuffer header) {
+      return header.getLong(EXPIRY_TIME);
+   }
+
+   /**
+    * Checks the header of an entry read at the given offset of a file, to detect entries that were not completely
+    * written, e.g. because of a crash.
+    */
+   static boolean isValid(ByteBuffer header, long offset, long fileSize) {
+      int keyLength = header.getInt(KEY_LENGTH);
+      int valueLength = header.getInt(VALUE_LENGTH);
+      int metadataLength = header.getInt(METADATA_LENGTH);
+      return keyLength > 0 && valueLength >= REMOVED && metadataLength >= 0
+            && offset + (long) keyLength + Math.max(valueLength, 0) + metadataLength + HEADER_SIZE <= fileSize;
+   }
+
+   static void writeEntry(ByteBuffer buf, byte[] key, org.infinispan.commons.io.ByteBuffer value,
+                          org.infinispan.commons.io.ByteBuffer metadata, long expiryTime) {
+      buf.putInt(key.length);
+      buf.putInt(value.getLength());
+      buf.putInt(metadata == null ? 0 : metadata.getLength());
+      buf.putLong(expiryTime);
+      buf.put(key);
+      buf.put(value.getBuf(), value.getOffset(), value.getLength());
+      if (metadata != null)
+         buf.put(metadata.getBuf(), metadata.getOffset(), metadata.getLength());
+   }
+
+   static void writeRemoval(ByteBuffer buf, byte[] key) {
+      buf.putInt(key.length);
+      buf.putInt(REMOVED);
+      buf.putInt(0);
+      buf.putLong(-1);
+      buf.put(key);
+   }
+
+   /**
+    * @param record the entry, or at least its header and as many bytes of its key as the length of the given key
+    */
+   static boolean hasKey(byte[] record, byte[] key) {
+      ByteBuffer buf = ByteBuffer.wrap(record);
+      if (record.length < HEADER_SIZE + key.length || buf.getInt(KEY_LENGTH) != key.length)
+         return false;
+      for (int i = 0; i < key.length; i++) {
+         if (record[HEADER_SIZE + i] != key[i])
+            return false;
+      }
+      return true;
+   }
+
+}
@@ -0,0 +1,98 @@
+package org.infinispan.persistence.logfile;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * The index of the log, split in {@link IndexSegment}s by the high bits of the hash of the keys.
+ * <p/>
+ * The segments are memory mapped files, written back to disk when the store is stopped. A marker file, deleted
+ * when the index is opened and written again when it's closed, tells whether the index on disk is complete: if the
+ * store was not stopped cleanly, the index is rebuilt from the log.
+ *
+ * @since 7.0
+ */
+final class Index {
+
+   private static final String CLEAN_MARKER = "clean";
+
+   private final File dir;
+   private final IndexSegment[] segments;
+   private final int shift;
+
+   Index(File dir, int numSegments) {
+      int size = 1;
+      while (size < numSegments)
+         size <<= 1;
+      this.dir = dir;
+      this.segments = new IndexSegment[size];
+      for (int i = 0; i < size; i++)
+         segments[i] = new IndexSegment(new File(dir, "segment-" + i));
+      this.shift = 32 - Integer.numberOfTrailingZeros(size);
+   }
+
+   /**
+    * Loads the segments if they were closed cleanly with the same number of segments, or creates empty ones.
+    *
+    * @return true if the segments were loaded
+    */
+   boolean open() throws IOException {
+      File marker = new File(dir, CLEAN_MARKER);
+      boolean loaded = marker.exists() && readMarker(marker) == segments.length;
+      for (int i = 0; loaded && i < segments.length; i++)
+         loaded = segments[i].load();
+      // Until the index is closed, it can't be trusted after a crash
+      if (marker.exists() && !marker.delete())
+         throw new IOException("Unable to delete " + marker);
+      if (!loaded)
+         reset();
+      return loaded;
+   }
+
+   void reset() throws IOException {
+      for (IndexSegment segment : segments)
+         segment.reset();
+   }
+
+   IndexSegment segment(int hash) {
+      return segments[shift == 32 ? 0 : hash >>> shift];
+   }
+
+   IndexSegment[] segments() {
+      return segments;
+   }
+
+   int size() {
+      int size = 0;
+      for (IndexSegment segment : segments)
+         size += segment.size();
+      return size;
+   }
+
+   void close() throws IOException {
+      for (IndexSegment segment : segments)
+         segment.force();
+      DataOutputStream out = new DataOutputStream(new FileOutputStream(new File(dir, CLEAN_MARKER)));
+      try {
+         out.writeInt(segments.length);
+      } finally {
+         out.close();
+      }
+   }
+
+   private static int readMarker(File marker) throws IOException {
+      DataInputStream in = new DataInputStream(new FileInputStream(marker));
+      try {
+         return in.readInt();
+      } catch (IOException e) {
+         return -1;
+      } finally {
+         in.close();
+      }
+   }
+
+}
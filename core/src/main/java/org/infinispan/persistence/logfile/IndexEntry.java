@@ -0,0 +1,44 @@
+package org.infinispan.persistence.logfile;
+
+/**
+ * Location of the latest entry of a key in the log, as found in a slot of an {@link IndexSegment}. The index only
+ * keeps the hash of the key, so the key of the entry needs to be compared with the looked up one.
+ *
+ * @since 7.0
+ */
+final class IndexEntry {
+
+   final int slot;
+   final int hash;
+   final int fileId;
+   final int offset;
+   final int size;
+   final long expiryTime;
+
+   IndexEntry(int slot, int hash, int fileId, int offset, int size, long expiryTime) {
+      this.slot = slot;
+      this.hash = hash;
+      this.fileId = fileId;
+      this.offset = offset;
+      this.size = size;
+      this.expiryTime = expiryTime;
+   }
+
+   boolean isExpired(long now) {
+      return expiryTime > 0 && expiryTime < now;
+   }
+
+   boolean isAt(int fileId, int offset) {
+      return this.fileId == fileId && this.offset == offset;
+   }
+
+   @Override
+   public String toString() {
+      return "IndexEntry{" +
+            "fileId=" + fileId +
+            ", offset=" + offset +
+            ", size=" + size +
+            ", expiryTime=" + expiryTime +
+            '}';
+   }
+}
@@ -0,0 +1,318 @@
+package org.infinispan.persistence.logfile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.infinispan.persistence.spi.PersistenceException;
+
+/**
+ * A segment of the index: an open addressing hash table, with linear probing, kept in a memory mapped file so
+ * that it doesn't take heap space and survives restarts.
+ * <p/>
+ * Each slot holds the hash of a key and the location, size and expiry time of its latest entry in the log, but not
+ * the key itself, which would make the slots variable-sized and the index as big as the keys. Keys with the same
+ * hash are told apart by reading their entries.
+ * <p/>
+ * Writers must hold the {@link #lock()} of the segment, which also makes appending an entry to the log and updating
+ * the index atomic for the keys of the segment. Readers don't lock: they check that no writer modified the segment
+ * while they were reading it, and read it again otherwise.
+ *
+ * @since 7.0
+ */
+@ThreadSafe
+final class IndexSegment {
+
+   private static final int MAGIC = 0x49584631; // 'IXF1'
+
+   private static final int MAGIC_POS = 0;
+   private static final int CAPACITY_POS = 4;
+   private static final int COUNT_POS = 8;
+   private static final int USED_POS = 12;
+   private static final int HEADER_SIZE = 16;
+
+   private static final int HASH = 0;
+   private static final int FILE_ID = 4;
+   private static final int OFFSET = 8;
+   private static final int SIZE = 12;
+   private static final int EXPIRY_TIME = 16;
+   private static final int SLOT_SIZE = 24;
+
+   // Values of the file id field of a slot, which otherwise holds the file id + 1
+   private static final int EMPTY = 0;
+   private static final int REMOVED = -1;
+
+   private static final int INITIAL_CAPACITY = 1024;
+   private static final int MAXIMUM_CAPACITY = 1 << 26;
+
+   private final File file;
+   private final ReentrantLock lock = new ReentrantLock();
+   private volatile MappedByteBuffer table;
+   // Odd while a writer modifies the table
+   private volatile int version;
+   private volatile int count;
+   private int capacity;
+   private int used;
+
+   IndexSegment(File file) {
+      this.file = file;
+   }
+
+   void lock() {
+      lock.lock();
+   }
+
+   void unlock() {
+      lock.unlock();
+   }
+
+   /**
+    * Maps the existing file of the segment.
+    *
+    * @return false if the file doesn't exist or is not a valid segment
+    */
+   boolean load() throws IOException {
+      if (!file.exists())
+         return false;
+
+      MappedByteBuffer buf = map(file, file.length());
+      if (buf.capacity() < HEADER_SIZE || buf.getInt(MAGIC_POS) != MAGIC)
+         return false;
+      int capacity = buf.getInt(CAPACITY_POS);
+      if (Integer.bitCount(capacity) != 1 || buf.capacity() != HEADER_SIZE + (long) capacity * SLOT_SIZE)
+         return false;
+
+      this.table = buf;
+      this.capacity = capacity;
+      this.count = buf.getInt(COUNT_POS);
+      this.used = buf.getInt(USED_POS);
+      return true;
+   }
+
+   /**
+    * Replaces the segment with an empty one.
+    */
+   void reset() throws IOException {
+      beginWrite();
+      try {
+         swap(newTable(INITIAL_CAPACITY));
+      } finally {
+         endWrite();
+      }
+   }
+
+   int size() {
+      return count;
+   }
+
+   /**
+    * Looks the hash up without locking.
+    *
+    * @return the entries of the keys with the given hash, usually a single one
+    */
+   List<IndexEntry> get(int hash) {
+      for (;;) {
+         int v = version;
+         if ((v & 1) == 0) {
+            List<IndexEntry> entries = probe(table, hash);
+            if (version == v)
+               return entries;
+         }
+         Thread.yield();
+      }
+   }
+
+   private static List<IndexEntry> probe(ByteBuffer table, int hash) {
+      int capacity = table.getInt(CAPACITY_POS);
+      int mask = capacity - 1;
+      List<IndexEntry> entries = Collections.emptyList();
+      for (int i = hash & mask, n = 0; n < capacity; i = (i + 1) & mask, n++) {
+         int pos = HEADER_SIZE + i * SLOT_SIZE;
+         int fileId = table.getInt(pos + FILE_ID);
+         if (fileId == EMPTY)
+            break;
+         if (fileId != REMOVED && table.getInt(pos + HASH) == hash) {
+            if (entries.isEmpty())
+               entries = new ArrayList<IndexEntry>(1);
+            entries.add(entry(table, i));
+         }
+      }
+      return entries;
+   }
+
+   private static IndexEntry entry(ByteBuffer table, int slot) {
+      int pos = HEADER_SIZE + slot * SLOT_SIZE;
+      return new IndexEntry(slot, table.getInt(pos + HASH), table.getInt(pos + FILE_ID) - 1,
+            table.getInt(pos + OFFSET), table.getInt(pos + SIZE), table.getLong(pos + EXPIRY_TIME));
+   }
+
+   /**
+    * @return a snapshot of all the entries of the segment
+    */
+   List<IndexEntry> entries() {
+      lock();
+      try {
+         List<IndexEntry> entries = new ArrayList<IndexEntry>(count);
+         for (int i = 0; i < capacity; i++) {
+            int fileId = table.getInt(HEADER_SIZE + i * SLOT_SIZE + FILE_ID);
+            if (fileId != EMPTY && fileId != REMOVED)
+               entries.add(entry(table, i));
+         }
+         return entries;
+      } finally {
+         unlock();
+      }
+   }
+
+   /**
+    * Points the key to a new location. Requires the lock.
+    *
+    * @param previous the current entry of the key, as returned by {@link #get(int)} while holding the lock, or null
+    *                 if the key is not in the index
+    */
+   void put(int hash, IndexEntry previous, int fileId, int offset, int size, long expiryTime) throws IOException {
+      int slot;
+      if (previous != null) {
+         slot = previous.slot;
+      } else {
+         if (used + 1 > capacity - (capacity >> 2)) {
+            if (count + 1 <= capacity >> 1)
+               resize(capacity); // mostly removed slots, just drop them
+            else if (capacity < MAXIMUM_CAPACITY)
+               resize(capacity << 1);
+            else if (used + 1 >= capacity)
+               throw new PersistenceException("Index segment " + file + " is full");
+         }
+         slot = freeSlot(table, hash);
+      }
+
+      beginWrite();
+      try {
+         int pos = HEADER_SIZE + slot * SLOT_SIZE;
+         if (previous == null) {
+            if (table.getInt(pos + FILE_ID) == EMPTY)
+               table.putInt(USED_POS, ++used);
+            table.putInt(COUNT_POS, ++count);
+         }
+         table.putInt(pos + HASH, hash);
+         table.putInt(pos + OFFSET, offset);
+         table.putInt(pos + SIZE, size);
+         table.putLong(pos + EXPIRY_TIME, expiryTime);
+         table.putInt(pos + FILE_ID, fileId + 1);
+      } finally {
+         endWrite();
+      }
+   }
+
+   /**
+    * Removes the key from the index. Requires the lock.
+    *
+    * @param previous the current entry of the key, as returned by {@link #get(int)} while holding the lock
+    */
+   void remove(IndexEntry previous) {
+      beginWrite();
+      try {
+         table.putInt(HEADER_SIZE + previous.slot * SLOT_SIZE + FILE_ID, REMOVED);
+         table.putInt(COUNT_POS, --count);
+      } finally {
+         endWrite();
+      }
+   }
+
+   private static int freeSlot(ByteBuffer table, int hash) {
+      int mask = table.getInt(CAPACITY_POS) - 1;
+      int i = hash & mask;
+      for (;;) {
+         int fileId = table.getInt(HEADER_SIZE + i * SLOT_SIZE + FILE_ID);
+         if (fileId == EMPTY || fileId == REMOVED)
+            return i;
+         i = (i + 1) & mask;
+      }
+   }
+
+   /**
+    * Copies the entries into a new table, which also drops the removed slots.
+    */
+   private void resize(int newCapacity) throws IOException {
+      MappedByteBuffer newTable = newTable(newCapacity);
+      for (int i = 0; i < capacity; i++) {
+         int pos = HEADER_SIZE + i * SLOT_SIZE;
+         int fileId = table.getInt(pos + FILE_ID);
+         if (fileId != EMPTY && fileId != REMOVED) {
+            int newPos = HEADER_SIZE + freeSlot(newTable, table.getInt(pos + HASH)) * SLOT_SIZE;
+            for (int j = 0; j < SLOT_SIZE; j += 4)
+               newTable.putInt(newPos + j, table.getInt(pos + j));
+         }
+      }
+      newTable.putInt(COUNT_POS, count);
+      newTable.putInt(USED_POS, count);
+
+      beginWrite();
+      try {
+         swap(newTable);
+      } finally {
+         endWrite();
+      }
+   }
+
+   private MappedByteBuffer newTable(int capacity) throws IOException {
+      File tmp = new File(file.getPath() + ".tmp");
+      if (tmp.exists() && !tmp.delete())
+         throw new IOException("Unable to delete " + tmp);
+      MappedByteBuffer buf = map(tmp, HEADER_SIZE + (long) capacity * SLOT_SIZE);
+      buf.putInt(MAGIC_POS, MAGIC);
+      buf.putInt(CAPACITY_POS, capacity);
+      return buf;
+   }
+
+   /**
+    * Makes the new table, still in the temporary file, the table of the segment. Readers that are still reading
+    * the previous table keep it mapped after it has been replaced.
+    */
+   private void swap(MappedByteBuffer newTable) throws IOException {
+      File tmp = new File(file.getPath() + ".tmp");
+      if (!tmp.renameTo(file) && !(file.delete() && tmp.renameTo(file)))
+         throw new IOException("Unable to rename " + tmp + " to " + file);
+      table = newTable;
+      capacity = newTable.getInt(CAPACITY_POS);
+      count = newTable.getInt(COUNT_POS);
+      used = newTable.getInt(USED_POS);
+   }
+
+   private static MappedByteBuffer map(File file, long size) throws IOException {
+      RandomAccessFile raf = new RandomAccessFile(file, "rw");
+      try {
+         if (raf.length() != size)
+            raf.setLength(size);
+         // The mapping stays valid after the file is closed
+         return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+      } finally {
+         raf.close();
+      }
+   }
+
+   /**
+    * Writes the changes to the file.
+    */
+   void force() {
+      table.force();
+   }
+
+   private void beginWrite() {
+      version++;
+   }
+
+   private void endWrite() {
+      version++;
+   }
+
+}
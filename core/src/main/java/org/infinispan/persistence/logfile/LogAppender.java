@@ -0,0 +1,87 @@
+package org.infinispan.persistence.logfile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentMap;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Appends entries at the end of the log, starting a new file when the current one would grow beyond the maximum
+ * file size. The location of an entry, returned by {@link #append(ByteBuffer)}, packs the id of its file and its
+ * offset in the file.
+ *
+ * @since 7.0
+ */
+@ThreadSafe
+final class LogAppender {
+
+   /**
+    * Notified when the current file is full, and so becomes immutable.
+    */
+   interface Listener {
+      void onFileCompleted(DataFile file);
+   }
+
+   private final File dir;
+   private final int maxFileSize;
+   private final ConcurrentMap<Integer, DataFile> files;
+   private final Listener listener;
+   private DataFile current;
+   private int nextId;
+
+   LogAppender(File dir, int maxFileSize, ConcurrentMap<Integer, DataFile> files, int nextId, Listener listener) {
+      this.dir = dir;
+      this.maxFileSize = maxFileSize;
+      this.files = files;
+      this.nextId = nextId;
+      this.listener = listener;
+   }
+
+   static long location(int fileId, int offset) {
+      return ((long) fileId << 32) | (offset & 0xFFFFFFFFL);
+   }
+
+   static int fileId(long location) {
+      return (int) (location >>> 32);
+   }
+
+   static int offset(long location) {
+      return (int) location;
+   }
+
+   /**
+    * Writes the buffer at the end of the log, in a single file.
+    *
+    * @return the location of the start of the buffer
+    */
+   synchronized long append(ByteBuffer buf) throws IOException {
+      // A buffer bigger than the maximum size gets a file of its own
+      if (current == null || (current.size() > 0 && (long) current.size() + buf.remaining() > maxFileSize)) {
+         DataFile completed = current;
+         current = new DataFile(dir, nextId++);
+         files.put(current.id, current);
+         if (completed != null)
+            listener.onFileCompleted(completed);
+      }
+      int offset = current.size();
+      current.append(buf);
+      return location(current.id, offset);
+   }
+
+   /**
+    * @return the id of the file being appended to, which can't be compacted, or -1 if there's none yet
+    */
+   synchronized int currentFileId() {
+      return current == null ? -1 : current.id;
+   }
+
+   /**
+    * Forgets the current file, after all the files have been deleted.
+    */
+   synchronized void reset() {
+      current = null;
+   }
+
+}
@@ -0,0 +1,786 @@
+package org.infinispan.persistence.logfile;
+
+import org.infinispan.commons.hash.Hash;
+import org.infinispan.commons.hash.MurmurHash3;
+import org.infinispan.commons.io.ByteBufferFactory;
+import org.infinispan.configuration.cache.LogFileStoreConfiguration;
+import org.infinispan.executors.ExecutorAllCompletionService;
+import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.persistence.PersistenceUtil;
+import org.infinispan.persistence.TaskContextImpl;
+import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.infinispan.persistence.spi.BatchCacheWriter;
+import org.infinispan.persistence.spi.InitializationContext;
+import org.infinispan.persistence.spi.PersistenceException;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A filesystem-based implementation of a {@link org.infinispan.persistence.spi.CacheLoader} that appends the entries
+ * to a log, in files <tt>&lt;location&gt;/&lt;cache name&gt;/data/&lt;id&gt;.log</tt>, instead of rewriting them in
+ * place as {@link org.infinispan.persistence.file.SingleFileStore} does.
+ * <p/>
+ * Keys are not kept in memory. An index on disk, in <tt>&lt;location&gt;/&lt;cache name&gt;/index</tt>, maps the
+ * hash of each key to the location of its latest entry in the log. The index is split in segments, which are
+ * memory mapped hash tables: writers lock the segment of the key, while readers don't lock at all. Keys are compared
+ * in their marshalled form, so equal keys must marshall to the same bytes.
+ * <p/>
+ * Overwritten and removed entries stay in the log until their file is compacted: once the ratio of dead entries of a
+ * file reaches the compaction threshold, a background thread copies its live entries to the end of the log and
+ * deletes it. Removals are logged too, so that the index can be rebuilt from the log, and are only dropped when
+ * there are no older files left that could hold entries of their key.
+ * <p/>
+ * The index is written back to disk when the store is stopped, so that it can be loaded as is when the store is
+ * started again. If the store was not stopped, the index is rebuilt by reading the whole log.
+ * <p/>
+ * This class is fully thread safe, and reads never block.
+ *
+ * @since 7.0
+ */
+public class LogFileStore implements AdvancedLoadWriteStore, BatchCacheWriter {
+   private static final Log log = LogFactory.getLog(LogFileStore.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private static final Hash HASH = new MurmurHash3();
+   // lookups racing with compactions retry, but not forever if the index points to a missing file
+   private static final int MAX_LOOKUP_ATTEMPTS = 16;
+
+   private LogFileStoreConfiguration configuration;
+
+   protected InitializationContext ctx;
+
+   private final ConcurrentNavigableMap<Integer, DataFile> files = new ConcurrentSkipListMap<Integer, DataFile>();
+   private Index index;
+   private LogAppender appender;
+   private Compactor compactor;
+   // Held exclusively to delete files, which happens when compacting or clearing the store, and shared to read the
+   // entries pointed to by a snapshot of the index
+   private final ReadWriteLock compactionLock = new ReentrantReadWriteLock();
+
+   @Override
+   public void init(InitializationContext ctx) {
+      this.ctx = ctx;
+      this.configuration = ctx.getConfiguration();
+   }
+
+   @Override
+   public void start() {
+      try {
+         String location = configuration.location();
+         if (location == null || location.trim().length() == 0)
+            location = "Infinispan-LogFileStore";
+
+         File dir = new File(location, ctx.getCache().getName());
+         File dataDir = createDirectory(new File(dir, "data"));
+         File indexDir = createDirectory(new File(dir, "index"));
+
+         File[] dataFiles = dataDir.listFiles();
+         for (File f : dataFiles) {
+            int id = DataFile.id(f);
+            if (id >= 0)
+               files.put(id, new DataFile(dataDir, id));
+         }
+
+         compactor = new Compactor();
+         appender = new LogAppender(dataDir, configuration.maxFileSize(), files,
+               files.isEmpty() ? 0 : files.lastKey() + 1, compactor);
+
+         index = new Index(indexDir, configuration.indexSegments());
+         if (!index.open()) {
+            if (!files.isEmpty())
+               log.debugf("Rebuilding the index of %s from %d log files", dir, files.size());
+            rebuildIndex();
+         }
+         computeDeadBytes();
+
+         compactor.start();
+         for (DataFile file : files.values())
+            compactor.check(file);
+      } catch (Exception e) {
+         throw new PersistenceException(e);
+      }
+   }
+
+   private static File createDirectory(File dir) {
+      if (!dir.mkdirs() && !dir.exists())
+         throw log.directoryCannotBeCreated(dir.getAbsolutePath());
+      return dir;
+   }
+
+   @Override
+   public void stop() {
+      try {
+         if (index != null) {
+            log.tracef("Stopping store %s, size = %d, files = %d", ctx.getCache().getName(), index.size(), files.size());
+
+            compactor.stop();
+            // the index can only be trusted if the entries it points to made it to disk
+            for (DataFile file : files.values()) {
+               file.force();
+               file.close();
+            }
+            index.close();
+
+            // reset state
+            files.clear();
+            index = null;
+            appender = null;
+            compactor = null;
+         }
+      } catch (Exception e) {
+         throw new PersistenceException(e);
+      }
+   }
+
+   /**
+    * Rebuilds the index by reading all the entries of the log, in the order they were written.
+    */
+   private void rebuildIndex() throws IOException {
+      ByteBuffer header = ByteBuffer.allocate(EntryRecord.HEADER_SIZE);
+      for (DataFile file : files.values()) {
+         int offset = 0;
+         while (offset < file.size()) {
+            header.clear();
+            if (offset + EntryRecord.HEADER_SIZE <= file.size())
+               file.read(header, offset);
+            if (header.hasRemaining() || !EntryRecord.isValid(header, offset, file.size())) {
+               // the store was stopped while writing this entry
+               log.truncatingLogFile(file.path(), offset);
+               file.truncate(offset);
+               break;
+            }
+
+            int size = EntryRecord.size(header);
+            byte[] key = file.read(offset + EntryRecord.HEADER_SIZE, header.getInt(EntryRecord.KEY_LENGTH));
+            int hash = hash(key);
+            IndexSegment segment = index.segment(hash);
+            Hit previous = lookup(segment, hash, key, false);
+            if (EntryRecord.isRemoval(header)) {
+               if (previous != null)
+                  segment.remove(previous.entry);
+            } else {
+               segment.put(hash, previous == null ? null : previous.entry, file.id, offset, size,
+                     EntryRecord.expiryTime(header));
+            }
+            offset += size;
+         }
+      }
+   }
+
+   /**
+    * Everything in a file that the index doesn't point to is dead.
+    */
+   private void computeDeadBytes() {
+      Map<Integer, Long> liveBytes = new HashMap<Integer, Long>();
+      for (IndexSegment segment : index.segments()) {
+         for (IndexEntry entry : segment.entries()) {
+            Long live = liveBytes.get(entry.fileId);
+            liveBytes.put(entry.fileId, (live == null ? 0 : live) + entry.size);
+         }
+      }
+      for (DataFile file : files.values()) {
+         Long live = liveBytes.get(file.id);
+         file.addDeadBytes((int) (file.size() - (live == null ? 0 : live)));
+      }
+   }
+
+   /**
+    * The base class implementation calls {@link #load(Object)} for this, we can do better because
+    * the index knows the expiry time of the entries.
+    */
+   @Override
+   public boolean contains(Object key) {
+      try {
+         byte[] keyBytes = marshall(key);
+         int hash = hash(keyBytes);
+         Hit hit = lookup(index.segment(hash), hash, keyBytes, false);
+         return hit != null && !hit.entry.isExpired(System.currentTimeMillis());
+      } catch (IOException e) {
+         throw new PersistenceException(e);
+      }
+   }
+
+   @Override
+   public void write(MarshalledEntry marshalledEntry) {
+      try {
+         BatchEntry be = new BatchEntry(marshalledEntry);
+         IndexSegment segment = index.segment(be.hash);
+         segment.lock();
+         try {
+            appendAndIndex(segment, Collections.singletonList(be), 0, 1);
+         } finally {
+            segment.unlock();
+         }
+      } catch (Exception e) {
+         throw new PersistenceException(e);
+      }
+   }
+
+   /**
+    * Groups the entries by index segment, and appends the entries of each segment with as few writes as possible.
+    */
+   @Override
+   public void writeBatch(Iterable marshalledEntries) {
+      try {
+         Map<IndexSegment, List<BatchEntry>> bySegment = new LinkedHashMap<IndexSegment, List<BatchEntry>>();
+         for (Object o : marshalledEntries) {
+            BatchEntry be = new BatchEntry((MarshalledEntry) o);
+            IndexSegment segment = index.segment(be.hash);
+            List<BatchEntry> entries = bySegment.get(segment);
+            if (entries == null) {
+               entries = new ArrayList<BatchEntry>();
+               bySegment.put(segment, entries);
+            }
+            entries.add(be);
+         }
+
+         for (Map.Entry<IndexSegment, List<BatchEntry>> e : bySegment.entrySet()) {
+            IndexSegment segment = e.getKey();
+            List<BatchEntry> entries = e.getValue();
+            segment.lock();
+            try {
+               // a single write can't span several files
+               int start = 0;
+               while (start < entries.size()) {
+                  int end = start + 1;
+                  long length = entries.get(start).size;
+                  while (end < entries.size() && length + entries.get(end).size <= configuration.maxFileSize()) {
+                     length += entries.get(end).size;
+                     end++;
+                  }
+                  appendAndIndex(segment, entries, start, end);
+                  start = end;
+               }
+            } finally {
+               segment.unlock();
+            }
+         }
+      } catch (Exception e) {
+         throw new PersistenceException(e);
+      }
+   }
+
+   /**
+    * Appends the entries of the given range with a single write, and points the index to them.
+    * <p/>
+    * Note: Caller must hold the lock of the segment of the entries.
+    */
+   private void appendAndIndex(IndexSegment segment, List<BatchEntry> entries, int start, int end) throws IOException {
+      int length = 0;
+      for (int i = start; i < end; i++)
+         length += entries.get(i).size;
+      ByteBuffer buf = ByteBuffer.allocate(length);
+      for (int i = start; i < end; i++) {
+         BatchEntry be = entries.get(i);
+         EntryRecord.writeEntry(buf, be.key, be.valueBytes, be.metadataBytes, be.expiryTime);
+      }
+      buf.flip();
+      long location = appender.append(buf);
+
+      // the new entries are not indexed yet, so the lookups find the previous ones
+      int fileId = LogAppender.fileId(location);
+      int offset = LogAppender.offset(location);
+      for (int i = start; i < end; i++) {
+         BatchEntry be = entries.get(i);
+         Hit previous = lookup(segment, be.hash, be.key, false);
+         segment.put(be.hash, previous == null ? null : previous.entry, fileId, offset, be.size, be.expiryTime);
+         if (previous != null)
+            addDeadBytes(previous.entry.fileId, previous.entry.size);
+         if (trace) log.tracef("Wrote entry %s at %d:%d", be.marshalledEntry.getKey(), fileId, offset);
+         offset += be.size;
+      }
+   }
+
+   @Override
+   public void clear() {
+      compactionLock.writeLock().lock();
+      try {
+         IndexSegment[] segments = index.segments();
+         // every append holds the lock of a segment, so once all are held the log can be deleted
+         for (IndexSegment segment : segments)
+            segment.lock();
+         try {
+            if (trace) log.tracef("Deleting %d files", files.size());
+            for (DataFile file : files.values())
+               file.delete();
+            files.clear();
+            appender.reset();
+            index.reset();
+         } finally {
+            for (IndexSegment segment : segments)
+               segment.unlock();
+         }
+      } catch (Exception e) {
+         throw new PersistenceException(e);
+      } finally {
+         compactionLock.writeLock().unlock();
+      }
+   }
+
+   @Override
+   public boolean delete(Object key) {
+      return deleteKeys(Collections.singletonList(key)) > 0;
+   }
+
+   @Override
+   public void deleteBatch(Iterable keys) {
+      deleteKeys(keys);
+   }
+
+   private int deleteKeys(Iterable<?> keys) {
+      try {
+         Map<IndexSegment, List<byte[]>> bySegment = new LinkedHashMap<IndexSegment, List<byte[]>>();
+         for (Object key : keys) {
+            byte[] keyBytes = marshall(key);
+            IndexSegment segment = index.segment(hash(keyBytes));
+            List<byte[]> segmentKeys = bySegment.get(segment);
+            if (segmentKeys == null) {
+               segmentKeys = new ArrayList<byte[]>();
+               bySegment.put(segment, segmentKeys);
+            }
+            segmentKeys.add(keyBytes);
+         }
+
+         int deleted = 0;
+         for (Map.Entry<IndexSegment, List<byte[]>> e : bySegment.entrySet()) {
+            IndexSegment segment = e.getKey();
+            segment.lock();
+            try {
+               deleted += removeAndLog(segment, e.getValue(), Long.MAX_VALUE);
+            } finally {
+               segment.unlock();
+            }
+         }
+         return deleted;
+      } catch (Exception e) {
+         throw new PersistenceException(e);
+      }
+   }
+
+   /**
+    * Removes the keys from the index, logging their removal with a single write.
+    * <p/>
+    * Note: Caller must hold the lock of the segment of the keys.
+    *
+    * @param expiredBefore only remove the keys whose entries expired before this time
+    * @return the number of keys removed
+    */
+   private int removeAndLog(IndexSegment segment, List<byte[]> keys, long expiredBefore) throws IOException {
+      List<Hit> removed = new ArrayList<Hit>(keys.size());
+      Set<Integer> slots = new HashSet<Integer>();
+      int length = 0;
+      for (byte[] key : keys) {
+         int hash = hash(key);
+         Hit hit = lookup(segment, hash, key, false);
+         // the same key may be removed twice in a batch
+         if (hit != null && slots.add(hit.entry.slot)
+               && (expiredBefore == Long.MAX_VALUE || hit.entry.isExpired(expiredBefore))) {
+            hit.key = key;
+            removed.add(hit);
+            length += EntryRecord.size(key.length, EntryRecord.REMOVED, 0);
+         }
+      }
+      if (removed.isEmpty())
+         return 0;
+
+      ByteBuffer buf = ByteBuffer.allocate(length);
+      for (Hit hit : removed)
+         EntryRecord.writeRemoval(buf, hit.key);
+      buf.flip();
+      long location = appender.append(buf);
+
+      for (Hit hit : removed) {
+         segment.remove(hit.entry);
+         addDeadBytes(hit.entry.fileId, hit.entry.size);
+      }
+      // the removals are dead as soon as they're written, they're only kept if needed when compacting
+      addDeadBytes(LogAppender.fileId(location), length);
+      if (trace) log.tracef("Removed %d entries", removed.size());
+      return removed.size();
+   }
+
+   private void addDeadBytes(int fileId, int size) {
+      DataFile file = files.get(fileId);
+      if (file != null) {
+         file.addDeadBytes(size);
+         compactor.check(file);
+      }
+   }
+
+   @Override
+   public MarshalledEntry load(Object key) {
+      try {
+         return _load(marshall(key), true, true);
+      } catch (IOException e) {
+         throw new PersistenceException(e);
+      }
+   }
+
+   private MarshalledEntry _load(byte[] key, boolean loadValue, boolean loadMetadata) throws IOException {
+      int hash = hash(key);
+      Hit hit = lookup(index.segment(hash), hash, key, loadValue);
+      if (hit == null || hit.entry.isExpired(System.currentTimeMillis()))
+         return null;
+
+      byte[] record = hit.record;
+      ByteBuffer header = ByteBuffer.wrap(record);
+      int keyLen = header.getInt(EntryRecord.KEY_LENGTH);
+      int dataLen = header.getInt(EntryRecord.VALUE_LENGTH);
+      int metadataLen = header.getInt(EntryRecord.METADATA_LENGTH);
+      if (trace) log.tracef("Read entry at %d:%d", hit.entry.fileId, hit.entry.offset);
+
+      ByteBufferFactory factory = ctx.getByteBufferFactory();
+      org.infinispan.commons.io.ByteBuffer keyBb = factory.newByteBuffer(record, EntryRecord.HEADER_SIZE, keyLen);
+      org.infinispan.commons.io.ByteBuffer valueBb = null;
+      org.infinispan.commons.io.ByteBuffer metadataBb = null;
+      if (loadValue) {
+         valueBb = factory.newByteBuffer(record, EntryRecord.HEADER_SIZE + keyLen, dataLen);
+         if (loadMetadata && metadataLen > 0)
+            metadataBb = factory.newByteBuffer(record, EntryRecord.HEADER_SIZE + keyLen + dataLen, metadataLen);
+      }
+      return ctx.getMarshalledEntryFactory().newMarshalledEntry(keyBb, valueBb, metadataBb);
+   }
+
+   /**
+    * Finds the entry of the key, reading the entries of the index with the same hash to compare their keys.
+    *
+    * @param full whether to read the whole entry, or just its header and key
+    */
+   private Hit lookup(IndexSegment segment, int hash, byte[] key, boolean full) throws IOException {
+      for (int attempt = 1; ; attempt++) {
+         try {
+            for (IndexEntry entry : segment.get(hash)) {
+               int length = full ? entry.size : Math.min(entry.size, EntryRecord.HEADER_SIZE + key.length);
+               byte[] record = read(entry, 0, length);
+               if (EntryRecord.hasKey(record, key))
+                  return new Hit(entry, record);
+            }
+            return null;
+         } catch (ClosedChannelException e) {
+            // the file was compacted after reading the index, so the entry has moved
+            if (attempt == MAX_LOOKUP_ATTEMPTS)
+               throw e;
+         }
+      }
+   }
+
+   private byte[] read(IndexEntry entry, int from, int length) throws IOException {
+      DataFile file = files.get(entry.fileId);
+      if (file == null)
+         throw new ClosedChannelException();
+      return file.read(entry.offset + from, length);
+   }
+
+   /**
+    * Reads the key of an entry of a snapshot of the index.
+    * <p/>
+    * Note: Caller must hold the {@code compactionLock} in shared mode.
+    */
+   private byte[] readKey(IndexEntry entry) throws IOException {
+      byte[] header = read(entry, 0, EntryRecord.HEADER_SIZE);
+      return read(entry, EntryRecord.HEADER_SIZE, ByteBuffer.wrap(header).getInt(EntryRecord.KEY_LENGTH));
+   }
+
+   @Override
+   public void process(KeyFilter filter, final CacheLoaderTask task, Executor executor, final boolean fetchValue, final boolean fetchMetadata) {
+      filter = PersistenceUtil.notNull(filter);
+      List<byte[]> keysToLoad = new ArrayList<byte[]>(index.size());
+      long now = System.currentTimeMillis();
+      compactionLock.readLock().lock();
+      try {
+         for (IndexSegment segment : index.segments()) {
+            for (IndexEntry entry : segment.entries()) {
+               if (entry.isExpired(now))
+                  continue;
+               byte[] key = readKey(entry);
+               if (filter.shouldLoadKey(unmarshall(key)))
+                  keysToLoad.add(key);
+            }
+         }
+      } catch (Exception e) {
+         throw new PersistenceException(e);
+      } finally {
+         compactionLock.readLock().unlock();
+      }
+
+      ExecutorAllCompletionService eacs = new ExecutorAllCompletionService(executor);
+
+      final TaskContextImpl taskContext = new TaskContextImpl();
+      for (final byte[] key : keysToLoad) {
+         if (taskContext.isStopped())
+            break;
+
+         eacs.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+               try {
+                  final MarshalledEntry marshalledEntry = _load(key, fetchValue, fetchMetadata);
+                  if (marshalledEntry != null) {
+                     task.processEntry(marshalledEntry, taskContext);
+                  }
+                  return null;
+               } catch (Exception e) {
+                  log.errorExecutingParallelStoreTask(e);
+                  throw e;
+               }
+            }
+         });
+      }
+      eacs.waitUntilAllCompleted();
+      if (eacs.isExceptionThrown()) {
+         throw new PersistenceException("Execution exception!", eacs.getFirstException());
+      }
+   }
+
+   @Override
+   public void purge(Executor threadPool, final PurgeListener task) {
+
+      threadPool.execute(new Runnable() {
+         @Override
+         public void run() {
+            long now = System.currentTimeMillis();
+            try {
+               for (IndexSegment segment : index.segments()) {
+                  List<byte[]> expiredKeys = new ArrayList<byte[]>();
+                  compactionLock.readLock().lock();
+                  try {
+                     for (IndexEntry entry : segment.entries()) {
+                        if (entry.isExpired(now))
+                           expiredKeys.add(readKey(entry));
+                     }
+                  } finally {
+                     compactionLock.readLock().unlock();
+                  }
+                  if (expiredKeys.isEmpty())
+                     continue;
+
+                  // only remove the keys that haven't been written again since
+                  List<byte[]> purged = new ArrayList<byte[]>(expiredKeys.size());
+                  segment.lock();
+                  try {
+                     for (byte[] key : expiredKeys) {
+                        if (removeAndLog(segment, Collections.singletonList(key), now) > 0)
+                           purged.add(key);
+                     }
+                  } finally {
+                     segment.unlock();
+                  }
+                  if (task != null) {
+                     for (byte[] key : purged)
+                        task.entryPurged(unmarshall(key));
+                  }
+               }
+            } catch (Exception e) {
+               throw new PersistenceException(e);
+            }
+         }
+      });
+   }
+
+   @Override
+   public int size() {
+      return index.size();
+   }
+
+   int getFileCount() {
+      return files.size();
+   }
+
+   public LogFileStoreConfiguration getConfiguration() {
+      return configuration;
+   }
+
+   private static int hash(byte[] key) {
+      return HASH.hash(key);
+   }
+
+   private byte[] marshall(Object key) throws IOException {
+      try {
+         return ctx.getMarshaller().objectToByteBuffer(key);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new PersistenceException(e);
+      }
+   }
+
+   private Object unmarshall(byte[] key) throws IOException, ClassNotFoundException {
+      return ctx.getMarshaller().objectFromByteBuffer(key);
+   }
+
+   /**
+    * An entry to write, with its serialized form.
+    */
+   private static class BatchEntry {
+      final MarshalledEntry marshalledEntry;
+      final byte[] key;
+      final int hash;
+      final org.infinispan.commons.io.ByteBuffer valueBytes;
+      final org.infinispan.commons.io.ByteBuffer metadataBytes;
+      final long expiryTime;
+      final int size;
+
+      BatchEntry(MarshalledEntry marshalledEntry) {
+         org.infinispan.commons.io.ByteBuffer keyBytes = marshalledEntry.getKeyBytes();
+         this.marshalledEntry = marshalledEntry;
+         this.key = keyBytes.getOffset() == 0 && keyBytes.getLength() == keyBytes.getBuf().length ? keyBytes.getBuf()
+               : Arrays.copyOfRange(keyBytes.getBuf(), keyBytes.getOffset(), keyBytes.getOffset() + keyBytes.getLength());
+         this.hash = hash(key);
+         this.valueBytes = marshalledEntry.getValueBytes();
+         this.metadataBytes = marshalledEntry.getMetadataBytes();
+         this.expiryTime = metadataBytes != null ? marshalledEntry.getMetadata().expiryTime() : -1;
+         this.size = EntryRecord.size(key.length, valueBytes.getLength(), metadataBytes == null ? 0 : metadataBytes.getLength());
+      }
+   }
+
+   /**
+    * An entry found in the index, with the bytes read from the log to check its key.
+    */
+   private static class Hit {
+      final IndexEntry entry;
+      final byte[] record;
+      byte[] key;
+
+      Hit(IndexEntry entry, byte[] record) {
+         this.entry = entry;
+         this.record = record;
+      }
+   }
+
+   /**
+    * Compacts, one at a time, the files whose ratio of dead entries reached the threshold.
+    */
+   private class Compactor implements Runnable, LogAppender.Listener {
+      private static final int STOP = -1;
+
+      private final BlockingQueue<Integer> queue = new LinkedBlockingQueue<Integer>();
+      private Thread thread;
+
+      void start() {
+         thread = new Thread(this, "LogFileStore-Compactor-" + ctx.getCache().getName());
+         thread.setDaemon(true);
+         thread.start();
+      }
+
+      /**
+       * Waits for the file being compacted, if any, and discards the others.
+       */
+      void stop() throws InterruptedException {
+         queue.clear();
+         queue.add(STOP);
+         thread.join();
+      }
+
+      @Override
+      public void onFileCompleted(DataFile file) {
+         check(file);
+      }
+
+      /**
+       * Schedules the file for compaction if it reached the threshold, unless it's still being appended to.
+       */
+      void check(DataFile file) {
+         if (file.deadRatio() >= configuration.compactionThreshold() && file.id != appender.currentFileId()
+               && file.schedule()) {
+            if (trace) log.tracef("Scheduling compaction of %s", file);
+            queue.add(file.id);
+         }
+      }
+
+      @Override
+      public void run() {
+         for (;;) {
+            int id;
+            try {
+               id = queue.take();
+            } catch (InterruptedException e) {
+               return;
+            }
+            if (id == STOP)
+               return;
+
+            DataFile file = files.get(id);
+            if (file != null) {
+               try {
+                  compact(file);
+               } catch (Exception e) {
+                  log.errorCompactingLogFile(file.path(), e);
+               }
+            }
+         }
+      }
+
+      /**
+       * Copies the live entries of the file to the end of the log, and deletes it.
+       */
+      private void compact(DataFile file) throws IOException {
+         compactionLock.writeLock().lock();
+         try {
+            // the store may have been cleared in the meantime
+            if (files.get(file.id) != file)
+               return;
+            if (trace) log.tracef("Compacting %s", file);
+
+            ByteBuffer header = ByteBuffer.allocate(EntryRecord.HEADER_SIZE);
+            int offset = 0;
+            while (offset < file.size()) {
+               header.clear();
+               file.read(header, offset);
+               if (!EntryRecord.isValid(header, offset, file.size()))
+                  throw log.errorReadingFileStore(file.path(), offset);
+
+               int size = EntryRecord.size(header);
+               byte[] record = file.read(offset, size);
+               byte[] key = Arrays.copyOfRange(record, EntryRecord.HEADER_SIZE,
+                     EntryRecord.HEADER_SIZE + header.getInt(EntryRecord.KEY_LENGTH));
+               int hash = hash(key);
+               IndexSegment segment = index.segment(hash);
+               segment.lock();
+               try {
+                  Hit current = lookup(segment, hash, key, false);
+                  if (!EntryRecord.isRemoval(header)) {
+                     if (current != null && current.entry.isAt(file.id, offset)) {
+                        long location = appender.append(ByteBuffer.wrap(record));
+                        segment.put(hash, current.entry, LogAppender.fileId(location), LogAppender.offset(location),
+                              size, current.entry.expiryTime);
+                     }
+                  } else if (current == null && files.firstKey() < file.id) {
+                     // older files may still have entries of the key, which would come back if the index was rebuilt
+                     appender.append(ByteBuffer.wrap(record));
+                  }
+               } finally {
+                  segment.unlock();
+               }
+               offset += size;
+            }
+
+            files.remove(file.id);
+            file.delete();
+            if (trace) log.tracef("Compacted and deleted %s", file);
+         } finally {
+            compactionLock.writeLock().unlock();
+         }
+      }
+   }
+}
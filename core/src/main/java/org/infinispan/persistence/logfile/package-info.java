@@ -0,0 +1,4 @@
+/**
+ * Log-structured filesystem-based {@link CacheStore} implementation, with an on-disk index.
+ */
+package org.infinispan.persistence.logfile;
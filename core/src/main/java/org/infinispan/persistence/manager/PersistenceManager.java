@@ -52,6 +52,20 @@ public interface PersistenceManager extends Lifecycle {
 
    void writeToAllStores(MarshalledEntry marshalledEntry, boolean skipSharedStores);
 
+   /**
+    * Writes all the entries to each store, using a single batch per store if the store supports it.
+    *
+    * @see org.infinispan.persistence.spi.BatchCacheWriter
+    */
+   void writeBatchToAllStores(Iterable<MarshalledEntry> entries, boolean skipSharedStores);
+
+   /**
+    * Removes all the keys from each store, using a single batch per store if the store supports it.
+    *
+    * @see org.infinispan.persistence.spi.BatchCacheWriter
+    */
+   void deleteBatchFromAllStores(Iterable<Object> keys, boolean skipSharedStores);
+
    /**
     * Returns the store one configured with fetch persistent state, or null if none exist.
     */
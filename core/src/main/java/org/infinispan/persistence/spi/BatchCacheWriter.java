@@ -0,0 +1,33 @@
+package org.infinispan.persistence.spi;
+
+import net.jcip.annotations.ThreadSafe;
+import org.infinispan.marshall.core.MarshalledEntry;
+
+/**
+ * A {@link CacheWriter} that is able to persist or remove several entries in a single interaction with the
+ * external storage, e.g. one JDBC batch or one LevelDB write batch.
+ * <p/>
+ * The {@link org.infinispan.persistence.manager.PersistenceManager} uses these methods whenever it has more than
+ * one modification to apply at a time (putAll, write-behind flushes). Writers which don't implement this
+ * interface receive the modifications one by one, through {@link #write(MarshalledEntry)} and
+ * {@link #delete(Object)}.
+ *
+ * @since 7.0
+ */
+@ThreadSafe
+public interface BatchCacheWriter<K, V> extends CacheWriter<K, V> {
+
+   /**
+    * Persists all the entries to the storage. An implementation is not required to apply the batch atomically.
+    *
+    * @throws PersistenceException in case of an error, e.g. communicating with the external storage
+    */
+   void writeBatch(Iterable<MarshalledEntry<K, V>> entries);
+
+   /**
+    * Removes all the keys from the storage. Keys which don't exist in the storage are ignored.
+    *
+    * @throws PersistenceException in case of an error, e.g. communicating with the external storage
+    */
+   void deleteBatch(Iterable<Object> keys);
+}
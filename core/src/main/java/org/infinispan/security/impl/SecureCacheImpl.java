@@ -561,6 +561,12 @@ public V put(K key, V value, Metadata metadata) {
       return delegate.put(key, value, metadata);
    }
 
+   @Override
+   public void putAll(Map<? extends K, ? extends V> map, Metadata metadata) {
+      authzManager.checkPermission(AuthorizationPermission.WRITE);
+      delegate.putAll(map, metadata);
+   }
+
    @Override
    public void putAll(Map<? extends K, ? extends V> m) {
       authzManager.checkPermission(AuthorizationPermission.WRITE);
@@ -603,6 +609,18 @@ public CacheEntry getCacheEntry(K key) {
       return delegate.getCacheEntry(key);
    }
 
+   @Override
+   public Map<K, V> getAll(Set<?> keys) {
+      authzManager.checkPermission(AuthorizationPermission.READ);
+      return delegate.getAll(keys);
+   }
+
+   @Override
+   public Map<K, CacheEntry> getAllCacheEntries(Set<?> keys) {
+      authzManager.checkPermission(AuthorizationPermission.READ);
+      return delegate.getAllCacheEntries(keys);
+   }
+
    @Override
    public <G, KG> Set<KG> getGroupKeys(G group) {
       authzManager.checkPermission(AuthorizationPermission.READ);
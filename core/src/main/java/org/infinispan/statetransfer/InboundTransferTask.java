@@ -2,6 +2,7 @@
 
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.responses.SuccessfulResponse;
 import org.infinispan.remoting.rpc.ResponseMode;
@@ -15,6 +16,7 @@
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -37,6 +39,18 @@ public class InboundTransferTask {
 
    private final Set<Integer> finishedSegments = new CopyOnWriteArraySet<Integer>();
 
+   /**
+    * The sequence numbers of the chunks applied so far for each segment. The chunks of a segment can be received in any
+    * order, and a chunk may be received again when the source retries sending it, so a segment is finished when the
+    * number of distinct chunks reaches the number of chunks announced by its last chunk.
+    */
+   private final ConcurrentMap<Integer, Set<Integer>> receivedChunks = CollectionFactory.makeConcurrentMap();
+
+   /**
+    * The total number of chunks of each segment, known once its last chunk was received.
+    */
+   private final ConcurrentMap<Integer, Integer> expectedChunks = CollectionFactory.makeConcurrentMap();
+
    private final Address source;
 
    private volatile boolean isCancelled = false;
@@ -62,6 +76,11 @@ public class InboundTransferTask {
     */
    private final CountDownLatch completionLatch = new CountDownLatch(1);
 
+   /**
+    * Ensures completion is notified only once, as chunks of different segments can be finished concurrently.
+    */
+   private final AtomicBoolean isCompletionNotified = new AtomicBoolean();
+
    private final StateConsumerImpl stateConsumer;
 
    private final int topologyId;
@@ -199,9 +218,35 @@ private void sendCancelCommand(Set<Integer> cancelledSegments) {
       }
    }
 
-   public void onStateReceived(int segmentId, boolean isLastChunk) {
-      if (!isCancelled && isLastChunk && segments.contains(segmentId)) {
-         finishedSegments.add(segmentId);
+   /**
+    * Called after a chunk of a segment was applied. Chunks can be applied concurrently and in any order.
+    *
+    * @param segmentId the segment of the chunk
+    * @param sequenceNumber the position of the chunk in the stream of chunks of the segment
+    * @param isLastChunk whether the chunk is the last one sent for the segment
+    */
+   public void onStateReceived(int segmentId, int sequenceNumber, boolean isLastChunk) {
+      if (isCancelled || !segments.contains(segmentId)) {
+         return;
+      }
+      Set<Integer> received = receivedChunks.get(segmentId);
+      if (received == null) {
+         Set<Integer> existing = receivedChunks.putIfAbsent(segmentId,
+               received = Collections.newSetFromMap(CollectionFactory.<Integer, Boolean>makeConcurrentMap()));
+         if (existing != null) {
+            received = existing;
+         }
+      }
+      received.add(sequenceNumber);
+      if (isLastChunk) {
+         expectedChunks.put(segmentId, sequenceNumber + 1);
+      }
+      // the thread of the last chunk and the thread of the last applied chunk can be different, so both check
+      Integer expected = expectedChunks.get(segmentId);
+      if (expected != null && received.size() >= expected && finishedSegments.add(segmentId)) {
+         if (trace) {
+            log.tracef("Finished receiving %d chunks for segment %d of cache %s", expected, segmentId, cacheName);
+         }
          if (finishedSegments.containsAll(segments)) {
             if (trace) {
                log.tracef("Finished receiving state for segments %s of cache %s", segments, cacheName);
@@ -212,6 +257,9 @@ public void onStateReceived(int segmentId, boolean isLastChunk) {
    }
 
    private void notifyCompletion() {
+      if (!isCompletionNotified.compareAndSet(false, true)) {
+         return;
+      }
       isCompletedSuccessfully = true;
       stateConsumer.onTaskCompletion(this);
       completionLatch.countDown();
@@ -1,37 +1,44 @@
 package org.infinispan.statetransfer;
 
 import org.infinispan.commands.CommandsFactory;
-import org.infinispan.commons.CacheException;
 import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.commons.util.InfinispanCollections;
+import org.infinispan.commons.util.concurrent.NotifyingFutureImpl;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.InternalEntryFactory;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.distribution.ch.ConsistentHash;
-import org.infinispan.persistence.CollectionKeyFilter;
 import org.infinispan.persistence.manager.PersistenceManager;
-import org.infinispan.persistence.spi.AdvancedCacheLoader;
-import org.infinispan.marshall.core.MarshalledEntry;
 import org.infinispan.remoting.rpc.ResponseMode;
 import org.infinispan.remoting.rpc.RpcManager;
 import org.infinispan.remoting.rpc.RpcOptions;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.jgroups.SuspectException;
-import org.infinispan.util.ReadOnlyDataContainerBackedKeySet;
-import org.infinispan.util.concurrent.WithinThreadExecutor;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Outbound state transfer task. Pushes data segments to another cluster member on request. Instances of
  * OutboundTransferTask are created and managed by StateTransferManagerImpl. There should be at most
  * one such task per destination at any time.
+ * <p/>
+ * The requested segments are read by a {@link SegmentEntriesReader}, in parallel when the data container is segmented,
+ * using the state transfer executor. The entries of all the segments are accumulated in shared chunks.
+ * <p/>
+ * Chunks are numbered per segment. If more than one chunk may be in flight they are sent asynchronously, and a
+ * credit is taken for each chunk and returned when the destination acknowledges it, so at most
+ * {@code maxInFlightChunks} are waiting for acknowledgement. The destination detects the end of each segment from
+ * the sequence numbers because the chunks may be received in any order, so a chunk which fails to be sent is sent
+ * again, up to {@link #MAX_SEND_ATTEMPTS} times, before the task gives up and is cancelled. The destination ignores
+ * the chunks it already received.
  *
  * @author anistor@redhat.com
  * @since 5.2
@@ -40,6 +47,11 @@ public class OutboundTransferTask implements Runnable {
 
    private static final Log log = LogFactory.getLog(OutboundTransferTask.class);
 
+   /**
+    * How many times a chunk is sent before the task is cancelled, unless the destination left the cluster.
+    */
+   static final int MAX_SEND_ATTEMPTS = 3;
+
    private final boolean trace = log.isTraceEnabled();
 
    private final StateProviderImpl stateProvider;
@@ -66,13 +78,36 @@ public class OutboundTransferTask implements Runnable {
 
    private final String cacheName;
 
+   /**
+    * Guards entriesBySegment, accumulatedEntries and nextSequenceNumbers, which are updated by all the threads
+    * reading the requested segments.
+    */
+   private final Object chunkLock = new Object();
+
    private final Map<Integer, List<InternalCacheEntry>> entriesBySegment = CollectionFactory.makeConcurrentMap();
 
+   /**
+    * The sequence number of the next chunk of each segment.
+    */
+   private final Map<Integer, Integer> nextSequenceNumbers = new HashMap<Integer, Integer>();
+
    /**
     * The total number of entries from all segments accumulated in entriesBySegment.
     */
    private int accumulatedEntries;
 
+   private final int maxInFlightChunks;
+
+   /**
+    * One credit per chunk that may be waiting for acknowledgement from the destination.
+    */
+   private final Semaphore credits;
+
+   /**
+    * Runs the segment tasks and the cache store iteration.
+    */
+   private final Executor stateTransferExecutor;
+
    /**
     * The Future obtained from submitting this task to an executor service. This is used for cancellation.
     */
@@ -85,7 +120,8 @@ public class OutboundTransferTask implements Runnable {
    public OutboundTransferTask(Address destination, Set<Integer> segments, int stateTransferChunkSize,
                                int topologyId, ConsistentHash readCh, StateProviderImpl stateProvider, DataContainer dataContainer,
                                PersistenceManager persistenceManager, RpcManager rpcManager,
-                               CommandsFactory commandsFactory, InternalEntryFactory ef, long timeout, String cacheName) {
+                               CommandsFactory commandsFactory, InternalEntryFactory ef, long timeout, String cacheName,
+                               int maxInFlightChunks, Executor stateTransferExecutor) {
       if (segments == null || segments.isEmpty()) {
          throw new IllegalArgumentException("Segments must not be null or empty");
       }
@@ -95,6 +131,9 @@ public OutboundTransferTask(Address destination, Set<Integer> segments, int stat
       if (stateTransferChunkSize <= 0) {
          throw new IllegalArgumentException("stateTransferChunkSize must be greater than 0");
       }
+      if (maxInFlightChunks <= 0) {
+         throw new IllegalArgumentException("maxInFlightChunks must be greater than 0");
+      }
       this.stateProvider = stateProvider;
       this.destination = destination;
       this.segments.addAll(segments);
@@ -108,6 +147,9 @@ public OutboundTransferTask(Address destination, Set<Integer> segments, int stat
       this.commandsFactory = commandsFactory;
       this.timeout = timeout;
       this.cacheName = cacheName;
+      this.maxInFlightChunks = maxInFlightChunks;
+      this.credits = new Semaphore(maxInFlightChunks);
+      this.stateTransferExecutor = stateTransferExecutor;
       //the rpc options does not change in runtime. re-use the same instance
       this.rpcOptions = rpcManager.getRpcOptionsBuilder(ResponseMode.SYNCHRONOUS)
             .timeout(timeout, TimeUnit.MILLISECONDS).build();
@@ -134,44 +176,31 @@ public Set<Integer> getSegments() {
       return segments;
    }
 
-   //todo [anistor] check thread interrupt status in loops to implement faster cancellation
    public void run() {
       try {
-         // send data container entries
-         for (InternalCacheEntry ice : dataContainer) {
-            Object key = ice.getKey();  //todo [anistor] should we check for expired entries?
-            int segmentId = readCh.getSegment(key);
-            if (segments.contains(segmentId)) {
-               sendEntry(ice, segmentId);
+         new SegmentEntriesReader(segments, readCh, dataContainer, persistenceManager, entryFactory,
+                                  stateTransferExecutor, false).read(new SegmentEntriesReader.EntryVisitor() {
+            @Override
+            public boolean isStopped() {
+               return isCancelled();
             }
-         }
 
-         AdvancedCacheLoader stProvider = persistenceManager.getStateTransferProvider();
-         if (stProvider != null) {
-            try {
-               CollectionKeyFilter filter = new CollectionKeyFilter(new ReadOnlyDataContainerBackedKeySet(dataContainer));
-               AdvancedCacheLoader.CacheLoaderTask task = new AdvancedCacheLoader.CacheLoaderTask() {
-                  @Override
-                  public void processEntry(MarshalledEntry me, AdvancedCacheLoader.TaskContext taskContext) throws InterruptedException {
-                        int segmentId = readCh.getSegment(me.getKey());
-                        if (segments.contains(segmentId)) {
-                           try {
-                              InternalCacheEntry icv = entryFactory.create(me.getKey(), me.getValue(), me.getMetadata());
-                              sendEntry(icv, segmentId);
-                           } catch (CacheException e) {
-                              log.failedLoadingValueFromCacheStore(me.getKey(), e);
-                           }
-                        }
-                     }
-                  };
-               stProvider.process(filter, task, new WithinThreadExecutor(), true, true);
-            } catch (CacheException e) {
-               log.failedLoadingKeysFromCacheStore(e);
+            @Override
+            public void visit(InternalCacheEntry ice, int segmentId) throws InterruptedException {
+               sendEntry(ice, segmentId);
             }
-         }
+         });
 
          // send the last chunk of all segments
-         sendEntries(true);
+         List<StateChunk> lastChunks;
+         synchronized (chunkLock) {
+            lastChunks = buildChunks(true);
+         }
+         sendChunks(lastChunks);
+
+         // the task is complete only when the destination has acknowledged all the chunks
+         credits.acquire(maxInFlightChunks);
+         credits.release(maxInFlightChunks);
       } catch (Throwable t) {
          // ignore eventual exceptions caused by cancellation (have InterruptedException as the root cause)
          if (!runnableFuture.isCancelled()) {
@@ -183,28 +212,40 @@ public void processEntry(MarshalledEntry me, AdvancedCacheLoader.TaskContext tas
       }
    }
 
-   private void sendEntry(InternalCacheEntry ice, int segmentId) {
-      // send if we have a full chunk
-      if (accumulatedEntries >= stateTransferChunkSize) {
-         sendEntries(false);
-         accumulatedEntries = 0;
-      }
+   /**
+    * Adds an entry to the current chunk and sends the chunk if it is full. Invoked concurrently by the segment tasks
+    * and by the cache store iteration.
+    */
+   private void sendEntry(InternalCacheEntry ice, int segmentId) throws InterruptedException {
+      List<StateChunk> chunks = null;
+      synchronized (chunkLock) {
+         List<InternalCacheEntry> entries = entriesBySegment.get(segmentId);
+         if (entries == null) {
+            entries = new ArrayList<InternalCacheEntry>();
+            entriesBySegment.put(segmentId, entries);
+         }
+         entries.add(ice);
+         accumulatedEntries++;
 
-      List<InternalCacheEntry> entries = entriesBySegment.get(segmentId);
-      if (entries == null) {
-         entries = new ArrayList<InternalCacheEntry>();
-         entriesBySegment.put(segmentId, entries);
+         // send if we have a full chunk
+         if (accumulatedEntries >= stateTransferChunkSize) {
+            chunks = buildChunks(false);
+         }
+      }
+      if (chunks != null) {
+         sendChunks(chunks);
       }
-      entries.add(ice);
-      accumulatedEntries++;
    }
 
-   private void sendEntries(boolean isLast) {
+   /**
+    * Takes the accumulated entries out of entriesBySegment. Must be invoked while holding chunkLock.
+    */
+   private List<StateChunk> buildChunks(boolean isLast) {
       List<StateChunk> chunks = new ArrayList<StateChunk>();
       for (Map.Entry<Integer, List<InternalCacheEntry>> e : entriesBySegment.entrySet()) {
          List<InternalCacheEntry> entries = e.getValue();
          if (!entries.isEmpty() || isLast) {
-            chunks.add(new StateChunk(e.getKey(), new ArrayList<InternalCacheEntry>(entries), isLast));
+            chunks.add(new StateChunk(e.getKey(), new ArrayList<InternalCacheEntry>(entries), isLast, nextSequenceNumber(e.getKey())));
             entries.clear();
          }
       }
@@ -213,33 +254,118 @@ private void sendEntries(boolean isLast) {
          for (int segmentId : segments) {
             List<InternalCacheEntry> entries = entriesBySegment.get(segmentId);
             if (entries == null) {
-               chunks.add(new StateChunk(segmentId, InfinispanCollections.<InternalCacheEntry>emptyList(), true));
+               chunks.add(new StateChunk(segmentId, InfinispanCollections.<InternalCacheEntry>emptyList(), true, nextSequenceNumber(segmentId)));
             }
          }
       }
 
-      if (!chunks.isEmpty()) {
-         if (trace) {
-            if (isLast) {
-               log.tracef("Sending last chunk containing %d cache entries from segments %s of cache %s to node %s", accumulatedEntries, segments, cacheName, destination);
-            } else {
-               log.tracef("Sending %d cache entries from segments %s of cache %s to node %s", accumulatedEntries, entriesBySegment.keySet(), cacheName, destination);
+      if (trace && !chunks.isEmpty()) {
+         if (isLast) {
+            log.tracef("Sending last chunk containing %d cache entries from segments %s of cache %s to node %s", accumulatedEntries, segments, cacheName, destination);
+         } else {
+            log.tracef("Sending %d cache entries from segments %s of cache %s to node %s", accumulatedEntries, entriesBySegment.keySet(), cacheName, destination);
+         }
+      }
+      accumulatedEntries = 0;
+      return chunks;
+   }
+
+   private void sendChunks(List<StateChunk> chunks) throws InterruptedException {
+      if (chunks.isEmpty()) {
+         return;
+      }
+      StateResponseCommand cmd = commandsFactory.buildStateResponseCommand(rpcManager.getAddress(), topologyId, chunks);
+      credits.acquire();
+      if (maxInFlightChunks > 1) {
+         sendChunksAsync(cmd, 1);
+         return;
+      }
+      // send synchronously, so that at most one chunk is buffered at the destination
+      try {
+         for (int attempt = 1; ; attempt++) {
+            try {
+               rpcManager.invokeRemotely(Collections.singleton(destination), cmd, rpcOptions);
+               return;
+            } catch (Exception e) {
+               if (!shouldRetry(e, attempt)) {
+                  return;
+               }
             }
          }
+      } finally {
+         credits.release();
+      }
+   }
 
-         StateResponseCommand cmd = commandsFactory.buildStateResponseCommand(rpcManager.getAddress(), topologyId, chunks);
-         // send synchronously, in order. it is important that the last chunk is received last in order to correctly detect completion of the stream of chunks
-         try {
-            rpcManager.invokeRemotely(Collections.singleton(destination), cmd, rpcOptions);
-         } catch (SuspectException e) {
-            log.errorf(e, "Node %s left cache %s: %s", destination, cacheName, e.getMessage());
-            cancel();
-         } catch (Exception e) {
-            log.errorf(e, "Failed to send entries to node %s : %s", destination, e.getMessage());
+   /**
+    * Sends the chunks without waiting for the response. The credit taken for them is kept until they are
+    * acknowledged, or until they can't be sent anymore.
+    */
+   private void sendChunksAsync(final StateResponseCommand cmd, final int attempt) {
+      NotifyingFutureImpl<Object> future = new NotifyingFutureImpl<Object>() {
+         @Override
+         public void notifyDone(Object result) {
+            credits.release();
+            super.notifyDone(result);
+         }
+
+         @Override
+         public void notifyException(Throwable exception) {
+            if (shouldRetry(exception, attempt)) {
+               resendChunksAsync(cmd, attempt + 1);
+            } else {
+               credits.release();
+            }
+            super.notifyException(exception);
          }
+      };
+      try {
+         rpcManager.invokeRemotelyInFuture(Collections.singleton(destination), cmd, rpcOptions, future);
+      } catch (RuntimeException e) {
+         credits.release();
+         throw e;
+      }
+   }
+
+   private void resendChunksAsync(StateResponseCommand cmd, int attempt) {
+      try {
+         sendChunksAsync(cmd, attempt);
+      } catch (RuntimeException e) {
+         // the credit was released
+         shouldRetry(e, MAX_SEND_ATTEMPTS);
       }
    }
 
+   /**
+    * Decides whether chunks which failed to be sent should be sent again. If not, the task is cancelled: the chunks of
+    * a segment are only complete when they were all received by the destination.
+    *
+    * @param attempt how many times the chunks were sent
+    */
+   private boolean shouldRetry(Throwable t, int attempt) {
+      if (isCancelled()) {
+         return false;
+      }
+      if (t instanceof SuspectException) {
+         log.errorf(t, "Node %s left cache %s: %s", destination, cacheName, t.getMessage());
+      } else if (attempt < MAX_SEND_ATTEMPTS) {
+         log.debugf(t, "Failed to send entries to node %s, sending them again: %s", destination, t.getMessage());
+         return true;
+      } else {
+         log.errorf(t, "Failed to send entries to node %s after %d attempts, cancelling the transfer of segments %s of cache %s: %s",
+                    destination, attempt, segments, cacheName, t.getMessage());
+      }
+      cancel();
+      return false;
+   }
+
+   private int nextSequenceNumber(int segmentId) {
+      Integer sequenceNumber = nextSequenceNumbers.get(segmentId);
+      int next = sequenceNumber == null ? 0 : sequenceNumber;
+      nextSequenceNumbers.put(segmentId, next + 1);
+      return next;
+   }
+
    /**
     * Cancel some of the segments. If all segments get cancelled then the whole task will be cancelled.
     *
@@ -250,7 +376,9 @@ public void cancelSegments(Set<Integer> cancelledSegments) {
          log.tracef("Cancelling outbound transfer of segments %s of cache %s to node %s", cancelledSegments, cacheName, destination);
       }
       if (segments.removeAll(cancelledSegments)) {
-         entriesBySegment.keySet().removeAll(cancelledSegments);  // here we do not update accumulatedEntries but this inaccuracy does not cause any harm
+         synchronized (chunkLock) {
+            entriesBySegment.keySet().removeAll(cancelledSegments);  // here we do not update accumulatedEntries but this inaccuracy does not cause any harm
+         }
          if (segments.isEmpty()) {
             cancel();
          }
@@ -277,6 +405,7 @@ public String toString() {
             ", destination=" + destination +
             ", segments=" + segments +
             ", stateTransferChunkSize=" + stateTransferChunkSize +
+            ", maxInFlightChunks=" + maxInFlightChunks +
             ", timeout=" + timeout +
             ", cacheName='" + cacheName + '\'' +
             '}';
@@ -0,0 +1,194 @@
+package org.infinispan.statetransfer;
+
+import org.infinispan.commons.CacheException;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.InternalEntryFactory;
+import org.infinispan.container.SegmentedDataContainer;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.executors.ExecutorAllCompletionService;
+import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.metadata.InternalMetadata;
+import org.infinispan.persistence.CollectionKeyFilter;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.persistence.spi.AdvancedCacheLoader;
+import org.infinispan.util.ReadOnlyDataContainerBackedKeySet;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+/**
+ * Reads the entries of some segments of a cache, first from the data container and then from the state transfer
+ * store, and hands them to an {@link EntryVisitor}. Used by the tasks which send the state of a cache elsewhere, e.g.
+ * {@link OutboundTransferTask}.
+ * <p/>
+ * The segments of a segmented data container are read in parallel, one task per segment, and so is the cache store,
+ * using the given executor, so the visitor is invoked concurrently. The entries of the store which are also in the
+ * data container are skipped.
+ *
+ * @since 7.0
+ */
+public class SegmentEntriesReader {
+
+   private static final Log log = LogFactory.getLog(SegmentEntriesReader.class);
+
+   /**
+    * Receives the entries read.
+    */
+   public interface EntryVisitor {
+
+      /**
+       * @return true if the reading should stop before all the entries are read
+       */
+      boolean isStopped();
+
+      /**
+       * Invoked concurrently for each entry of the requested segments.
+       */
+      void visit(InternalCacheEntry ice, int segmentId) throws InterruptedException;
+   }
+
+   private final Set<Integer> segments;
+
+   /**
+    * The consistent hash used to find the segment of the keys, or null if the cache is not partitioned in segments,
+    * in which case all the entries belong to segment 0.
+    */
+   private final ConsistentHash readCh;
+
+   private final DataContainer dataContainer;
+
+   private final PersistenceManager persistenceManager;
+
+   private final InternalEntryFactory entryFactory;
+
+   private final Executor executor;
+
+   private final boolean keepStoredTimestamps;
+
+   /**
+    * @param segments             the segments to read, which may be updated concurrently to stop reading some of them
+    * @param executor             runs the segment tasks and the cache store iteration
+    * @param keepStoredTimestamps whether the entries read from the cache store keep the creation and last access
+    *                             times stored with them, instead of being created and used now
+    */
+   public SegmentEntriesReader(Set<Integer> segments, ConsistentHash readCh, DataContainer dataContainer,
+                               PersistenceManager persistenceManager, InternalEntryFactory entryFactory,
+                               Executor executor, boolean keepStoredTimestamps) {
+      this.segments = segments;
+      this.readCh = readCh;
+      this.dataContainer = dataContainer;
+      this.persistenceManager = persistenceManager;
+      this.entryFactory = entryFactory;
+      this.executor = executor;
+      this.keepStoredTimestamps = keepStoredTimestamps;
+   }
+
+   /**
+    * Reads all the entries of the segments, returning when they were all visited or when the visitor is stopped.
+    *
+    * @throws InterruptedException if the calling thread is interrupted, e.g. because the reading task is cancelled
+    * @throws Exception            the first exception thrown by the visitor in a segment task
+    */
+   public void read(final EntryVisitor visitor) throws Exception {
+      readDataContainer(visitor);
+      if (!visitor.isStopped()) {
+         readStore(visitor);
+      }
+   }
+
+   private void readDataContainer(final EntryVisitor visitor) throws Exception {
+      if (isSegmentedDataContainer()) {
+         // visit only the requested segments instead of scanning the whole container, one segment per task
+         final SegmentedDataContainer segmentedDataContainer = (SegmentedDataContainer) dataContainer;
+         ExecutorAllCompletionService segmentTasks = new ExecutorAllCompletionService(executor);
+         for (final int segmentId : segments) {
+            segmentTasks.submit(new Callable<Void>() {
+               @Override
+               public Void call() throws Exception {
+                  for (InternalCacheEntry ice : segmentedDataContainer.entriesInSegment(segmentId)) {
+                     if (visitor.isStopped()) {
+                        break;
+                     }
+                     visitor.visit(ice, segmentId);
+                  }
+                  return null;
+               }
+            });
+         }
+         segmentTasks.waitUntilAllCompleted();
+         if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException();
+         }
+         if (segmentTasks.isExceptionThrown()) {
+            throw segmentTasks.getFirstException();
+         }
+      } else {
+         for (InternalCacheEntry ice : dataContainer) {
+            if (visitor.isStopped()) {
+               break;
+            }
+            int segmentId = getSegment(ice.getKey());
+            if (segments.contains(segmentId)) {
+               visitor.visit(ice, segmentId);
+            }
+         }
+      }
+   }
+
+   private void readStore(final EntryVisitor visitor) {
+      AdvancedCacheLoader stProvider = persistenceManager.getStateTransferProvider();
+      if (stProvider == null) {
+         return;
+      }
+      try {
+         CollectionKeyFilter filter = new CollectionKeyFilter(new ReadOnlyDataContainerBackedKeySet(dataContainer));
+         AdvancedCacheLoader.CacheLoaderTask task = new AdvancedCacheLoader.CacheLoaderTask() {
+            @Override
+            public void processEntry(MarshalledEntry me, AdvancedCacheLoader.TaskContext taskContext) throws InterruptedException {
+               if (visitor.isStopped()) {
+                  taskContext.stop();
+                  return;
+               }
+               int segmentId = getSegment(me.getKey());
+               if (segments.contains(segmentId)) {
+                  try {
+                     visitor.visit(toInternalCacheEntry(me), segmentId);
+                  } catch (CacheException e) {
+                     log.failedLoadingValueFromCacheStore(me.getKey(), e);
+                  }
+               }
+            }
+         };
+         // the store invokes the task from the executor threads, concurrently
+         stProvider.process(filter, task, executor, true, true);
+      } catch (CacheException e) {
+         log.failedLoadingKeysFromCacheStore(e);
+      }
+   }
+
+   /**
+    * Keeps the creation and last access times stored with the entry if requested, so that the entry does not look
+    * younger than it is.
+    */
+   private InternalCacheEntry toInternalCacheEntry(MarshalledEntry me) {
+      InternalMetadata metadata = me.getMetadata();
+      if (metadata == null || !keepStoredTimestamps) {
+         return entryFactory.create(me.getKey(), me.getValue(), metadata);
+      }
+      return entryFactory.create(me.getKey(), me.getValue(), metadata, metadata.created(), metadata.lifespan(),
+                                 metadata.lastUsed(), metadata.maxIdle());
+   }
+
+   private boolean isSegmentedDataContainer() {
+      return readCh != null && dataContainer instanceof SegmentedDataContainer
+            && ((SegmentedDataContainer) dataContainer).getNumSegments() == readCh.getNumSegments();
+   }
+
+   private int getSegment(Object key) {
+      return readCh == null ? 0 : readCh.getSegment(key);
+   }
+}
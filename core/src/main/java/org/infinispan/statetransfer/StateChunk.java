@@ -35,10 +35,21 @@ public class StateChunk {
     */
    private final boolean isLastChunk;
 
+   /**
+    * The position of this chunk in the stream of chunks sent for the segment, starting at 0. Chunks may be received
+    * in any order, so the receiver uses the sequence number of the last chunk to know how many chunks to expect.
+    */
+   private final int sequenceNumber;
+
    public StateChunk(int segmentId, Collection<InternalCacheEntry> cacheEntries, boolean isLastChunk) {
+      this(segmentId, cacheEntries, isLastChunk, 0);
+   }
+
+   public StateChunk(int segmentId, Collection<InternalCacheEntry> cacheEntries, boolean isLastChunk, int sequenceNumber) {
       this.segmentId = segmentId;
       this.cacheEntries = cacheEntries;
       this.isLastChunk = isLastChunk;
+      this.sequenceNumber = sequenceNumber;
    }
 
    public int getSegmentId() {
@@ -53,12 +64,17 @@ public boolean isLastChunk() {
       return isLastChunk;
    }
 
+   public int getSequenceNumber() {
+      return sequenceNumber;
+   }
+
    @Override
    public String toString() {
       return "StateChunk{" +
             "segmentId=" + segmentId +
             ", cacheEntries=" + cacheEntries +
             ", isLastChunk=" + isLastChunk +
+            ", sequenceNumber=" + sequenceNumber +
             '}';
    }
 
@@ -79,6 +95,7 @@ public void writeObject(ObjectOutput output, StateChunk object) throws IOExcepti
          output.writeInt(object.segmentId);
          output.writeObject(object.cacheEntries);
          output.writeBoolean(object.isLastChunk);
+         output.writeInt(object.sequenceNumber);
       }
 
       @Override
@@ -87,7 +104,8 @@ public StateChunk readObject(ObjectInput input) throws IOException, ClassNotFoun
          int segmentId = input.readInt();
          Collection<InternalCacheEntry> cacheEntries = (Collection<InternalCacheEntry>) input.readObject();
          boolean isLastChunk = input.readBoolean();
-         return new StateChunk(segmentId, cacheEntries, isLastChunk);
+         int sequenceNumber = input.readInt();
+         return new StateChunk(segmentId, cacheEntries, isLastChunk, sequenceNumber);
       }
    }
 }
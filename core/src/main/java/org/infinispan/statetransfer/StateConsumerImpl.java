@@ -10,6 +10,7 @@
 import org.infinispan.commons.util.concurrent.jdk8backported.EquivalentConcurrentHashMapV8;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.DataContainer;
+import org.infinispan.container.SegmentedDataContainer;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
@@ -29,6 +30,7 @@
 import org.infinispan.persistence.spi.AdvancedCacheLoader;
 import org.infinispan.marshall.core.MarshalledEntry;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryInvalidated;
 import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.responses.SuccessfulResponse;
 import org.infinispan.remoting.rpc.ResponseMode;
@@ -476,6 +478,11 @@ private Set<Integer> getOwnedSegments(ConsistentHash consistentHash) {
             : InfinispanCollections.<Integer>emptySet();
    }
 
+   /**
+    * Applies the received chunks. When the provider keeps several chunks in flight, this is invoked concurrently for
+    * chunks of the same or of different segments, so segments are applied in parallel and their completion is detected
+    * by {@link InboundTransferTask} from the chunk sequence numbers.
+    */
    public void applyState(Address sender, int topologyId, Collection<StateChunk> stateChunks) {
       ConsistentHash wCh = cacheTopology.getWriteConsistentHash();
       // ignore responses received after we are no longer a member
@@ -509,7 +516,7 @@ public void applyState(Address sender, int topologyId, Collection<StateChunk> st
                doApplyState(sender, stateChunk.getSegmentId(), stateChunk.getCacheEntries());
             }
 
-            inboundTransfer.onStateReceived(stateChunk.getSegmentId(), stateChunk.isLastChunk());
+            inboundTransfer.onStateReceived(stateChunk.getSegmentId(), stateChunk.getSequenceNumber(), stateChunk.isLastChunk());
          } else {
             log.warnf("Received unsolicited state from node %s for segment %d of cache %s", sender, stateChunk.getSegmentId(), cacheName);
          }
@@ -905,33 +912,33 @@ private void invalidateSegments(final Set<Integer> newSegments, final Set<Intege
       // so we delete all entries that don't belong to this node in the current OR previous topology.
       final ConcurrentHashSet<Object> keysToL1 = new ConcurrentHashSet<Object>();
       final ConcurrentHashSet<Object> keysToRemove = new ConcurrentHashSet<Object>();
+      // the segments of the data container which are removed without invalidating their keys one by one
+      List<Integer> segmentsToClear = new ArrayList<Integer>();
 
       // gather all keys from data container that belong to the segments that are being removed/moved to L1
-      for (InternalCacheEntry ice : dataContainer) {
-         Object key = ice.getKey();
-         int keySegment = getSegment(key);
-         if (segmentsToL1.contains(keySegment)) {
-            keysToL1.add(key);
-         } else if (!newSegments.contains(keySegment)) {
-            keysToRemove.add(key);
-         }
-
-         // If l1 on rehash is enabled we need to add the requestors for the previous owner who is now not an owner if
-         // we are an owner
-         if (isL1OnRehash) {
-            List<Address> owners = newCH.locateOwnersForSegment(keySegment);
-            if (owners.contains(rpcManager.getAddress())) {
-               log.tracef("L1 on rehash is enabled - checking if previous owners for key %s need to be added to requestors",
-                          key);
-               for (Address address : prevCH.locateOwnersForSegment(keySegment)) {
-                  if (!owners.contains(address)) {
-                     log.tracef("Adding previous owner %s to L1 requestors for key %s as it is no longer an owner",
-                                address, key);
-                     l1Manager.addRequestor(key, address);
-                  }
+      SegmentedDataContainer segmentedDataContainer = null;
+      if (dataContainer instanceof SegmentedDataContainer
+            && ((SegmentedDataContainer) dataContainer).getNumSegments() == newCH.getNumSegments()) {
+         // only visit the segments that have keys to invalidate or requestors to add
+         segmentedDataContainer = (SegmentedDataContainer) dataContainer;
+         // the keys of a removed segment only need to be invalidated one by one to notify the listeners
+         boolean notifyInvalidation = cacheNotifier.hasListener(CacheEntryInvalidated.class);
+         for (int segment = 0; segment < segmentedDataContainer.getNumSegments(); segment++) {
+            boolean addRequestors = isL1OnRehash && hasPreviousOwnersToAddAsRequestors(segment, newCH, prevCH);
+            if (!segmentsToL1.contains(segment) && !newSegments.contains(segment) && !addRequestors
+                  && !notifyInvalidation) {
+               segmentsToClear.add(segment);
+            } else if (segmentsToL1.contains(segment) || !newSegments.contains(segment) || addRequestors) {
+               for (InternalCacheEntry ice : segmentedDataContainer.entriesInSegment(segment)) {
+                  collectKeyToInvalidate(ice.getKey(), segment, newSegments, segmentsToL1, keysToL1, keysToRemove, newCH, prevCH);
                }
             }
          }
+      } else {
+         for (InternalCacheEntry ice : dataContainer) {
+            Object key = ice.getKey();
+            collectKeyToInvalidate(key, getSegment(key), newSegments, segmentsToL1, keysToL1, keysToRemove, newCH, prevCH);
+         }
       }
 
       // gather all keys from cache store that belong to the segments that are being removed/moved to L1
@@ -973,6 +980,14 @@ public void processEntry(MarshalledEntry marshalledEntry, AdvancedCacheLoader.Ta
       }
 
       log.debugf("Removing state for segments not in %s or %s for cache %s", newSegments, segmentsToL1, cacheName);
+      if (!segmentsToClear.isEmpty()) {
+         // cleared only now, so that the store iteration above skipped the keys which were in memory
+         for (int segment : segmentsToClear) {
+            segmentedDataContainer.clearSegment(segment);
+         }
+         log.debugf("Cleared segments %s, data container of cache %s now has %d keys", segmentsToClear, cacheName,
+                    dataContainer.size());
+      }
       if (!keysToRemove.isEmpty()) {
          try {
             InvalidateCommand invalidateCmd = commandsFactory.buildInvalidateCommand(EnumSet.of(CACHE_MODE_LOCAL, SKIP_LOCKING), keysToRemove.toArray());
@@ -987,6 +1002,38 @@ public void processEntry(MarshalledEntry marshalledEntry, AdvancedCacheLoader.Ta
       }
    }
 
+   private void collectKeyToInvalidate(Object key, int keySegment, Set<Integer> newSegments, Set<Integer> segmentsToL1,
+                                       Set<Object> keysToL1, Set<Object> keysToRemove,
+                                       ConsistentHash newCH, ConsistentHash prevCH) {
+      if (segmentsToL1.contains(keySegment)) {
+         keysToL1.add(key);
+      } else if (!newSegments.contains(keySegment)) {
+         keysToRemove.add(key);
+      }
+
+      // If l1 on rehash is enabled we need to add the requestors for the previous owner who is now not an owner if
+      // we are an owner
+      if (isL1OnRehash) {
+         List<Address> owners = newCH.locateOwnersForSegment(keySegment);
+         if (owners.contains(rpcManager.getAddress())) {
+            log.tracef("L1 on rehash is enabled - checking if previous owners for key %s need to be added to requestors",
+                       key);
+            for (Address address : prevCH.locateOwnersForSegment(keySegment)) {
+               if (!owners.contains(address)) {
+                  log.tracef("Adding previous owner %s to L1 requestors for key %s as it is no longer an owner",
+                             address, key);
+                  l1Manager.addRequestor(key, address);
+               }
+            }
+         }
+      }
+   }
+
+   private boolean hasPreviousOwnersToAddAsRequestors(int segment, ConsistentHash newCH, ConsistentHash prevCH) {
+      List<Address> owners = newCH.locateOwnersForSegment(segment);
+      return owners.contains(rpcManager.getAddress()) && !owners.containsAll(prevCH.locateOwnersForSegment(segment));
+   }
+
    /**
     * Check if any of the existing transfers should be restarted from a different source because the initial source is no longer a member.
     *
@@ -34,6 +34,7 @@
 import java.util.concurrent.TimeUnit;
 
 import static org.infinispan.factories.KnownComponentNames.ASYNC_TRANSPORT_EXECUTOR;
+import static org.infinispan.factories.KnownComponentNames.STATE_TRANSFER_EXECUTOR;
 
 /**
  * {@link StateProvider} implementation.
@@ -56,10 +57,12 @@ public class StateProviderImpl implements StateProvider {
    private DataContainer dataContainer;
    private PersistenceManager persistenceManager; // optional
    private ExecutorService executorService;
+   private ExecutorService stateTransferExecutor;
    private StateTransferLock stateTransferLock;
    private InternalEntryFactory entryFactory;
    private long timeout;
    private int chunkSize;
+   private int maxInFlightChunks;
 
    private StateConsumer stateConsumer;
 
@@ -75,6 +78,7 @@ public StateProviderImpl() {
    @Inject
    public void init(Cache cache,
                     @ComponentName(ASYNC_TRANSPORT_EXECUTOR) ExecutorService executorService, //TODO Use a dedicated ExecutorService
+                    @ComponentName(STATE_TRANSFER_EXECUTOR) ExecutorService stateTransferExecutor,
                     Configuration configuration,
                     RpcManager rpcManager,
                     CommandsFactory commandsFactory,
@@ -86,6 +90,7 @@ public void init(Cache cache,
                     StateConsumer stateConsumer, InternalEntryFactory entryFactory) {
       this.cacheName = cache.getName();
       this.executorService = executorService;
+      this.stateTransferExecutor = stateTransferExecutor;
       this.configuration = configuration;
       this.rpcManager = rpcManager;
       this.commandsFactory = commandsFactory;
@@ -102,6 +107,7 @@ public void init(Cache cache,
       // ignore chunk sizes <= 0
       int chunkSize = configuration.clustering().stateTransfer().chunkSize();
       this.chunkSize = chunkSize > 0 ? chunkSize : Integer.MAX_VALUE;
+      maxInFlightChunks = configuration.clustering().stateTransfer().maxInFlightChunks();
    }
 
    public boolean isStateTransferInProgress() {
@@ -284,7 +290,8 @@ public void startOutboundTransfer(Address destination, int requestTopologyId, Se
 
       // the destination node must already have an InboundTransferTask waiting for these segments
       OutboundTransferTask outboundTransfer = new OutboundTransferTask(destination, segments, chunkSize, cacheTopology.getTopologyId(),
-            cacheTopology.getReadConsistentHash(), this, dataContainer, persistenceManager, rpcManager, commandsFactory, entryFactory, timeout, cacheName);
+            cacheTopology.getReadConsistentHash(), this, dataContainer, persistenceManager, rpcManager, commandsFactory, entryFactory, timeout, cacheName,
+            maxInFlightChunks, stateTransferExecutor);
       addTransfer(outboundTransfer);
       outboundTransfer.execute(executorService);
    }
@@ -89,7 +89,7 @@ public void start() throws Exception {
       }
 
       CacheJoinInfo joinInfo = new CacheJoinInfo(
-            pickConsistentHashFactory(),
+            pickConsistentHashFactory(globalConfiguration, configuration),
             configuration.clustering().hash().hash(),
             configuration.clustering().hash().numSegments(),
             configuration.clustering().hash().numOwners(),
@@ -118,7 +118,7 @@ public void rebalance(CacheTopology cacheTopology) {
    /**
     * If no ConsistentHashFactory was explicitly configured we choose a suitable one based on cache mode.
     */
-   private ConsistentHashFactory pickConsistentHashFactory() {
+   public static ConsistentHashFactory pickConsistentHashFactory(GlobalConfiguration globalConfiguration, Configuration configuration) {
       ConsistentHashFactory factory = configuration.clustering().hash().consistentHashFactory();
       if (factory == null) {
          CacheMode cacheMode = configuration.clustering().cacheMode();
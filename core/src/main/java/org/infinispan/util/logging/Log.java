@@ -1065,4 +1065,42 @@ void asyncStoreShutdownTimeoutTooHigh(long configuredAsyncStopTimeout,
 
    @Message(value = "A principal-to-role mapper has not been specified", id = 288)
    CacheConfigurationException invalidPrincipalRoleMapper();
+
+   @Message(value = "Entry of %d bytes does not fit in the off-heap data container slabs of %d bytes", id = 289)
+   CacheException offHeapEntryTooLarge(int size, int slabSize);
+
+   @Message(value = "Invalid value %2$s for the %1$s setting of the log file store", id = 290)
+   CacheConfigurationException invalidLogFileStoreSetting(String setting, String value);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Log file %s has an incomplete or corrupted entry at offset %d, truncating it", id = 291)
+   void truncatingLogFile(String path, long offset);
+
+   @LogMessage(level = ERROR)
+   @Message(value = "Error compacting log file %s", id = 292)
+   void errorCompactingLogFile(String path, @Cause Throwable cause);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Failed to send a batch of %d event(s) to cluster listener %s on %s", id = 293)
+   void failedToSendClusterEventBatch(int count, UUID listenerId, Address origin, @Cause Throwable cause);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Failed to back up a batch of %d modification(s) of cache %s to site %s, the batch will be retried", id = 294)
+   void failedToSendXSiteBackupBatch(int count, String cacheName, String siteName, @Cause Throwable cause);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Discarding %d modification(s) of cache %s which could not be backed up to site %s", id = 295)
+   void discardingXSiteBackupQueue(int count, String cacheName, String siteName);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Failed to push the state of cache %s to site %s", id = 296)
+   void failedToPushXSiteState(String cacheName, String siteName, @Cause Throwable cause);
+
+   @LogMessage(level = ERROR)
+   @Message(value = "Failed to write to the backup queue log %s, the modifications queued for site %s are only kept in memory from now on", id = 297)
+   void failedToWriteXSiteBackupLog(String path, String siteName, @Cause Throwable cause);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Keeping %d modification(s) of cache %s which could not be backed up to site %s in %s, they will be sent when the cache is restarted", id = 298)
+   void keepingXSiteBackupQueue(int count, String cacheName, String siteName, String path);
 }
@@ -0,0 +1,188 @@
+package org.infinispan.xsite;
+
+import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Keeps the modifications queued by an {@link AsyncBackupQueue} in a file, so that the ones which were not backed up
+ * yet are sent when the cache is restarted.
+ * <p/>
+ * Each queued modification is appended to the file as its length followed by its marshalled form. The file is not
+ * forced to disk on every write: a crash of the process loses nothing, but a crash of the machine may lose the last
+ * modifications. Unlike the queue the file is not coalesced, so it is emptied when everything was backed up, and
+ * rewritten with the queued modifications only once it holds mostly modifications which were replaced or sent. A
+ * modification which was sent but not acknowledged yet when the process stopped is sent again.
+ * <p/>
+ * Not thread safe: the queue only uses it while holding its own lock.
+ *
+ * @since 7.0
+ */
+class AsyncBackupLog {
+
+   private static final Log log = LogFactory.getLog(AsyncBackupLog.class);
+
+   /**
+    * The file is not rewritten before it holds this many modifications.
+    */
+   static final int MIN_COMPACTION_RECORDS = 1024;
+
+   private static final int LENGTH_SIZE = 4;
+
+   private final File file;
+   private final File tmpFile;
+   private final StreamingMarshaller marshaller;
+   private FileChannel channel;
+   private int records;
+
+   AsyncBackupLog(File dir, String cacheName, String siteName, StreamingMarshaller marshaller) {
+      if (!dir.mkdirs() && !dir.exists())
+         throw log.directoryCannotBeCreated(dir.getAbsolutePath());
+      String name = (cacheName + "-" + siteName).replaceAll("[^\\w.-]", "_");
+      this.file = new File(dir, name + ".log");
+      this.tmpFile = new File(dir, name + ".tmp");
+      this.marshaller = marshaller;
+   }
+
+   String path() {
+      return file.getPath();
+   }
+
+   /**
+    * Opens the file, creating it if needed.
+    *
+    * @return the modifications in the file, in the order they were queued
+    */
+   List<WriteCommand> open() throws IOException, ClassNotFoundException {
+      if (tmpFile.exists()) {
+         // the process stopped while rewriting the file: the old one is complete unless it was already deleted
+         if (file.exists()) {
+            tmpFile.delete();
+         } else if (!tmpFile.renameTo(file)) {
+            throw new IOException("Could not rename " + tmpFile + " to " + file);
+         }
+      }
+      channel = new RandomAccessFile(file, "rw").getChannel();
+      List<WriteCommand> commands = new ArrayList<WriteCommand>();
+      long size = channel.size();
+      long offset = 0;
+      ByteBuffer length = ByteBuffer.allocate(LENGTH_SIZE);
+      while (offset < size) {
+         length.clear();
+         byte[] bytes = null;
+         if (offset + LENGTH_SIZE <= size) {
+            read(length, offset);
+            int recordLength = length.getInt(0);
+            if (recordLength >= 0 && offset + LENGTH_SIZE + recordLength <= size) {
+               bytes = new byte[recordLength];
+               read(ByteBuffer.wrap(bytes), offset + LENGTH_SIZE);
+            }
+         }
+         if (bytes == null) {
+            // the process stopped while appending this modification
+            log.truncatingLogFile(path(), offset);
+            channel.truncate(offset);
+            break;
+         }
+         commands.add((WriteCommand) marshaller.objectFromByteBuffer(bytes));
+         offset += LENGTH_SIZE + bytes.length;
+      }
+      channel.position(offset);
+      records = commands.size();
+      return commands;
+   }
+
+   private void read(ByteBuffer buf, long position) throws IOException {
+      while (buf.hasRemaining()) {
+         int read = channel.read(buf, position);
+         if (read < 0)
+            throw new EOFException();
+         position += read;
+      }
+   }
+
+   void append(WriteCommand command) throws IOException, InterruptedException {
+      write(channel, command);
+      records++;
+   }
+
+   private void write(FileChannel ch, WriteCommand command) throws IOException, InterruptedException {
+      byte[] bytes = marshaller.objectToByteBuffer(command);
+      ByteBuffer buf = ByteBuffer.allocate(LENGTH_SIZE + bytes.length);
+      buf.putInt(bytes.length).put(bytes).flip();
+      while (buf.hasRemaining()) {
+         ch.write(buf);
+      }
+   }
+
+   /**
+    * @param queued the number of modifications in the queue
+    * @return true if the file holds mostly modifications which are no longer queued
+    */
+   boolean needsCompaction(int queued) {
+      return records >= MIN_COMPACTION_RECORDS && records > 2 * queued;
+   }
+
+   /**
+    * Replaces the content of the file with the given modifications. The new content is written to a temporary file
+    * first, so that the old one is still complete if the process stops meanwhile.
+    */
+   void rewrite(Collection<WriteCommand> commands) throws IOException, InterruptedException {
+      if (commands.isEmpty()) {
+         channel.truncate(0);
+         channel.position(0);
+         records = 0;
+         return;
+      }
+      FileChannel tmp = new RandomAccessFile(tmpFile, "rw").getChannel();
+      try {
+         tmp.truncate(0);
+         for (WriteCommand command : commands) {
+            write(tmp, command);
+         }
+         tmp.force(false);
+      } finally {
+         tmp.close();
+      }
+      channel.close();
+      if (!file.delete() || !tmpFile.renameTo(file))
+         throw new IOException("Could not replace " + file + " with " + tmpFile);
+      channel = new RandomAccessFile(file, "rw").getChannel();
+      channel.position(channel.size());
+      records = commands.size();
+   }
+
+   /**
+    * Closes and deletes the file, whose content can't be trusted anymore once a write failed: replaying it on restart
+    * could send modifications older than the ones sent meanwhile.
+    */
+   void delete() {
+      close();
+      if (file.exists() && !file.delete()) {
+         log.tracef("Could not delete %s", path());
+      }
+   }
+
+   void close() {
+      if (channel == null)
+         return;
+      try {
+         channel.force(false);
+         channel.close();
+      } catch (IOException e) {
+         log.tracef(e, "Error closing %s", path());
+      }
+      channel = null;
+   }
+}
@@ -0,0 +1,441 @@
+package org.infinispan.xsite;
+
+import org.infinispan.commands.remote.SingleRpcCommand;
+import org.infinispan.commands.tx.PrepareCommand;
+import org.infinispan.commands.write.ClearCommand;
+import org.infinispan.commands.write.DataWriteCommand;
+import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.commons.CacheException;
+import org.infinispan.remoting.transport.BackupResponse;
+import org.infinispan.remoting.transport.Transport;
+import org.infinispan.transaction.xa.GlobalTransaction;
+import org.infinispan.transaction.xa.TransactionFactory;
+import org.infinispan.util.TimeService;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Queues the asynchronous backups of a non transactional cache to a site, and sends them in batches.
+ * <p/>
+ * The modifications of a key replace the modifications of the same key still waiting in the queue, and a clear
+ * discards all of them, so the size of the queue is bounded by the number of keys modified while the site can not be
+ * reached rather than by the number of writes. Each batch is sent as a one phase {@link PrepareCommand}, which the
+ * backup site replays in order, and the sender waits for its acknowledgement: a batch that fails goes back to the head
+ * of the queue and is retried later.
+ * <p/>
+ * While the site is offline the modifications are kept in the queue, which is drained when the site is brought back
+ * online through {@link #resume()}.
+ * <p/>
+ * If the queue has an {@link AsyncBackupLog}, the modifications are also written to it as they are queued, and the
+ * ones found in it by {@link #recover()} are queued again. What can not be sent when the cache stops is then kept in
+ * the log instead of being discarded.
+ *
+ * @since 7.0
+ */
+class AsyncBackupQueue {
+
+   private static final Log log = LogFactory.getLog(AsyncBackupQueue.class);
+
+   /**
+    * How long to wait before sending a batch which failed again.
+    */
+   static final long RETRY_DELAY_MILLIS = 1000;
+
+   // the key of a queued clear, which is always the head of the queue since it discards everything queued before it
+   private static final Object CLEAR_KEY = new Object();
+
+   private final String cacheName;
+   private final XSiteBackup backup;
+   private final int batchSize;
+   private final Transport transport;
+   private final OfflineStatus offlineStatus;
+   private final TimeService timeService;
+   private final ExecutorService executor;
+   private final ScheduledExecutorService scheduler;
+   // guarded by this, null if the queue is only kept in memory or the log could not be written
+   private AsyncBackupLog backupLog;
+
+   // guarded by this, in the order in which the modifications have to be applied
+   private final LinkedHashMap<Object, WriteCommand> pending = new LinkedHashMap<Object, WriteCommand>();
+   // guarded by this, whether the send task is running or scheduled
+   private boolean sending;
+   // guarded by this, whether the send task is sending a batch
+   private boolean inFlight;
+   // guarded by this
+   private boolean stopped;
+   // only accessed by the send task
+   private boolean failing;
+
+   private final Runnable sendTask = new Runnable() {
+      @Override
+      public void run() {
+         List<Map.Entry<Object, WriteCommand>> batch = nextBatch();
+         if (batch == null) {
+            return;
+         }
+         boolean sent = send(batch);
+         synchronized (AsyncBackupQueue.this) {
+            if (!sent) {
+               requeue(batch);
+            } else {
+               compactLog();
+            }
+            inFlight = false;
+            if (stopped) {
+               // stop() sends what is left
+               sending = false;
+               AsyncBackupQueue.this.notifyAll();
+               return;
+            }
+         }
+         resubmit(sent ? 0 : RETRY_DELAY_MILLIS);
+      }
+   };
+
+   AsyncBackupQueue(String cacheName, String siteName, long timeout, int batchSize, Transport transport,
+                    OfflineStatus offlineStatus, TimeService timeService, ExecutorService executor,
+                    ScheduledExecutorService scheduler, AsyncBackupLog backupLog) {
+      this.cacheName = cacheName;
+      // the batches are sent synchronously, so that the ones which fail can be retried
+      this.backup = new XSiteBackup(siteName, true, timeout);
+      this.batchSize = batchSize;
+      this.transport = transport;
+      this.offlineStatus = offlineStatus;
+      this.timeService = timeService;
+      this.executor = executor;
+      this.scheduler = scheduler;
+      this.backupLog = backupLog;
+   }
+
+   /**
+    * Queues the modifications found in the log, e.g. the ones which were not backed up before the cache was stopped,
+    * and starts sending them.
+    */
+   void recover() {
+      boolean schedule;
+      synchronized (this) {
+         if (backupLog == null) {
+            return;
+         }
+         try {
+            List<WriteCommand> logged = backupLog.open();
+            for (WriteCommand command : logged) {
+               enqueue(command);
+            }
+            if (backupLog.needsCompaction(pending.size())) {
+               backupLog.rewrite(pending.values());
+            }
+            log.tracef("Recovered %s modifications to back up to site %s from %s", logged.size(),
+                       backup.getSiteName(), backupLog.path());
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CacheException(e);
+         } catch (Exception e) {
+            throw new CacheException("Could not read the backup queue log " + backupLog.path(), e);
+         }
+         schedule = !pending.isEmpty() && startSending();
+      }
+      if (schedule) {
+         resubmit(0);
+      }
+   }
+
+   /**
+    * Queues a modification, without waiting for it to be sent.
+    */
+   void add(WriteCommand command) {
+      boolean schedule;
+      synchronized (this) {
+         enqueue(command);
+         if (backupLog != null) {
+            try {
+               backupLog.append(command);
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               closeLog(e);
+            } catch (IOException e) {
+               closeLog(e);
+            }
+         }
+         schedule = startSending();
+      }
+      if (schedule) {
+         resubmit(0);
+      }
+   }
+
+   // guarded by this
+   private void enqueue(WriteCommand command) {
+      if (command instanceof ClearCommand) {
+         pending.clear();
+         pending.put(CLEAR_KEY, command);
+      } else if (command instanceof DataWriteCommand) {
+         Object key = ((DataWriteCommand) command).getKey();
+         // move the key to the tail, after the modifications it must be applied after
+         pending.remove(key);
+         pending.put(key, command);
+      } else {
+         // e.g. a putAll, which is only ordered with respect to the other modifications
+         pending.put(new Object(), command);
+      }
+   }
+
+   /**
+    * Resumes sending the queued modifications, e.g. after the site was brought back online.
+    */
+   void resume() {
+      boolean schedule;
+      synchronized (this) {
+         schedule = !pending.isEmpty() && startSending();
+      }
+      if (schedule) {
+         resubmit(0);
+      }
+   }
+
+   /**
+    * Stops sending in the background. Once the batch being sent in the background, if any, is acknowledged or has
+    * failed, the modifications still queued are sent by the calling thread if the site is online. The ones which can
+    * not be sent are kept in the log if there is one, and discarded otherwise.
+    */
+   void stop() {
+      synchronized (this) {
+         stopped = true;
+         // a batch sent concurrently could be applied by the site after the ones sent below
+         while (inFlight) {
+            try {
+               wait();
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               // the log still holds everything queued
+               discardOrKeep(Collections.<Map.Entry<Object, WriteCommand>>emptyList(), false);
+               return;
+            }
+         }
+      }
+      List<Map.Entry<Object, WriteCommand>> batch;
+      while ((batch = takeBatch()) != null) {
+         if (offlineStatus.isOffline() || !send(batch)) {
+            discardOrKeep(batch, true);
+            return;
+         }
+      }
+      synchronized (this) {
+         compactLog();
+         closeLog(null);
+      }
+   }
+
+   /**
+    * Discards the modifications which could not be sent on stop, or keeps them in the log to send them on restart.
+    *
+    * @param rewrite whether the log has to be rewritten, because the batch was sent before and so may not be at the
+    *                head of the log anymore
+    */
+   private synchronized void discardOrKeep(List<Map.Entry<Object, WriteCommand>> batch, boolean rewrite) {
+      int count = batch.size() + pending.size();
+      if (backupLog != null && rewrite) {
+         List<WriteCommand> unsent = new ArrayList<WriteCommand>(count);
+         for (Map.Entry<Object, WriteCommand> entry : batch) {
+            unsent.add(entry.getValue());
+         }
+         unsent.addAll(pending.values());
+         try {
+            backupLog.rewrite(unsent);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            closeLog(e);
+         } catch (IOException e) {
+            closeLog(e);
+         }
+      }
+      if (backupLog != null) {
+         log.keepingXSiteBackupQueue(count, cacheName, backup.getSiteName(), backupLog.path());
+         closeLog(null);
+      } else {
+         log.discardingXSiteBackupQueue(count, cacheName, backup.getSiteName());
+      }
+      pending.clear();
+   }
+
+   /**
+    * Empties the log once everything queued was sent, or rewrites it if it holds mostly modifications which were sent
+    * or replaced. Must only be invoked while no batch is in flight.
+    */
+   // guarded by this
+   private void compactLog() {
+      if (backupLog == null || !pending.isEmpty() && !backupLog.needsCompaction(pending.size())) {
+         return;
+      }
+      try {
+         backupLog.rewrite(pending.values());
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         closeLog(e);
+      } catch (IOException e) {
+         closeLog(e);
+      }
+   }
+
+   /**
+    * Stops writing the queued modifications to the log.
+    *
+    * @param cause the failure to write to the log, or null if the queue was stopped
+    */
+   // guarded by this
+   private void closeLog(Exception cause) {
+      if (backupLog == null) {
+         return;
+      }
+      if (cause != null) {
+         log.failedToWriteXSiteBackupLog(backupLog.path(), backup.getSiteName(), cause);
+         backupLog.delete();
+      } else {
+         backupLog.close();
+      }
+      backupLog = null;
+   }
+
+   /**
+    * @return the number of modifications waiting to be sent, not counting the ones being sent
+    */
+   synchronized int size() {
+      return pending.size();
+   }
+
+   // guarded by this
+   private boolean startSending() {
+      if (sending || stopped || offlineStatus.isOffline()) {
+         return false;
+      }
+      sending = true;
+      return true;
+   }
+
+   private synchronized List<Map.Entry<Object, WriteCommand>> nextBatch() {
+      if (pending.isEmpty() || stopped || offlineStatus.isOffline()) {
+         // stop until the next modification, or until the site is back online
+         sending = false;
+         return null;
+      }
+      inFlight = true;
+      return takeBatch();
+   }
+
+   private synchronized List<Map.Entry<Object, WriteCommand>> takeBatch() {
+      if (pending.isEmpty()) {
+         return null;
+      }
+      List<Map.Entry<Object, WriteCommand>> batch = new ArrayList<Map.Entry<Object, WriteCommand>>(
+            Math.min(batchSize, pending.size()));
+      Iterator<Map.Entry<Object, WriteCommand>> it = pending.entrySet().iterator();
+      while (batch.size() < batchSize && it.hasNext()) {
+         Map.Entry<Object, WriteCommand> entry = it.next();
+         batch.add(new AbstractMap.SimpleImmutableEntry<Object, WriteCommand>(entry));
+         it.remove();
+      }
+      return batch;
+   }
+
+   /**
+    * Puts a batch which failed back to the head of the queue, except the modifications which were replaced while the
+    * batch was being sent.
+    */
+   // guarded by this
+   private void requeue(List<Map.Entry<Object, WriteCommand>> batch) {
+      if (pending.containsKey(CLEAR_KEY)) {
+         // cleared in the meantime, none of the batch is needed anymore
+         return;
+      }
+      LinkedHashMap<Object, WriteCommand> newer = new LinkedHashMap<Object, WriteCommand>(pending);
+      pending.clear();
+      for (Map.Entry<Object, WriteCommand> entry : batch) {
+         if (!newer.containsKey(entry.getKey())) {
+            pending.put(entry.getKey(), entry.getValue());
+         }
+      }
+      pending.putAll(newer);
+   }
+
+   private void resubmit(long delayMillis) {
+      try {
+         if (delayMillis > 0) {
+            scheduler.schedule(new Runnable() {
+               @Override
+               public void run() {
+                  resubmit(0);
+               }
+            }, delayMillis, TimeUnit.MILLISECONDS);
+         } else {
+            executor.execute(sendTask);
+         }
+      } catch (RejectedExecutionException e) {
+         // shutting down, stop() takes care of what is left
+         synchronized (this) {
+            sending = false;
+         }
+      }
+   }
+
+   /**
+    * Sends a batch to the site and waits for the acknowledgement, updating the offline status of the site.
+    *
+    * @return true if the batch was applied by the site
+    */
+   private boolean send(List<Map.Entry<Object, WriteCommand>> batch) {
+      List<WriteCommand> modifications = new ArrayList<WriteCommand>(batch.size());
+      for (Map.Entry<Object, WriteCommand> entry : batch) {
+         modifications.add(entry.getValue());
+      }
+      GlobalTransaction gtx = TransactionFactory.TxFactoryEnum.NODLD_NORECOVERY_XA.newGlobalTransaction(
+            transport.getAddress(), false, null, false);
+      PrepareCommand prepare = new PrepareCommand(cacheName, gtx, modifications, true);
+
+      Throwable failure;
+      long sendTime = NANOSECONDS.toMillis(timeService.time());
+      try {
+         BackupResponse response = transport.backupRemotely(Collections.singletonList(backup),
+                                                            new SingleRpcCommand(cacheName, prepare));
+         response.waitForBackupToFinish();
+         failure = response.getFailedBackups().get(backup.getSiteName());
+      } catch (Throwable t) {
+         failure = t;
+      }
+
+      if (failure == null) {
+         log.tracef("Sent a batch of %s modifications to site %s", modifications.size(), backup.getSiteName());
+         failing = false;
+         if (offlineStatus.isEnabled() && !offlineStatus.isOffline()) {
+            offlineStatus.reset();
+         }
+         return true;
+      }
+
+      if (!failing) {
+         log.failedToSendXSiteBackupBatch(modifications.size(), cacheName, backup.getSiteName(), failure);
+         failing = true;
+      } else {
+         log.tracef(failure, "Failed again to send a batch of %s modifications to site %s", modifications.size(),
+                    backup.getSiteName());
+      }
+      if (offlineStatus.isEnabled()) {
+         offlineStatus.updateOnCommunicationFailure(sendTime);
+      }
+      return false;
+   }
+}
@@ -14,6 +14,7 @@
 import org.infinispan.commands.write.RemoveCommand;
 import org.infinispan.commands.write.ReplaceCommand;
 import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.cache.BackupConfiguration;
@@ -23,8 +24,10 @@
 import org.infinispan.configuration.global.GlobalConfiguration;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.impl.TxInvocationContext;
+import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
+import org.infinispan.factories.annotations.Stop;
 import org.infinispan.remoting.transport.AggregateBackupResponse;
 import org.infinispan.remoting.transport.BackupResponse;
 import org.infinispan.remoting.transport.Transport;
@@ -35,12 +38,19 @@
 import org.infinispan.util.logging.LogFactory;
 
 import javax.transaction.Transaction;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.infinispan.factories.KnownComponentNames.ASYNC_TRANSPORT_EXECUTOR;
+import static org.infinispan.factories.KnownComponentNames.CACHE_MARSHALLER;
+import static org.infinispan.factories.KnownComponentNames.EVICTION_SCHEDULED_EXECUTOR;
 
 /**
  * @author Mircea Markus
@@ -57,7 +67,10 @@ public class BackupSenderImpl implements BackupSender {
    private TimeService timeService;
    private final Map<String, CustomFailurePolicy> siteFailurePolicy = new HashMap<String, CustomFailurePolicy>();
    private final ConcurrentMap<String, OfflineStatus> offlineStatus = CollectionFactory.makeConcurrentMap();
-
+   private final Map<String, AsyncBackupQueue> backupQueues = new HashMap<String, AsyncBackupQueue>();
+   private ExecutorService asyncExecutor;
+   private ScheduledExecutorService scheduledExecutor;
+   private StreamingMarshaller marshaller;
 
    private final String localSiteName;
    private String cacheName;
@@ -70,12 +83,18 @@ public BackupSenderImpl(String localSiteName) {
    }
 
    @Inject
-   public void init(Cache cache, Transport transport, TransactionTable txTable, GlobalConfiguration gc, TimeService timeService) {
+   public void init(Cache cache, Transport transport, TransactionTable txTable, GlobalConfiguration gc, TimeService timeService,
+                    @ComponentName(ASYNC_TRANSPORT_EXECUTOR) ExecutorService asyncExecutor,
+                    @ComponentName(EVICTION_SCHEDULED_EXECUTOR) ScheduledExecutorService scheduledExecutor,
+                    @ComponentName(CACHE_MARSHALLER) StreamingMarshaller marshaller) {
       this.cache = cache;
       this.transport = transport;
       this.txTable = txTable;
       this.globalConfig = gc;
       this.timeService = timeService;
+      this.asyncExecutor = asyncExecutor;
+      this.scheduledExecutor = scheduledExecutor;
+      this.marshaller = marshaller;
    }
 
    @Start
@@ -93,6 +112,23 @@ public void start() {
          }
          OfflineStatus offline = new OfflineStatus(bc.takeOffline(), timeService);
          offlineStatus.put(bc.site(), offline);
+         if (bc.isQueued() && !config.transaction().transactionMode().isTransactional()
+               && !bc.site().equals(localSiteName)) {
+            AsyncBackupLog backupLog = bc.queueLocation() == null ? null :
+                  new AsyncBackupLog(new File(bc.queueLocation()), cacheName, bc.site(), marshaller);
+            AsyncBackupQueue queue = new AsyncBackupQueue(cacheName, bc.site(), bc.replicationTimeout(),
+                                                          bc.batchSize(), transport, offline, timeService,
+                                                          asyncExecutor, scheduledExecutor, backupLog);
+            backupQueues.put(bc.site(), queue);
+            queue.recover();
+         }
+      }
+   }
+
+   @Stop
+   public void stop() {
+      for (AsyncBackupQueue queue : backupQueues.values()) {
+         queue.stop();
       }
    }
    
@@ -122,7 +158,8 @@ private void updateOfflineSites(BackupResponse backupResponse) {
       Set<String> communicationErrors = backupResponse.getCommunicationErrors();
       for (Map.Entry<String, OfflineStatus> statusEntry : offlineStatus.entrySet()) {
          OfflineStatus status = statusEntry.getValue();
-         if (!status.isEnabled()) {
+         if (!status.isEnabled() || backupQueues.containsKey(statusEntry.getKey())) {
+            // the queued sites are updated by their queue
             continue;
          }
          if (communicationErrors.contains(statusEntry.getKey())) {
@@ -136,6 +173,10 @@ private void updateOfflineSites(BackupResponse backupResponse) {
 
    @Override
    public BackupResponse backupWrite(WriteCommand command) throws Exception {
+      // the queued sites get the modification even while offline, it's sent once they are brought back online
+      for (AsyncBackupQueue queue : backupQueues.values()) {
+         queue.add(command);
+      }
       List<XSiteBackup> xSiteBackups = calculateBackupInfo(BackupFilter.KEEP_ALL);
       return backupCommand(command, xSiteBackups);
    }
@@ -165,6 +206,10 @@ public BringSiteOnlineResponse bringSiteOnline(String siteName) {
       } else {
          OfflineStatus offline = offlineStatus.get(siteName);
          boolean broughtOnline = offline.bringOnline();
+         AsyncBackupQueue queue = backupQueues.get(siteName);
+         if (queue != null) {
+            queue.resume();
+         }
          return broughtOnline ? BringSiteOnlineResponse.BROUGHT_ONLINE : BringSiteOnlineResponse.ALREADY_ONLINE;
       }
    }
@@ -232,6 +277,11 @@ private List<XSiteBackup> calculateBackupInfo(BackupFilter backupFilter) {
                continue;
          }
          
+         if (backupQueues.containsKey(bc.site())) {
+            log.tracef("The modifications for site '%s' are queued", bc.site());
+            continue;
+         }
+
          if (isOffline(bc.site())) {
             log.tracef("The site '%s' is offline, not backing up information to it", bc.site());
             continue;
@@ -318,6 +368,10 @@ public OfflineStatus getOfflineStatus(String site) {
       return offlineStatus.get(site);
    }
 
+   AsyncBackupQueue getBackupQueue(String site) {
+      return backupQueues.get(site);
+   }
+
    @Override
    public Map<String, Boolean> status() {
       Map<String, Boolean> result = new HashMap<String, Boolean>(offlineStatus.size());
@@ -18,7 +18,11 @@ public enum AdminOperation {
       STATUS,
       TAKE_OFFLINE,
       BRING_ONLINE,
-      AMEND_TAKE_OFFLINE;
+      AMEND_TAKE_OFFLINE,
+      PUSH_STATE,
+      CANCEL_PUSH_STATE,
+      PUSH_STATE_STATUS,
+      PUSH_STATE_PROGRESS;
    }
 
    public enum Status {
@@ -31,6 +35,7 @@ public enum Status {
    private AdminOperation adminOperation;
 
    private BackupSender backupSender;
+   private XSiteStateProvider stateProvider;
 
    public XSiteAdminCommand() {
       super(null);// For command id uniqueness test
@@ -48,8 +53,9 @@ public XSiteAdminCommand(String cacheName, String siteName, AdminOperation op, I
       this.minTimeToWait = minTimeToWait;
    }
 
-   public void init(BackupSender backupSender) {
+   public void init(BackupSender backupSender, XSiteStateProvider stateProvider) {
       this.backupSender = backupSender;
+      this.stateProvider = stateProvider;
    }
 
    @Override
@@ -75,6 +81,19 @@ public Object perform(InvocationContext ctx) throws Throwable {
             backupSender.getOfflineStatus(siteName).amend(afterFailures, minTimeToWait);
             return null;
          }
+         case PUSH_STATE: {
+            return stateProvider.startStatePush(siteName);
+         }
+         case CANCEL_PUSH_STATE: {
+            stateProvider.cancelStatePush(siteName);
+            return null;
+         }
+         case PUSH_STATE_STATUS: {
+            return stateProvider.getStatePushStatus(siteName);
+         }
+         case PUSH_STATE_PROGRESS: {
+            return stateProvider.getStatePushProgress(siteName);
+         }
          default: {
             throw new IllegalStateException("Unhandled admin operation " + adminOperation);
          }
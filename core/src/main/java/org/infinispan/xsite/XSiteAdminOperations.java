@@ -16,6 +16,7 @@
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Managed bean exposing sys admin operations for Cross-Site replication functionality.
@@ -36,13 +37,15 @@ public class XSiteAdminOperations {
    private Cache cache;
 
    private volatile BackupSender backupSender;
+   private XSiteStateProvider stateProvider;
 
    @Inject
-   public void init(RpcManager rpcManager, BackupSender backupSender, Cache cache) {
+   public void init(RpcManager rpcManager, BackupSender backupSender, Cache cache, XSiteStateProvider stateProvider) {
       this.backupSender = backupSender;
       this.rpcManager = rpcManager;
       this.backupSender = backupSender;
       this.cache = cache;
+      this.stateProvider = stateProvider;
    }
 
    @ManagedOperation(description = "Check whether the given backup site is offline or not.", displayName = "Check whether the given backup site is offline or not.")
@@ -215,6 +218,105 @@ public String bringSiteOnline(@Parameter(name = "site", description = "The name
       return returnFailureOrSuccess(failed, "Could not take the site online on nodes:");
    }
 
+   @ManagedOperation(description = "Pushes the state of this cache to the given backup site, from all the nodes in the cluster.", displayName = "Pushes the state of this cache to the given backup site.")
+   public String pushState(@Parameter(name = "site", description = "The name of the backup site") String site) {
+      OfflineStatus offlineStatus = backupSender.getOfflineStatus(site);
+      if (offlineStatus == null)
+         return incorrectSiteName(site);
+      List<Address> alreadyPushing = new ArrayList<Address>();
+      if (!stateProvider.startStatePush(site)) {
+         alreadyPushing.add(rpcManager.getAddress());
+      }
+
+      XSiteAdminCommand command = new XSiteAdminCommand(cache.getName(), site, XSiteAdminCommand.AdminOperation.PUSH_STATE, null, null);
+      Map<Address, Response> responses = invokeRemotely(command);
+
+      List<Address> failed = checkForErrors(responses);
+      if (!failed.isEmpty()) {
+         return rpcError(failed, "Could not start pushing the state on nodes:");
+      }
+      for (Map.Entry<Address, Response> e : responses.entrySet()) {
+         if (Boolean.FALSE.equals(((SuccessfulResponse) e.getValue()).getResponseValue())) {
+            alreadyPushing.add(e.getKey());
+         }
+      }
+      return returnFailureOrSuccess(alreadyPushing, "The state is already being pushed on nodes:");
+   }
+
+   @ManagedOperation(description = "Cancels the push of the state of this cache to the given backup site, on all the nodes in the cluster.", displayName = "Cancels the push of the state of this cache to the given backup site.")
+   public String cancelPushState(@Parameter(name = "site", description = "The name of the backup site") String site) {
+      OfflineStatus offlineStatus = backupSender.getOfflineStatus(site);
+      if (offlineStatus == null)
+         return incorrectSiteName(site);
+      stateProvider.cancelStatePush(site);
+
+      XSiteAdminCommand command = new XSiteAdminCommand(cache.getName(), site, XSiteAdminCommand.AdminOperation.CANCEL_PUSH_STATE, null, null);
+      Map<Address, Response> responses = invokeRemotely(command);
+
+      List<Address> failed = checkForErrors(responses);
+
+      return returnFailureOrSuccess(failed, "Could not cancel the push of the state on nodes:");
+   }
+
+   @ManagedOperation(description = "Returns the status of the push of the state of this cache to the given backup site.", displayName = "Returns the status of the push of the state of this cache to the given backup site.")
+   public String pushStateStatus(@Parameter(name = "site", description = "The name of the backup site") String site) {
+      OfflineStatus offlineStatus = backupSender.getOfflineStatus(site);
+      if (offlineStatus == null)
+         return incorrectSiteName(site);
+
+      XSiteAdminCommand command = new XSiteAdminCommand(cache.getName(), site, XSiteAdminCommand.AdminOperation.PUSH_STATE_STATUS, null, null);
+      Map<Address, Response> responses = invokeRemotely(command);
+      List<Address> failed = checkForErrors(responses);
+      if (!failed.isEmpty()) {
+         return rpcError(failed, "Could not query nodes ");
+      }
+
+      //<status, nodes in that status>
+      Map<XSiteStateProvider.PushStatus, List<Address>> result = new TreeMap<XSiteStateProvider.PushStatus, List<Address>>();
+      addNode(result, stateProvider.getStatePushStatus(site), rpcManager.getAddress());
+      for (Map.Entry<Address, Response> e : responses.entrySet()) {
+         addNode(result, (XSiteStateProvider.PushStatus) ((SuccessfulResponse) e.getValue()).getResponseValue(), e.getKey());
+      }
+      if (result.size() == 1) {
+         return result.keySet().iterator().next().toString();
+      }
+      return "Status per node: " + result;
+   }
+
+   @ManagedOperation(description = "Returns the number of entries of each segment pushed to the given backup site, by all the nodes in the cluster.", displayName = "Returns the number of entries of each segment pushed to the given backup site.")
+   public String pushStateProgress(@Parameter(name = "site", description = "The name of the backup site") String site) {
+      OfflineStatus offlineStatus = backupSender.getOfflineStatus(site);
+      if (offlineStatus == null)
+         return incorrectSiteName(site);
+
+      XSiteAdminCommand command = new XSiteAdminCommand(cache.getName(), site, XSiteAdminCommand.AdminOperation.PUSH_STATE_PROGRESS, null, null);
+      Map<Address, Response> responses = invokeRemotely(command);
+      List<Address> failed = checkForErrors(responses);
+      if (!failed.isEmpty()) {
+         return rpcError(failed, "Could not query nodes ");
+      }
+
+      //<segment, entries pushed>, each segment is pushed by its primary owner only
+      Map<Integer, Long> result = new TreeMap<Integer, Long>(stateProvider.getStatePushProgress(site));
+      for (Map.Entry<Address, Response> e : responses.entrySet()) {
+         Map<Integer, Long> progress = (Map<Integer, Long>) ((SuccessfulResponse) e.getValue()).getResponseValue();
+         for (Map.Entry<Integer, Long> entry : progress.entrySet()) {
+            Long pushed = result.get(entry.getKey());
+            result.put(entry.getKey(), pushed == null ? entry.getValue() : pushed + entry.getValue());
+         }
+      }
+      return result.toString();
+   }
+
+   private void addNode(Map<XSiteStateProvider.PushStatus, List<Address>> result, XSiteStateProvider.PushStatus status, Address address) {
+      List<Address> addresses = result.get(status);
+      if (addresses == null) {
+         addresses = new ArrayList<Address>();
+         result.put(status, addresses);
+      }
+      addresses.add(address);
+   }
+
    private List<Address> checkForErrors(Map<Address, Response> responses) {
       List<Address> failed = new ArrayList<Address>(responses.size());
       for (Map.Entry<Address, Response> e : responses.entrySet()) {
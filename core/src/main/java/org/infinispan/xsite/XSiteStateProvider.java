@@ -0,0 +1,49 @@
+package org.infinispan.xsite;
+
+import java.util.Map;
+
+/**
+ * Pushes the state of a cache to a backup site, e.g. to bring the site up to date after it was offline.
+ * <p/>
+ * Each node pushes the segments it is the primary owner of, so the push has to be started on all the nodes of the
+ * cluster, which {@link XSiteAdminOperations#pushState(String)} does.
+ *
+ * @since 7.0
+ */
+public interface XSiteStateProvider {
+
+   enum PushStatus {
+      /**
+       * The state was never pushed to the site.
+       */
+      NONE,
+      IN_PROGRESS,
+      COMPLETED,
+      FAILED,
+      CANCELLED
+   }
+
+   /**
+    * Starts pushing the entries of the segments owned by this node to the given site, in the background.
+    *
+    * @return false if a push to the site is already in progress
+    * @throws IllegalArgumentException if the site is not a backup site of the cache
+    */
+   boolean startStatePush(String siteName);
+
+   /**
+    * Cancels the push to the given site, if one is in progress.
+    */
+   void cancelStatePush(String siteName);
+
+   /**
+    * @return the status of the last push to the given site
+    */
+   PushStatus getStatePushStatus(String siteName);
+
+   /**
+    * @return the number of entries acknowledged by the site, for each segment pushed by this node during the last
+    *         push to the given site
+    */
+   Map<Integer, Long> getStatePushProgress(String siteName);
+}
@@ -0,0 +1,153 @@
+package org.infinispan.xsite;
+
+import org.infinispan.Cache;
+import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commons.util.CollectionFactory;
+import org.infinispan.commons.util.InfinispanCollections;
+import org.infinispan.configuration.cache.BackupConfiguration;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.InternalEntryFactory;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.factories.annotations.ComponentName;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Stop;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.remoting.transport.Transport;
+import org.infinispan.statetransfer.StateTransferManager;
+import org.infinispan.topology.CacheTopology;
+import org.infinispan.util.TimeService;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+
+import static org.infinispan.factories.KnownComponentNames.ASYNC_TRANSPORT_EXECUTOR;
+import static org.infinispan.factories.KnownComponentNames.STATE_TRANSFER_EXECUTOR;
+
+/**
+ * Pushes the segments this node is the primary owner of in the read consistent hash, using the state transfer chunk
+ * size and number of in-flight chunks of the cache.
+ *
+ * @since 7.0
+ */
+public class XSiteStateProviderImpl implements XSiteStateProvider {
+
+   private static final Log log = LogFactory.getLog(XSiteStateProviderImpl.class);
+
+   private Cache cache;
+   private Configuration configuration;
+   private Transport transport;
+   private DataContainer dataContainer;
+   private PersistenceManager persistenceManager;
+   private InternalEntryFactory entryFactory;
+   private CommandsFactory commandsFactory;
+   private StateTransferManager stateTransferManager;
+   private TimeService timeService;
+   private ExecutorService asyncExecutor;
+   private ExecutorService stateTransferExecutor;
+
+   private final ConcurrentMap<String, XSiteStatePushTask> pushTasks = CollectionFactory.makeConcurrentMap();
+
+   @Inject
+   public void init(Cache cache, Configuration configuration, Transport transport, DataContainer dataContainer,
+                    PersistenceManager persistenceManager, InternalEntryFactory entryFactory,
+                    CommandsFactory commandsFactory, StateTransferManager stateTransferManager,
+                    TimeService timeService,
+                    @ComponentName(ASYNC_TRANSPORT_EXECUTOR) ExecutorService asyncExecutor,
+                    @ComponentName(STATE_TRANSFER_EXECUTOR) ExecutorService stateTransferExecutor) {
+      this.cache = cache;
+      this.configuration = configuration;
+      this.transport = transport;
+      this.dataContainer = dataContainer;
+      this.persistenceManager = persistenceManager;
+      this.entryFactory = entryFactory;
+      this.commandsFactory = commandsFactory;
+      this.stateTransferManager = stateTransferManager;
+      this.timeService = timeService;
+      this.asyncExecutor = asyncExecutor;
+      this.stateTransferExecutor = stateTransferExecutor;
+   }
+
+   @Stop
+   public void stop() {
+      for (XSiteStatePushTask task : pushTasks.values()) {
+         task.cancel();
+      }
+   }
+
+   @Override
+   public synchronized boolean startStatePush(String siteName) {
+      BackupConfiguration backupConfiguration = getBackupConfiguration(siteName);
+      if (backupConfiguration == null) {
+         throw new IllegalArgumentException("Site " + siteName + " is not a backup site of cache " + cache.getName());
+      }
+      XSiteStatePushTask running = pushTasks.get(siteName);
+      if (running != null && running.getStatus() == PushStatus.IN_PROGRESS) {
+         return false;
+      }
+
+      CacheTopology cacheTopology = stateTransferManager == null ? null : stateTransferManager.getCacheTopology();
+      ConsistentHash readCh = cacheTopology == null ? null : cacheTopology.getReadConsistentHash();
+      Set<Integer> segments;
+      if (readCh == null) {
+         segments = Collections.singleton(0);
+      } else {
+         segments = new HashSet<Integer>();
+         Address localAddress = transport.getAddress();
+         for (int segmentId = 0; segmentId < readCh.getNumSegments(); segmentId++) {
+            if (localAddress.equals(readCh.locatePrimaryOwnerForSegment(segmentId))) {
+               segments.add(segmentId);
+            }
+         }
+      }
+
+      int chunkSize = configuration.clustering().stateTransfer().chunkSize();
+      XSiteStatePushTask task = new XSiteStatePushTask(cache.getName(), siteName,
+                                                       backupConfiguration.replicationTimeout(), segments, readCh,
+                                                       chunkSize > 0 ? chunkSize : Integer.MAX_VALUE,
+                                                       configuration.clustering().stateTransfer().maxInFlightChunks(),
+                                                       dataContainer, persistenceManager, entryFactory,
+                                                       commandsFactory, transport, timeService,
+                                                       stateTransferExecutor, asyncExecutor);
+      log.tracef("Starting %s", task);
+      pushTasks.put(siteName, task);
+      task.execute(asyncExecutor);
+      return true;
+   }
+
+   @Override
+   public void cancelStatePush(String siteName) {
+      XSiteStatePushTask task = pushTasks.get(siteName);
+      if (task != null) {
+         task.cancel();
+      }
+   }
+
+   @Override
+   public PushStatus getStatePushStatus(String siteName) {
+      XSiteStatePushTask task = pushTasks.get(siteName);
+      return task == null ? PushStatus.NONE : task.getStatus();
+   }
+
+   @Override
+   public Map<Integer, Long> getStatePushProgress(String siteName) {
+      XSiteStatePushTask task = pushTasks.get(siteName);
+      return task == null ? InfinispanCollections.<Integer, Long>emptyMap() : task.getProgress();
+   }
+
+   private BackupConfiguration getBackupConfiguration(String siteName) {
+      for (BackupConfiguration bc : configuration.sites().enabledBackups()) {
+         if (bc.site().equals(siteName)) {
+            return bc;
+         }
+      }
+      return null;
+   }
+}
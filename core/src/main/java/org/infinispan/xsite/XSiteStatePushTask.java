@@ -0,0 +1,376 @@
+package org.infinispan.xsite;
+
+import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commands.remote.SingleRpcCommand;
+import org.infinispan.commands.tx.PrepareCommand;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.commons.util.CollectionFactory;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.InternalEntryFactory;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.remoting.transport.BackupResponse;
+import org.infinispan.remoting.transport.Transport;
+import org.infinispan.statetransfer.SegmentEntriesReader;
+import org.infinispan.transaction.xa.GlobalTransaction;
+import org.infinispan.transaction.xa.TransactionFactory;
+import org.infinispan.util.TimeService;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes the entries of some segments to a backup site. Instances are created and managed by {@link
+ * XSiteStateProviderImpl}, there is at most one running task per site.
+ * <p/>
+ * The segments are read by a {@link SegmentEntriesReader}, in parallel when the data container is segmented, using the
+ * state transfer executor. The entries are accumulated per segment and each chunk is sent as a one phase
+ * {@link PrepareCommand} of puts, which the {@link BackupReceiver} of the site replays. The lifespan and the max idle
+ * time of the puts are what is left of them, so the entries expire on the site at the same time as here. Chunks are sent synchronously
+ * but acknowledged in the background: a credit is taken for each chunk and returned when the site acknowledges it, so
+ * at most {@code maxInFlightChunks} are waiting for acknowledgement.
+ * <p/>
+ * The task does not track the writes done while it is running, so a key written concurrently may be overwritten on
+ * the site by the value read before the write. The push should therefore be started once the site is back online, and
+ * the keys written meanwhile are backed up again by the next write.
+ *
+ * @since 7.0
+ */
+class XSiteStatePushTask implements Runnable {
+
+   private static final Log log = LogFactory.getLog(XSiteStatePushTask.class);
+
+   private final boolean trace = log.isTraceEnabled();
+
+   private final String cacheName;
+
+   private final XSiteBackup backup;
+
+   private final Set<Integer> segments;
+
+   /**
+    * The consistent hash used to find the segment of the keys, or null if the cache is not partitioned in segments,
+    * in which case all the entries belong to segment 0.
+    */
+   private final ConsistentHash readCh;
+
+   private final int chunkSize;
+
+   private final DataContainer dataContainer;
+
+   private final PersistenceManager persistenceManager;
+
+   private final InternalEntryFactory entryFactory;
+
+   private final CommandsFactory commandsFactory;
+
+   private final Transport transport;
+
+   private final TimeService timeService;
+
+   /**
+    * Runs the segment tasks and the cache store iteration.
+    */
+   private final Executor stateTransferExecutor;
+
+   /**
+    * Waits for the acknowledgements of the chunks.
+    */
+   private final Executor ackExecutor;
+
+   private final int maxInFlightChunks;
+
+   /**
+    * One credit per chunk that may be waiting for acknowledgement from the site.
+    */
+   private final Semaphore credits;
+
+   /**
+    * Guards entriesBySegment, which is updated by all the threads reading the segments.
+    */
+   private final Object chunkLock = new Object();
+
+   private final Map<Integer, List<WriteCommand>> entriesBySegment = new HashMap<Integer, List<WriteCommand>>();
+
+   /**
+    * The number of entries of each segment acknowledged by the site.
+    */
+   private final ConcurrentMap<Integer, AtomicLong> pushedEntries = CollectionFactory.makeConcurrentMap();
+
+   private final AtomicBoolean failed = new AtomicBoolean();
+
+   private volatile XSiteStateProvider.PushStatus status = XSiteStateProvider.PushStatus.IN_PROGRESS;
+
+   /**
+    * The Future obtained from submitting this task to an executor service. This is used for cancellation.
+    */
+   private FutureTask<Void> runnableFuture;
+
+   XSiteStatePushTask(String cacheName, String siteName, long timeout, Set<Integer> segments, ConsistentHash readCh,
+                      int chunkSize, int maxInFlightChunks, DataContainer dataContainer,
+                      PersistenceManager persistenceManager, InternalEntryFactory entryFactory,
+                      CommandsFactory commandsFactory, Transport transport, TimeService timeService,
+                      Executor stateTransferExecutor, Executor ackExecutor) {
+      if (chunkSize <= 0) {
+         throw new IllegalArgumentException("chunkSize must be greater than 0");
+      }
+      if (maxInFlightChunks <= 0) {
+         throw new IllegalArgumentException("maxInFlightChunks must be greater than 0");
+      }
+      this.cacheName = cacheName;
+      // the chunks are sent synchronously, so that they are acknowledged by the site
+      this.backup = new XSiteBackup(siteName, true, timeout);
+      this.segments = segments;
+      this.readCh = readCh;
+      this.chunkSize = chunkSize;
+      this.maxInFlightChunks = maxInFlightChunks;
+      this.credits = new Semaphore(maxInFlightChunks);
+      this.dataContainer = dataContainer;
+      this.persistenceManager = persistenceManager;
+      this.entryFactory = entryFactory;
+      this.commandsFactory = commandsFactory;
+      this.transport = transport;
+      this.timeService = timeService;
+      this.stateTransferExecutor = stateTransferExecutor;
+      this.ackExecutor = ackExecutor;
+      for (int segmentId : segments) {
+         pushedEntries.put(segmentId, new AtomicLong());
+      }
+   }
+
+   void execute(ExecutorService executorService) {
+      if (runnableFuture != null) {
+         throw new IllegalStateException("This task was already submitted");
+      }
+      runnableFuture = new FutureTask<Void>(this, null) {
+         @Override
+         protected void done() {
+            if (isCancelled()) {
+               // the task may have been cancelled before it started running
+               status = XSiteStateProvider.PushStatus.CANCELLED;
+            }
+         }
+      };
+      executorService.submit(runnableFuture);
+   }
+
+   @Override
+   public void run() {
+      if (trace) {
+         log.tracef("Pushing segments %s of cache %s to site %s", segments, cacheName, backup.getSiteName());
+      }
+      try {
+         new SegmentEntriesReader(segments, readCh, dataContainer, persistenceManager, entryFactory,
+                                  stateTransferExecutor, true).read(new SegmentEntriesReader.EntryVisitor() {
+            @Override
+            public boolean isStopped() {
+               return XSiteStatePushTask.this.isStopped();
+            }
+
+            @Override
+            public void visit(InternalCacheEntry ice, int segmentId) throws InterruptedException {
+               long now = timeService.wallClockTime();
+               if (!ice.isExpired(now)) {
+                  pushEntry(ice, segmentId, now);
+               }
+            }
+         });
+
+         // push what is left of all the segments
+         if (!isStopped()) {
+            Map<Integer, List<WriteCommand>> lastChunks;
+            synchronized (chunkLock) {
+               lastChunks = new HashMap<Integer, List<WriteCommand>>(entriesBySegment);
+               entriesBySegment.clear();
+            }
+            for (Map.Entry<Integer, List<WriteCommand>> e : lastChunks.entrySet()) {
+               if (!e.getValue().isEmpty()) {
+                  sendChunk(e.getKey(), e.getValue());
+               }
+            }
+         }
+
+         // the push is complete only when the site has acknowledged all the chunks
+         credits.acquire(maxInFlightChunks);
+         credits.release(maxInFlightChunks);
+      } catch (Throwable t) {
+         // cancelling the push interrupts it, which is not a failure
+         if (!isCancelled()) {
+            onFailure(t);
+         }
+      }
+
+      if (isCancelled()) {
+         status = XSiteStateProvider.PushStatus.CANCELLED;
+      } else if (failed.get()) {
+         status = XSiteStateProvider.PushStatus.FAILED;
+      } else {
+         status = XSiteStateProvider.PushStatus.COMPLETED;
+      }
+      if (trace) {
+         log.tracef("Push of segments %s of cache %s to site %s is %s: %s", segments, cacheName, backup.getSiteName(),
+                    status, pushedEntries);
+      }
+   }
+
+   /**
+    * Adds an entry to the current chunk of its segment and sends the chunk if it is full. Invoked concurrently by the
+    * segment tasks and by the cache store iteration.
+    */
+   private void pushEntry(InternalCacheEntry ice, int segmentId, long now) throws InterruptedException {
+      PutKeyValueCommand put = commandsFactory.buildPutKeyValueCommand(ice.getKey(), ice.getValue(),
+                                                                       remainingMetadata(ice, now), null);
+      List<WriteCommand> chunk = null;
+      synchronized (chunkLock) {
+         List<WriteCommand> entries = entriesBySegment.get(segmentId);
+         if (entries == null) {
+            entries = new ArrayList<WriteCommand>();
+            entriesBySegment.put(segmentId, entries);
+         }
+         entries.add(put);
+         if (entries.size() >= chunkSize) {
+            chunk = entries;
+            entriesBySegment.remove(segmentId);
+         }
+      }
+      if (chunk != null) {
+         sendChunk(segmentId, chunk);
+      }
+   }
+
+   /**
+    * The site replays the entries as new writes, so their lifespan and max idle time are shortened by the time already
+    * elapsed, to expire them on the site when they expire here.
+    */
+   private static Metadata remainingMetadata(InternalCacheEntry ice, long now) {
+      Metadata metadata = ice.getMetadata();
+      long lifespan = ice.getLifespan();
+      long maxIdle = ice.getMaxIdle();
+      boolean expiresByLifespan = lifespan > -1 && ice.getCreated() > -1;
+      boolean expiresByIdle = maxIdle > -1 && ice.getLastUsed() > -1;
+      if (!expiresByLifespan && !expiresByIdle) {
+         return metadata;
+      }
+      Metadata.Builder builder = metadata.builder();
+      if (expiresByLifespan) {
+         // never 0, the entry was not expired when it was read
+         builder.lifespan(Math.max(1, ice.getCreated() + lifespan - now));
+      }
+      if (expiresByIdle) {
+         builder.maxIdle(Math.max(1, ice.getLastUsed() + maxIdle - now));
+      }
+      return builder.build();
+   }
+
+   private void sendChunk(final int segmentId, final List<WriteCommand> modifications) throws InterruptedException {
+      GlobalTransaction gtx = TransactionFactory.TxFactoryEnum.NODLD_NORECOVERY_XA.newGlobalTransaction(
+            transport.getAddress(), false, null, false);
+      PrepareCommand prepare = new PrepareCommand(cacheName, gtx, modifications, true);
+
+      credits.acquire();
+      final BackupResponse response;
+      try {
+         response = transport.backupRemotely(Collections.singletonList(backup), new SingleRpcCommand(cacheName, prepare));
+      } catch (Throwable t) {
+         credits.release();
+         onFailure(t);
+         return;
+      }
+      try {
+         ackExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+               try {
+                  response.waitForBackupToFinish();
+                  Throwable failure = response.getFailedBackups().get(backup.getSiteName());
+                  if (failure == null) {
+                     pushedEntries.get(segmentId).addAndGet(modifications.size());
+                  } else {
+                     onFailure(failure);
+                  }
+               } catch (Throwable t) {
+                  onFailure(t);
+               } finally {
+                  credits.release();
+               }
+            }
+         });
+      } catch (RejectedExecutionException e) {
+         credits.release();
+         onFailure(e);
+      }
+   }
+
+   /**
+    * Stops the push after the first chunk which could not be sent. Since the puts are idempotent, the push can simply
+    * be started again.
+    */
+   private void onFailure(Throwable t) {
+      if (failed.compareAndSet(false, true)) {
+         log.failedToPushXSiteState(cacheName, backup.getSiteName(), t);
+      } else if (trace) {
+         log.tracef(t, "Failed to push the state of cache %s to site %s", cacheName, backup.getSiteName());
+      }
+   }
+
+   private boolean isStopped() {
+      return failed.get() || isCancelled();
+   }
+
+   /**
+    * Cancel the whole task.
+    */
+   void cancel() {
+      if (runnableFuture != null && !runnableFuture.isCancelled()) {
+         runnableFuture.cancel(true);
+      }
+   }
+
+   boolean isCancelled() {
+      return runnableFuture != null && runnableFuture.isCancelled();
+   }
+
+   XSiteStateProvider.PushStatus getStatus() {
+      return status;
+   }
+
+   /**
+    * @return the number of entries of each segment acknowledged by the site so far
+    */
+   Map<Integer, Long> getProgress() {
+      Map<Integer, Long> progress = new HashMap<Integer, Long>(pushedEntries.size());
+      for (Map.Entry<Integer, AtomicLong> e : pushedEntries.entrySet()) {
+         progress.put(e.getKey(), e.getValue().get());
+      }
+      return progress;
+   }
+
+   @Override
+   public String toString() {
+      return "XSiteStatePushTask{" +
+            "site=" + backup.getSiteName() +
+            ", segments=" + segments +
+            ", chunkSize=" + chunkSize +
+            ", maxInFlightChunks=" + maxInFlightChunks +
+            ", status=" + status +
+            ", cacheName='" + cacheName + '\'' +
+            '}';
+   }
+}
@@ -0,0 +1,88 @@
+package org.infinispan.container;
+
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.hash.MurmurHash3;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.TestAddress;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.distribution.ch.DefaultConsistentHashFactory;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.remoting.transport.Address;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+@Test(groups = "unit", testName = "container.DefaultSegmentedDataContainerTest")
+public class DefaultSegmentedDataContainerTest extends SimpleDataContainerTest {
+
+   private static final int NUM_SEGMENTS = 8;
+
+   private ConsistentHash ch;
+
+   @Override
+   protected DataContainer createContainer() {
+      ch = new DefaultConsistentHashFactory().create(new MurmurHash3(), 1, NUM_SEGMENTS,
+            Collections.<Address>singletonList(new TestAddress(0)), null);
+      DefaultSegmentedDataContainer dc = new DefaultSegmentedDataContainer(16, ch,
+            AnyEquivalence.getInstance(), AnyEquivalence.getInstance());
+      InternalEntryFactoryImpl internalEntryFactory = new InternalEntryFactoryImpl();
+      internalEntryFactory.injectTimeService(TIME_SERVICE);
+      dc.initialize(null, null, internalEntryFactory, null, null, TIME_SERVICE);
+      return dc;
+   }
+
+   public void testEntriesAreSegmented() {
+      SegmentedDataContainer sdc = (SegmentedDataContainer) dc;
+      assertEquals(NUM_SEGMENTS, sdc.getNumSegments());
+
+      for (int i = 0; i < 100; i++) {
+         dc.put("k" + i, "v" + i, new EmbeddedMetadata.Builder().build());
+      }
+
+      int total = 0;
+      Set<Object> seen = new HashSet<Object>();
+      for (int segment = 0; segment < NUM_SEGMENTS; segment++) {
+         int count = 0;
+         for (InternalCacheEntry ice : sdc.entriesInSegment(segment)) {
+            assertEquals(segment, ch.getSegment(ice.getKey()));
+            assertEquals(segment, sdc.getSegment(ice.getKey()));
+            assertTrue(seen.add(ice.getKey()));
+            count++;
+         }
+         assertEquals(count, sdc.sizeOfSegment(segment));
+         total += count;
+      }
+      assertEquals(100, total);
+      assertEquals(100, dc.size());
+   }
+
+   public void testClearSegment() {
+      SegmentedDataContainer sdc = (SegmentedDataContainer) dc;
+      for (int i = 0; i < 100; i++) {
+         dc.put("k" + i, "v" + i, new EmbeddedMetadata.Builder().build());
+      }
+
+      int segment = sdc.getSegment("k0");
+      int segmentSize = sdc.sizeOfSegment(segment);
+      sdc.clearSegment(segment);
+
+      assertEquals(0, sdc.sizeOfSegment(segment));
+      assertFalse(sdc.entriesInSegment(segment).iterator().hasNext());
+      assertEquals(100 - segmentSize, dc.size());
+      for (int i = 0; i < 100; i++) {
+         String key = "k" + i;
+         if (sdc.getSegment(key) == segment) {
+            assertNull(dc.get(key));
+         } else {
+            assertEquals("v" + i, dc.get(key).getValue());
+         }
+      }
+   }
+}
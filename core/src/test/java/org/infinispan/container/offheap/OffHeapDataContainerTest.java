@@ -0,0 +1,84 @@
+package org.infinispan.container.offheap;
+
+import org.infinispan.commons.CacheException;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.versioning.NumericVersion;
+import org.infinispan.eviction.EvictionStrategy;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the {@link OffHeapDataContainer} through a cache bounded by number of entries.
+ *
+ * @since 7.0
+ */
+@Test(groups = "functional", testName = "container.offheap.OffHeapDataContainerTest")
+public class OffHeapDataContainerTest extends SingleCacheManagerTest {
+
+   private static final int MAX_ENTRIES = 64;
+   private static final int SLAB_SIZE = 4096;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.dataContainer().dataContainer(new OffHeapDataContainer(-1, SLAB_SIZE))
+            .eviction().strategy(EvictionStrategy.LRU).maxEntries(MAX_ENTRIES)
+            .locking().concurrencyLevel(1);
+      return TestCacheManagerFactory.createCacheManager(builder);
+   }
+
+   public void testByteArrayEntries() {
+      byte[] key = {1, 2, 3};
+      cache.put(key, new byte[]{4, 5, 6});
+      assertTrue(Arrays.equals(new byte[]{4, 5, 6}, (byte[]) cache.get(new byte[]{1, 2, 3})));
+      cache.remove(new byte[]{1, 2, 3});
+      assertNull(cache.get(key));
+   }
+
+   public void testMarshalledEntries() {
+      cache.put("k", "v");
+      assertEquals("v", cache.get("k"));
+      cache.put("k", "v2");
+      assertEquals("v2", cache.get("k"));
+      assertEquals(1, cache.size());
+      assertEquals("k", cache.keySet().iterator().next());
+   }
+
+   public void testMetadata() {
+      DataContainer container = cache.getAdvancedCache().getDataContainer();
+      container.put("k", "v", new EmbeddedMetadata.Builder()
+            .lifespan(1, TimeUnit.MINUTES).maxIdle(30, TimeUnit.SECONDS).version(new NumericVersion(7)).build());
+      InternalCacheEntry entry = container.peek("k");
+      assertEquals(TimeUnit.MINUTES.toMillis(1), entry.getLifespan());
+      assertEquals(TimeUnit.SECONDS.toMillis(30), entry.getMaxIdle());
+      assertEquals(7, ((NumericVersion) entry.getMetadata().version()).getVersion());
+      assertTrue(entry.getCreated() > 0);
+   }
+
+   public void testEviction() {
+      for (int i = 0; i < MAX_ENTRIES * 2; i++)
+         cache.put("k" + i, "v" + i);
+      assertEquals(MAX_ENTRIES, cache.getAdvancedCache().getDataContainer().size());
+      assertFalse(cache.getAdvancedCache().getDataContainer().containsKey("k0"));
+      assertTrue(cache.getAdvancedCache().getDataContainer().containsKey("k" + (MAX_ENTRIES * 2 - 1)));
+   }
+
+   @Test(expectedExceptions = CacheException.class)
+   public void testEntryLargerThanSlab() {
+      cache.put("k", new byte[SLAB_SIZE]);
+   }
+
+}
@@ -0,0 +1,145 @@
+package org.infinispan.distexec.mapreduce;
+
+import org.infinispan.Cache;
+import org.infinispan.distexec.mapreduce.BaseWordCountMapReduceTest.WordCountMapper;
+import org.infinispan.distexec.mapreduce.BaseWordCountMapReduceTest.WordCountReducer;
+import org.infinispan.distexec.mapreduce.spi.MapReduceTaskLifecycle;
+import org.infinispan.distexec.mapreduce.spi.MapReduceTaskLifecycleService;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that the combiner of a task, which the mapping threads invoke eagerly on the values of hot keys, is copied for
+ * each mapping thread, so that no instance is invoked concurrently, and that each instance gets a single lifecycle
+ * callback pair and is started before it is invoked.
+ *
+ * @since 7.0
+ */
+@Test(groups = "functional", testName = "distexec.mapreduce.CombinerLifecycleMapReduceTest")
+public class CombinerLifecycleMapReduceTest extends SingleCacheManagerTest {
+
+   private static final int NUM_ENTRIES = 500;
+   private static final int WORDS_PER_ENTRY = 10;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      return TestCacheManagerFactory.createCacheManager(false);
+   }
+
+   @SuppressWarnings("unchecked")
+   public void testEagerCombineLifecycle() throws Exception {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < WORDS_PER_ENTRY; i++) {
+         sb.append("hot ");
+      }
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         cache.put("k" + i, sb.toString() + "cold" + i);
+      }
+
+      CountingLifecycle lifecycle = new CountingLifecycle();
+      List<MapReduceTaskLifecycle> lifecycles = (List<MapReduceTaskLifecycle>) TestingUtil.extractField(
+            MapReduceTaskLifecycleService.getInstance(), "lifecycles");
+      lifecycles.add(lifecycle);
+      try {
+         MapReduceTask<String, String, String, Integer> task = new MapReduceTask<String, String, String, Integer>(
+               (Cache) cache);
+         task.mappedWith(new WordCountMapper()).combinedWith(new CheckingCombiner())
+               .reducedWith(new WordCountReducer());
+         Map<String, Integer> result = task.execute();
+
+         assertEquals(NUM_ENTRIES * WORDS_PER_ENTRY, result.get("hot").intValue());
+         assertEquals(1, result.get("cold0").intValue());
+      } finally {
+         lifecycles.remove(lifecycle);
+      }
+
+      // the values of the hot key were combined eagerly, before the combine phase
+      assertTrue(CheckingCombiner.invocations.get() > 1);
+      assertFalse(CheckingCombiner.concurrentInvocation.get());
+      assertFalse(CheckingCombiner.invocationBeforeStart.get());
+      // the combiner of the task and its copies
+      assertTrue(lifecycle.combinerPreExecute.get() > 1);
+      assertEquals(lifecycle.combinerPreExecute.get(), lifecycle.combinerPostExecute.get());
+      assertEquals(lifecycle.combinerPreExecute.get(), CheckingCombiner.started.size());
+   }
+
+   static class CheckingCombiner implements Reducer<String, Integer> {
+      /** The serialVersionUID */
+      private static final long serialVersionUID = 2938447127382624117L;
+
+      // the combiner is cloned before it is invoked
+      static final AtomicInteger invocations = new AtomicInteger();
+      static final AtomicBoolean concurrentInvocation = new AtomicBoolean();
+      static final AtomicBoolean invocationBeforeStart = new AtomicBoolean();
+      static final Set<CheckingCombiner> started = Collections.synchronizedSet(
+            Collections.newSetFromMap(new IdentityHashMap<CheckingCombiner, Boolean>()));
+
+      private final AtomicInteger active = new AtomicInteger();
+
+      @Override
+      public Integer reduce(String reducedKey, Iterator<Integer> iter) {
+         if (active.incrementAndGet() > 1) {
+            concurrentInvocation.set(true);
+         }
+         if (!started.contains(this)) {
+            invocationBeforeStart.set(true);
+         }
+         try {
+            if ("hot".equals(reducedKey)) {
+               invocations.incrementAndGet();
+            }
+            int sum = 0;
+            while (iter.hasNext()) {
+               sum += iter.next();
+            }
+            return sum;
+         } finally {
+            active.decrementAndGet();
+         }
+      }
+   }
+
+   static class CountingLifecycle implements MapReduceTaskLifecycle {
+      final AtomicInteger combinerPreExecute = new AtomicInteger();
+      final AtomicInteger combinerPostExecute = new AtomicInteger();
+
+      @Override
+      public <KIn, VIn, KOut, VOut> void onPreExecute(Mapper<KIn, VIn, KOut, VOut> mapper, Cache<KIn, VIn> inputCache) {
+      }
+
+      @Override
+      public <KIn, VIn, KOut, VOut> void onPostExecute(Mapper<KIn, VIn, KOut, VOut> mapper) {
+      }
+
+      @Override
+      public <KOut, VOut> void onPreExecute(Reducer<KOut, VOut> reducer, Cache<?, ?> inputCache) {
+         if (reducer instanceof CheckingCombiner) {
+            combinerPreExecute.incrementAndGet();
+            CheckingCombiner.started.add((CheckingCombiner) reducer);
+         }
+      }
+
+      @Override
+      public <KOut, VOut> void onPostExecute(Reducer<KOut, VOut> reducer) {
+         if (reducer instanceof CheckingCombiner) {
+            combinerPostExecute.incrementAndGet();
+         }
+      }
+   }
+}
@@ -0,0 +1,20 @@
+package org.infinispan.distexec.mapreduce;
+
+import org.infinispan.Cache;
+import org.testng.annotations.Test;
+
+/**
+ * LocalSpillingMapReduceTest tests Map/Reduce functionality on a local cache with a spill threshold small enough
+ * for the intermediate results to be spilled to disk, and reduced straight from the spilled runs
+ *
+ * @since 7.0
+ */
+@Test(groups = "functional", testName = "distexec.mapreduce.LocalSpillingMapReduceTest")
+public class LocalSpillingMapReduceTest extends LocalMapReduceTest {
+
+   @SuppressWarnings({ "rawtypes", "unchecked" })
+   @Override
+   protected MapReduceTask<String, String, String, Integer> createMapReduceTask(Cache c){
+      return new MapReduceTask<String, String, String, Integer>(c).spillIntermediateResults(64);
+   }
+}
@@ -0,0 +1,111 @@
+package org.infinispan.distexec.mapreduce;
+
+import org.infinispan.distexec.mapreduce.BaseWordCountMapReduceTest.WordCountReducer;
+import org.infinispan.distexec.mapreduce.MapReduceManagerImpl.CollectableCollector.CollectedValuesVisitor;
+import org.infinispan.marshall.TestObjectStreamMarshaller;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that {@link SpillingCollector} spills the intermediate results once they exceed the threshold, and that
+ * merging the runs visits each key once with all its values.
+ *
+ * @since 7.0
+ */
+@Test(groups = "unit", testName = "distexec.mapreduce.SpillingCollectorTest")
+public class SpillingCollectorTest extends AbstractInfinispanTest {
+
+   private static final int NUM_KEYS = 50;
+   private static final int VALUES_PER_KEY = 20;
+   private static final long SPILL_THRESHOLD = 1024;
+
+   private TestObjectStreamMarshaller marshaller;
+
+   @BeforeMethod
+   public void setUp() {
+      marshaller = new TestObjectStreamMarshaller();
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() {
+      marshaller.stop();
+   }
+
+   public void testSpillWithCombiner() {
+      SpillingCollector<String, Integer> collector = new SpillingCollector<String, Integer>(marshaller,
+            new WordCountReducer(), SPILL_THRESHOLD, "testSpillWithCombiner");
+      List<File> runFiles = emitAndCheckSpilled(collector);
+
+      final Map<String, Integer> sums = new HashMap<String, Integer>();
+      collector.visitCollected(new CollectedValuesVisitor<String, Integer>() {
+         @Override
+         public void visit(String key, List<Integer> values) {
+            int sum = 0;
+            for (Integer value : values) {
+               sum += value;
+            }
+            assertEquals(null, sums.put(key, sum));
+         }
+      });
+      assertEquals(NUM_KEYS, sums.size());
+      for (int i = 0; i < NUM_KEYS; i++) {
+         assertEquals(VALUES_PER_KEY, sums.get(key(i)).intValue());
+      }
+
+      collector.dispose();
+      for (File file : runFiles) {
+         assertFalse(file.exists());
+      }
+   }
+
+   public void testSpillWithoutCombiner() {
+      SpillingCollector<String, Integer> collector = new SpillingCollector<String, Integer>(marshaller,
+            null, SPILL_THRESHOLD, "testSpillWithoutCombiner");
+      emitAndCheckSpilled(collector);
+
+      final Map<String, List<Integer>> collected = new HashMap<String, List<Integer>>();
+      collector.visitCollected(new CollectedValuesVisitor<String, Integer>() {
+         @Override
+         public void visit(String key, List<Integer> values) {
+            assertEquals(null, collected.put(key, new ArrayList<Integer>(values)));
+         }
+      });
+      assertEquals(NUM_KEYS, collected.size());
+      for (List<Integer> values : collected.values()) {
+         assertEquals(VALUES_PER_KEY, values.size());
+      }
+      collector.dispose();
+   }
+
+   @SuppressWarnings("unchecked")
+   private List<File> emitAndCheckSpilled(SpillingCollector<String, Integer> collector) {
+      for (int j = 0; j < VALUES_PER_KEY; j++) {
+         for (int i = 0; i < NUM_KEYS; i++) {
+            collector.emit(key(i), 1);
+         }
+      }
+      List<File> runFiles = new ArrayList<File>((List<File>) TestingUtil.extractField(collector, "runFiles"));
+      assertTrue("Expected several runs, got " + runFiles, runFiles.size() > 1);
+      for (File file : runFiles) {
+         assertTrue(file.exists());
+      }
+      return runFiles;
+   }
+
+   private static String key(int i) {
+      return "key" + i;
+   }
+}
@@ -0,0 +1,20 @@
+package org.infinispan.distexec.mapreduce;
+
+import org.infinispan.Cache;
+import org.testng.annotations.Test;
+
+/**
+ * SpillingDistributedFourNodesMapReduceTest tests Map/Reduce functionality using four Infinispan nodes,
+ * distributed reduce and a spill threshold small enough for the intermediate results to be spilled to disk
+ *
+ * @since 7.0
+ */
+@Test(groups = "functional", testName = "distexec.mapreduce.SpillingDistributedFourNodesMapReduceTest")
+public class SpillingDistributedFourNodesMapReduceTest extends DistributedFourNodesMapReduceTest {
+
+   @SuppressWarnings("rawtypes")
+   @Override
+   protected MapReduceTask<String, String, String, Integer> createMapReduceTask(Cache c){
+      return super.createMapReduceTask(c).spillIntermediateResults(64);
+   }
+}
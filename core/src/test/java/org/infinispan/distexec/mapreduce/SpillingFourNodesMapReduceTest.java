@@ -0,0 +1,20 @@
+package org.infinispan.distexec.mapreduce;
+
+import org.infinispan.Cache;
+import org.testng.annotations.Test;
+
+/**
+ * SpillingFourNodesMapReduceTest tests Map/Reduce functionality using four Infinispan nodes, local reduce
+ * and a spill threshold small enough for the intermediate results to be spilled to disk
+ *
+ * @since 7.0
+ */
+@Test(groups = "functional", testName = "distexec.mapreduce.SpillingFourNodesMapReduceTest")
+public class SpillingFourNodesMapReduceTest extends SimpleFourNodesMapReduceTest {
+
+   @SuppressWarnings({ "rawtypes", "unchecked" })
+   @Override
+   protected MapReduceTask<String, String, String, Integer> createMapReduceTask(Cache c){
+      return new MapReduceTask<String, String, String, Integer>(c).spillIntermediateResults(64);
+   }
+}
@@ -0,0 +1,70 @@
+package org.infinispan.distribution;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.container.entries.CacheEntry;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests {@link AdvancedCache#getAll(java.util.Set)} and {@link AdvancedCache#getAllCacheEntries(java.util.Set)} with
+ * keys owned by different nodes.
+ *
+ * @since 7.0
+ */
+@Test(groups = "functional", testName = "distribution.DistGetAllTest")
+public class DistGetAllTest extends MultipleCacheManagersTest {
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      createCluster(getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false), 3);
+      waitForClusterToForm();
+   }
+
+   public void testGetAllFromSeveralOwners() {
+      MagicKey k1 = new MagicKey("k1", cache(0), cache(1));
+      MagicKey k2 = new MagicKey("k2", cache(1), cache(0));
+      MagicKey k3 = new MagicKey("k3", cache(2), cache(0));
+      MagicKey missing = new MagicKey("missing", cache(0), cache(1));
+
+      cache(0).put(k1, "v1");
+      cache(0).put(k2, "v2");
+      cache(0).put(k3, "v3");
+
+      Set<Object> keys = new HashSet<Object>();
+      keys.add(k1);
+      keys.add(k2);
+      keys.add(k3);
+      keys.add(missing);
+
+      AdvancedCache<Object, Object> nonOwner = advancedCache(2);
+      Map<Object, Object> values = nonOwner.getAll(keys);
+      assertEquals(3, values.size());
+      assertEquals("v1", values.get(k1));
+      assertEquals("v2", values.get(k2));
+      assertEquals("v3", values.get(k3));
+      assertFalse(values.containsKey(missing));
+
+      Map<Object, CacheEntry> entries = nonOwner.getAllCacheEntries(keys);
+      assertEquals(3, entries.size());
+      assertEquals("v1", entries.get(k1).getValue());
+      assertEquals("v2", entries.get(k2).getValue());
+      assertEquals("v3", entries.get(k3).getValue());
+      assertFalse(entries.containsKey(missing));
+   }
+
+   public void testGetAllOfNonexistentKeys() {
+      Set<Object> keys = new HashSet<Object>();
+      keys.add(new MagicKey("a", cache(0)));
+      keys.add(new MagicKey("b", cache(1)));
+      assertTrue(advancedCache(2).getAll(keys).isEmpty());
+   }
+}
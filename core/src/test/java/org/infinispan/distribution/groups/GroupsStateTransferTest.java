@@ -0,0 +1,101 @@
+package org.infinispan.distribution.groups;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.group.Grouper;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that grouped keys, which are stored in the segment of their group by the segmented data container, are
+ * transferred along with their segment when nodes join and leave.
+ *
+ * @since 7.0
+ */
+@Test(groups = "functional", testName = "distribution.groups.GroupsStateTransferTest")
+public class GroupsStateTransferTest extends MultipleCacheManagersTest {
+
+   private static final int NUM_GROUPS = 10;
+   private static final int KEYS_PER_GROUP = 10;
+
+   private ConfigurationBuilder builder;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(2).groups().enabled(true)
+            .withGroupers(Collections.<Grouper<?>>singletonList(new PrefixGrouper()));
+      createCluster(builder, 2);
+      waitForClusterToForm();
+   }
+
+   public void testGroupedKeysTransferredOnJoinAndLeave() {
+      for (int g = 0; g < NUM_GROUPS; g++) {
+         for (int i = 0; i < KEYS_PER_GROUP; i++) {
+            cache(0).put(key(g, i), value(g, i));
+         }
+      }
+
+      addClusterEnabledCacheManager(builder);
+      waitForClusterToForm();
+      assertOwnersHoldKeys();
+
+      // The remaining owner of each segment sends it to the new owners
+      killMember(0);
+      assertOwnersHoldKeys();
+
+      killMember(0);
+      assertOwnersHoldKeys();
+   }
+
+   private void assertOwnersHoldKeys() {
+      for (Cache<Object, Object> cache : caches()) {
+         DistributionManager dm = TestingUtil.extractComponent(cache, DistributionManager.class);
+         Address address = cache.getAdvancedCache().getRpcManager().getAddress();
+         for (int g = 0; g < NUM_GROUPS; g++) {
+            for (int i = 0; i < KEYS_PER_GROUP; i++) {
+               String key = key(g, i);
+               if (dm.locate(key).contains(address)) {
+                  assertTrue("Key " + key + " missing on owner " + address,
+                        cache.getAdvancedCache().getDataContainer().containsKey(key));
+               }
+               assertEquals(value(g, i), cache.get(key));
+            }
+         }
+      }
+   }
+
+   private static String key(int group, int i) {
+      return "g" + group + "-k" + i;
+   }
+
+   private static String value(int group, int i) {
+      return "v" + group + "-" + i;
+   }
+
+   /**
+    * Groups the keys by the prefix before their dash.
+    */
+   public static class PrefixGrouper implements Grouper<String> {
+
+      @Override
+      public String computeGroup(String key, String group) {
+         int dash = key.indexOf('-');
+         return dash < 0 ? group : key.substring(0, dash);
+      }
+
+      @Override
+      public Class<String> getKeyType() {
+         return String.class;
+      }
+   }
+}
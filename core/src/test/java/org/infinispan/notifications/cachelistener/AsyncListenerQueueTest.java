@@ -0,0 +1,276 @@
+package org.infinispan.notifications.cachelistener;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryModified;
+import org.infinispan.notifications.cachelistener.event.CacheEntryEvent;
+import org.infinispan.notifications.cachelistener.event.CacheEntryModifiedEvent;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the bounded event queues of asynchronous listeners, their overflow policies and their statistics.
+ *
+ * @since 7.0
+ */
+@Test(groups = "functional", testName = "notifications.cachelistener.AsyncListenerQueueTest")
+public class AsyncListenerQueueTest extends SingleCacheManagerTest {
+
+   private static final int NUM_KEYS = 100;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      // longer than the tests wait, so that a deadlock is not broken by a lock timeout
+      builder.locking().lockAcquisitionTimeout(TimeUnit.SECONDS.toMillis(60));
+      return TestCacheManagerFactory.createCacheManager(builder);
+   }
+
+   public void testBlockingQueueDeliversAllEventsInOrder() {
+      final OrderListener listener = new OrderListener();
+      cache.addListener(listener);
+      try {
+         for (int i = 0; i < NUM_KEYS; i++) {
+            cache.put("k" + i, "v" + i);
+         }
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               return listener.keys.size() == NUM_KEYS;
+            }
+         });
+         for (int i = 0; i < NUM_KEYS; i++) {
+            assertEquals("k" + i, listener.keys.get(i));
+         }
+         assertEquals(0, notifier().getDroppedAsyncEvents());
+      } finally {
+         cache.removeListener(listener);
+      }
+   }
+
+   public void testDropOldest() {
+      DropOldestListener listener = new DropOldestListener();
+      cache.addListener(listener);
+      try {
+         for (int i = 0; i < NUM_KEYS; i++) {
+            cache.put("k" + i, "v" + i);
+         }
+         assertTrue(notifier().getPendingAsyncEvents() <= 4);
+         assertTrue(notifier().getDroppedAsyncEvents() > 0);
+      } finally {
+         listener.latch.countDown();
+         cache.removeListener(listener);
+      }
+   }
+
+   public void testCoalesce() {
+      final CoalescingListener listener = new CoalescingListener();
+      cache.addListener(listener);
+      try {
+         for (int i = 0; i < NUM_KEYS; i++) {
+            cache.put("k", "v" + i);
+         }
+         assertTrue(notifier().getCoalescedAsyncEvents() > 0);
+      } finally {
+         listener.latch.countDown();
+      }
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return notifier().getPendingAsyncEvents() == 0;
+         }
+      });
+      cache.removeListener(listener);
+      // the latest value is never lost
+      assertEquals("v" + (NUM_KEYS - 1), listener.values.get(listener.values.size() - 1));
+      assertTrue(listener.values.size() < NUM_KEYS);
+   }
+
+   public void testBlockedWriterDoesNotDeadlockWithListener() throws Exception {
+      final WritingListener listener = new WritingListener(cache);
+      cache.addListener(listener);
+      try {
+         // the writer holds the lock on the key while it waits for room in the queue, and the listener waits for
+         // the lock on the key while it delivers its batch
+         Future<Void> writer = fork(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+               for (int i = 0; i < NUM_KEYS; i++) {
+                  cache.put("k", "v" + i);
+               }
+               return null;
+            }
+         });
+         writer.get(10, TimeUnit.SECONDS);
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               return listener.written.get() && notifier().getPendingAsyncEvents() == 0;
+            }
+         });
+         assertEquals(0, notifier().getDroppedAsyncEvents());
+      } finally {
+         cache.removeListener(listener);
+      }
+   }
+
+   public void testEventsQueuedOverCapacityAreCounted() throws Exception {
+      final BusyListener listener = new BusyListener();
+      cache.addListener(listener);
+      try {
+         cache.put("k0", "v0");
+         // the drain task is busy with the events of the first put, so the pre and post events of the second put fill
+         // the queue, and those of the third one are queued over capacity
+         assertTrue(listener.delivering.await(10, TimeUnit.SECONDS));
+         cache.put("k1", "v1");
+         cache.put("k2", "v2");
+         assertEquals(2, notifier().getOverCapacityAsyncEvents());
+         assertEquals(4, notifier().getPendingAsyncEvents());
+         String statistics = notifier().showAsyncListenerStatistics();
+         assertTrue(statistics, statistics.contains(BusyListener.class.getName()));
+         assertTrue(statistics, statistics.contains("overCapacity=2"));
+      } finally {
+         listener.latch.countDown();
+      }
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return notifier().getPendingAsyncEvents() == 0;
+         }
+      });
+      cache.removeListener(listener);
+      assertEquals(0, notifier().getDroppedAsyncEvents());
+      notifier().resetStatistics();
+      assertEquals(0, notifier().getOverCapacityAsyncEvents());
+   }
+
+   public void testListenersWithoutQueueSizeAreNotQueued() {
+      final UnboundedListener listener = new UnboundedListener();
+      cache.addListener(listener);
+      try {
+         for (int i = 0; i < NUM_KEYS; i++) {
+            cache.put("k" + i, "v" + i);
+         }
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               return listener.keys.size() == NUM_KEYS;
+            }
+         });
+         assertEquals(0, notifier().getPendingAsyncEvents());
+         assertEquals("", notifier().showAsyncListenerStatistics());
+      } finally {
+         cache.removeListener(listener);
+      }
+   }
+
+   private CacheNotifierImpl notifier() {
+      return (CacheNotifierImpl) TestingUtil.extractComponent(cache, CacheNotifier.class);
+   }
+
+   @Listener(sync = false, queueSize = 4)
+   public static class OrderListener {
+      final List<Object> keys = Collections.synchronizedList(new ArrayList<Object>());
+
+      @CacheEntryCreated
+      public void created(CacheEntryEvent e) {
+         if (!e.isPre()) {
+            keys.add(e.getKey());
+         }
+      }
+   }
+
+   public abstract static class BlockingListener {
+      final CountDownLatch latch = new CountDownLatch(1);
+
+      void await() {
+         try {
+            latch.await(10, TimeUnit.SECONDS);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+      }
+   }
+
+   @Listener(sync = false, queueSize = 1)
+   public static class WritingListener {
+      final Cache<Object, Object> cache;
+      final AtomicBoolean writing = new AtomicBoolean();
+      final AtomicBoolean written = new AtomicBoolean();
+
+      WritingListener(Cache<Object, Object> cache) {
+         this.cache = cache;
+      }
+
+      @CacheEntryModified
+      public void modified(CacheEntryModifiedEvent e) {
+         if (!e.isPre() && writing.compareAndSet(false, true)) {
+            cache.put("k", "listener");
+            written.set(true);
+         }
+      }
+   }
+
+   @Listener(sync = false, queueSize = 2)
+   public static class BusyListener extends BlockingListener {
+      final CountDownLatch delivering = new CountDownLatch(1);
+
+      @CacheEntryCreated
+      public void created(CacheEntryEvent e) {
+         if (!e.isPre()) {
+            delivering.countDown();
+            await();
+         }
+      }
+   }
+
+   @Listener(sync = false)
+   public static class UnboundedListener {
+      final List<Object> keys = Collections.synchronizedList(new ArrayList<Object>());
+
+      @CacheEntryCreated
+      public void created(CacheEntryEvent e) {
+         if (!e.isPre()) {
+            keys.add(e.getKey());
+         }
+      }
+   }
+
+   @Listener(sync = false, queueSize = 4, overflowPolicy = Listener.OverflowPolicy.DROP_OLDEST)
+   public static class DropOldestListener extends BlockingListener {
+      @CacheEntryCreated
+      public void created(CacheEntryEvent e) {
+         await();
+      }
+   }
+
+   @Listener(sync = false, queueSize = 4, overflowPolicy = Listener.OverflowPolicy.COALESCE)
+   public static class CoalescingListener extends BlockingListener {
+      final List<Object> values = Collections.synchronizedList(new ArrayList<Object>());
+
+      @CacheEntryModified
+      public void modified(CacheEntryModifiedEvent e) {
+         await();
+         if (!e.isPre()) {
+            values.add(e.getValue());
+         }
+      }
+   }
+}
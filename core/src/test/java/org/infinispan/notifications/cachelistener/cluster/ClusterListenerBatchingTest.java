@@ -0,0 +1,94 @@
+package org.infinispan.notifications.cachelistener.cluster;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.distribution.MagicKey;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryModified;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryRemoved;
+import org.infinispan.notifications.cachelistener.event.CacheEntryEvent;
+import org.infinispan.notifications.cachelistener.event.Event;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that the events sent to a cluster listener within its batching window are coalesced and sent together.
+ *
+ * @since 7.0
+ */
+@Test(groups = "functional", testName = "notifications.cachelistener.cluster.ClusterListenerBatchingTest")
+public class ClusterListenerBatchingTest extends MultipleCacheManagersTest {
+   private static final String CACHE_NAME = "cluster-listener-batching";
+   private static final int NUM_WRITERS = 10;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.clustering().cacheMode(CacheMode.DIST_SYNC);
+      createClusteredCaches(3, CACHE_NAME, builder);
+   }
+
+   public void testConcurrentWritesToSameKeyAreCoalesced() throws Exception {
+      Cache<Object, String> cache0 = cache(0, CACHE_NAME);
+      final Cache<Object, String> cache1 = cache(1, CACHE_NAME);
+
+      BatchingClusterListener clusterListener = new BatchingClusterListener();
+      cache0.addListener(clusterListener);
+
+      final MagicKey key = new MagicKey(cache1);
+      final CyclicBarrier barrier = new CyclicBarrier(NUM_WRITERS);
+      List<Future<String>> futures = new ArrayList<Future<String>>(NUM_WRITERS);
+      for (int i = 0; i < NUM_WRITERS; i++) {
+         final String value = "value-" + i;
+         futures.add(fork(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+               barrier.await(10, TimeUnit.SECONDS);
+               return cache1.put(key, value);
+            }
+         }));
+      }
+      for (Future<String> future : futures) {
+         future.get(30, TimeUnit.SECONDS);
+      }
+
+      // the batches are sent asynchronously, wait until the last write reached the listener
+      final String lastValue = cache1.get(key);
+      final List<CacheEntryEvent> events = clusterListener.events;
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return !events.isEmpty() && lastValue.equals(events.get(events.size() - 1).getValue());
+         }
+      });
+      assertTrue("Expected fewer events than writes, got " + events, events.size() < NUM_WRITERS);
+      CacheEntryEvent first = events.get(0);
+      assertEquals(Event.Type.CACHE_ENTRY_CREATED, first.getType());
+      assertEquals(key, first.getKey());
+   }
+
+   @Listener(clustered = true, clusterEventBatchWindow = 500)
+   protected class BatchingClusterListener {
+      final List<CacheEntryEvent> events = Collections.synchronizedList(new ArrayList<CacheEntryEvent>());
+
+      @CacheEntryCreated
+      @CacheEntryModified
+      @CacheEntryRemoved
+      public void onCacheEvent(CacheEntryEvent event) {
+         events.add(event);
+      }
+   }
+}
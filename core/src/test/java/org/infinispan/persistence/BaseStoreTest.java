@@ -31,8 +31,11 @@
 import org.testng.annotations.Test;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static java.util.Collections.emptySet;
@@ -335,6 +338,31 @@ public void testStoreAndRemove() throws PersistenceException {
       assert expected.isEmpty();
    }
 
+   public void testWriteAndDeleteBatch() throws PersistenceException {
+      cl.write(new MarshalledEntryImpl("k1", wrap("k1", "v1"), null, getMarshaller()));
+
+      List<MarshalledEntry> batch = new ArrayList<MarshalledEntry>();
+      for (int i = 1; i <= 10; i++) {
+         batch.add(new MarshalledEntryImpl("k" + i, wrap("k" + i, "batch-v" + i), null, getMarshaller()));
+      }
+      PersistenceUtil.writeBatch(cl, batch);
+
+      assertEquals(10, TestingUtil.allEntries(cl).size());
+      for (int i = 1; i <= 10; i++) {
+         MarshalledEntry me = cl.load("k" + i);
+         assertNotNull(me);
+         assertEquals("batch-v" + i, unwrap(me.getValue()));
+      }
+
+      PersistenceUtil.deleteBatch(cl, Arrays.<Object>asList("k1", "k2", "k3", "missing"));
+
+      assertEquals(7, TestingUtil.allEntries(cl).size());
+      assertFalse(cl.contains("k1"));
+      assertFalse(cl.contains("k2"));
+      assertFalse(cl.contains("k3"));
+      assertTrue(cl.contains("k4"));
+   }
+
    public void testPurgeExpired() throws Exception {
       // Increased lifespan and idle timeouts to accommodate slower cache stores
       long lifespan = 6000;
@@ -3,7 +3,9 @@
 import org.infinispan.commons.io.ByteBufferFactoryImpl;
 import org.infinispan.configuration.cache.SingleFileStoreConfiguration;
 import org.infinispan.configuration.cache.SingleFileStoreConfigurationBuilder;
+import org.infinispan.marshall.core.MarshalledEntry;
 import org.infinispan.marshall.core.MarshalledEntryFactoryImpl;
+import org.infinispan.marshall.core.MarshalledEntryImpl;
 import org.infinispan.persistence.BaseStoreTest;
 import org.infinispan.persistence.DummyInitializationContext;
 import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
@@ -13,7 +15,13 @@
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import static org.infinispan.test.TestingUtil.recursiveFileRemove;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
 
 /**
  * Low level single-file cache store tests.
@@ -52,4 +60,38 @@ protected AdvancedLoadWriteStore createStore() throws Exception {
       store.start();
       return store;
    }
+
+   public void testWriteBatchReusesFreeSpaceAndSurvivesRestart() {
+      // keys and values of equal length, so that the freed blocks fit the new entries exactly
+      List<MarshalledEntry> batch = new ArrayList<MarshalledEntry>();
+      for (int i = 10; i < 30; i++) {
+         batch.add(new MarshalledEntryImpl("k" + i, "v" + i, null, getMarshaller()));
+      }
+      store.writeBatch(batch);
+      long fileSize = store.getFileSize();
+
+      // free some blocks in the middle of the file, and fill them again with a batch of the same size
+      store.deleteBatch(Arrays.<Object>asList("k13", "k14", "k15", "k22"));
+      assertEquals(4, store.getFreeList().size());
+      batch.clear();
+      for (int i = 30; i < 34; i++) {
+         batch.add(new MarshalledEntryImpl("k" + i, "v" + i, null, getMarshaller()));
+      }
+      store.writeBatch(batch);
+      assertEquals(fileSize, store.getFileSize());
+      assertEquals(0, store.getFreeList().size());
+
+      // the index is rebuilt from the file
+      store.stop();
+      store.start();
+      assertEquals(20, store.size());
+      for (int i = 10; i < 34; i++) {
+         MarshalledEntry me = store.load("k" + i);
+         if (i == 13 || i == 14 || i == 15 || i == 22) {
+            assertNull(me);
+         } else {
+            assertEquals("v" + i, me.getValue());
+         }
+      }
+   }
 }
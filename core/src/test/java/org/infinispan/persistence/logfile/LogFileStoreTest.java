@@ -0,0 +1,132 @@
+package org.infinispan.persistence.logfile;
+
+import org.infinispan.commons.io.ByteBufferFactoryImpl;
+import org.infinispan.configuration.cache.LogFileStoreConfiguration;
+import org.infinispan.configuration.cache.LogFileStoreConfigurationBuilder;
+import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.marshall.core.MarshalledEntryFactoryImpl;
+import org.infinispan.marshall.core.MarshalledEntryImpl;
+import org.infinispan.persistence.BaseStoreTest;
+import org.infinispan.persistence.DummyInitializationContext;
+import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.infinispan.test.TestingUtil.recursiveFileRemove;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Low level log file cache store tests.
+ *
+ * @since 7.0
+ */
+@Test(groups = "unit", testName = "persistence.logfile.LogFileStoreTest")
+public class LogFileStoreTest extends BaseStoreTest {
+
+   private static final int MAX_FILE_SIZE = 4096;
+
+   LogFileStore store;
+   String tmpDirectory;
+
+   @BeforeClass
+   protected void setUpTempDir() {
+      tmpDirectory = TestingUtil.tmpDirectory(this.getClass());
+   }
+
+   @AfterClass
+   protected void clearTempDir() {
+      recursiveFileRemove(tmpDirectory);
+   }
+
+   @Override
+   protected AdvancedLoadWriteStore createStore() throws Exception {
+      clearTempDir();
+      store = new LogFileStore();
+      LogFileStoreConfiguration fileStoreConfiguration = TestCacheManagerFactory
+            .getDefaultCacheConfiguration(false)
+            .persistence()
+               .addStore(LogFileStoreConfigurationBuilder.class)
+                  .location(this.tmpDirectory)
+                  .maxFileSize(MAX_FILE_SIZE)
+                  .indexSegments(4)
+                  .create();
+      store.init(new DummyInitializationContext(fileStoreConfiguration, getCache(), getMarshaller(), new ByteBufferFactoryImpl(),
+                                                new MarshalledEntryFactoryImpl(getMarshaller())));
+      store.start();
+      return store;
+   }
+
+   public void testCompactionDeletesOverwrittenFiles() throws Exception {
+      writeBatch(0, 200, "v");
+      final int filesBefore = store.getFileCount();
+      assertTrue(filesBefore > 2);
+
+      // every entry of the previous files is dead once overwritten
+      writeBatch(0, 200, "w");
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return store.getFileCount() <= filesBefore + 1;
+         }
+      });
+
+      assertEquals(200, store.size());
+      for (int i = 0; i < 200; i++)
+         assertEquals("w" + i, store.load("k" + i).getValue());
+   }
+
+   public void testIndexSurvivesRestart() {
+      writeBatch(0, 100, "v");
+      store.deleteBatch(Arrays.<Object>asList("k13", "k14", "k15"));
+      store.write(new MarshalledEntryImpl("k20", "w20", null, getMarshaller()));
+
+      store.stop();
+      store.start();
+      assertLoaded();
+   }
+
+   public void testIndexRebuiltAfterCrash() {
+      writeBatch(0, 100, "v");
+      store.deleteBatch(Arrays.<Object>asList("k13", "k14", "k15"));
+      store.write(new MarshalledEntryImpl("k20", "w20", null, getMarshaller()));
+
+      // without the marker, the index on disk is not trusted
+      store.stop();
+      File marker = new File(new File(new File(tmpDirectory, getCache().getName()), "index"), "clean");
+      assertTrue(marker.delete());
+      store.start();
+      assertLoaded();
+   }
+
+   private void assertLoaded() {
+      assertEquals(97, store.size());
+      for (int i = 0; i < 100; i++) {
+         MarshalledEntry me = store.load("k" + i);
+         if (i == 13 || i == 14 || i == 15) {
+            assertNull(me);
+            assertFalse(store.contains("k" + i));
+         } else {
+            assertEquals((i == 20 ? "w" : "v") + i, me.getValue());
+         }
+      }
+   }
+
+   private void writeBatch(int from, int to, String valuePrefix) {
+      List<MarshalledEntry> batch = new ArrayList<MarshalledEntry>();
+      for (int i = from; i < to; i++) {
+         batch.add(new MarshalledEntryImpl("k" + i, valuePrefix + i, null, getMarshaller()));
+      }
+      store.writeBatch(batch);
+   }
+}
@@ -0,0 +1,206 @@
+package org.infinispan.statetransfer;
+
+import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commons.util.concurrent.NotifyingNotifiableFuture;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.InternalEntryFactory;
+import org.infinispan.container.entries.ImmortalCacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.TestAddress;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.remoting.rpc.ResponseMode;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.rpc.RpcOptions;
+import org.infinispan.remoting.rpc.RpcOptionsBuilder;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.util.concurrent.TimeoutException;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.*;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that the chunks an {@link OutboundTransferTask} fails to send are sent again, and that the task is cancelled
+ * when they can't be sent at all.
+ *
+ * @since 7.0
+ */
+@Test(groups = "unit", testName = "statetransfer.OutboundTransferTaskTest")
+public class OutboundTransferTaskTest {
+
+   private static final TestAddress A = new TestAddress(0, "A");
+   private static final TestAddress B = new TestAddress(1, "B");
+
+   private static final int NUM_ENTRIES = 3;
+
+   private ExecutorService executor;
+   private RpcManager rpcManager;
+   private CommandsFactory commandsFactory;
+   private DataContainer dataContainer;
+   private PersistenceManager persistenceManager;
+   private StateProviderImpl stateProvider;
+
+   /**
+    * The sequence numbers of the chunks sent, including the ones which failed to be sent.
+    */
+   private final List<Integer> sentChunks = Collections.synchronizedList(new ArrayList<Integer>());
+
+   @BeforeMethod
+   public void setUp() {
+      executor = Executors.newCachedThreadPool();
+      rpcManager = mock(RpcManager.class);
+      commandsFactory = mock(CommandsFactory.class);
+      dataContainer = mock(DataContainer.class);
+      persistenceManager = mock(PersistenceManager.class);
+      stateProvider = mock(StateProviderImpl.class);
+      sentChunks.clear();
+
+      when(rpcManager.getAddress()).thenReturn(A);
+      when(rpcManager.getRpcOptionsBuilder(any(ResponseMode.class))).thenAnswer(new Answer<RpcOptionsBuilder>() {
+         @Override
+         public RpcOptionsBuilder answer(InvocationOnMock invocation) {
+            return new RpcOptionsBuilder(10000, TimeUnit.MILLISECONDS, (ResponseMode) invocation.getArguments()[0], true);
+         }
+      });
+      when(commandsFactory.buildStateResponseCommand(any(Address.class), anyInt(), any(Collection.class))).thenAnswer(new Answer<StateResponseCommand>() {
+         @Override
+         public StateResponseCommand answer(InvocationOnMock invocation) {
+            return new StateResponseCommand("testCache", (Address) invocation.getArguments()[0],
+                  ((Integer) invocation.getArguments()[1]).intValue(),
+                  (Collection<StateChunk>) invocation.getArguments()[2]);
+         }
+      });
+
+      final List<InternalCacheEntry> entries = new ArrayList<InternalCacheEntry>();
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         entries.add(new ImmortalCacheEntry("k" + i, "v" + i));
+      }
+      when(dataContainer.iterator()).thenAnswer(new Answer<Object>() {
+         @Override
+         public Object answer(InvocationOnMock invocation) {
+            return entries.iterator();
+         }
+      });
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() {
+      executor.shutdownNow();
+   }
+
+   public void testFailedAsyncChunkIsSentAgain() {
+      failSends(1, true);
+
+      OutboundTransferTask task = createTask(2);
+      task.execute(executor);
+
+      verify(stateProvider, timeout(10000)).onTaskCompletion(task);
+      assertFalse(task.isCancelled());
+      assertChunksSentOnceAndFirstAgain();
+   }
+
+   public void testFailedSyncChunkIsSentAgain() {
+      failSends(1, false);
+
+      OutboundTransferTask task = createTask(1);
+      task.execute(executor);
+
+      verify(stateProvider, timeout(10000)).onTaskCompletion(task);
+      assertFalse(task.isCancelled());
+      assertChunksSentOnceAndFirstAgain();
+   }
+
+   public void testTaskIsCancelledWhenChunkCannotBeSent() {
+      failSends(Integer.MAX_VALUE, true);
+
+      OutboundTransferTask task = createTask(2);
+      task.execute(executor);
+
+      verify(stateProvider, timeout(10000)).onTaskCompletion(task);
+      assertTrue(task.isCancelled());
+      assertEquals(Collections.nCopies(OutboundTransferTask.MAX_SEND_ATTEMPTS, 0), sentChunks);
+   }
+
+   private OutboundTransferTask createTask(int maxInFlightChunks) {
+      return new OutboundTransferTask(B, Collections.singleton(0), 1, 1, null, stateProvider, dataContainer,
+                                      persistenceManager, rpcManager, commandsFactory, mock(InternalEntryFactory.class),
+                                      10000, "testCache", maxInFlightChunks, executor);
+   }
+
+   /**
+    * Makes the first {@code failures} sends of chunks fail with a timeout.
+    */
+   private void failSends(final int failures, boolean async) {
+      final AtomicInteger sends = new AtomicInteger();
+      if (async) {
+         doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+               NotifyingNotifiableFuture<Object> future = (NotifyingNotifiableFuture<Object>) invocation.getArguments()[3];
+               if (send(invocation, sends, failures)) {
+                  future.notifyDone(null);
+               } else {
+                  future.notifyException(new TimeoutException("Injected failure"));
+               }
+               return null;
+            }
+         }).when(rpcManager).invokeRemotelyInFuture(any(Collection.class), any(ReplicableCommand.class),
+                                                    any(RpcOptions.class), any(NotifyingNotifiableFuture.class));
+      } else {
+         when(rpcManager.invokeRemotely(any(Collection.class), any(ReplicableCommand.class), any(RpcOptions.class))).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+               if (!send(invocation, sends, failures)) {
+                  throw new TimeoutException("Injected failure");
+               }
+               return Collections.emptyMap();
+            }
+         });
+      }
+   }
+
+   /**
+    * Records the chunks of the command sent.
+    *
+    * @return false if the send should fail
+    */
+   private boolean send(InvocationOnMock invocation, AtomicInteger sends, int failures) {
+      StateResponseCommand cmd = (StateResponseCommand) invocation.getArguments()[1];
+      for (StateChunk chunk : (Collection<StateChunk>) cmd.getParameters()[2]) {
+         sentChunks.add(chunk.getSequenceNumber());
+      }
+      return sends.incrementAndGet() > failures;
+   }
+
+   private void assertChunksSentOnceAndFirstAgain() {
+      // one chunk per entry and an empty last chunk
+      assertEquals(NUM_ENTRIES + 2, sentChunks.size());
+      assertEquals(0, (int) sentChunks.get(0));
+      assertEquals(0, (int) sentChunks.get(1));
+      Set<Integer> expected = new HashSet<Integer>();
+      for (int i = 0; i <= NUM_ENTRIES; i++) {
+         expected.add(i);
+      }
+      assertEquals(expected, new HashSet<Integer>(sentChunks));
+   }
+}
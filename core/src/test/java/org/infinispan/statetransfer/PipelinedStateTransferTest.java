@@ -0,0 +1,67 @@
+package org.infinispan.statetransfer;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests state transfer with several chunks in flight per destination, so that chunks are received and applied out
+ * of order.
+ *
+ * @since 7.0
+ */
+@Test(groups = "functional", testName = "statetransfer.PipelinedStateTransferTest")
+public class PipelinedStateTransferTest extends MultipleCacheManagersTest {
+
+   private static final int NUM_KEYS = 1000;
+
+   private ConfigurationBuilder builder;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(2).numSegments(10).l1().disable()
+            .stateTransfer().fetchInMemoryState(true).chunkSize(7).maxInFlightChunks(4);
+      createCluster(builder, 2);
+      waitForClusterToForm();
+   }
+
+   public void testJoinAndLeave() {
+      for (int i = 0; i < NUM_KEYS; i++) {
+         cache(0).put("k" + i, "v" + i);
+      }
+
+      addClusterEnabledCacheManager(builder);
+      waitForClusterToForm();
+      assertAllKeysPresent();
+
+      killMember(0);
+      assertAllKeysPresent();
+   }
+
+   private void assertAllKeysPresent() {
+      for (Cache<Object, Object> c : caches()) {
+         assertTrue(TestingUtil.extractComponent(c, StateTransferManager.class).isJoinComplete());
+         // every key was transferred to all its owners
+         ConsistentHash ch = c.getAdvancedCache().getDistributionManager().getConsistentHash();
+         Address address = c.getAdvancedCache().getRpcManager().getAddress();
+         for (int i = 0; i < NUM_KEYS; i++) {
+            String key = "k" + i;
+            assertEquals(ch.isKeyLocalToNode(address, key), c.getAdvancedCache().getDataContainer().containsKey(key));
+         }
+      }
+      for (Cache<Object, Object> c : caches()) {
+         for (int i = 0; i < NUM_KEYS; i++) {
+            assertEquals("v" + i, c.get("k" + i));
+         }
+      }
+   }
+}
@@ -0,0 +1,241 @@
+package org.infinispan.statetransfer;
+
+import org.infinispan.commons.CacheException;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.InternalEntryFactory;
+import org.infinispan.container.SegmentedDataContainer;
+import org.infinispan.container.entries.ImmortalCacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.marshall.core.MarshalledEntryImpl;
+import org.infinispan.persistence.file.SingleFileStore;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.persistence.spi.AdvancedCacheLoader;
+import org.infinispan.persistence.spi.PersistenceException;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotSame;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.AssertJUnit.fail;
+
+/**
+ * Tests that a {@link SegmentEntriesReader} reads the segments of the data container and the cache store in parallel
+ * through the state transfer executor, that the executor runs a task in the calling thread once all its threads are
+ * busy, that the failures of these tasks reach the caller, and that the entries read from the store keep their stored
+ * timestamps only when asked to.
+ *
+ * @since 7.0
+ */
+@Test(groups = "functional", testName = "statetransfer.SegmentEntriesReaderTest")
+public class SegmentEntriesReaderTest extends SingleCacheManagerTest {
+
+   private static final int MAX_THREADS = 2;
+   private static final int NUM_SEGMENTS = 4;
+   private static final int NUM_ENTRIES = 20;
+
+   private String location;
+
+   @AfterClass
+   protected void clearTempDir() {
+      TestingUtil.recursiveFileRemove(location);
+   }
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      location = TestingUtil.tmpDirectory(getClass());
+      GlobalConfigurationBuilder gcb = new GlobalConfigurationBuilder();
+      gcb.stateTransferExecutor().addProperty("maxThreads", String.valueOf(MAX_THREADS));
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.persistence().addSingleFileStore().location(location).fetchPersistentState(true);
+      return TestCacheManagerFactory.createCacheManager(gcb, builder);
+   }
+
+   public void testStoreIsProcessedInParallel() throws Exception {
+      writeToStore();
+
+      final CountDownLatch concurrentVisits = new CountDownLatch(MAX_THREADS);
+      final ConcurrentMap<Object, Thread> visited = new ConcurrentHashMap<Object, Thread>();
+      reader(Collections.singleton(0), null, TestingUtil.extractComponent(cache, DataContainer.class))
+            .read(new Visitor() {
+               @Override
+               public void visit(InternalCacheEntry ice, int segmentId) throws InterruptedException {
+                  visited.put(ice.getKey(), Thread.currentThread());
+                  // the first visits only return once they all started
+                  concurrentVisits.countDown();
+                  assertTrue(concurrentVisits.await(10, TimeUnit.SECONDS));
+               }
+            });
+
+      assertEquals(NUM_ENTRIES, visited.size());
+      assertTrue(new HashSet<Thread>(visited.values()).size() >= MAX_THREADS);
+   }
+
+   public void testStoreFailureReachesCaller() {
+      writeToStore();
+
+      final CacheException failure = new CacheException("Injected failure");
+      AdvancedCacheLoader store = TestingUtil.extractComponent(cache, PersistenceManager.class).getStateTransferProvider();
+      try {
+         store.process(null, new AdvancedCacheLoader.CacheLoaderTask() {
+            @Override
+            public void processEntry(MarshalledEntry marshalledEntry, AdvancedCacheLoader.TaskContext taskContext) {
+               throw failure;
+            }
+         }, stateTransferExecutor(), true, true);
+         fail("The failure of the store task should have been thrown");
+      } catch (PersistenceException e) {
+         assertSame(failure, e.getCause().getCause());
+      }
+   }
+
+   public void testSegmentsAreReadInParallel() throws Exception {
+      final CountDownLatch segment2Visited = new CountDownLatch(1);
+      final ConcurrentMap<Integer, Thread> visited = new ConcurrentHashMap<Integer, Thread>();
+      reader(allSegments(), consistentHash(), segmentedDataContainer()).read(new Visitor() {
+         @Override
+         public void visit(InternalCacheEntry ice, int segmentId) throws InterruptedException {
+            visited.putIfAbsent(segmentId, Thread.currentThread());
+            if (segmentId == 2) {
+               segment2Visited.countDown();
+            } else if (segmentId < 2) {
+               // keep both executor threads busy until the third segment was read
+               assertTrue(segment2Visited.await(10, TimeUnit.SECONDS));
+            }
+         }
+      });
+
+      assertEquals(NUM_SEGMENTS, visited.size());
+      // the executor has no queue, so the third task ran in this thread while the executor threads were busy
+      assertSame(Thread.currentThread(), visited.get(2));
+      assertNotSame(Thread.currentThread(), visited.get(0));
+      assertNotSame(Thread.currentThread(), visited.get(1));
+      assertNotSame(visited.get(0), visited.get(1));
+   }
+
+   public void testSegmentFailureReachesCaller() throws Exception {
+      final CacheException failure = new CacheException("Injected failure");
+      try {
+         reader(allSegments(), consistentHash(), segmentedDataContainer()).read(new Visitor() {
+            @Override
+            public void visit(InternalCacheEntry ice, int segmentId) {
+               if (segmentId == 1) {
+                  throw failure;
+               }
+            }
+         });
+         fail("The failure of the segment task should have been thrown");
+      } catch (ExecutionException e) {
+         assertSame(failure, e.getCause());
+      }
+   }
+
+   public void testStoredTimestampsAreKeptOnlyIfRequested() throws Exception {
+      DataContainer dataContainer = TestingUtil.extractComponent(cache, DataContainer.class);
+      cache.put("k", "v", 1, TimeUnit.HOURS);
+      long created = dataContainer.get("k").getCreated();
+      cache.evict("k");
+      TestingUtil.sleepThread(10);
+
+      assertTrue(readCreated(dataContainer, false) > created);
+      assertEquals(created, readCreated(dataContainer, true));
+   }
+
+   private long readCreated(DataContainer dataContainer, boolean keepStoredTimestamps) throws Exception {
+      final InternalCacheEntry[] read = new InternalCacheEntry[1];
+      reader(Collections.singleton(0), null, dataContainer, keepStoredTimestamps).read(new Visitor() {
+         @Override
+         public void visit(InternalCacheEntry ice, int segmentId) {
+            read[0] = ice;
+         }
+      });
+      return read[0].getCreated();
+   }
+
+   private SegmentEntriesReader reader(Set<Integer> segments, ConsistentHash readCh, DataContainer dataContainer) {
+      return reader(segments, readCh, dataContainer, false);
+   }
+
+   private SegmentEntriesReader reader(Set<Integer> segments, ConsistentHash readCh, DataContainer dataContainer,
+                                       boolean keepStoredTimestamps) {
+      return new SegmentEntriesReader(segments, readCh, dataContainer,
+                                      TestingUtil.extractComponent(cache, PersistenceManager.class),
+                                      TestingUtil.extractComponent(cache, InternalEntryFactory.class),
+                                      stateTransferExecutor(), keepStoredTimestamps);
+   }
+
+   private ExecutorService stateTransferExecutor() {
+      return TestingUtil.extractGlobalComponentRegistry(cacheManager)
+            .getComponent(ExecutorService.class, KnownComponentNames.STATE_TRANSFER_EXECUTOR);
+   }
+
+   /**
+    * Writes the entries to the store only, so that they aren't skipped as being in the data container.
+    */
+   private void writeToStore() {
+      PersistenceManager persistenceManager = TestingUtil.extractComponent(cache, PersistenceManager.class);
+      SingleFileStore store = persistenceManager.getStores(SingleFileStore.class).iterator().next();
+      StreamingMarshaller marshaller = TestingUtil.extractComponentRegistry(cache).getCacheMarshaller();
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         store.write(new MarshalledEntryImpl<String, String>("k" + i, "v" + i, null, marshaller));
+      }
+   }
+
+   private Set<Integer> allSegments() {
+      Set<Integer> segments = new TreeSet<Integer>();
+      for (int i = 0; i < NUM_SEGMENTS; i++) {
+         segments.add(i);
+      }
+      return segments;
+   }
+
+   private ConsistentHash consistentHash() {
+      ConsistentHash ch = mock(ConsistentHash.class);
+      when(ch.getNumSegments()).thenReturn(NUM_SEGMENTS);
+      return ch;
+   }
+
+   /**
+    * A data container holding one entry per segment, and no cache store entries.
+    */
+   private SegmentedDataContainer segmentedDataContainer() {
+      SegmentedDataContainer dataContainer = mock(SegmentedDataContainer.class);
+      when(dataContainer.getNumSegments()).thenReturn(NUM_SEGMENTS);
+      for (int i = 0; i < NUM_SEGMENTS; i++) {
+         InternalCacheEntry ice = new ImmortalCacheEntry("k" + i, "v" + i);
+         when(dataContainer.entriesInSegment(i)).thenReturn(Collections.<InternalCacheEntry>singletonList(ice));
+      }
+      return dataContainer;
+   }
+
+   private abstract static class Visitor implements SegmentEntriesReader.EntryVisitor {
+      @Override
+      public boolean isStopped() {
+         return false;
+      }
+   }
+}
@@ -0,0 +1,90 @@
+package org.infinispan.statetransfer;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.SegmentedDataContainer;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryInvalidated;
+import org.infinispan.notifications.cachelistener.event.CacheEntryInvalidatedEvent;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that the segments a node no longer owns are removed from its segmented data container, whether they are
+ * cleared at once or their keys are invalidated one by one for the listeners.
+ *
+ * @since 7.0
+ */
+@Test(groups = "functional", testName = "statetransfer.SegmentRemovalTest")
+public class SegmentRemovalTest extends MultipleCacheManagersTest {
+
+   private static final int NUM_KEYS = 100;
+
+   private ConfigurationBuilder builder;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(1).l1().disable();
+      createCluster(builder, 2);
+      waitForClusterToForm();
+   }
+
+   public void testRemovedSegmentsAreDropped() {
+      InvalidationListener listener = new InvalidationListener();
+      cache(1).addListener(listener);
+      assertTrue(TestingUtil.extractComponent(cache(0), DataContainer.class) instanceof SegmentedDataContainer);
+
+      for (int i = 0; i < NUM_KEYS; i++) {
+         cache(0).put("k" + i, "v" + i);
+      }
+
+      addClusterEnabledCacheManager(builder);
+      waitForClusterToForm();
+
+      Set<Object> allKeys = new HashSet<Object>();
+      for (Cache<Object, Object> cache : caches()) {
+         DistributionManager dm = TestingUtil.extractComponent(cache, DistributionManager.class);
+         Address address = cache.getAdvancedCache().getRpcManager().getAddress();
+         for (Object key : cache.getAdvancedCache().getDataContainer().keySet()) {
+            assertTrue("Key " + key + " not owned by " + address, dm.locate(key).contains(address));
+            assertTrue(allKeys.add(key));
+         }
+      }
+      assertEquals(NUM_KEYS, allKeys.size());
+      for (int i = 0; i < NUM_KEYS; i++) {
+         assertEquals("v" + i, cache(2).get("k" + i));
+      }
+
+      // the node with a listener invalidated its keys one by one, the other one cleared its segments
+      Set<Object> movedFromCache1 = new HashSet<Object>(listener.invalidated);
+      movedFromCache1.retainAll(cache(2).getAdvancedCache().getDataContainer().keySet());
+      assertFalse(listener.invalidated.isEmpty());
+      assertEquals(listener.invalidated, movedFromCache1);
+   }
+
+   @Listener
+   public static class InvalidationListener {
+      final Set<Object> invalidated = Collections.synchronizedSet(new HashSet<Object>());
+
+      @CacheEntryInvalidated
+      public void entryInvalidated(CacheEntryInvalidatedEvent<Object, Object> event) {
+         if (event.isPre()) {
+            invalidated.add(event.getKey());
+         }
+      }
+   }
+}
@@ -163,7 +163,7 @@ public RpcOptionsBuilder answer(InvocationOnMock invocation) {
 
       // create state provider
       StateProviderImpl stateProvider = new StateProviderImpl();
-      stateProvider.init(cache, mockExecutorService,
+      stateProvider.init(cache, mockExecutorService, pooledExecutorService,
             configuration, rpcManager, commandsFactory, cacheNotifier, persistenceManager,
             dataContainer, transactionTable, stateTransferLock, stateConsumer, ef);
 
@@ -272,7 +272,7 @@ public RpcOptionsBuilder answer(InvocationOnMock invocation) {
 
       // create state provider
       StateProviderImpl stateProvider = new StateProviderImpl();
-      stateProvider.init(cache, pooledExecutorService,
+      stateProvider.init(cache, pooledExecutorService, pooledExecutorService,
             configuration, rpcManager, commandsFactory, cacheNotifier, persistenceManager,
             dataContainer, transactionTable, stateTransferLock, stateConsumer, ef);
 
@@ -22,6 +22,7 @@ public abstract class AbstractTwoSitesTest extends AbstractXSiteTest {
    protected BackupConfiguration.BackupStrategy lonBackupStrategy = BackupConfiguration.BackupStrategy.SYNC;
    protected String lonCustomFailurePolicyClass = null;
    protected boolean use2Pc = false;
+   protected int lonBackupBatchSize = 0;
 
    /**
     * If true, the caches from one site will backup to a cache having the same name remotely (mirror)
@@ -42,6 +43,7 @@ protected void createSites() {
             .strategy(lonBackupStrategy)
             .failurePolicyClass(lonCustomFailurePolicyClass)
             .useTwoPhaseCommit(use2Pc)
+            .batchSize(lonBackupBatchSize)
             .sites().addInUseBackupSite("NYC");
 
       GlobalConfigurationBuilder nycGc = GlobalConfigurationBuilder.defaultClusteredBuilder();
@@ -0,0 +1,201 @@
+package org.infinispan.xsite;
+
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.remote.SingleRpcCommand;
+import org.infinispan.commands.tx.PrepareCommand;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.remoting.transport.BackupResponse;
+import org.infinispan.remoting.transport.Transport;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.util.DefaultTimeService;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.fail;
+
+/**
+ * Tests that stopping the {@link AsyncBackupQueue} does not send the queued modifications concurrently with the batch
+ * being sent in the background, and that the modifications which could not be sent are recovered from its log.
+ *
+ * @since 7.0
+ */
+@Test(groups = "unit", testName = "xsite.AsyncBackupQueueTest")
+public class AsyncBackupQueueTest extends AbstractInfinispanTest {
+
+   @SuppressWarnings("unchecked")
+   public void testStopWaitsForTheBatchInFlight() throws Exception {
+      final CountDownLatch firstSendStarted = new CountDownLatch(1);
+      final CountDownLatch firstSendReleased = new CountDownLatch(1);
+      final AtomicInteger calls = new AtomicInteger();
+      final List<WriteCommand> sent = Collections.synchronizedList(new ArrayList<WriteCommand>());
+      final BackupResponse response = mock(BackupResponse.class);
+      when(response.getFailedBackups()).thenReturn(Collections.<String, Throwable>emptyMap());
+      Transport transport = mock(Transport.class);
+      when(transport.backupRemotely(any(Collection.class), any(ReplicableCommand.class))).thenAnswer(
+            new Answer<BackupResponse>() {
+               @Override
+               public BackupResponse answer(InvocationOnMock invocation) throws Throwable {
+                  SingleRpcCommand command = (SingleRpcCommand) invocation.getArguments()[1];
+                  PrepareCommand prepare = (PrepareCommand) command.getCommand();
+                  if (calls.incrementAndGet() == 1) {
+                     firstSendStarted.countDown();
+                     firstSendReleased.await(10, TimeUnit.SECONDS);
+                  }
+                  sent.addAll(Arrays.asList(prepare.getModifications()));
+                  return response;
+               }
+            });
+      OfflineStatus offlineStatus = mock(OfflineStatus.class);
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+         final AsyncBackupQueue queue = new AsyncBackupQueue("cache", "NYC", 10000, 1, transport, offlineStatus,
+                                                             new DefaultTimeService(), executor,
+                                                             mock(ScheduledExecutorService.class), null);
+         WriteCommand first = write("k1");
+         WriteCommand second = write("k2");
+         queue.add(first);
+         assert firstSendStarted.await(10, TimeUnit.SECONDS);
+         queue.add(second);
+
+         Future<Void> stop = fork(new Runnable() {
+            @Override
+            public void run() {
+               queue.stop();
+            }
+         }, null);
+         try {
+            stop.get(500, TimeUnit.MILLISECONDS);
+            fail("stop() should wait for the batch being sent");
+         } catch (TimeoutException expected) {
+         }
+         // the modification queued meanwhile is not sent before the batch in flight is acknowledged
+         assertEquals(1, calls.get());
+
+         firstSendReleased.countDown();
+         stop.get(10, TimeUnit.SECONDS);
+         assertEquals(2, calls.get());
+         assertEquals(2, sent.size());
+         assertSame(first, sent.get(0));
+         assertSame(second, sent.get(1));
+         assertEquals(0, queue.size());
+      } finally {
+         firstSendReleased.countDown();
+         executor.shutdownNow();
+      }
+   }
+
+   @SuppressWarnings("unchecked")
+   public void testUnsentModificationsAreRecoveredFromLog() throws Exception {
+      String dir = TestingUtil.tmpDirectory(getClass());
+      TestingUtil.recursiveFileRemove(dir);
+      StreamingMarshaller marshaller = identityMarshaller();
+      final List<WriteCommand> sent = Collections.synchronizedList(new ArrayList<WriteCommand>());
+      final BackupResponse response = mock(BackupResponse.class);
+      when(response.getFailedBackups()).thenReturn(Collections.<String, Throwable>emptyMap());
+      Transport transport = mock(Transport.class);
+      when(transport.backupRemotely(any(Collection.class), any(ReplicableCommand.class))).thenAnswer(
+            new Answer<BackupResponse>() {
+               @Override
+               public BackupResponse answer(InvocationOnMock invocation) throws Throwable {
+                  SingleRpcCommand command = (SingleRpcCommand) invocation.getArguments()[1];
+                  sent.addAll(Arrays.asList(((PrepareCommand) command.getCommand()).getModifications()));
+                  return response;
+               }
+            });
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+         // the site is offline, so nothing is sent before the queue is stopped
+         OfflineStatus offline = mock(OfflineStatus.class);
+         when(offline.isOffline()).thenReturn(true);
+         AsyncBackupQueue queue = new AsyncBackupQueue("cache", "NYC", 10000, 1, transport, offline,
+                                                       new DefaultTimeService(), executor,
+                                                       mock(ScheduledExecutorService.class),
+                                                       new AsyncBackupLog(new File(dir), "cache", "NYC", marshaller));
+         queue.recover();
+         WriteCommand first = write("k1");
+         WriteCommand second = write("k2");
+         WriteCommand third = write("k1");
+         queue.add(first);
+         queue.add(second);
+         queue.add(third);
+         queue.stop();
+         assertEquals(0, sent.size());
+
+         // the restarted queue sends what is left, coalesced
+         AsyncBackupLog backupLog = new AsyncBackupLog(new File(dir), "cache", "NYC", marshaller);
+         final AsyncBackupQueue restarted = new AsyncBackupQueue("cache", "NYC", 10000, 1, transport,
+                                                                 mock(OfflineStatus.class), new DefaultTimeService(),
+                                                                 executor, mock(ScheduledExecutorService.class),
+                                                                 backupLog);
+         restarted.recover();
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               return sent.size() == 2 && restarted.size() == 0;
+            }
+         });
+         assertSame(second, sent.get(0));
+         assertSame(third, sent.get(1));
+         restarted.stop();
+         assertEquals(0, new File(backupLog.path()).length());
+      } finally {
+         executor.shutdownNow();
+         TestingUtil.recursiveFileRemove(dir);
+      }
+   }
+
+   /**
+    * Marshals the commands as their index in a list, since the mocks can't be marshalled.
+    */
+   private static StreamingMarshaller identityMarshaller() throws Exception {
+      final List<Object> objects = Collections.synchronizedList(new ArrayList<Object>());
+      StreamingMarshaller marshaller = mock(StreamingMarshaller.class);
+      when(marshaller.objectToByteBuffer(any())).thenAnswer(new Answer<byte[]>() {
+         @Override
+         public byte[] answer(InvocationOnMock invocation) {
+            synchronized (objects) {
+               objects.add(invocation.getArguments()[0]);
+               return ByteBuffer.allocate(4).putInt(objects.size() - 1).array();
+            }
+         }
+      });
+      when(marshaller.objectFromByteBuffer(any(byte[].class))).thenAnswer(new Answer<Object>() {
+         @Override
+         public Object answer(InvocationOnMock invocation) {
+            return objects.get(ByteBuffer.wrap((byte[]) invocation.getArguments()[0]).getInt());
+         }
+      });
+      return marshaller;
+   }
+
+   private static WriteCommand write(Object key) {
+      PutKeyValueCommand command = mock(PutKeyValueCommand.class);
+      when(command.getKey()).thenReturn(key);
+      return command;
+   }
+}
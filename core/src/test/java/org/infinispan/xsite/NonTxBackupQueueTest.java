@@ -0,0 +1,111 @@
+package org.infinispan.xsite;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.BackupConfiguration;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.testng.annotations.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Tests the asynchronous backups of a non transactional cache which are queued, coalesced and sent in batches.
+ *
+ * @since 7.0
+ */
+@Test(groups = "xsite", testName = "xsite.NonTxBackupQueueTest")
+public class NonTxBackupQueueTest extends AbstractTwoSitesTest {
+
+   private static final int NUM_KEYS = 10;
+
+   public NonTxBackupQueueTest() {
+      lonBackupStrategy = BackupConfiguration.BackupStrategy.ASYNC;
+      lonBackupBatchSize = 4;
+   }
+
+   @Override
+   protected ConfigurationBuilder getNycActiveConfig() {
+      return getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+   }
+
+   @Override
+   protected ConfigurationBuilder getLonActiveConfig() {
+      return getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+   }
+
+   public void testCoalescedWrites() {
+      for (int i = 0; i < 10 * NUM_KEYS; i++) {
+         cache("LON", i % 2).put("coalesced" + (i % NUM_KEYS), "v" + i);
+      }
+      cache("LON", 0).remove("coalesced0");
+
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            for (int i = 1; i < NUM_KEYS; i++) {
+               if (!("v" + (9 * NUM_KEYS + i)).equals(backup("LON").get("coalesced" + i))) {
+                  return false;
+               }
+            }
+            return backup("LON").get("coalesced0") == null;
+         }
+      });
+   }
+
+   public void testClear() {
+      cache("LON", 0).put("cleared", "v");
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return "v".equals(backup("LON").get("cleared"));
+         }
+      });
+
+      cache("LON", 1).clear();
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return backup("LON").get("cleared") == null;
+         }
+      });
+   }
+
+   public void testQueueDrainedWhenSiteIsBroughtOnline() {
+      for (int i = 0; i < 2; i++) {
+         assertEquals(BackupSender.TakeSiteOfflineResponse.TAKEN_OFFLINE, backupSender(i).takeSiteOffline("NYC"));
+      }
+
+      for (int i = 0; i < NUM_KEYS; i++) {
+         cache("LON", 0).put("offline" + i, "v" + i);
+      }
+      for (int i = 0; i < NUM_KEYS; i++) {
+         assertEquals("v" + i, cache("LON", 1).get("offline" + i));
+         assertNull(backup("LON").get("offline" + i));
+      }
+      assertEquals(NUM_KEYS, backupSender(0).getBackupQueue("NYC").size() + backupSender(1).getBackupQueue("NYC").size());
+
+      for (int i = 0; i < 2; i++) {
+         assertEquals(BackupSender.BringSiteOnlineResponse.BROUGHT_ONLINE, backupSender(i).bringSiteOnline("NYC"));
+      }
+
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            for (int i = 0; i < NUM_KEYS; i++) {
+               if (!("v" + i).equals(backup("LON").get("offline" + i))) {
+                  return false;
+               }
+            }
+            return true;
+         }
+      });
+      assertTrue(backupSender(0).status().get("NYC"));
+   }
+
+   private BackupSenderImpl backupSender(int index) {
+      Cache<Object, Object> cache = cache("LON", index);
+      return (BackupSenderImpl) cache.getAdvancedCache().getComponentRegistry().getComponent(BackupSender.class);
+   }
+}
@@ -0,0 +1,113 @@
+package org.infinispan.xsite;
+
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests pushing the state of a cache to a backup site which missed some writes while it was offline.
+ *
+ * @since 7.0
+ */
+@Test(groups = "xsite", testName = "xsite.XSiteStatePushTest")
+public class XSiteStatePushTest extends AbstractTwoSitesTest {
+
+   private static final int NUM_KEYS = 50;
+
+   @Override
+   protected ConfigurationBuilder getNycActiveConfig() {
+      return getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+   }
+
+   @Override
+   protected ConfigurationBuilder getLonActiveConfig() {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      // several chunks per node, some of them in flight at the same time
+      builder.clustering().stateTransfer().chunkSize(3).maxInFlightChunks(2);
+      return builder;
+   }
+
+   public void testPushState() {
+      assertEquals(XSiteAdminOperations.SUCCESS, admin(0).takeSiteOffline("NYC"));
+      for (int i = 0; i < NUM_KEYS; i++) {
+         cache("LON", i % 2).put("k" + i, "v" + i);
+      }
+      for (int i = 0; i < NUM_KEYS; i++) {
+         assertNull(backup("LON").get("k" + i));
+      }
+      assertEquals(XSiteStateProvider.PushStatus.NONE.toString(), admin(0).pushStateStatus("NYC"));
+
+      assertEquals(XSiteAdminOperations.SUCCESS, admin(1).bringSiteOnline("NYC"));
+      assertEquals(XSiteAdminOperations.SUCCESS, admin(1).pushState("NYC"));
+
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return XSiteStateProvider.PushStatus.COMPLETED.toString().equals(admin(0).pushStateStatus("NYC"));
+         }
+      });
+      for (int i = 0; i < NUM_KEYS; i++) {
+         assertEquals("v" + i, backup("LON").get("k" + i));
+      }
+
+      long pushed = 0;
+      for (int i = 0; i < 2; i++) {
+         for (long segmentPushed : stateProvider(i).getStatePushProgress("NYC").values()) {
+            pushed += segmentPushed;
+         }
+      }
+      assertEquals(NUM_KEYS, pushed);
+   }
+
+   public void testPushedEntriesKeepTheirExpiration() {
+      assertEquals(XSiteAdminOperations.SUCCESS, admin(0).takeSiteOffline("NYC"));
+      cache("LON", 0).put("mortal", "v", 60, TimeUnit.SECONDS);
+      long expiryTime = entry("LON", "mortal").getExpiryTime();
+      // long enough for a restarted lifespan to be noticed
+      TestingUtil.sleepThread(1000);
+
+      assertEquals(XSiteAdminOperations.SUCCESS, admin(1).bringSiteOnline("NYC"));
+      assertEquals(XSiteAdminOperations.SUCCESS, admin(1).pushState("NYC"));
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return XSiteStateProvider.PushStatus.COMPLETED.toString().equals(admin(0).pushStateStatus("NYC"));
+         }
+      });
+
+      InternalCacheEntry pushed = entry("NYC", "mortal");
+      assertEquals("v", pushed.getValue());
+      assertTrue("Expiration restarted: " + pushed.getExpiryTime() + " instead of " + expiryTime,
+                 pushed.getExpiryTime() - expiryTime < 500);
+   }
+
+   public void testIncorrectSiteName() {
+      assertEquals("Incorrect site name: SFO", admin(0).pushState("SFO"));
+   }
+
+   private InternalCacheEntry entry(String site, Object key) {
+      for (int i = 0; i < 2; i++) {
+         InternalCacheEntry entry = cache(site, i).getAdvancedCache().getDataContainer().get(key);
+         if (entry != null) {
+            return entry;
+         }
+      }
+      throw new AssertionError("Key " + key + " not found in site " + site);
+   }
+
+   private XSiteAdminOperations admin(int index) {
+      return cache("LON", index).getAdvancedCache().getComponentRegistry().getComponent(XSiteAdminOperations.class);
+   }
+
+   private XSiteStateProvider stateProvider(int index) {
+      return cache("LON", index).getAdvancedCache().getComponentRegistry().getComponent(XSiteStateProvider.class);
+   }
+}
@@ -2,6 +2,7 @@
 
 import org.infinispan.commons.CacheListenerException;
 import org.infinispan.persistence.spi.PersistenceException;
+import org.infinispan.remoting.RemoteException;
 
 import javax.cache.CacheException;
 import javax.cache.event.CacheEntryListenerException;
@@ -9,6 +10,8 @@
 import javax.cache.integration.CacheWriterException;
 import javax.cache.processor.EntryProcessorException;
 
+import java.util.concurrent.ExecutionException;
+
 /**
  * Exception laundering utility class.
  *
@@ -45,6 +48,18 @@ static RuntimeException launderEntryProcessorException(Exception e) {
       }
    }
 
+   static RuntimeException launderRemoteException(Exception e) {
+      Throwable cause = e;
+      while ((cause instanceof ExecutionException || cause instanceof RemoteException)
+            && cause.getCause() != null)
+         cause = cause.getCause();
+
+      if (cause instanceof CacheException)
+         return (CacheException) cause;
+
+      return new CacheException(cause);
+   }
+
    static RuntimeException launderCacheListenerException(CacheListenerException e) {
       Throwable cause = e.getCause();
 
@@ -0,0 +1,105 @@
+package org.infinispan.jcache;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import javax.cache.processor.EntryProcessor;
+
+import org.infinispan.commands.remote.BaseRpcCommand;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.jcache.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * Invokes an {@link EntryProcessor} on some keys of a {@link JCache}, on the primary owner of these keys. The
+ * processor runs under the per key processor lock of the owner, which applies the changes made to the entries and
+ * replicates them to the backup owners, so only the results of the processor travel back to the caller.
+ *
+ * @since 7.0
+ */
+public class InvokeProcessorCommand extends BaseRpcCommand {
+
+   private static final Log log = LogFactory.getLog(InvokeProcessorCommand.class, Log.class);
+
+   public static final byte COMMAND_ID = ModuleCommandIds.INVOKE_PROCESSOR;
+
+   private Set<?> keys;
+   private EntryProcessor<?, ?, ?> entryProcessor;
+   private Object[] arguments;
+
+   // local instance (set only when command arrives on target node)
+   private JCache<?, ?> jcache;
+
+   /**
+    * For JCacheCommandFactory only.
+    */
+   public InvokeProcessorCommand(String cacheName) {
+      super(cacheName);
+   }
+
+   public InvokeProcessorCommand(String cacheName, Set<?> keys, EntryProcessor<?, ?, ?> entryProcessor,
+                                 Object[] arguments) {
+      super(cacheName);
+      this.keys = keys;
+      this.entryProcessor = entryProcessor;
+      this.arguments = arguments;
+   }
+
+   public void init(JCache<?, ?> jcache) {
+      this.jcache = jcache;
+   }
+
+   /**
+    * Invokes the entry processor on the keys of the local {@link JCache}.
+    *
+    * @param context invocation context, ignored.
+    * @return the non null results of the entry processor, by key, as a {@code Map}.
+    */
+   @Override
+   @SuppressWarnings("unchecked")
+   public Object perform(InvocationContext context) throws Throwable {
+      if (jcache == null || jcache.isClosed())
+         throw log.jcacheNotOpen(cacheName);
+
+      return ((JCache<Object, Object>) jcache).invokeLocally(
+            (Set<Object>) keys, (EntryProcessor<Object, Object, Object>) entryProcessor, arguments);
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public Object[] getParameters() {
+      return new Object[] { keys, entryProcessor, arguments };
+   }
+
+   @Override
+   public void setParameters(int commandId, Object[] args) {
+      int i = 0;
+      keys = (Set<?>) args[i++];
+      entryProcessor = (EntryProcessor<?, ?, ?>) args[i++];
+      arguments = (Object[]) args[i++];
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return true;
+   }
+
+   @Override
+   public boolean canBlock() {
+      return true;
+   }
+
+   @Override
+   public String toString() {
+      return "InvokeProcessorCommand{" +
+            "cacheName=" + cacheName +
+            ", keys=" + keys +
+            ", entryProcessor=" + entryProcessor +
+            ", arguments=" + Arrays.toString(arguments) +
+            '}';
+   }
+}
@@ -1,7 +1,9 @@
 package org.infinispan.jcache;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -10,6 +12,7 @@
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -35,8 +38,13 @@
 import org.infinispan.commons.api.AsyncCache;
 import org.infinispan.commons.util.ReflectionUtil;
 import org.infinispan.commons.util.concurrent.FutureListener;
+import org.infinispan.commons.util.concurrent.NotifyingFutureImpl;
+import org.infinispan.commons.util.concurrent.NotifyingNotifiableFuture;
+import org.infinispan.configuration.cache.CacheMode;
 import org.infinispan.context.Flag;
+import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.interceptors.EntryWrappingInterceptor;
+import org.infinispan.interceptors.locking.ClusteringDependentLogic;
 import org.infinispan.jcache.interceptor.ExpirationTrackingInterceptor;
 import org.infinispan.jcache.logging.Log;
 import org.infinispan.jmx.JmxUtil;
@@ -44,6 +52,12 @@
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.commons.util.InfinispanCollections;
 import org.infinispan.persistence.manager.PersistenceManagerImpl;
+import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.responses.SuccessfulResponse;
+import org.infinispan.remoting.rpc.ResponseMode;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.rpc.RpcOptions;
+import org.infinispan.remoting.transport.Address;
 import org.infinispan.util.concurrent.locks.containers.LockContainer;
 import org.infinispan.util.concurrent.locks.containers.ReentrantPerEntryLockContainer;
 import org.infinispan.util.logging.LogFactory;
@@ -76,6 +90,11 @@
    private final ExpiryPolicy expiryPolicy;
    private final LockContainer processorLocks = new ReentrantPerEntryLockContainer(32);
    private final long lockTimeout; // milliseconds
+   // Only set when entry processors are invoked on the primary owner of the keys
+   private final JCacheCommandInitializer commandInitializer;
+   private final ClusteringDependentLogic clusteringLogic;
+   private final RpcManager rpcManager;
+   private final RpcOptions processorRpcOptions;
    private final JCacheNotifier<K, V> notifier = new JCacheNotifier<K, V>();
    private CacheLoader<K, V> jcacheLoader;
    private CacheWriter<? super K, ? super V> jcacheWriter;
@@ -115,6 +134,31 @@ public JCache(AdvancedCache<K, V> cache, JCacheManager cacheManager, Configurati
 
       if (configuration.isStatisticsEnabled())
          setStatisticsEnabled(true);
+
+      // Entry processors of distributed and replicated caches run on the
+      // primary owner of the keys, except in transactional caches, where
+      // they run on the caller as part of its transaction.
+      ComponentRegistry registry = cache.getComponentRegistry();
+      org.infinispan.configuration.cache.Configuration cacheCfg = cache.getCacheConfiguration();
+      CacheMode cacheMode = cacheCfg.clustering().cacheMode();
+      JCacheCommandInitializer initializer = registry.getComponent(JCacheCommandInitializer.class);
+      if (initializer != null && (cacheMode.isDistributed() || cacheMode.isReplicated())
+            && !cacheCfg.transaction().transactionMode().isTransactional()) {
+         this.commandInitializer = initializer;
+         this.clusteringLogic = registry.getComponent(ClusteringDependentLogic.class);
+         this.rpcManager = cache.getRpcManager();
+         // The primary owner might have to wait for the processor lock
+         // before replicating the changes to the backup owners
+         this.processorRpcOptions = rpcManager.getRpcOptionsBuilder(ResponseMode.SYNCHRONOUS)
+               .timeout(cacheCfg.clustering().sync().replTimeout() + lockTimeout, TimeUnit.MILLISECONDS)
+               .build();
+         initializer.registerCache(this);
+      } else {
+         this.commandInitializer = null;
+         this.clusteringLogic = null;
+         this.rpcManager = null;
+         this.processorRpcOptions = null;
+      }
    }
 
    private void setCacheLoader(AdvancedCache<K, V> cache, Configuration<K, V> c) {
@@ -217,17 +261,27 @@ public Map<K, V> getAll(Set<? extends K> keys) {
          return InfinispanCollections.emptyMap();
       }
 
-      /**
-       * TODO: Just an idea here to consider down the line: if keys.size() is big (TBD...), each of
-       * this get calls could maybe be swapped by getAsync() in order to paralelise the retrieval of
-       * entries. It'd be interesting to do a small performance test to see after which number of
-       * elements doing it in paralel becomes more efficient than sequential :)
-       */
+      // Keys locked by an entry processor must be read one by one under the
+      // processor lock, the rest are retrieved with a single bulk read
+      Set<K> unlockedKeys = new HashSet<K>(keys.size());
       Map<K, V> result = new HashMap<K, V>(keys.size());
       for (K key : keys) {
-         V value = get(key);
-         if (value != null) {
-            result.put(key, value);
+         if (lockRequired(key)) {
+            V value = get(key);
+            if (value != null) {
+               result.put(key, value);
+            }
+         } else {
+            unlockedKeys.add(key);
+         }
+      }
+
+      if (!unlockedKeys.isEmpty()) {
+         Map<K, V> found = configuration.isReadThrough()
+               ? cache.getAll(unlockedKeys) : skipCacheLoadCache.getAll(unlockedKeys);
+         for (Map.Entry<K, V> entry : found.entrySet()) {
+            updateTTLForAccessed(cache, entry.getKey(), entry.getValue());
+            result.put(entry.getKey(), entry.getValue());
          }
       }
       return result;
@@ -284,6 +338,9 @@ public CacheManager getCacheManager() {
 
    @Override
    public void close() {
+      if (commandInitializer != null)
+         commandInitializer.unregisterCache(this);
+
       cache.stop();
    }
 
@@ -310,6 +367,35 @@ public <T> T invoke(final K key, final EntryProcessor<K, V, T> entryProcessor, f
       verifyKey(key);
       verifyEntryProcessor(entryProcessor);
 
+      if (log.isTraceEnabled())
+         log.tracef("Invoke entry processor %s for key=%s", entryProcessor, key);
+
+      Address owner = getRemotePrimaryOwner(key);
+      if (owner == null)
+         return invokeLocally(key, entryProcessor, arguments);
+
+      Map<K, T> results = getRemoteResults(owner,
+            invokeOnPrimaryOwner(owner, Collections.singleton(key), entryProcessor, arguments));
+      return results.get(key);
+   }
+
+   /**
+    * Invokes the entry processor on the keys, running it on this node,
+    * under the processor lock of each key. This is also how the primary
+    * owner runs the processors invoked from other nodes.
+    */
+   <T> Map<K, T> invokeLocally(Set<? extends K> keys, EntryProcessor<K, V, T> entryProcessor, Object[] arguments) {
+      Map<K, T> result = new HashMap<K, T>(keys.size());
+      for (K key : keys) {
+         T t = invokeLocally(key, entryProcessor, arguments);
+         if (t != null)
+            result.put(key, t);
+      }
+
+      return result;
+   }
+
+   private <T> T invokeLocally(final K key, final EntryProcessor<K, V, T> entryProcessor, final Object[] arguments) {
       // Using references for backup copies to provide perceived exclusive
       // read access, and only apply changes if original value was not
       // changed by another thread, the JSR requirements for this method could
@@ -317,9 +403,6 @@ public <T> T invoke(final K key, final EntryProcessor<K, V, T> entryProcessor, f
       // verify that under contended access, one of the threads should "wait"
       // for the other, hence the use locks.
 
-      if (log.isTraceEnabled())
-         log.tracef("Invoke entry processor %s for key=%s", entryProcessor, key);
-
       return new WithProcessorLock<T>().call(key, new Callable<T>() {
          @Override
          public T call() throws Exception {
@@ -386,16 +469,78 @@ public <T> Map<K, T> invokeAll(Set<? extends K> keys, EntryProcessor<K, V, T> en
       verifyKeys(keys);
       verifyEntryProcessor(entryProcessor);
 
-      Map<K, T> result = new HashMap<K, T>(keys.size());
+      if (log.isTraceEnabled())
+         log.tracef("Invoke entry processor %s for keys=%s", entryProcessor, keys);
+
+      // Send a single command to the primary owner of each group of keys,
+      // and run the processor on the keys owned by this node meanwhile
+      Set<K> localKeys = new HashSet<K>();
+      Map<Address, Set<K>> remoteKeys = new HashMap<Address, Set<K>>();
       for (K key : keys) {
-         T t = invoke(key, entryProcessor, arguments);
-         if (t != null)
-            result.put(key, t);
+         Address owner = getRemotePrimaryOwner(key);
+         if (owner == null) {
+            localKeys.add(key);
+         } else {
+            Set<K> ownerKeys = remoteKeys.get(owner);
+            if (ownerKeys == null) {
+               ownerKeys = new HashSet<K>();
+               remoteKeys.put(owner, ownerKeys);
+            }
+            ownerKeys.add(key);
+         }
       }
 
+      Map<Address, Future<Object>> futures = new HashMap<Address, Future<Object>>(remoteKeys.size());
+      for (Map.Entry<Address, Set<K>> entry : remoteKeys.entrySet()) {
+         Address owner = entry.getKey();
+         futures.put(owner, invokeOnPrimaryOwner(owner, entry.getValue(), entryProcessor, arguments));
+      }
+
+      Map<K, T> result = invokeLocally(localKeys, entryProcessor, arguments);
+      for (Map.Entry<Address, Future<Object>> entry : futures.entrySet())
+         result.putAll(this.<T>getRemoteResults(entry.getKey(), entry.getValue()));
+
       return result;
    }
 
+   /**
+    * Returns the primary owner of the key, if the entry processors are
+    * invoked on the primary owners and this node is not the one, or null
+    * if the processor should run on this node.
+    */
+   private Address getRemotePrimaryOwner(K key) {
+      if (clusteringLogic == null || clusteringLogic.localNodeIsPrimaryOwner(key))
+         return null;
+
+      return clusteringLogic.getPrimaryOwner(key);
+   }
+
+   private NotifyingNotifiableFuture<Object> invokeOnPrimaryOwner(Address owner, Set<? extends K> keys,
+         EntryProcessor<K, V, ?> entryProcessor, Object[] arguments) {
+      InvokeProcessorCommand command = new InvokeProcessorCommand(getName(), keys, entryProcessor, arguments);
+      NotifyingNotifiableFuture<Object> future = new NotifyingFutureImpl<Object>();
+      rpcManager.invokeRemotelyInFuture(Collections.singleton(owner), command, processorRpcOptions, future);
+      return future;
+   }
+
+   @SuppressWarnings("unchecked")
+   private <T> Map<K, T> getRemoteResults(Address owner, Future<Object> future) {
+      try {
+         Map<Address, Response> responses = (Map<Address, Response>) future.get();
+         Response response = responses.get(owner);
+         if (response instanceof SuccessfulResponse)
+            return (Map<K, T>) ((SuccessfulResponse) response).getResponseValue();
+
+         throw new CacheException("Unexpected response from " + owner + ": " + response);
+      } catch (InterruptedException e) {
+         // restore interrupted status
+         Thread.currentThread().interrupt();
+         throw new CacheException(e);
+      } catch (ExecutionException e) {
+         throw Exceptions.launderRemoteException(e);
+      }
+   }
+
    @SuppressWarnings("unchecked")
    private V safeCopy(V original) {
       try {
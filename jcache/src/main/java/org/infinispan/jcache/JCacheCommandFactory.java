@@ -0,0 +1,45 @@
+package org.infinispan.jcache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.module.ExtendedModuleCommandFactory;
+import org.infinispan.commands.remote.CacheRpcCommand;
+
+/**
+ * Remote commands factory of the JCache module.
+ *
+ * @since 7.0
+ */
+public class JCacheCommandFactory implements ExtendedModuleCommandFactory {
+
+   @Override
+   public Map<Byte, Class<? extends ReplicableCommand>> getModuleCommands() {
+      Map<Byte, Class<? extends ReplicableCommand>> map = new HashMap<Byte, Class<? extends ReplicableCommand>>(1);
+      map.put(Byte.valueOf(InvokeProcessorCommand.COMMAND_ID), InvokeProcessorCommand.class);
+      return map;
+   }
+
+   @Override
+   public ReplicableCommand fromStream(byte commandId, Object[] args) {
+      // Should not be called while this factory only
+      // provides cache specific replicable commands.
+      return null;
+   }
+
+   @Override
+   public CacheRpcCommand fromStream(byte commandId, Object[] args, String cacheName) {
+      CacheRpcCommand c;
+      switch (commandId) {
+         case InvokeProcessorCommand.COMMAND_ID:
+            c = new InvokeProcessorCommand(cacheName);
+            break;
+         default:
+            throw new IllegalArgumentException("Not registered to handle command id " + commandId);
+      }
+      c.setParameters(commandId, args);
+      return c;
+   }
+
+}
@@ -0,0 +1,36 @@
+package org.infinispan.jcache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.module.ModuleCommandInitializer;
+
+/**
+ * Initializes the remote commands of the JCache module with the {@link JCache} wrapping the cache they target.
+ * A single instance is shared by all the caches of a cache manager, so the {@link JCache} instances register
+ * themselves here by cache name when they are created.
+ *
+ * @since 7.0
+ */
+public final class JCacheCommandInitializer implements ModuleCommandInitializer {
+
+   private final ConcurrentMap<String, JCache<?, ?>> caches = new ConcurrentHashMap<String, JCache<?, ?>>();
+
+   void registerCache(JCache<?, ?> cache) {
+      caches.put(cache.getName(), cache);
+   }
+
+   void unregisterCache(JCache<?, ?> cache) {
+      caches.remove(cache.getName(), cache);
+   }
+
+   @Override
+   public void initializeReplicableCommand(ReplicableCommand c, boolean isRemote) {
+      //we don't waste cycles to check it's the correct type, as that would be a
+      //critical error anyway: let it throw a ClassCastException.
+      InvokeProcessorCommand command = (InvokeProcessorCommand) c;
+      command.init(caches.get(command.getCacheName()));
+   }
+
+}
@@ -0,0 +1,24 @@
+package org.infinispan.jcache;
+
+import org.infinispan.commands.module.ExtendedModuleCommandFactory;
+import org.infinispan.commands.module.ModuleCommandExtensions;
+import org.infinispan.commands.module.ModuleCommandInitializer;
+
+/**
+ * Registers the RPC commands of the JCache module.
+ *
+ * @since 7.0
+ */
+public class JCacheModuleCommandExtensions implements ModuleCommandExtensions {
+
+   @Override
+   public ExtendedModuleCommandFactory getModuleCommandFactory() {
+      return new JCacheCommandFactory();
+   }
+
+   @Override
+   public ModuleCommandInitializer getModuleCommandInitializer() {
+      return new JCacheCommandInitializer();
+   }
+
+}
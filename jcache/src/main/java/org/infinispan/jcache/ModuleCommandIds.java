@@ -0,0 +1,14 @@
+package org.infinispan.jcache;
+
+/**
+ * The JCache module is using custom RPC commands; to make sure the used command ids
+ * are unique all numbers are defined here, and should stay in the range 120-124
+ * which is the reserved range for this module.
+ *
+ * @since 7.0
+ */
+public interface ModuleCommandIds {
+
+   public static final byte INVOKE_PROCESSOR = 120;
+
+}
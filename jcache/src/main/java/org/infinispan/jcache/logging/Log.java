@@ -72,6 +72,9 @@ public interface Log extends org.infinispan.util.logging.Log {
    @Message(value = "Error loading %s keys from persistence store", id = 21017)
    <K> void errorLoadingAll(List<K> keysToLoad, @Cause Throwable t);
 
+   @Message(value = "Cache %s is not open as a JCache on this node, entry processors can not be invoked on it", id = 21018)
+   CacheException jcacheNotOpen(String cacheName);
+
    class LeakDescription extends Throwable {
 
       public LeakDescription() {
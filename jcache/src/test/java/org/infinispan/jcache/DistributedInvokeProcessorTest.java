@@ -0,0 +1,110 @@
+package org.infinispan.jcache;
+
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.distribution.MagicKey;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.testng.annotations.Test;
+
+import javax.cache.Cache;
+import javax.cache.processor.EntryProcessor;
+import javax.cache.processor.EntryProcessorException;
+import javax.cache.processor.MutableEntry;
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.infinispan.jcache.util.JCacheTestingUtil.createJCacheManager;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+
+/**
+ * Tests the invocation of entry processors on the primary owner of the keys of a distributed cache.
+ *
+ * @since 7.0
+ */
+@Test(groups = "functional", testName = "jcache.DistributedInvokeProcessorTest")
+public class DistributedInvokeProcessorTest extends MultipleCacheManagersTest {
+
+   private static final String CACHE_NAME = "dist";
+
+   private Cache<Object, Object> jcache0;
+   private Cache<Object, Object> jcache1;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(1);
+      createClusteredCaches(2, CACHE_NAME, builder);
+
+      jcache0 = createJCacheManager(manager(0), this).getCache(CACHE_NAME);
+      jcache1 = createJCacheManager(manager(1), this).getCache(CACHE_NAME);
+   }
+
+   public void testInvokeOnRemotePrimaryOwner() {
+      MagicKey key = new MagicKey(cache(1, CACHE_NAME));
+
+      assertEquals(1, jcache0.invoke(key, new IncrementProcessor()));
+      assertEquals(2, jcache0.invoke(key, new IncrementProcessor()));
+      assertEquals(3, jcache1.invoke(key, new IncrementProcessor()));
+
+      assertEquals(3, jcache0.get(key));
+      assertEquals(3, jcache1.get(key));
+   }
+
+   public void testRemoveOnRemotePrimaryOwner() {
+      MagicKey key = new MagicKey(cache(1, CACHE_NAME));
+      jcache0.put(key, 1);
+
+      assertNull(jcache0.invoke(key, new RemoveProcessor()));
+      assertNull(jcache0.get(key));
+      assertNull(jcache1.get(key));
+   }
+
+   public void testInvokeAllGroupsKeysByPrimaryOwner() {
+      Set<Object> keys = new HashSet<Object>();
+      for (int i = 0; i < 5; i++) {
+         keys.add(new MagicKey(cache(0, CACHE_NAME)));
+         keys.add(new MagicKey(cache(1, CACHE_NAME)));
+      }
+
+      Map<Object, Object> results = jcache0.invokeAll(keys, new IncrementProcessor());
+      assertEquals(keys.size(), results.size());
+      for (Object key : keys) {
+         assertEquals(1, results.get(key));
+         assertEquals(1, jcache1.get(key));
+      }
+   }
+
+   @Test(expectedExceptions = EntryProcessorException.class)
+   public void testProcessorExceptionOnRemotePrimaryOwner() {
+      MagicKey key = new MagicKey(cache(1, CACHE_NAME));
+      jcache0.invoke(key, new FailingProcessor());
+   }
+
+   private static class IncrementProcessor implements EntryProcessor<Object, Object, Object>, Serializable {
+      @Override
+      public Object process(MutableEntry<Object, Object> entry, Object... arguments) {
+         Integer value = entry.exists() ? (Integer) entry.getValue() + 1 : 1;
+         entry.setValue(value);
+         return value;
+      }
+   }
+
+   private static class RemoveProcessor implements EntryProcessor<Object, Object, Object>, Serializable {
+      @Override
+      public Object process(MutableEntry<Object, Object> entry, Object... arguments) {
+         entry.remove();
+         return null;
+      }
+   }
+
+   private static class FailingProcessor implements EntryProcessor<Object, Object, Object>, Serializable {
+      @Override
+      public Object process(MutableEntry<Object, Object> entry, Object... arguments) {
+         throw new IllegalStateException("Expected failure");
+      }
+   }
+
+}
@@ -16,6 +16,7 @@
 import org.infinispan.persistence.jdbc.connectionfactory.ManagedConnectionFactory;
 import org.infinispan.persistence.jdbc.logging.Log;
 import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.infinispan.persistence.spi.BatchCacheWriter;
 import org.infinispan.persistence.spi.InitializationContext;
 import org.infinispan.persistence.support.Bucket;
 import org.infinispan.util.concurrent.locks.StripedLock;
@@ -27,10 +28,14 @@
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
@@ -53,7 +58,7 @@
  * @see org.infinispan.persistence.jdbc.configuration.JdbcBinaryStoreConfiguration
  * @see org.infinispan.persistence.jdbc.stringbased.JdbcStringBasedStore
  */
-public class JdbcBinaryStore implements AdvancedLoadWriteStore {
+public class JdbcBinaryStore implements AdvancedLoadWriteStore, BatchCacheWriter {
 
    private static final Log log = LogFactory.getLog(JdbcBinaryStore.class, Log.class);
 
@@ -166,6 +171,100 @@ public final boolean delete(Object key) {
       }
    }
 
+   /**
+    * Applies all the entries falling into the same bucket with a single read-modify-write of that bucket, and
+    * sends the changed buckets to the database as one JDBC batch.
+    */
+   @Override
+   public void writeBatch(Iterable entries) {
+      Map<Integer, List<MarshalledEntry>> byBucket = new HashMap<Integer, List<MarshalledEntry>>();
+      List<Object> expiredKeys = new ArrayList<Object>();
+      long now = ctx.getTimeService().wallClockTime();
+      for (Object o : entries) {
+         MarshalledEntry entry = (MarshalledEntry) o;
+         InternalMetadata m = entry.getMetadata();
+         if (m != null && m.isExpired(now)) {
+            expiredKeys.add(entry.getKey());
+            continue;
+         }
+         Integer bucketId = getBuckedId(entry.getKey());
+         List<MarshalledEntry> bucketEntries = byBucket.get(bucketId);
+         if (bucketEntries == null) {
+            bucketEntries = new ArrayList<MarshalledEntry>();
+            byBucket.put(bucketId, bucketEntries);
+         }
+         bucketEntries.add(entry);
+      }
+      if (!expiredKeys.isEmpty()) {
+         deleteBatch(expiredKeys);
+      }
+      if (byBucket.isEmpty()) {
+         return;
+      }
+
+      List<Object> bucketIds = new ArrayList<Object>(byBucket.keySet());
+      locks.acquireAllLocks(bucketIds, true);
+      try {
+         List<Bucket> toInsert = new ArrayList<Bucket>();
+         List<Bucket> toUpdate = new ArrayList<Bucket>();
+         for (Map.Entry<Integer, List<MarshalledEntry>> e : byBucket.entrySet()) {
+            Bucket bucket = loadBucket(e.getKey());
+            if (bucket != null) {
+               toUpdate.add(bucket);
+            } else {
+               bucket = new Bucket(keyEquivalence);
+               bucket.setBucketId(e.getKey());
+               toInsert.add(bucket);
+            }
+            for (MarshalledEntry me : e.getValue()) {
+               bucket.addEntry(me.getKey(), me);
+            }
+         }
+         storeBuckets(toInsert, toUpdate);
+      } finally {
+         locks.releaseAllLocks(bucketIds);
+      }
+   }
+
+   @Override
+   public void deleteBatch(Iterable keys) {
+      Map<Integer, List<Object>> byBucket = new HashMap<Integer, List<Object>>();
+      for (Object key : keys) {
+         Integer bucketId = getBuckedId(key);
+         List<Object> bucketKeys = byBucket.get(bucketId);
+         if (bucketKeys == null) {
+            bucketKeys = new ArrayList<Object>();
+            byBucket.put(bucketId, bucketKeys);
+         }
+         bucketKeys.add(key);
+      }
+      if (byBucket.isEmpty()) {
+         return;
+      }
+
+      List<Object> bucketIds = new ArrayList<Object>(byBucket.keySet());
+      locks.acquireAllLocks(bucketIds, true);
+      try {
+         List<Bucket> toUpdate = new ArrayList<Bucket>();
+         for (Map.Entry<Integer, List<Object>> e : byBucket.entrySet()) {
+            Bucket bucket = loadBucket(e.getKey());
+            if (bucket == null) {
+               continue;
+            }
+            boolean changed = false;
+            for (Object key : e.getValue()) {
+               changed |= bucket.removeEntry(key);
+            }
+            if (changed) {
+               toUpdate.add(bucket);
+            }
+         }
+         storeBuckets(Collections.<Bucket>emptyList(), toUpdate);
+      } finally {
+         locks.releaseAllLocks(bucketIds);
+      }
+   }
+
    @Override
    public void process(final KeyFilter filter, final CacheLoaderTask task, Executor executor, boolean fetchValue, boolean fetchMetadata) {
       Connection conn = null;
@@ -427,6 +526,59 @@ protected void insertBucket(Bucket bucket) {
       }
    }
 
+   /**
+    * Inserts and updates the given buckets using one JDBC batch for each kind of statement. The callers must hold
+    * the write locks of all the buckets.
+    */
+   protected void storeBuckets(Collection<Bucket> toInsert, Collection<Bucket> toUpdate) {
+      if (toInsert.isEmpty() && toUpdate.isEmpty()) {
+         return;
+      }
+      Connection conn = null;
+      try {
+         conn = connectionFactory.getConnection();
+         if (!toInsert.isEmpty()) {
+            executeBucketBatch(conn, tableManipulation.getInsertRowSql(), toInsert);
+         }
+         if (!toUpdate.isEmpty()) {
+            executeBucketBatch(conn, tableManipulation.getUpdateRowSql(), toUpdate);
+         }
+      } catch (SQLException ex) {
+         log.sqlFailureStoringKeys(ex);
+         throw new PersistenceException("Sql failure while storing buckets", ex);
+      } catch (InterruptedException ie) {
+         if (log.isTraceEnabled()) {
+            log.trace("Interrupted while marshalling buckets");
+         }
+         Thread.currentThread().interrupt();
+      } finally {
+         connectionFactory.releaseConnection(conn);
+      }
+   }
+
+   private void executeBucketBatch(Connection conn, String sql, Collection<Bucket> buckets) throws SQLException, InterruptedException {
+      PreparedStatement ps = null;
+      try {
+         if (log.isTraceEnabled()) {
+            log.tracef("Running sql '%s' as a batch on buckets %s", sql, buckets);
+         }
+         ps = conn.prepareStatement(sql);
+         for (Bucket bucket : buckets) {
+            ByteBuffer buffer = JdbcUtil.marshall(ctx.getMarshaller(), bucket.getStoredEntries());
+            ps.setBinaryStream(1, new ByteArrayInputStream(buffer.getBuf(), buffer.getOffset(), buffer.getLength()), buffer.getLength());
+            ps.setLong(2, bucket.timestampOfFirstEntryToExpire());
+            ps.setString(3, bucket.getBucketIdAsString());
+            ps.addBatch();
+         }
+         int[] batchResult = ps.executeBatch();
+         if (log.isTraceEnabled()) {
+            log.tracef("Flushed the batch and received following results: %s", Arrays.toString(batchResult));
+         }
+      } finally {
+         JdbcUtil.safeClose(ps);
+      }
+   }
+
    protected void updateBucket(Bucket bucket) {
       Connection conn = null;
       PreparedStatement ps = null;
@@ -12,11 +12,14 @@
 import org.infinispan.persistence.jdbc.connectionfactory.ConnectionFactory;
 import org.infinispan.persistence.jdbc.stringbased.JdbcStringBasedStore;
 import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.infinispan.persistence.spi.BatchCacheWriter;
 import org.infinispan.persistence.spi.InitializationContext;
 import org.infinispan.marshall.core.MarshalledEntry;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Executor;
 
 /**
@@ -43,7 +46,7 @@
  * @see org.infinispan.persistence.jdbc.binary.JdbcBinaryStore
  * @see org.infinispan.persistence.jdbc.stringbased.JdbcStringBasedStore
  */
-public class JdbcMixedStore implements AdvancedLoadWriteStore {
+public class JdbcMixedStore implements AdvancedLoadWriteStore, BatchCacheWriter {
 
    private static final Log log = LogFactory.getLog(JdbcMixedStore.class);
 
@@ -126,6 +129,29 @@ public boolean delete(Object key) {
       return getStore(key).delete(key);
    }
 
+   @Override
+   public void writeBatch(Iterable entries) {
+      List<MarshalledEntry> stringEntries = new ArrayList<MarshalledEntry>();
+      List<MarshalledEntry> binaryEntries = new ArrayList<MarshalledEntry>();
+      for (Object o : entries) {
+         MarshalledEntry entry = (MarshalledEntry) o;
+         (getStore(entry.getKey()) == stringStore ? stringEntries : binaryEntries).add(entry);
+      }
+      if (!stringEntries.isEmpty()) stringStore.writeBatch(stringEntries);
+      if (!binaryEntries.isEmpty()) binaryStore.writeBatch(binaryEntries);
+   }
+
+   @Override
+   public void deleteBatch(Iterable keys) {
+      List<Object> stringKeys = new ArrayList<Object>();
+      List<Object> binaryKeys = new ArrayList<Object>();
+      for (Object key : keys) {
+         (getStore(key) == stringStore ? stringKeys : binaryKeys).add(key);
+      }
+      if (!stringKeys.isEmpty()) stringStore.deleteBatch(stringKeys);
+      if (!binaryKeys.isEmpty()) binaryStore.deleteBatch(binaryKeys);
+   }
+
    @Override
    public int size() {
       return stringStore.size() + binaryStore.size();
@@ -14,16 +14,20 @@
 import org.infinispan.persistence.keymappers.TwoWayKey2StringMapper;
 import org.infinispan.persistence.keymappers.UnsupportedKeyTypeException;
 import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.infinispan.persistence.spi.BatchCacheWriter;
 import org.infinispan.persistence.spi.InitializationContext;
 import org.infinispan.util.KeyValuePair;
 import org.infinispan.util.logging.LogFactory;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
@@ -66,7 +70,7 @@
  * @see org.infinispan.persistence.keymappers.Key2StringMapper
  * @see org.infinispan.persistence.keymappers.DefaultTwoWayKey2StringMapper
  */
-public class JdbcStringBasedStore implements AdvancedLoadWriteStore {
+public class JdbcStringBasedStore implements AdvancedLoadWriteStore, BatchCacheWriter {
 
    private static final Log log = LogFactory.getLog(JdbcStringBasedStore.class, Log.class);
 
@@ -178,6 +182,129 @@ public void write(MarshalledEntry entry) {
       }
    }
 
+   @Override
+   public void writeBatch(Iterable entries) {
+      // the last write of a key wins, a key can only be inserted once
+      Map<String, MarshalledEntry> toStore = new LinkedHashMap<String, MarshalledEntry>();
+      for (Object o : entries) {
+         MarshalledEntry entry = (MarshalledEntry) o;
+         toStore.put(key2Str(entry.getKey()), entry);
+      }
+      if (toStore.isEmpty()) {
+         return;
+      }
+      Connection connection = null;
+      PreparedStatement selectPs = null;
+      PreparedStatement insertPs = null;
+      PreparedStatement updatePs = null;
+      ResultSet rs = null;
+      try {
+         connection = connectionFactory.getConnection();
+         selectPs = connection.prepareStatement(tableManipulation.getSelectIdRowSql());
+         insertPs = connection.prepareStatement(tableManipulation.getInsertRowSql());
+         updatePs = connection.prepareStatement(tableManipulation.getUpdateRowSql());
+         Map<String, MarshalledEntry> inserts = new LinkedHashMap<String, MarshalledEntry>();
+         int updates = 0;
+         for (Map.Entry<String, MarshalledEntry> e : toStore.entrySet()) {
+            String keyStr = e.getKey();
+            MarshalledEntry entry = e.getValue();
+            selectPs.setString(1, keyStr);
+            rs = selectPs.executeQuery();
+            boolean exists = rs.next();
+            JdbcUtil.safeClose(rs);
+            rs = null;
+            if (exists) {
+               updateStatement(entry, keyStr, updatePs);
+               updatePs.addBatch();
+               updates++;
+            } else {
+               updateStatement(entry, keyStr, insertPs);
+               insertPs.addBatch();
+               inserts.put(keyStr, entry);
+            }
+         }
+         if (log.isTraceEnabled()) {
+            log.tracef("Running batch of %d inserts and %d updates", inserts.size(), updates);
+         }
+         if (updates > 0) updatePs.executeBatch();
+         if (!inserts.isEmpty()) {
+            try {
+               insertPs.executeBatch();
+            } catch (BatchUpdateException ex) {
+               // A concurrent writer inserted some of the keys since they were selected, and drivers differ in
+               // whether they carry on with the rest of the batch, so write the inserted keys again one at a time
+               log.debugf(ex, "Batch insert failed, writing its %d keys one at a time", inserts.size());
+               insertPs.clearBatch();
+               for (Map.Entry<String, MarshalledEntry> e : inserts.entrySet()) {
+                  updateOrInsert(e.getValue(), e.getKey(), updatePs, insertPs);
+               }
+            }
+         }
+      } catch (SQLException ex) {
+         log.sqlFailureStoringKeys(ex);
+         throw new PersistenceException("SQL Error while storing string keys to database", ex);
+      } catch (InterruptedException e) {
+         if (log.isTraceEnabled()) {
+            log.trace("Interrupted while marshalling to store");
+         }
+         Thread.currentThread().interrupt();
+      } finally {
+         JdbcUtil.safeClose(rs);
+         JdbcUtil.safeClose(selectPs);
+         JdbcUtil.safeClose(insertPs);
+         JdbcUtil.safeClose(updatePs);
+         connectionFactory.releaseConnection(connection);
+      }
+   }
+
+   /**
+    * Updates the row of the key, or inserts it if there is none. If the insert fails because a concurrent writer
+    * inserted the row in the meantime, the row is updated instead.
+    */
+   private void updateOrInsert(MarshalledEntry entry, String keyStr, PreparedStatement updatePs,
+                               PreparedStatement insertPs) throws SQLException, InterruptedException {
+      updateStatement(entry, keyStr, updatePs);
+      if (updatePs.executeUpdate() > 0) {
+         return;
+      }
+      try {
+         updateStatement(entry, keyStr, insertPs);
+         insertPs.executeUpdate();
+      } catch (SQLException ex) {
+         updateStatement(entry, keyStr, updatePs);
+         if (updatePs.executeUpdate() == 0) {
+            throw ex;
+         }
+      }
+   }
+
+   @Override
+   public void deleteBatch(Iterable keys) {
+      Connection connection = null;
+      PreparedStatement ps = null;
+      try {
+         String sql = tableManipulation.getDeleteRowSql();
+         connection = connectionFactory.getConnection();
+         ps = connection.prepareStatement(sql);
+         int deletes = 0;
+         for (Object key : keys) {
+            ps.setString(1, key2Str(key));
+            ps.addBatch();
+            deletes++;
+         }
+         if (log.isTraceEnabled()) {
+            log.tracef("Running sql '%s' as a batch of %d deletes", sql, deletes);
+         }
+         if (deletes > 0) ps.executeBatch();
+      } catch (SQLException ex) {
+         log.sqlFailureRemovingKeys(ex);
+         throw new PersistenceException("Error while removing string keys from database", ex);
+      } finally {
+         JdbcUtil.safeClose(ps);
+         connectionFactory.releaseConnection(connection);
+      }
+   }
+
    @Override
    public MarshalledEntry load(Object key) {
       String lockingKey = key2Str(key);
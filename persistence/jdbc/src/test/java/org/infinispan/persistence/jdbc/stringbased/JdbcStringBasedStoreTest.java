@@ -1,6 +1,8 @@
 package org.infinispan.persistence.jdbc.stringbased;
 
 import org.infinispan.commons.io.ByteBufferFactoryImpl;
+import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.marshall.core.MarshalledEntryImpl;
 import org.infinispan.marshall.core.MarshalledEntryFactoryImpl;
 import org.infinispan.persistence.BaseStoreTest;
 import org.infinispan.persistence.spi.PersistenceException;
@@ -10,13 +12,20 @@
 import org.infinispan.persistence.jdbc.connectionfactory.ConnectionFactory;
 import org.infinispan.persistence.keymappers.UnsupportedKeyTypeException;
 import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.infinispan.persistence.spi.BatchCacheWriter;
 import org.infinispan.test.fwk.TestCacheManagerFactory;
 import org.infinispan.test.fwk.UnitTestDatabaseManager;
 import org.infinispan.util.DefaultTimeService;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
+import static org.testng.AssertJUnit.assertEquals;
 
 /**
  * Tester class  for {@link JdbcStringBasedStore}.
@@ -74,6 +83,32 @@ public void testNotCreateConnectionFactory() throws Exception {
       stringBasedCacheStore.stop();
    }
 
+   public void testConcurrentBatchesInsertingSameKeys() throws Exception {
+      for (int round = 0; round < 20; round++) {
+         List<Future<Void>> futures = new ArrayList<Future<Void>>();
+         for (int writer = 0; writer < 2; writer++) {
+            final List<MarshalledEntry> batch = new ArrayList<MarshalledEntry>();
+            for (int i = 0; i < 10; i++) {
+               String key = "r" + round + "-k" + i;
+               batch.add(new MarshalledEntryImpl(key, wrap(key, "w" + writer), null, getMarshaller()));
+            }
+            futures.add(fork(new Callable<Void>() {
+               @Override
+               public Void call() throws Exception {
+                  ((BatchCacheWriter) cl).writeBatch(batch);
+                  return null;
+               }
+            }));
+         }
+         for (Future<Void> future : futures) {
+            future.get();
+         }
+         for (int i = 0; i < 10; i++) {
+            assertEquals(true, cl.contains("r" + round + "-k" + i));
+         }
+      }
+   }
+
    @Override
    @Test(expectedExceptions = UnsupportedKeyTypeException.class)
    public void testLoadAndStoreMarshalledValues() throws PersistenceException {
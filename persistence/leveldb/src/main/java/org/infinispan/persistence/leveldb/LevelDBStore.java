@@ -11,6 +11,7 @@
 import org.infinispan.persistence.leveldb.configuration.LevelDBStoreConfiguration;
 import org.infinispan.persistence.leveldb.logging.Log;
 import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.infinispan.persistence.spi.BatchCacheWriter;
 import org.infinispan.persistence.spi.InitializationContext;
 import org.infinispan.util.logging.LogFactory;
 import org.iq80.leveldb.CompressionType;
@@ -20,6 +21,7 @@
 import org.iq80.leveldb.DBIterator;
 import org.iq80.leveldb.Options;
 import org.iq80.leveldb.ReadOptions;
+import org.iq80.leveldb.WriteBatch;
 
 import java.io.File;
 import java.io.IOException;
@@ -33,7 +35,7 @@
 import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
 
-public class LevelDBStore implements AdvancedLoadWriteStore {
+public class LevelDBStore implements AdvancedLoadWriteStore, BatchCacheWriter {
    private static final Log log = LogFactory.getLog(LevelDBStore.class, Log.class);
 
    private static final String JNI_DB_FACTORY_CLASS_NAME = "org.fusesource.leveldbjni.JniDBFactory";
@@ -331,6 +333,53 @@ public void write(MarshalledEntry me)  {
       }
    }
 
+   @Override
+   public void writeBatch(Iterable entries) {
+      WriteBatch batch = db.createWriteBatch();
+      try {
+         List<MarshalledEntry> expiring = new ArrayList<MarshalledEntry>();
+         for (Object o : entries) {
+            MarshalledEntry me = (MarshalledEntry) o;
+            batch.put(marshall(me.getKey()), marshall(me));
+            InternalMetadata meta = me.getMetadata();
+            if (meta != null && meta.expiryTime() > -1) {
+               expiring.add(me);
+            }
+         }
+         db.write(batch);
+         for (MarshalledEntry me : expiring) {
+            addNewExpiry(me);
+         }
+      } catch (Exception e) {
+         throw new DBException(e);
+      } finally {
+         closeBatch(batch);
+      }
+   }
+
+   @Override
+   public void deleteBatch(Iterable keys) {
+      WriteBatch batch = db.createWriteBatch();
+      try {
+         for (Object key : keys) {
+            batch.delete(marshall(key));
+         }
+         db.write(batch);
+      } catch (Exception e) {
+         throw new PersistenceException(e);
+      } finally {
+         closeBatch(batch);
+      }
+   }
+
+   private void closeBatch(WriteBatch batch) {
+      try {
+         batch.close();
+      } catch (IOException e) {
+         log.warnUnableToCloseWriteBatch(e);
+      }
+   }
+
    @Override
    public MarshalledEntry load(Object key)  {
       try {
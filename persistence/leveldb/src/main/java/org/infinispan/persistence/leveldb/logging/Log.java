@@ -44,4 +44,8 @@ public interface Log extends org.infinispan.util.logging.Log {
 
    @Message(value = "Could not load any LevelDB Factories: : %s", id = 23007)
    PersistenceException cannotLoadlevelDBFactories(String formattedArrayOfClassNames);
+
+   @LogMessage(level = WARN)
+   @Message(value = "unable to close write batch", id = 23008)
+   void warnUnableToCloseWriteBatch(@Cause Throwable throwable);
 }
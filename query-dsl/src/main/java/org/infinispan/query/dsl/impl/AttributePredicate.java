@@ -0,0 +1,272 @@
+package org.infinispan.query.dsl.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A predicate on the values of an attribute. If the attribute path goes through collections the attribute can have
+ * several values, and the predicate matches if any of them satisfies the condition, the same way an indexed query
+ * matches any of the values indexed for an embedded collection.
+ *
+ * @since 7.0
+ */
+abstract class AttributePredicate implements ObjectPredicate {
+
+   private static final long serialVersionUID = -4979834409366036233L;
+
+   protected final PropertyPath propertyPath;
+
+   protected AttributePredicate(PropertyPath propertyPath) {
+      this.propertyPath = propertyPath;
+   }
+
+   @Override
+   public boolean match(Object instance) {
+      for (Object value : propertyPath.getValues(instance)) {
+         if (matchValue(value)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Evaluates the condition against one of the non-null values of the attribute.
+    */
+   protected abstract boolean matchValue(Object value);
+
+   /**
+    * Compares an attribute value to an argument of the query. Numbers of different types are compared by their
+    * numeric value and enums can be compared to the name of a constant.
+    */
+   @SuppressWarnings("unchecked")
+   static int compare(Object value, Object argument) {
+      if (value instanceof Number && argument instanceof Number) {
+         if (isIntegral(value) && isIntegral(argument)) {
+            long v = ((Number) value).longValue();
+            long a = ((Number) argument).longValue();
+            return v < a ? -1 : (v == a ? 0 : 1);
+         }
+         return Double.compare(((Number) value).doubleValue(), ((Number) argument).doubleValue());
+      }
+      if (value instanceof Enum && argument instanceof String) {
+         return ((Enum) value).name().compareTo((String) argument);
+      }
+      if (value instanceof Comparable) {
+         try {
+            return ((Comparable) value).compareTo(argument);
+         } catch (ClassCastException e) {
+            // fall through
+         }
+      }
+      throw new IllegalArgumentException("Cannot compare " + value + " (" + value.getClass().getName() + ") to "
+                                               + argument + " (" + argument.getClass().getName() + ")");
+   }
+
+   static boolean equal(Object value, Object argument) {
+      if (value instanceof Number && argument instanceof Number) {
+         return compare(value, argument) == 0;
+      }
+      if (value instanceof Enum && argument instanceof String) {
+         return ((Enum) value).name().equals(argument);
+      }
+      return value.equals(argument);
+   }
+
+   private static boolean isIntegral(Object number) {
+      return number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte;
+   }
+
+   static List<Object> toList(Object argument) {
+      if (argument instanceof Collection) {
+         return new ArrayList<Object>((Collection<?>) argument);
+      }
+      if (argument instanceof Object[]) {
+         return Arrays.asList((Object[]) argument);
+      }
+      throw new IllegalArgumentException("Expecting a Collection or an array of Object");
+   }
+
+   enum ComparisonType {
+      EQ("="), LT("<"), LTE("<="), GT(">"), GTE(">=");
+
+      private final String symbol;
+
+      ComparisonType(String symbol) {
+         this.symbol = symbol;
+      }
+   }
+
+   static final class Comparison extends AttributePredicate {
+
+      private static final long serialVersionUID = 3560542981733419623L;
+
+      private final ComparisonType type;
+
+      private final Object argument;
+
+      Comparison(PropertyPath propertyPath, ComparisonType type, Object argument) {
+         super(propertyPath);
+         this.type = type;
+         this.argument = argument;
+      }
+
+      @Override
+      protected boolean matchValue(Object value) {
+         switch (type) {
+            case EQ:
+               return equal(value, argument);
+            case LT:
+               return compare(value, argument) < 0;
+            case LTE:
+               return compare(value, argument) <= 0;
+            case GT:
+               return compare(value, argument) > 0;
+            case GTE:
+               return compare(value, argument) >= 0;
+            default:
+               throw new IllegalStateException("Unexpected comparison type " + type);
+         }
+      }
+
+      @Override
+      public String toString() {
+         return propertyPath + " " + type.symbol + " " + argument;
+      }
+   }
+
+   static final class Range extends AttributePredicate {
+
+      private static final long serialVersionUID = -1727373851476066542L;
+
+      private final Object from;
+
+      private final Object to;
+
+      private final boolean includeLower;
+
+      private final boolean includeUpper;
+
+      Range(PropertyPath propertyPath, ValueRange range) {
+         super(propertyPath);
+         this.from = range.getFrom();
+         this.to = range.getTo();
+         this.includeLower = range.isIncludeLower();
+         this.includeUpper = range.isIncludeUpper();
+      }
+
+      @Override
+      protected boolean matchValue(Object value) {
+         int lower = compare(value, from);
+         if (lower < 0 || lower == 0 && !includeLower) {
+            return false;
+         }
+         int upper = compare(value, to);
+         return upper < 0 || upper == 0 && includeUpper;
+      }
+
+      @Override
+      public String toString() {
+         return propertyPath + " IN " + (includeLower ? '[' : '(') + from + ", " + to + (includeUpper ? ']' : ')');
+      }
+   }
+
+   static final class In extends AttributePredicate {
+
+      private static final long serialVersionUID = 6346283710598436152L;
+
+      private final List<Object> arguments;
+
+      In(PropertyPath propertyPath, Object arguments) {
+         super(propertyPath);
+         this.arguments = toList(arguments);
+      }
+
+      @Override
+      protected boolean matchValue(Object value) {
+         for (Object argument : arguments) {
+            if (equal(value, argument)) {
+               return true;
+            }
+         }
+         return false;
+      }
+
+      @Override
+      public String toString() {
+         return propertyPath + " IN " + arguments;
+      }
+   }
+
+   /**
+    * Matches strings against a pattern where '%' stands for any sequence of characters and '_' for any single
+    * character.
+    */
+   static final class Like extends AttributePredicate {
+
+      private static final long serialVersionUID = -1258371917394744102L;
+
+      private final Pattern pattern;
+
+      Like(PropertyPath propertyPath, String likePattern) {
+         super(propertyPath);
+         this.pattern = Pattern.compile(toRegex(likePattern), Pattern.DOTALL);
+      }
+
+      private static String toRegex(String likePattern) {
+         StringBuilder regex = new StringBuilder(likePattern.length() + 8);
+         int literalStart = 0;
+         for (int i = 0; i < likePattern.length(); i++) {
+            char c = likePattern.charAt(i);
+            if (c == '%' || c == '_') {
+               if (i > literalStart) {
+                  regex.append(Pattern.quote(likePattern.substring(literalStart, i)));
+               }
+               regex.append(c == '%' ? ".*" : ".");
+               literalStart = i + 1;
+            }
+         }
+         if (literalStart < likePattern.length()) {
+            regex.append(Pattern.quote(likePattern.substring(literalStart)));
+         }
+         return regex.toString();
+      }
+
+      @Override
+      protected boolean matchValue(Object value) {
+         return pattern.matcher(value.toString()).matches();
+      }
+
+      @Override
+      public String toString() {
+         return propertyPath + " LIKE " + pattern;
+      }
+   }
+
+   static final class IsNull extends AttributePredicate {
+
+      private static final long serialVersionUID = 1956263716453210758L;
+
+      IsNull(PropertyPath propertyPath) {
+         super(propertyPath);
+      }
+
+      @Override
+      public boolean match(Object instance) {
+         return propertyPath.getValues(instance).isEmpty();
+      }
+
+      @Override
+      protected boolean matchValue(Object value) {
+         return false;
+      }
+
+      @Override
+      public String toString() {
+         return propertyPath + " IS NULL";
+      }
+   }
+}
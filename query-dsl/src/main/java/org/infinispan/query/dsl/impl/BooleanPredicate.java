@@ -0,0 +1,104 @@
+package org.infinispan.query.dsl.impl;
+
+/**
+ * Predicates corresponding to the boolean conditions (NOT, AND, OR).
+ *
+ * @since 7.0
+ */
+abstract class BooleanPredicate implements ObjectPredicate {
+
+   private static final long serialVersionUID = 4302569232542478232L;
+
+   /**
+    * Matches all instances, used when the query has no filter condition.
+    */
+   static final ObjectPredicate TRUE = new True();
+
+   private static final class True extends BooleanPredicate {
+
+      private static final long serialVersionUID = 7140291478960128456L;
+
+      @Override
+      public boolean match(Object instance) {
+         return true;
+      }
+
+      private Object readResolve() {
+         return TRUE;
+      }
+
+      @Override
+      public String toString() {
+         return "TRUE";
+      }
+   }
+
+   static final class Not extends BooleanPredicate {
+
+      private static final long serialVersionUID = -8021657493386401337L;
+
+      private final ObjectPredicate predicate;
+
+      Not(ObjectPredicate predicate) {
+         this.predicate = predicate;
+      }
+
+      @Override
+      public boolean match(Object instance) {
+         return !predicate.match(instance);
+      }
+
+      @Override
+      public String toString() {
+         return "NOT (" + predicate + ")";
+      }
+   }
+
+   static final class And extends BooleanPredicate {
+
+      private static final long serialVersionUID = 2446418458545406395L;
+
+      private final ObjectPredicate first;
+
+      private final ObjectPredicate second;
+
+      And(ObjectPredicate first, ObjectPredicate second) {
+         this.first = first;
+         this.second = second;
+      }
+
+      @Override
+      public boolean match(Object instance) {
+         return first.match(instance) && second.match(instance);
+      }
+
+      @Override
+      public String toString() {
+         return "(" + first + ") AND (" + second + ")";
+      }
+   }
+
+   static final class Or extends BooleanPredicate {
+
+      private static final long serialVersionUID = -4618405329614815470L;
+
+      private final ObjectPredicate first;
+
+      private final ObjectPredicate second;
+
+      Or(ObjectPredicate first, ObjectPredicate second) {
+         this.first = first;
+         this.second = second;
+      }
+
+      @Override
+      public boolean match(Object instance) {
+         return first.match(instance) || second.match(instance);
+      }
+
+      @Override
+      public String toString() {
+         return "(" + first + ") OR (" + second + ")";
+      }
+   }
+}
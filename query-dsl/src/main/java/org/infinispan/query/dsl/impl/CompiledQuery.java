@@ -0,0 +1,127 @@
+package org.infinispan.query.dsl.impl;
+
+import org.infinispan.query.dsl.Query;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A query built with the DSL, compiled to be executed by scanning the cached instances instead of searching an index.
+ * The filter condition is compiled into an {@link ObjectPredicate}, the sort criteria into a comparator and the
+ * projection into attribute paths, all of which are serializable so that the query can be evaluated by every node
+ * over the data it owns. The partial results of the nodes are then merged by {@link #getResults(List)}.
+ *
+ * @since 7.0
+ */
+public final class CompiledQuery implements Serializable {
+
+   private static final long serialVersionUID = 2169253290416651743L;
+
+   private final Class<?> rootType;
+
+   private final ObjectPredicate predicate;
+
+   private final PropertyPath[] projection;
+
+   private final SortCriteriaComparator comparator;
+
+   private final long startOffset;
+
+   private final int maxResults;
+
+   private CompiledQuery(Class<?> rootType, ObjectPredicate predicate, PropertyPath[] projection,
+                         SortCriteriaComparator comparator, long startOffset, int maxResults) {
+      this.rootType = rootType;
+      this.predicate = predicate;
+      this.projection = projection;
+      this.comparator = comparator;
+      this.startOffset = startOffset;
+      this.maxResults = maxResults;
+   }
+
+   public static <T extends Query> CompiledQuery compile(BaseQueryBuilder<T> queryBuilder) {
+      ObjectPredicate predicate = queryBuilder.accept(new ObjectPredicateGenerator());
+
+      PropertyPath[] projection = null;
+      if (queryBuilder.getProjection() != null && queryBuilder.getProjection().length != 0) {
+         projection = new PropertyPath[queryBuilder.getProjection().length];
+         for (int i = 0; i < projection.length; i++) {
+            projection[i] = new PropertyPath(queryBuilder.getProjection()[i]);
+         }
+      }
+
+      SortCriteriaComparator comparator = null;
+      if (queryBuilder.getSortCriteria() != null && !queryBuilder.getSortCriteria().isEmpty()) {
+         comparator = new SortCriteriaComparator(queryBuilder.getSortCriteria());
+      }
+
+      return new CompiledQuery(queryBuilder.getRootType(), predicate, projection, comparator,
+                               Math.max(queryBuilder.startOffset, 0), queryBuilder.maxResults);
+   }
+
+   /**
+    * @return true if the given cached value is an instance of the queried type satisfying the filter condition
+    */
+   public boolean matches(Object value) {
+      return rootType.isInstance(value) && predicate.match(value);
+   }
+
+   /**
+    * @return the order of the results, or {@code null} if the query is not sorted
+    */
+   public Comparator<Object> getComparator() {
+      return comparator;
+   }
+
+   /**
+    * Returns how many matching instances each node needs to return so that the first page of results can be
+    * computed, or -1 if all of them are needed. When the query is sorted the nodes must return their first matches
+    * according to {@link #getComparator()}; otherwise any matches will do.
+    */
+   public int getResultLimit() {
+      if (maxResults < 0) {
+         return -1;
+      }
+      return (int) Math.min(startOffset + maxResults, Integer.MAX_VALUE);
+   }
+
+   /**
+    * Merges the instances matched by the nodes into the final results of the query: sorts them, applies the start
+    * offset and the maximum number of results and projects them.
+    *
+    * @param matches the matches returned by all the nodes, which is sorted in place
+    */
+   public List<Object> getResults(List<Object> matches) {
+      if (comparator != null) {
+         Collections.sort(matches, comparator);
+      }
+      int from = (int) Math.min(startOffset, matches.size());
+      int to = maxResults < 0 ? matches.size() : (int) Math.min(from + (long) maxResults, matches.size());
+      List<Object> results = new ArrayList<Object>(to - from);
+      for (Object match : matches.subList(from, to)) {
+         results.add(projection == null ? match : project(match));
+      }
+      return results;
+   }
+
+   private Object[] project(Object instance) {
+      Object[] row = new Object[projection.length];
+      for (int i = 0; i < projection.length; i++) {
+         row[i] = projection[i].getValue(instance);
+      }
+      return row;
+   }
+
+   @Override
+   public String toString() {
+      return "CompiledQuery{" +
+            "rootType=" + rootType.getName() +
+            ", predicate=" + predicate +
+            ", startOffset=" + startOffset +
+            ", maxResults=" + maxResults +
+            '}';
+   }
+}
@@ -0,0 +1,20 @@
+package org.infinispan.query.dsl.impl;
+
+import java.io.Serializable;
+
+/**
+ * A filter condition compiled to be evaluated directly against the instances stored in the cache, without the help of
+ * an index. Predicates are serializable so they can be evaluated on the nodes that own the data.
+ *
+ * @since 7.0
+ */
+public interface ObjectPredicate extends Serializable {
+
+   /**
+    * Evaluates the condition against the given instance.
+    *
+    * @param instance a non-null instance of the queried entity type
+    * @return true if the instance satisfies the condition
+    */
+   boolean match(Object instance);
+}
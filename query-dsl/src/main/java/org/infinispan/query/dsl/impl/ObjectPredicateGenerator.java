@@ -0,0 +1,122 @@
+package org.infinispan.query.dsl.impl;
+
+import org.infinispan.query.dsl.Query;
+
+/**
+ * Compiles the condition created with the builder into a predicate that is evaluated directly against the cached
+ * instances. A negated condition matches exactly the instances that the condition does not match.
+ *
+ * @since 7.0
+ */
+class ObjectPredicateGenerator implements Visitor<ObjectPredicate> {
+
+   @Override
+   public <T extends Query> ObjectPredicate visit(BaseQueryBuilder<T> baseQueryBuilder) {
+      if (baseQueryBuilder.getFilterCondition() == null) {
+         return BooleanPredicate.TRUE;
+      }
+      return baseQueryBuilder.getFilterCondition().getRoot().accept(this);
+   }
+
+   @Override
+   public ObjectPredicate visit(AndCondition booleanCondition) {
+      return new BooleanPredicate.And(booleanCondition.getFirstCondition().accept(this),
+                                      booleanCondition.getSecondCondition().accept(this));
+   }
+
+   @Override
+   public ObjectPredicate visit(OrCondition booleanCondition) {
+      return new BooleanPredicate.Or(booleanCondition.getFirstCondition().accept(this),
+                                     booleanCondition.getSecondCondition().accept(this));
+   }
+
+   @Override
+   public ObjectPredicate visit(NotCondition notCondition) {
+      return new BooleanPredicate.Not(notCondition.getFirstCondition().accept(this));
+   }
+
+   @Override
+   public ObjectPredicate visit(AttributeCondition attributeCondition) {
+      if (attributeCondition.getAttributePath() == null || attributeCondition.getOperatorAndArgument() == null) {
+         throw new IllegalStateException("Incomplete sentence. Missing attribute path or operator.");
+      }
+
+      ObjectPredicate predicate = attributeCondition.getOperatorAndArgument().accept(this);
+      return attributeCondition.isNegated() ? new BooleanPredicate.Not(predicate) : predicate;
+   }
+
+   @Override
+   public ObjectPredicate visit(EqOperator operator) {
+      return comparison(operator, AttributePredicate.ComparisonType.EQ);
+   }
+
+   @Override
+   public ObjectPredicate visit(GtOperator operator) {
+      return comparison(operator, AttributePredicate.ComparisonType.GT);
+   }
+
+   @Override
+   public ObjectPredicate visit(GteOperator operator) {
+      return comparison(operator, AttributePredicate.ComparisonType.GTE);
+   }
+
+   @Override
+   public ObjectPredicate visit(LtOperator operator) {
+      return comparison(operator, AttributePredicate.ComparisonType.LT);
+   }
+
+   @Override
+   public ObjectPredicate visit(LteOperator operator) {
+      return comparison(operator, AttributePredicate.ComparisonType.LTE);
+   }
+
+   @Override
+   public ObjectPredicate visit(BetweenOperator operator) {
+      return new AttributePredicate.Range(propertyPath(operator), operator.getArgument());
+   }
+
+   @Override
+   public ObjectPredicate visit(LikeOperator operator) {
+      return new AttributePredicate.Like(propertyPath(operator), operator.getArgument());
+   }
+
+   @Override
+   public ObjectPredicate visit(IsNullOperator operator) {
+      return new AttributePredicate.IsNull(propertyPath(operator));
+   }
+
+   @Override
+   public ObjectPredicate visit(InOperator operator) {
+      return new AttributePredicate.In(propertyPath(operator), operator.getArgument());
+   }
+
+   @Override
+   public ObjectPredicate visit(ContainsOperator operator) {
+      // the values of collection attributes are expanded, so 'contains' is an equality on any of the values
+      return comparison(operator, AttributePredicate.ComparisonType.EQ);
+   }
+
+   @Override
+   public ObjectPredicate visit(ContainsAllOperator operator) {
+      PropertyPath propertyPath = propertyPath(operator);
+      ObjectPredicate predicate = null;
+      for (Object value : AttributePredicate.toList(operator.getArgument())) {
+         ObjectPredicate contains = new AttributePredicate.Comparison(propertyPath, AttributePredicate.ComparisonType.EQ, value);
+         predicate = predicate == null ? contains : new BooleanPredicate.And(predicate, contains);
+      }
+      return predicate == null ? BooleanPredicate.TRUE : predicate;
+   }
+
+   @Override
+   public ObjectPredicate visit(ContainsAnyOperator operator) {
+      return new AttributePredicate.In(propertyPath(operator), operator.getArgument());
+   }
+
+   private ObjectPredicate comparison(OperatorAndArgument operator, AttributePredicate.ComparisonType type) {
+      return new AttributePredicate.Comparison(propertyPath(operator), type, operator.getArgument());
+   }
+
+   private PropertyPath propertyPath(OperatorAndArgument operator) {
+      return new PropertyPath(operator.getAttributeCondition().getAttributePath());
+   }
+}
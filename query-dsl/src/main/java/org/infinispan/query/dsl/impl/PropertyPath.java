@@ -0,0 +1,145 @@
+package org.infinispan.query.dsl.impl;
+
+import java.io.Serializable;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A dot separated attribute path (eg. {@code "addresses.postCode"}) resolved by reflection against the instances
+ * being filtered, using the getter of each property if there is one or else the field having the property name.
+ * Collections and arrays met along the path are expanded, so a path can have several values for a given instance.
+ * <p>
+ * The getter or field resolved for each property is remembered along with the type it was resolved for, so resolving
+ * the path against a large number of instances of the same type only pays the reflection lookup once.
+ *
+ * @since 7.0
+ */
+final class PropertyPath implements Serializable {
+
+   private static final long serialVersionUID = -2931587651862938567L;
+
+   private final String path;
+
+   private final String[] propertyNames;
+
+   // the last accessor resolved for each property of the path, recomputed whenever the type changes
+   private transient volatile Accessor[] accessors;
+
+   PropertyPath(String path) {
+      if (path == null || path.isEmpty()) {
+         throw new IllegalArgumentException("The attribute path cannot be null or empty");
+      }
+      this.path = path;
+      this.propertyNames = path.split("\\.");
+   }
+
+   String getPath() {
+      return path;
+   }
+
+   /**
+    * Returns all the non-null values of the attribute in the given instance.
+    */
+   List<Object> getValues(Object instance) {
+      List<Object> values = new ArrayList<Object>(1);
+      collectValues(instance, 0, values);
+      return values;
+   }
+
+   /**
+    * Returns the first non-null value of the attribute in the given instance, or {@code null} if there is none.
+    */
+   Object getValue(Object instance) {
+      List<Object> values = getValues(instance);
+      return values.isEmpty() ? null : values.get(0);
+   }
+
+   private void collectValues(Object value, int depth, List<Object> values) {
+      if (value == null) {
+         return;
+      }
+      if (value instanceof Collection) {
+         for (Object element : (Collection) value) {
+            collectValues(element, depth, values);
+         }
+      } else if (value instanceof Object[]) {
+         for (Object element : (Object[]) value) {
+            collectValues(element, depth, values);
+         }
+      } else if (depth == propertyNames.length) {
+         values.add(value);
+      } else {
+         collectValues(getAccessor(value.getClass(), depth).get(value), depth + 1, values);
+      }
+   }
+
+   private Accessor getAccessor(Class<?> type, int depth) {
+      Accessor[] accessors = this.accessors;
+      if (accessors == null) {
+         accessors = new Accessor[propertyNames.length];
+         this.accessors = accessors;
+      }
+      Accessor accessor = accessors[depth];
+      if (accessor == null || accessor.type != type) {
+         accessor = new Accessor(type, findMember(type, propertyNames[depth]));
+         accessors[depth] = accessor;
+      }
+      return accessor;
+   }
+
+   private AccessibleObject findMember(Class<?> type, String propertyName) {
+      String capitalized = Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1);
+      for (Method method : type.getMethods()) {
+         if (method.getParameterTypes().length == 0 && !Modifier.isStatic(method.getModifiers())
+               && (method.getName().equals("get" + capitalized) || method.getName().equals("is" + capitalized))) {
+            return method;
+         }
+      }
+      for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+         for (Field field : c.getDeclaredFields()) {
+            if (field.getName().equals(propertyName) && !Modifier.isStatic(field.getModifiers())) {
+               field.setAccessible(true);
+               return field;
+            }
+         }
+      }
+      throw new IllegalArgumentException("Type " + type.getName() + " has no property named '" + propertyName
+                                               + "' (attribute path '" + path + "')");
+   }
+
+   @Override
+   public String toString() {
+      return path;
+   }
+
+   private static final class Accessor {
+
+      final Class<?> type;
+
+      final AccessibleObject member;
+
+      Accessor(Class<?> type, AccessibleObject member) {
+         this.type = type;
+         this.member = member;
+      }
+
+      Object get(Object instance) {
+         try {
+            if (member instanceof Method) {
+               return ((Method) member).invoke(instance);
+            }
+            return ((Field) member).get(instance);
+         } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot read " + member + " of " + instance, e);
+         } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Cannot read " + member + " of " + instance, e.getCause());
+         }
+      }
+   }
+}
@@ -0,0 +1,50 @@
+package org.infinispan.query.dsl.impl;
+
+import org.infinispan.query.dsl.SortOrder;
+
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Orders the instances matched by a non-indexed query according to the sort criteria of the query. Instances that
+ * have no value for a sort attribute come first in ascending order.
+ *
+ * @since 7.0
+ */
+final class SortCriteriaComparator implements Comparator<Object>, Serializable {
+
+   private static final long serialVersionUID = -5394581625618273917L;
+
+   private final PropertyPath[] propertyPaths;
+
+   private final boolean[] descending;
+
+   SortCriteriaComparator(List<SortCriteria> sortCriteria) {
+      propertyPaths = new PropertyPath[sortCriteria.size()];
+      descending = new boolean[sortCriteria.size()];
+      for (int i = 0; i < propertyPaths.length; i++) {
+         SortCriteria sc = sortCriteria.get(i);
+         propertyPaths[i] = new PropertyPath(sc.getAttributePath());
+         descending[i] = sc.getSortOrder() == SortOrder.DESC;
+      }
+   }
+
+   @Override
+   public int compare(Object o1, Object o2) {
+      for (int i = 0; i < propertyPaths.length; i++) {
+         Object v1 = propertyPaths[i].getValue(o1);
+         Object v2 = propertyPaths[i].getValue(o2);
+         int result;
+         if (v1 == null) {
+            result = v2 == null ? 0 : -1;
+         } else {
+            result = v2 == null ? 1 : AttributePredicate.compare(v1, v2);
+         }
+         if (result != 0) {
+            return descending[i] ? -result : result;
+         }
+      }
+      return 0;
+   }
+}
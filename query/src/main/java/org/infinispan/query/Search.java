@@ -1,6 +1,9 @@
 package org.infinispan.query;
 
 import org.infinispan.Cache;
+import org.infinispan.query.dsl.Query;
+import org.infinispan.query.dsl.QueryFactory;
+import org.infinispan.query.dsl.embedded.impl.NonIndexedQueryFactory;
 import org.infinispan.query.impl.SearchManagerImpl;
 
 /**
@@ -17,4 +20,20 @@ public static SearchManager getSearchManager(Cache<?, ?> cache) {
       return new SearchManagerImpl(cache.getAdvancedCache());
    }
 
+   /**
+    * Experimental! Obtains a factory for DSL-based queries which are executed by scanning the cache contents, in
+    * memory and in the cache stores, on all the nodes in parallel. Such queries do not need the cache to be indexed,
+    * which spares the cost of indexing every write on caches that are rarely queried, but each query visits every
+    * entry of the cache.
+    *
+    * @param cache the cache to query, indexed or not
+    * @return a factory capable of building non-indexed queries for the given cache
+    */
+   public static QueryFactory<Query> getNonIndexedQueryFactory(Cache<?, ?> cache) {
+      if (cache == null) {
+         throw new IllegalArgumentException("cache parameter shall not be null");
+      }
+      return new NonIndexedQueryFactory(cache.getAdvancedCache());
+   }
+
 }
@@ -5,6 +5,8 @@
 import org.hibernate.search.query.dsl.EntityContext;
 import org.infinispan.query.dsl.QueryFactory;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * The SearchManager is the entry point to create full text queries on top of a cache.
  *
@@ -61,4 +63,26 @@ public interface SearchManager {
     */
    MassIndexer getMassIndexer();
 
+   /**
+    * Experimental!
+    * Returns the sequence number of the last write queued to be indexed asynchronously, as enabled by the
+    * {@link org.infinispan.query.backend.QueryInterceptor#ASYNC_INDEXING} indexing property. Together with
+    * {@link #awaitIndexing(long, long, TimeUnit)} it allows reading one's own writes.
+    *
+    * @return the sequence number of the last write, or 0 if the writes are indexed synchronously
+    */
+   long getIndexingSequence();
+
+   /**
+    * Experimental!
+    * Waits until all the writes up to the given sequence number are indexed, so that the queries executed afterwards
+    * find them. Returns immediately when the writes are indexed synchronously.
+    *
+    * @param sequence a sequence number returned by {@link #getIndexingSequence()}
+    * @param timeout the maximum time to wait
+    * @param unit the unit of the timeout
+    * @return true if the writes are indexed, false if the timeout elapsed before
+    */
+   boolean awaitIndexing(long sequence, long timeout, TimeUnit unit) throws InterruptedException;
+
 }
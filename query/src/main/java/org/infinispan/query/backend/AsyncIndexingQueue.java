@@ -0,0 +1,298 @@
+package org.infinispan.query.backend;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+import org.hibernate.search.backend.TransactionContext;
+import org.hibernate.search.backend.spi.Work;
+import org.hibernate.search.backend.spi.Worker;
+import org.infinispan.query.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * Bounded queue of the index works of non transactional writes, applied in batches by a background task instead of
+ * by the threads writing to the cache.
+ * <p>
+ * The works queued for a key which has not been indexed yet are merged with the new works for the same key, keeping
+ * the latest work for each entity type, so that a key written several times in a row is only indexed once. Each
+ * write is given a sequence number, and {@link #awaitIndexed(long, long, TimeUnit)} lets a reader wait until the
+ * writes up to a given sequence number are visible to the queries. The merged works keep the position and the
+ * sequence number of the first write of the key still queued, so the works queued before a given write are always
+ * applied no later than it.
+ * <p>
+ * The works which concern whole indexes, like the purge of a cache clear, are barriers: the writes queued after them
+ * are never merged into the works queued before them, so that they can't be applied before the purge.
+ * <p>
+ * All the works of a batch are submitted to the Hibernate Search worker within a single transaction context, so that
+ * they are flushed to the indexes together.
+ *
+ * @since 7.0
+ */
+class AsyncIndexingQueue {
+
+   private static final Log log = LogFactory.getLog(AsyncIndexingQueue.class, Log.class);
+
+   private final Worker worker;
+   private final Executor executor;
+   private final int capacity;
+   private final int batchSize;
+
+   private final ReentrantLock lock = new ReentrantLock();
+   private final Condition notFull = lock.newCondition();
+   private final Condition indexed = lock.newCondition();
+   // guarded by lock, in the order of the first sequence number of the works, which merging does not change
+   private final ArrayDeque<PendingWorks> pending = new ArrayDeque<PendingWorks>();
+   // guarded by lock, the works queued for each key since the last barrier, which new writes of the key merge into
+   private final Map<Serializable, PendingWorks> mergeable = new HashMap<Serializable, PendingWorks>();
+   // guarded by lock
+   private long lastSequence;
+   // guarded by lock, all the writes up to this sequence number are indexed
+   private long indexedSequence;
+   // guarded by lock
+   private boolean applying;
+
+   // makes sure a single thread applies the batches, so that the works of a key are applied in order
+   private final ReentrantLock applyLock = new ReentrantLock();
+
+   private final Runnable applyTask = new Runnable() {
+      @Override
+      public void run() {
+         boolean reschedule;
+         try {
+            applyBatch();
+         } finally {
+            lock.lock();
+            try {
+               reschedule = !pending.isEmpty();
+               applying = reschedule;
+            } finally {
+               lock.unlock();
+            }
+         }
+         if (reschedule) {
+            executor.execute(this);
+         }
+      }
+   };
+
+   AsyncIndexingQueue(Worker worker, Executor executor, int capacity, int batchSize) {
+      if (capacity <= 0)
+         throw new IllegalArgumentException("The size of the indexing queue must be greater than 0");
+      if (batchSize <= 0)
+         throw new IllegalArgumentException("The indexing batch size must be greater than 0");
+      this.worker = worker;
+      this.executor = executor;
+      this.capacity = capacity;
+      this.batchSize = batchSize;
+   }
+
+   /**
+    * Queues the index works of a write, blocking while the queue is full.
+    *
+    * @param id    the key the works are about, or {@code null} if the works concern whole indexes and can not be
+    *              merged
+    * @param works the works to apply
+    */
+   <T> void enqueue(Serializable id, Collection<Work<T>> works) throws InterruptedException {
+      boolean schedule = false;
+      lock.lock();
+      try {
+         PendingWorks pendingWorks = id == null ? null : mergeable.get(id);
+         while (pendingWorks == null && pending.size() >= capacity) {
+            notFull.await();
+            if (id != null) {
+               pendingWorks = mergeable.get(id);
+            }
+         }
+         long sequence = ++lastSequence;
+         if (pendingWorks == null) {
+            pendingWorks = new PendingWorks(id, sequence);
+            pending.add(pendingWorks);
+            if (id != null) {
+               mergeable.put(id, pendingWorks);
+            } else {
+               // a barrier, the writes queued after it must not be applied before it
+               mergeable.clear();
+            }
+         }
+         for (Work<T> work : works) {
+            pendingWorks.add(work);
+         }
+         if (!applying) {
+            applying = true;
+            schedule = true;
+         }
+      } finally {
+         lock.unlock();
+      }
+      if (schedule) {
+         executor.execute(applyTask);
+      }
+   }
+
+   /**
+    * @return the sequence number of the last write queued
+    */
+   long getLastSequence() {
+      lock.lock();
+      try {
+         return lastSequence;
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * Waits until all the writes up to the given sequence number are applied to the indexes.
+    *
+    * @return true if they were applied, false if the timeout elapsed before
+    */
+   boolean awaitIndexed(long sequence, long timeout, TimeUnit unit) throws InterruptedException {
+      long nanos = unit.toNanos(timeout);
+      lock.lock();
+      try {
+         while (indexedSequence < sequence) {
+            if (nanos <= 0) {
+               return false;
+            }
+            nanos = indexed.awaitNanos(nanos);
+         }
+         return true;
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * @return the number of writes waiting to be indexed
+    */
+   int size() {
+      lock.lock();
+      try {
+         return pending.size();
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * Applies all the pending works in the calling thread.
+    */
+   void flush() {
+      while (size() > 0) {
+         applyBatch();
+      }
+   }
+
+   private void applyBatch() {
+      applyLock.lock();
+      try {
+         List<PendingWorks> batch = new ArrayList<PendingWorks>(batchSize);
+         lock.lock();
+         try {
+            PendingWorks pendingWorks;
+            while (batch.size() < batchSize && (pendingWorks = pending.poll()) != null) {
+               batch.add(pendingWorks);
+               if (pendingWorks.id != null && mergeable.get(pendingWorks.id) == pendingWorks) {
+                  mergeable.remove(pendingWorks.id);
+               }
+            }
+            notFull.signalAll();
+         } finally {
+            lock.unlock();
+         }
+         if (batch.isEmpty()) {
+            return;
+         }
+
+         BatchTransactionContext transactionContext = new BatchTransactionContext();
+         try {
+            for (PendingWorks pendingWorks : batch) {
+               for (Work<?> work : pendingWorks.works.values()) {
+                  worker.performWork(work, transactionContext);
+               }
+            }
+            transactionContext.commit();
+         } catch (Throwable t) {
+            log.failedToApplyIndexingBatch(batch.size(), t);
+         }
+
+         lock.lock();
+         try {
+            // the pending works are in the order of their first write, so every write before the first one is indexed
+            indexedSequence = pending.isEmpty() ? lastSequence : pending.peek().sequence - 1;
+            indexed.signalAll();
+         } finally {
+            lock.unlock();
+         }
+      } finally {
+         applyLock.unlock();
+      }
+   }
+
+   /**
+    * The works queued for a key, with only the latest work for each entity type.
+    */
+   private static class PendingWorks {
+      final Map<Class<?>, Work<?>> works = new LinkedHashMap<Class<?>, Work<?>>(2);
+      // the key of the works, or null for the works concerning whole indexes
+      final Serializable id;
+      // the sequence number of the first write merged into these works
+      final long sequence;
+
+      PendingWorks(Serializable id, long sequence) {
+         this.id = id;
+         this.sequence = sequence;
+      }
+
+      void add(Work<?> work) {
+         Class<?> entityType = work.getEntity() != null ? work.getEntity().getClass() : work.getEntityClass();
+         // keep the order in which the types were first written, a deletion of the old type before the new one
+         works.put(entityType, work);
+      }
+   }
+
+   /**
+    * Groups the works of a batch, which the Hibernate Search worker queues until the context is committed.
+    */
+   private static class BatchTransactionContext implements TransactionContext {
+      private final List<Synchronization> synchronizations = new ArrayList<Synchronization>(1);
+
+      @Override
+      public boolean isTransactionInProgress() {
+         return true;
+      }
+
+      @Override
+      public Object getTransactionIdentifier() {
+         return this;
+      }
+
+      @Override
+      public void registerSynchronization(Synchronization synchronization) {
+         synchronizations.add(synchronization);
+      }
+
+      void commit() {
+         for (Synchronization synchronization : synchronizations) {
+            synchronization.beforeCompletion();
+         }
+         for (Synchronization synchronization : synchronizations) {
+            synchronization.afterCompletion(Status.STATUS_COMMITTED);
+         }
+      }
+   }
+}
@@ -5,8 +5,10 @@
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -22,6 +24,7 @@
 import org.hibernate.search.engine.spi.SearchFactoryImplementor;
 import org.hibernate.search.spi.SearchFactoryIntegrator;
 import org.infinispan.Cache;
+import org.infinispan.commons.CacheException;
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.commands.LocalFlagAffectedCommand;
 import org.infinispan.commands.tx.PrepareCommand;
@@ -70,6 +73,25 @@
  */
 public class QueryInterceptor extends CommandInterceptor {
 
+   /**
+    * Indexing property enabling the asynchronous indexing of the non transactional writes. When {@code true}, the
+    * index updates are queued and applied in batches by a background task, instead of by the threads writing to the
+    * cache. Defaults to {@code false}.
+    */
+   public static final String ASYNC_INDEXING = "infinispan.query.indexing.async";
+
+   /**
+    * Indexing property setting how many writes can wait to be indexed asynchronously before the writers block.
+    * Writes to a key which is already waiting to be indexed do not count. Defaults to {@code 1024}.
+    */
+   public static final String ASYNC_INDEXING_QUEUE_SIZE = "infinispan.query.indexing.async.queue_size";
+
+   /**
+    * Indexing property setting the maximum number of writes applied to the indexes together when indexing
+    * asynchronously. Defaults to {@code 256}.
+    */
+   public static final String ASYNC_INDEXING_BATCH_SIZE = "infinispan.query.indexing.async.batch_size";
+
    private final boolean isManualIndexing;
    private final SearchFactoryIntegrator searchFactory;
    private final Lock mutating = new ReentrantLock();
@@ -84,6 +106,8 @@ public class QueryInterceptor extends CommandInterceptor {
    protected TransactionManager transactionManager;
    protected TransactionSynchronizationRegistry transactionSynchronizationRegistry;
    protected ExecutorService asyncExecutor;
+   private Properties indexingProperties;
+   private AsyncIndexingQueue asyncIndexingQueue;
 
    private static final Log log = LogFactory.getLog(QueryInterceptor.class, Log.class);
 
@@ -109,11 +133,17 @@ protected void injectDependencies(TransactionManager transactionManager,
       this.transactionSynchronizationRegistry = transactionSynchronizationRegistry;
       this.asyncExecutor = e;
       this.dataContainer = dataContainer;
+      this.indexingProperties = cache.getCacheConfiguration().indexing().properties();
       this.clusterRegistry = new ReadIntensiveClusterRegistryWrapper(clusterRegistry, "QueryKnownClasses#" + cache.getName());
    }
 
    @Start
    protected void start() {
+      if (Boolean.parseBoolean(indexingProperties.getProperty(ASYNC_INDEXING))) {
+         int queueSize = Integer.parseInt(indexingProperties.getProperty(ASYNC_INDEXING_QUEUE_SIZE, "1024"));
+         int batchSize = Integer.parseInt(indexingProperties.getProperty(ASYNC_INDEXING_BATCH_SIZE, "256"));
+         asyncIndexingQueue = new AsyncIndexingQueue(searchFactory.getWorker(), asyncExecutor, queueSize, batchSize);
+      }
       clusterRegistry.addListener(registryListener);
       for (Class<?> c : clusterRegistry.keys()) {
          enableClass(c);
@@ -123,6 +153,10 @@ protected void start() {
    @Stop
    protected void stop() {
       clusterRegistry.removeListener(registryListener);
+      if (asyncIndexingQueue != null) {
+         // do not lose the updates still waiting to be indexed
+         asyncIndexingQueue.flush();
+      }
    }
 
    @Listener
@@ -197,6 +231,10 @@ public Object visitClearCommand(final InvocationContext ctx, final ClearCommand
     */
    public void purgeAllIndexes() {
       purgeAllIndexes(null);
+      if (asyncIndexingQueue != null) {
+         // the indexes are usually rebuilt right after, so the purge and the pending updates must be applied now
+         asyncIndexingQueue.flush();
+      }
    }
 
    private void purgeAllIndexes(TransactionContext transactionContext) {
@@ -204,7 +242,7 @@ private void purgeAllIndexes(TransactionContext transactionContext) {
       for (Class c : clusterRegistry.keys()) {
          if (isIndexed(c)) {
             //noinspection unchecked
-            performSearchWorks(searchWorkCreator.createPerEntityTypeWorks(c, WorkType.PURGE_ALL), transactionContext);
+            performSearchWorks(null, searchWorkCreator.createPerEntityTypeWorks(c, WorkType.PURGE_ALL), transactionContext);
          }
       }
    }
@@ -223,16 +261,49 @@ protected void updateIndexes(final boolean usingSkipIndexCleanupFlag, final Obje
    private void performSearchWork(Object value, Serializable id, WorkType workType, TransactionContext transactionContext) {
       if (value == null) throw new NullPointerException("Cannot handle a null value!");
       Collection<Work<Object>> works = searchWorkCreator.createPerEntityWorks(value, id, workType);
-      performSearchWorks(works, transactionContext);
+      performSearchWorks(id, works, transactionContext);
    }
 
-   private <T> void performSearchWorks(Collection<Work<T>> works, TransactionContext transactionContext) {
+   private <T> void performSearchWorks(Serializable id, Collection<Work<T>> works, TransactionContext transactionContext) {
+      if (asyncIndexingQueue != null && !transactionContext.isTransactionInProgress()) {
+         try {
+            asyncIndexingQueue.enqueue(id, works);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CacheException("Interrupted while waiting to queue index updates", e);
+         }
+         return;
+      }
       Worker worker = searchFactory.getWorker();
       for (Work<T> work : works) {
          worker.performWork(work, transactionContext);
       }
    }
 
+   /**
+    * @return the sequence number of the last write queued for asynchronous indexing, or 0 if the writes are indexed
+    *         synchronously
+    */
+   public long getIndexingSequence() {
+      return asyncIndexingQueue == null ? 0 : asyncIndexingQueue.getLastSequence();
+   }
+
+   /**
+    * Waits until the writes up to the given sequence number are indexed, so that they are visible to the queries.
+    *
+    * @return true if the writes are indexed, false if the timeout elapsed before
+    */
+   public boolean awaitIndexing(long sequence, long timeout, TimeUnit unit) throws InterruptedException {
+      return asyncIndexingQueue == null || asyncIndexingQueue.awaitIndexed(sequence, timeout, unit);
+   }
+
+   /**
+    * @return the number of writes waiting to be indexed asynchronously
+    */
+   public int getPendingIndexingCount() {
+      return asyncIndexingQueue == null ? 0 : asyncIndexingQueue.size();
+   }
+
    public boolean isIndexed(final Class<?> c) {
       final EntityIndexBinding indexBinding = this.searchFactory.getIndexBinding(c);
       return indexBinding != null;
@@ -45,6 +45,9 @@ public class ClusteredCacheQueryImpl extends CacheQueryImpl {
 
    private int firstResult = 0;
 
+   // number of values fetched at once by list()
+   private static final int LIST_FETCH_SIZE = 1000;
+
    private Marshaller marshaller;
 
    public ClusteredCacheQueryImpl(Query luceneQuery, SearchFactoryIntegrator searchFactory,
@@ -133,9 +136,10 @@ private Sort deepCopy(Sort sort) {
       return new Sort(copyFields);
    }
 
-   // number of results of each node of cluster
+   // number of results of each node of cluster: the top maxResults + firstResult docs of a node are enough to merge
+   // the requested page, so the nodes never send more
    private int getNodeMaxResults() {
-      return maxResults + firstResult;
+      return (int) Math.min((long) maxResults + firstResult, Integer.MAX_VALUE);
    }
 
    private HashMap<UUID, ClusteredTopDocs> broadcastQuery(ClusteredQueryCommand command) {
@@ -161,7 +165,9 @@ private HashMap<UUID, ClusteredTopDocs> broadcastQuery(ClusteredQueryCommand com
 
    @Override
    public List<Object> list() throws SearchException {
-      ResultIterator iterator = iterator(new FetchOptions().fetchMode(FetchOptions.FetchMode.EAGER));
+      // the values are fetched in pages, with a single lookup per page
+      ResultIterator iterator = iterator(new FetchOptions().fetchMode(FetchOptions.FetchMode.EAGER)
+            .fetchSize(Math.max(1, Math.min(maxResults, LIST_FETCH_SIZE))));
       List<Object> values = new ArrayList<Object>();
       while (iterator.hasNext()) {
          values.add(iterator.next());
@@ -36,6 +36,9 @@ public class ClusteredQueryCommand extends BaseRpcCommand implements ReplicableC
    // for retrieve keys on a lazy query
    private Integer docIndex = ZERO;
 
+   // for retrieving several values of a lazy query at once
+   private int[] docIndexes;
+
    private ClusteredQueryCommand(ClusteredQueryCommandType type, String cacheName) {
       super(cacheName);
       commandType = type;
@@ -43,7 +46,7 @@ private ClusteredQueryCommand(ClusteredQueryCommandType type, String cacheName)
 
    /**
     * For CommandFactory only. To create a ClusteredQueryCommand, use createLazyIterator(),
-    * destroyLazyQuery(), getResultSize() or retrieveKeyFromLazyQuery()
+    * destroyLazyQuery(), getResultSize(), retrieveKeyFromLazyQuery() or retrieveValuesFromLazyQuery()
     */
    public ClusteredQueryCommand(String cacheName) {
       super(cacheName);
@@ -86,6 +89,13 @@ public static ClusteredQueryCommand retrieveKeyFromLazyQuery(Cache<?, ?> cache,
       return clQuery;
    }
 
+   public static ClusteredQueryCommand retrieveValuesFromLazyQuery(Cache<?, ?> cache, UUID id, int[] docIndexes) {
+      ClusteredQueryCommand clQuery = new ClusteredQueryCommand(ClusteredQueryCommandType.GET_VALUES, cache.getName());
+      clQuery.lazyQueryId = id;
+      clQuery.docIndexes = docIndexes;
+      return clQuery;
+   }
+
    public void initialize(Cache<?, ?> localInstance) {
       setCache(localInstance);
    }
@@ -107,7 +117,7 @@ public Object perform(InvocationContext context) throws Throwable {
    }
 
    public QueryResponse perform(Cache<?, ?> cache) {
-      ClusteredQueryCommandWorker worker = commandType.getCommand(cache, query, lazyQueryId, docIndex);
+      ClusteredQueryCommandWorker worker = commandType.getCommand(cache, query, lazyQueryId, docIndex, docIndexes);
       return worker.perform();
    }
 
@@ -118,7 +128,7 @@ public byte getCommandId() {
 
    @Override
    public Object[] getParameters() {
-      return new Object[] { commandType, query, lazyQueryId, docIndex };
+      return new Object[] { commandType, query, lazyQueryId, docIndex, docIndexes };
    }
 
    @Override
@@ -128,6 +138,7 @@ public void setParameters(int commandId, Object[] args) {
       query = (HSQuery) args[i++];
       lazyQueryId = (UUID) args[i++];
       docIndex = (Integer) args[i++];
+      docIndexes = (int[]) args[i++];
    }
 
    @Override
@@ -8,6 +8,7 @@
 import org.infinispan.query.clustered.commandworkers.CQCreateLazyQuery;
 import org.infinispan.query.clustered.commandworkers.CQGetResultSize;
 import org.infinispan.query.clustered.commandworkers.CQKillLazyIterator;
+import org.infinispan.query.clustered.commandworkers.CQLazyBatchFetcher;
 import org.infinispan.query.clustered.commandworkers.CQLazyFetcher;
 import org.infinispan.query.clustered.commandworkers.ClusteredQueryCommandWorker;
 
@@ -49,15 +50,21 @@ public ClusteredQueryCommandWorker getNewInstance() {
       public ClusteredQueryCommandWorker getNewInstance() {
          return new CQGetResultSize();
       }
+   },
+   GET_VALUES() {
+      @Override
+      public ClusteredQueryCommandWorker getNewInstance() {
+         return new CQLazyBatchFetcher();
+      }
    };
 
    protected abstract ClusteredQueryCommandWorker getNewInstance();
 
    public ClusteredQueryCommandWorker getCommand(Cache<?, ?> cache, HSQuery query, UUID lazyQueryId,
-            int docIndex) {
+            int docIndex, int[] docIndexes) {
       ClusteredQueryCommandWorker command = null;
       command = getNewInstance();
-      command.init(cache, query, lazyQueryId, docIndex);
+      command.init(cache, query, lazyQueryId, docIndex, docIndexes);
       return command;
    }
 
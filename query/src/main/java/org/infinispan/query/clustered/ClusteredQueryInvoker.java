@@ -1,6 +1,8 @@
 package org.infinispan.query.clustered;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -84,6 +86,42 @@ public Object getValue(int doc, Address address, UUID queryId) {
       }
    }
 
+   /**
+    * Retrieves the values of several docs of a lazy query, with a single request per node. The requests to the
+    * different nodes are sent in parallel.
+    *
+    * @param queryId
+    *           Id of the query
+    * @param docIndexes
+    *           Doc indexes of the values to retrieve, by address of the node who has them
+    * @return The values of each node, in the order of its doc indexes
+    */
+   public Map<Address, Object[]> getValues(UUID queryId, Map<Address, int[]> docIndexes) {
+      Map<Address, Future<QueryResponse>> futures = new HashMap<Address, Future<QueryResponse>>(docIndexes.size() * 2);
+      for (Entry<Address, int[]> entry : docIndexes.entrySet()) {
+         ClusteredQueryCommand clusteredQuery = ClusteredQueryCommand.retrieveValuesFromLazyQuery(
+                  localCacheInstance, queryId, entry.getValue());
+         Address address = entry.getKey();
+         if (address.equals(myAddress)) {
+            futures.put(address, localInvoke(clusteredQuery));
+         } else {
+            futures.put(address, asyncExecutor.submit(new RemoteQueryCallable(clusteredQuery, address)));
+         }
+      }
+
+      Map<Address, Object[]> values = new HashMap<Address, Object[]>(futures.size() * 2);
+      for (Entry<Address, Future<QueryResponse>> entry : futures.entrySet()) {
+         try {
+            values.put(entry.getKey(), (Object[]) entry.getValue().get().getFetchedValue());
+         } catch (InterruptedException e) {
+            throw new SearchException("interrupted while fetching values", e);
+         } catch (ExecutionException e) {
+            throw new SearchException("Exception while fetching values", e);
+         }
+      }
+      return values;
+   }
+
    /**
     * Broadcast this ClusteredQueryCommand to all cluster nodes. The command will be also invoked on
     * local node.
@@ -130,6 +168,33 @@ private List<QueryResponse> cast(Map<Address, Response> responses) {
       return objects;
    }
 
+   /**
+    * Calls a ClusteredQueryCommand on a single remote node, so that several nodes can be called in parallel.
+    */
+   private final class RemoteQueryCallable implements Callable<QueryResponse> {
+
+      private final ClusteredQueryCommand clusteredQuery;
+
+      private final Address address;
+
+      RemoteQueryCallable(ClusteredQueryCommand clusteredQuery, Address address) {
+         this.clusteredQuery = clusteredQuery;
+         this.address = address;
+      }
+
+      @Override
+      public QueryResponse call() throws Exception {
+         Map<Address, Response> responses = rpcManager.invokeRemotely(Collections.singletonList(address),
+               clusteredQuery, rpcOptions);
+         List<QueryResponse> objects = cast(responses);
+         if (objects.isEmpty()) {
+            throw new SearchException("No response from " + address);
+         }
+         return objects.get(0);
+      }
+
+   }
+
    /**
     * Created to call a ClusteredQueryCommand on own node.
     * 
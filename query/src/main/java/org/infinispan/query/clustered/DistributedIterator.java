@@ -10,7 +10,11 @@
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -124,24 +128,33 @@ private Object current() {
       return orderedValues.get(currentIndex);
    }
 
+   /**
+    * Loads the next page of results: fetchSize results, or enough of them to reach the given index. The docs of the
+    * page are taken from the merge queue first, so that all the values of the page can be fetched together.
+    */
    private void loadTo(int index) {
-      int fetched = 0;
+      // results this iterator can still return
+      int remaining = Math.min(maxResults, resultSize - firstResult) - orderedValues.size();
+      int pageSize = Math.min(Math.max(fetchSize, index + 1 - orderedValues.size()), remaining);
+      if (pageSize <= 0) {
+         return;
+      }
 
-      while (orderedValues.size() <= index || fetched < fetchSize) {
+      List<ClusteredDoc> page = new ArrayList<ClusteredDoc>(pageSize);
+      while (page.size() < pageSize) {
          // getting the next scoreDoc. If null, then there is no more results
          ClusteredDoc scoreDoc = (ClusteredDoc) hq.pop();
          if (scoreDoc == null) {
-            return;
+            break;
          }
 
-         ClusteredTopDocs topDoc = rechargeQueue(scoreDoc);
-
-         // fetching the value
-         Object value = fetchValue(scoreDoc, topDoc);
-
-         orderedValues.add(value);
+         rechargeQueue(scoreDoc);
+         page.add(scoreDoc);
+      }
 
-         fetched++;
+      if (!page.isEmpty()) {
+         // fetching the values
+         orderedValues.addAll(fetchValues(page));
       }
    }
 
@@ -164,9 +177,35 @@ private ClusteredTopDocs rechargeQueue(ClusteredDoc scoreDoc) {
       return topDoc;
    }
 
-   protected Object fetchValue(ClusteredDoc scoreDoc, ClusteredTopDocs topDoc) {
-      ISPNEagerTopDocs eagerTopDocs = (ISPNEagerTopDocs) topDoc.getTopDocs();
-      return cache.get(eagerTopDocs.keys[scoreDoc.getIndex()]);
+   protected ClusteredTopDocs getTopDocs(ClusteredDoc scoreDoc) {
+      return topDocsResponses.get(scoreDoc.getNodeUuid());
+   }
+
+   /**
+    * Fetches the values of a page of results.
+    *
+    * @param scoreDocs the docs of the page, in the order of the results
+    * @return the values of the docs, in the same order
+    */
+   protected List<Object> fetchValues(List<ClusteredDoc> scoreDocs) {
+      Object[] keys = new Object[scoreDocs.size()];
+      Set<Object> keySet = new HashSet<Object>(keys.length * 2);
+      for (int i = 0; i < keys.length; i++) {
+         ClusteredDoc scoreDoc = scoreDocs.get(i);
+         ISPNEagerTopDocs eagerTopDocs = (ISPNEagerTopDocs) getTopDocs(scoreDoc).getTopDocs();
+         keys[i] = eagerTopDocs.keys[scoreDoc.getIndex()];
+         if (keys[i] != null) {
+            keySet.add(keys[i]);
+         }
+      }
+
+      // a single lookup for the whole page
+      Map<?, ?> found = cache.getAll(keySet);
+      List<Object> values = new ArrayList<Object>(keys.length);
+      for (Object key : keys) {
+         values.add(key == null ? null : found.get(key));
+      }
+      return values;
    }
 
    @Override
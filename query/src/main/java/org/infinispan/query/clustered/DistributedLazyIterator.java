@@ -1,11 +1,15 @@
 package org.infinispan.query.clustered;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 
 import org.apache.lucene.search.Sort;
 import org.infinispan.AdvancedCache;
+import org.infinispan.remoting.transport.Address;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -46,15 +50,50 @@ public void close() {
    }
 
    @Override
-   protected Object fetchValue(ClusteredDoc scoreDoc, ClusteredTopDocs topDoc) {
+   protected List<Object> fetchValues(List<ClusteredDoc> scoreDocs) {
+      // the indexes of the docs of the page held by each node, in the order of the page
+      Map<Address, int[]> docIndexes = new HashMap<Address, int[]>();
+      Map<Address, Integer> counts = new HashMap<Address, Integer>();
+      for (ClusteredDoc scoreDoc : scoreDocs) {
+         Address address = getTopDocs(scoreDoc).getNodeAddress();
+         Integer count = counts.get(address);
+         counts.put(address, count == null ? 1 : count + 1);
+      }
+      for (Map.Entry<Address, Integer> entry : counts.entrySet()) {
+         docIndexes.put(entry.getKey(), new int[entry.getValue()]);
+         entry.setValue(0);
+      }
+      for (ClusteredDoc scoreDoc : scoreDocs) {
+         Address address = getTopDocs(scoreDoc).getNodeAddress();
+         int position = counts.get(address);
+         docIndexes.get(address)[position] = scoreDoc.getIndex();
+         counts.put(address, position + 1);
+      }
+
+      List<Object> values = new ArrayList<Object>(scoreDocs.size());
       ClusteredQueryInvoker invoker = new ClusteredQueryInvoker(cache, asyncExecutor);
-      Object value = null;
+      Map<Address, Object[]> nodeValues;
       try {
-         value = invoker.getValue(scoreDoc.getIndex(), topDoc.getNodeAddress(), queryId);
+         nodeValues = invoker.getValues(queryId, docIndexes);
       } catch (Exception e) {
-         log.error("Error while trying to remoting fetch next value: " + e.getMessage());
+         log.error("Error while trying to remoting fetch next values: " + e.getMessage());
+         for (int i = 0; i < scoreDocs.size(); i++) {
+            values.add(null);
+         }
+         return values;
+      }
+
+      // the values of each node are in the order of the page too
+      for (Map.Entry<Address, Integer> entry : counts.entrySet()) {
+         entry.setValue(0);
+      }
+      for (ClusteredDoc scoreDoc : scoreDocs) {
+         Address address = getTopDocs(scoreDoc).getNodeAddress();
+         int position = counts.get(address);
+         values.add(nodeValues.get(address)[position]);
+         counts.put(address, position + 1);
       }
-      return value;
+      return values;
    }
 
 }
\ No newline at end of file
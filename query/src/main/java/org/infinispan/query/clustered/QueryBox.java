@@ -6,7 +6,10 @@
 import org.infinispan.query.clustered.commandworkers.QueryExtractorUtil;
 import org.infinispan.commons.util.CollectionFactory;
 
+import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentMap;
 
@@ -65,6 +68,42 @@ public Object getValue(UUID queryUuid, int docIndex) {
       return cache.get(key);
    }
 
+   /**
+    * Get the values of several docs of the same DocumentExtractor, looking them up in the cache with a single
+    * {@link AdvancedCache#getAll(java.util.Set)}.
+    *
+    * @param queryUuid
+    *           The queryId, so we can get the correct DocumentExtractor
+    * @param docIndexes
+    *           values indexes in the DocumentExtractor
+    * @return the values, in the order of the indexes
+    */
+   public Object[] getValues(UUID queryUuid, int[] docIndexes) {
+      touch(queryUuid);
+
+      DocumentExtractor extractor = queries.get(queryUuid);
+
+      if (extractor == null) {
+         throw new IllegalStateException("Query not found!");
+      }
+
+      Object[] keys = new Object[docIndexes.length];
+      Set<Object> keySet = new HashSet<Object>(docIndexes.length * 2);
+      for (int i = 0; i < docIndexes.length; i++) {
+         keys[i] = QueryExtractorUtil.extractKey(extractor, cache, keyTransformationHandler, docIndexes[i]);
+         if (keys[i] != null) {
+            keySet.add(keys[i]);
+         }
+      }
+
+      Map<?, ?> found = cache.getAll(keySet);
+      Object[] values = new Object[keys.length];
+      for (int i = 0; i < keys.length; i++) {
+         values[i] = keys[i] == null ? null : found.get(keys[i]);
+      }
+      return values;
+   }
+
    private void touch(UUID id) {
       synchronized (ageOrderedQueries) {
          ageOrderedQueries.remove(id);
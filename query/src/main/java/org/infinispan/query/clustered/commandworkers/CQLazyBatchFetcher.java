@@ -0,0 +1,22 @@
+package org.infinispan.query.clustered.commandworkers;
+
+import org.infinispan.query.clustered.QueryBox;
+import org.infinispan.query.clustered.QueryResponse;
+
+/**
+ * CQLazyBatchFetcher.
+ *
+ * Fetches several results of a lazy iterator at once, so that a page of results costs a single request per node.
+ *
+ * @since 7.0
+ */
+public class CQLazyBatchFetcher extends ClusteredQueryCommandWorker {
+
+   @Override
+   public QueryResponse perform() {
+      QueryBox box = getQueryBox();
+      Object[] values = box.getValues(lazyQueryId, docIndexes);
+      return new QueryResponse(values);
+   }
+
+}
@@ -30,12 +30,14 @@ public abstract class ClusteredQueryCommandWorker {
    protected HSQuery query;
    protected UUID lazyQueryId;
    protected int docIndex;
+   protected int[] docIndexes;
 
-   public void init(Cache<?, ?> cache, HSQuery query, UUID lazyQueryId, int docIndex) {
+   public void init(Cache<?, ?> cache, HSQuery query, UUID lazyQueryId, int docIndex, int[] docIndexes) {
       this.cache = cache;
       this.query = query;
       this.lazyQueryId = lazyQueryId;
       this.docIndex = docIndex;
+      this.docIndexes = docIndexes;
    }
 
    public abstract QueryResponse perform();
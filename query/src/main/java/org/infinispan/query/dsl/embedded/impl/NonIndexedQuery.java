@@ -0,0 +1,84 @@
+package org.infinispan.query.dsl.embedded.impl;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.commons.CacheException;
+import org.infinispan.distexec.DefaultExecutorService;
+import org.infinispan.distexec.DistributedExecutorService;
+import org.infinispan.query.dsl.Query;
+import org.infinispan.query.dsl.impl.CompiledQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * A query executed by scanning the data container and the cache stores of every node in parallel, without the help of
+ * an index. Each node evaluates the query over the entries it is the primary owner of and returns its first matches
+ * (or all of them if the query is not paginated), which are then sorted and paginated by the node running the query.
+ *
+ * @since 7.0
+ */
+class NonIndexedQuery implements Query {
+
+   private final AdvancedCache<?, ?> cache;
+
+   private final CompiledQuery compiledQuery;
+
+   private List<Object> results;
+
+   private int resultSize;
+
+   public NonIndexedQuery(AdvancedCache<?, ?> cache, CompiledQuery compiledQuery) {
+      this.cache = cache;
+      this.compiledQuery = compiledQuery;
+   }
+
+   private synchronized void execute() {
+      if (results != null) {
+         return;
+      }
+
+      DistributedExecutorService executorService = new DefaultExecutorService(cache);
+      try {
+         List<Future<NonIndexedQueryScan.ScanResult>> futures =
+               executorService.submitEverywhere(new NonIndexedQueryScan(compiledQuery));
+         List<Object> matches = new ArrayList<Object>();
+         int matchCount = 0;
+         for (Future<NonIndexedQueryScan.ScanResult> future : futures) {
+            NonIndexedQueryScan.ScanResult scanResult = future.get();
+            matches.addAll(scanResult.getMatches());
+            matchCount += scanResult.getMatchCount();
+         }
+         results = compiledQuery.getResults(matches);
+         resultSize = matchCount;
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheException("Interrupted while executing query " + compiledQuery, e);
+      } catch (ExecutionException e) {
+         throw new CacheException("Failed to execute query " + compiledQuery, e.getCause());
+      } finally {
+         executorService.shutdownNow();
+      }
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public <T> List<T> list() {
+      execute();
+      return (List<T>) results;
+   }
+
+   @Override
+   public int getResultSize() {
+      execute();
+      return resultSize;
+   }
+
+   @Override
+   public String toString() {
+      return "NonIndexedQuery{" +
+            "compiledQuery=" + compiledQuery +
+            '}';
+   }
+}
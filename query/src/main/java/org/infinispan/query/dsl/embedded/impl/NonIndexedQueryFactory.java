@@ -0,0 +1,26 @@
+package org.infinispan.query.dsl.embedded.impl;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.query.dsl.Query;
+import org.infinispan.query.dsl.QueryBuilder;
+import org.infinispan.query.dsl.impl.BaseQueryFactory;
+
+/**
+ * Factory of queries executed by scanning the cache contents instead of searching an index, so they also work on
+ * caches that do not have indexing enabled.
+ *
+ * @since 7.0
+ */
+public final class NonIndexedQueryFactory extends BaseQueryFactory<Query> {
+
+   private final AdvancedCache<?, ?> cache;
+
+   public NonIndexedQueryFactory(AdvancedCache<?, ?> cache) {
+      this.cache = cache;
+   }
+
+   @Override
+   public QueryBuilder<Query> from(Class type) {
+      return new NonIndexedQueryBuilder(cache, type);
+   }
+}
@@ -0,0 +1,161 @@
+package org.infinispan.query.dsl.embedded.impl;
+
+import org.infinispan.Cache;
+import org.infinispan.commons.util.concurrent.ParallelIterableMap;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distexec.DistributedCallable;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.interceptors.locking.ClusteringDependentLogic;
+import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.marshall.core.MarshalledValue;
+import org.infinispan.persistence.CollectionKeyFilter;
+import org.infinispan.persistence.CompositeFilter;
+import org.infinispan.persistence.PrimaryOwnerFilter;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.persistence.spi.AdvancedCacheLoader;
+import org.infinispan.query.dsl.impl.CompiledQuery;
+import org.infinispan.util.TimeService;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Evaluates a {@link CompiledQuery} on a node, over the entries of the data container and of the cache stores the node
+ * is the primary owner of, so that every entry of the cluster is evaluated exactly once. The data container is scanned
+ * in parallel and the entries which are also in memory are skipped while processing the stores.
+ *
+ * @since 7.0
+ */
+class NonIndexedQueryScan implements DistributedCallable<Object, Object, NonIndexedQueryScan.ScanResult>, Serializable {
+
+   private static final long serialVersionUID = -4592742383627851294L;
+
+   private final CompiledQuery compiledQuery;
+
+   private transient Cache<Object, Object> cache;
+
+   NonIndexedQueryScan(CompiledQuery compiledQuery) {
+      this.compiledQuery = compiledQuery;
+   }
+
+   @Override
+   public void setEnvironment(Cache<Object, Object> cache, Set<Object> inputKeys) {
+      this.cache = cache;
+   }
+
+   @Override
+   public ScanResult call() throws Exception {
+      ComponentRegistry registry = cache.getAdvancedCache().getComponentRegistry();
+      ClusteringDependentLogic cdl = registry.getComponent(ClusteringDependentLogic.class);
+      PersistenceManager persistenceManager = registry.getComponent(PersistenceManager.class);
+      final TimeService timeService = registry.getTimeService();
+      final MatchCollector collector = new MatchCollector(compiledQuery.getComparator(), compiledQuery.getResultLimit());
+
+      DataContainer dc = cache.getAdvancedCache().getDataContainer();
+      dc.executeTask(new PrimaryOwnerFilter(cdl), new ParallelIterableMap.KeyValueAction<Object, InternalCacheEntry>() {
+         @Override
+         public void apply(Object key, InternalCacheEntry entry) {
+            if (!entry.isExpired(timeService.wallClockTime())) {
+               collector.evaluate(entry.getValue());
+            }
+         }
+      });
+      if (persistenceManager != null) {
+         AdvancedCacheLoader.KeyFilter<?> keyFilter = new CompositeFilter(new PrimaryOwnerFilter(cdl),
+                                                                          new CollectionKeyFilter(dc.keySet()));
+         persistenceManager.processOnAllStores(keyFilter, new AdvancedCacheLoader.CacheLoaderTask() {
+            @Override
+            public void processEntry(MarshalledEntry marshalledEntry, AdvancedCacheLoader.TaskContext taskContext) {
+               collector.evaluate(marshalledEntry.getValue());
+            }
+         }, true, false);
+      }
+      return collector.getResult();
+   }
+
+   /**
+    * Collects the values matching the query. If the number of results is limited, only the first matches according
+    * to the order of the query are kept, since the others can not be part of the results.
+    */
+   private final class MatchCollector {
+
+      private final int limit;
+
+      // the worst match on top, so it can be replaced by a better one once the limit is reached
+      private final PriorityQueue<Object> bestMatches;
+
+      private final List<Object> matches;
+
+      private int matchCount;
+
+      MatchCollector(Comparator<Object> comparator, int limit) {
+         this.limit = limit;
+         if (comparator != null && limit > 0) {
+            bestMatches = new PriorityQueue<Object>(Math.min(limit, 1024), Collections.reverseOrder(comparator));
+            matches = null;
+         } else {
+            bestMatches = null;
+            matches = new ArrayList<Object>();
+         }
+      }
+
+      void evaluate(Object value) {
+         if (value instanceof MarshalledValue) {
+            value = ((MarshalledValue) value).get();
+         }
+         if (value != null && compiledQuery.matches(value)) {
+            add(value);
+         }
+      }
+
+      private synchronized void add(Object value) {
+         matchCount++;
+         if (bestMatches != null) {
+            bestMatches.add(value);
+            if (bestMatches.size() > limit) {
+               bestMatches.poll();
+            }
+         } else if (limit < 0 || matches.size() < limit) {
+            matches.add(value);
+         }
+      }
+
+      synchronized ScanResult getResult() {
+         return new ScanResult(bestMatches != null ? new ArrayList<Object>(bestMatches) : matches, matchCount);
+      }
+   }
+
+   static final class ScanResult implements Serializable {
+
+      private static final long serialVersionUID = 8137025893617458318L;
+
+      private final List<Object> matches;
+
+      private final int matchCount;
+
+      ScanResult(List<Object> matches, int matchCount) {
+         this.matches = matches;
+         this.matchCount = matchCount;
+      }
+
+      /**
+       * @return the matches needed to compute the results of the query, in no particular order
+       */
+      List<Object> getMatches() {
+         return matches;
+      }
+
+      /**
+       * @return the number of entries matching the query, including those not returned by {@link #getMatches()}
+       */
+      int getMatchCount() {
+         return matchCount;
+      }
+   }
+}
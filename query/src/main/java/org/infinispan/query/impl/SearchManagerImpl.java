@@ -1,6 +1,7 @@
 package org.infinispan.query.impl;
 
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.lucene.search.Query;
 import org.hibernate.hql.ast.spi.EntityNamesResolver;
@@ -118,4 +119,14 @@ public MassIndexer getMassIndexer() {
       return new MapReduceMassIndexer(cache, searchFactory);
    }
 
+   @Override
+   public long getIndexingSequence() {
+      return queryInterceptor.getIndexingSequence();
+   }
+
+   @Override
+   public boolean awaitIndexing(long sequence, long timeout, TimeUnit unit) throws InterruptedException {
+      return queryInterceptor.awaitIndexing(sequence, timeout, unit);
+   }
+
 }
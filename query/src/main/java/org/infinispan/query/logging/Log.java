@@ -59,4 +59,8 @@ public interface Log extends org.infinispan.util.logging.Log {
    @Message(value = "Indexed type '%1$s' is using a default Transformer. This is slow! Register a custom implementation using @Transformable", id = 14009)
    void typeIsUsingDefaultTransformer(Class<?> keyClass);
 
+   @LogMessage(level = ERROR)
+   @Message(value = "Failed to apply a batch of %d asynchronous index update(s)", id = 14010)
+   void failedToApplyIndexingBatch(int count, @Cause Throwable cause);
+
 }
@@ -0,0 +1,131 @@
+package org.infinispan.query.backend;
+
+import org.hibernate.search.backend.TransactionContext;
+import org.hibernate.search.backend.spi.Work;
+import org.hibernate.search.backend.spi.WorkType;
+import org.hibernate.search.backend.spi.Worker;
+import org.infinispan.query.test.Person;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the ordering of the merged works of the {@link AsyncIndexingQueue}, and of the purges queued among them.
+ *
+ * @since 7.0
+ */
+@Test(groups = "unit", testName = "query.backend.AsyncIndexingQueueTest")
+public class AsyncIndexingQueueTest {
+
+   public void testRewrittenKeyIsIndexedBeforeLaterWrites() throws Exception {
+      final List<Work<?>> performed = new ArrayList<Work<?>>();
+      Worker worker = mock(Worker.class);
+      doAnswer(new Answer<Void>() {
+         @Override
+         public Void answer(InvocationOnMock invocation) {
+            performed.add((Work<?>) invocation.getArguments()[0]);
+            return null;
+         }
+      }).when(worker).performWork(any(Work.class), any(TransactionContext.class));
+      ManualExecutor executor = new ManualExecutor();
+      // a single key per batch
+      AsyncIndexingQueue queue = new AsyncIndexingQueue(worker, executor, 10, 1);
+
+      queue.enqueue("A", works("A", new Person("A", "first", 1)));
+      assertEquals(1, queue.getLastSequence());
+      queue.enqueue("B", works("B", new Person("B", "first", 2)));
+      long readerSequence = queue.getLastSequence();
+      assertEquals(2, readerSequence);
+      Person rewritten = new Person("A", "second", 3);
+      queue.enqueue("A", works("A", rewritten));
+      assertEquals(3, queue.getLastSequence());
+      assertEquals(2, queue.size());
+
+      // the rewritten key keeps the position of its first write, so it is applied before the write of B
+      executor.runNext();
+      assertEquals(1, performed.size());
+      assertEquals("A", performed.get(0).getId());
+      assertEquals(rewritten, performed.get(0).getEntity());
+      assertTrue(queue.awaitIndexed(1, 0, TimeUnit.MILLISECONDS));
+      assertFalse(queue.awaitIndexed(readerSequence, 0, TimeUnit.MILLISECONDS));
+      assertFalse(queue.awaitIndexed(3, 0, TimeUnit.MILLISECONDS));
+
+      executor.runNext();
+      assertEquals(2, performed.size());
+      assertEquals("B", performed.get(1).getId());
+      assertTrue(queue.awaitIndexed(readerSequence, 0, TimeUnit.MILLISECONDS));
+      assertTrue(queue.awaitIndexed(3, 0, TimeUnit.MILLISECONDS));
+      assertEquals(0, queue.size());
+   }
+
+   public void testWriteAfterPurgeIsNotMergedBeforeIt() throws Exception {
+      final List<Work<?>> performed = new ArrayList<Work<?>>();
+      Worker worker = mock(Worker.class);
+      doAnswer(new Answer<Void>() {
+         @Override
+         public Void answer(InvocationOnMock invocation) {
+            performed.add((Work<?>) invocation.getArguments()[0]);
+            return null;
+         }
+      }).when(worker).performWork(any(Work.class), any(TransactionContext.class));
+      ManualExecutor executor = new ManualExecutor();
+      AsyncIndexingQueue queue = new AsyncIndexingQueue(worker, executor, 10, 10);
+
+      // put, clear, put of the same key
+      queue.enqueue("A", works("A", new Person("A", "first", 1)));
+      queue.enqueue(null, Collections.singletonList(new Work<Person>(Person.class, null, WorkType.PURGE_ALL)));
+      Person rewritten = new Person("A", "second", 2);
+      queue.enqueue("A", works("A", rewritten));
+      assertEquals(3, queue.size());
+
+      executor.runNext();
+      assertEquals(3, performed.size());
+      assertEquals("A", performed.get(0).getId());
+      assertEquals(WorkType.PURGE_ALL, performed.get(1).getType());
+      // the second write is applied after the purge, so it is still indexed
+      assertEquals("A", performed.get(2).getId());
+      assertEquals(rewritten, performed.get(2).getEntity());
+      assertTrue(queue.awaitIndexed(3, 0, TimeUnit.MILLISECONDS));
+      assertEquals(0, queue.size());
+
+      // the key can be merged again once the purge is applied
+      queue.enqueue("A", works("A", new Person("A", "third", 3)));
+      queue.enqueue("A", works("A", new Person("A", "fourth", 4)));
+      assertEquals(1, queue.size());
+   }
+
+   private static List<Work<Person>> works(Serializable id, Person person) {
+      return Collections.singletonList(new Work<Person>(person, id, WorkType.UPDATE));
+   }
+
+   /**
+    * Runs the submitted tasks only when asked to.
+    */
+   private static class ManualExecutor implements Executor {
+      private final List<Runnable> tasks = new ArrayList<Runnable>();
+
+      @Override
+      public void execute(Runnable command) {
+         tasks.add(command);
+      }
+
+      void runNext() {
+         assertFalse(tasks.isEmpty());
+         tasks.remove(0).run();
+      }
+   }
+}
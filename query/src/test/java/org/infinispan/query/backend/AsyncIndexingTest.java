@@ -0,0 +1,76 @@
+package org.infinispan.query.backend;
+
+import org.apache.lucene.queryParser.QueryParser;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.query.CacheQuery;
+import org.infinispan.query.Search;
+import org.infinispan.query.SearchManager;
+import org.infinispan.query.test.Person;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.infinispan.query.helper.TestQueryHelperFactory.createQueryParser;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the asynchronous indexing of the non transactional writes.
+ *
+ * @since 7.0
+ */
+@Test(groups = "functional", testName = "query.backend.AsyncIndexingTest")
+public class AsyncIndexingTest extends SingleCacheManagerTest {
+
+   private static final int NUM_WRITES = 200;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder cfg = getDefaultStandaloneCacheConfig(false);
+      cfg.indexing()
+            .enable()
+            .addProperty("default.directory_provider", "ram")
+            .addProperty("lucene_version", "LUCENE_CURRENT")
+            .addProperty(QueryInterceptor.ASYNC_INDEXING, "true")
+            .addProperty(QueryInterceptor.ASYNC_INDEXING_QUEUE_SIZE, "16")
+            .addProperty(QueryInterceptor.ASYNC_INDEXING_BATCH_SIZE, "8");
+      return TestCacheManagerFactory.createCacheManager(cfg);
+   }
+
+   public void testReadYourWrites() throws Exception {
+      SearchManager searchManager = Search.getSearchManager(cache);
+      for (int i = 0; i < NUM_WRITES; i++) {
+         cache.put("person" + i, new Person("Person" + i, "Blurb " + i, i));
+      }
+      // the same keys written again only need to be indexed once more
+      for (int i = 0; i < NUM_WRITES; i++) {
+         cache.put("person" + i, new Person("Person" + i, "Updated " + i, i));
+      }
+
+      long sequence = searchManager.getIndexingSequence();
+      assertTrue(sequence > 0);
+      assertTrue(searchManager.awaitIndexing(sequence, 10, TimeUnit.SECONDS));
+
+      QueryParser queryParser = createQueryParser("blurb");
+      CacheQuery query = searchManager.getQuery(queryParser.parse("updated"), Person.class);
+      assertEquals(NUM_WRITES, query.getResultSize());
+      query = searchManager.getQuery(queryParser.parse("blurb"), Person.class);
+      assertEquals(0, query.getResultSize());
+   }
+
+   public void testRemove() throws Exception {
+      SearchManager searchManager = Search.getSearchManager(cache);
+      cache.put("removed", new Person("Removed", "Short lived", 1));
+      cache.remove("removed");
+
+      assertTrue(searchManager.awaitIndexing(searchManager.getIndexingSequence(), 10, TimeUnit.SECONDS));
+
+      QueryParser queryParser = createQueryParser("name");
+      List<Object> found = searchManager.getQuery(queryParser.parse("Removed"), Person.class).list();
+      assertEquals(0, found.size());
+   }
+}
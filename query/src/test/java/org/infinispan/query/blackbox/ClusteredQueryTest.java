@@ -233,6 +233,31 @@ public void testPagination() throws ParseException {
       assert ((Person) (results.get(0))).getAge() == 45;
    }
 
+   public void testPagedFetch() throws ParseException {
+      populateCache();
+
+      cacheQuery.firstResult(1);
+      cacheQuery.maxResults(3);
+
+      // applying sort
+      SortField sortField = new SortField("age", SortField.INT);
+      Sort sort = new Sort(sortField);
+      cacheQuery.sort(sort);
+
+      for (FetchOptions.FetchMode fetchMode : FetchOptions.FetchMode.values()) {
+         // the first page holds two values, the second one the last value
+         ResultIterator iterator = cacheQuery.iterator(new FetchOptions().fetchMode(fetchMode).fetchSize(2));
+         try {
+            assert ((Person) iterator.next()).getAge() == 35;
+            assert ((Person) iterator.next()).getAge() == 45;
+            assert ((Person) iterator.next()).getAge() == 66;
+            assert !iterator.hasNext();
+         } finally {
+            iterator.close();
+         }
+      }
+   }
+
    private void populateCache() throws ParseException {
       prepareTestData();
       Query[] queries = new Query[2];
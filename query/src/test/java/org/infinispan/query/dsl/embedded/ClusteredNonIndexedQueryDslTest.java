@@ -0,0 +1,71 @@
+package org.infinispan.query.dsl.embedded;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.query.Search;
+import org.infinispan.query.dsl.Query;
+import org.infinispan.query.dsl.SortOrder;
+import org.infinispan.query.dsl.embedded.sample_domain_model.Transaction;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Verifies that the non-indexed queries evaluate each entry of a distributed cache exactly once, and that the partial
+ * results of the nodes are merged in the right order.
+ *
+ * @since 7.0
+ */
+@Test(groups = "functional", testName = "query.dsl.embedded.ClusteredNonIndexedQueryDslTest")
+public class ClusteredNonIndexedQueryDslTest extends MultipleCacheManagersTest {
+
+   private static final int NUM_TRANSACTIONS = 50;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder cfg = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      cfg.clustering().hash().numOwners(2);
+      createClusteredCaches(3, cfg);
+
+      Cache<String, Transaction> cache = cache(0);
+      for (int i = 0; i < NUM_TRANSACTIONS; i++) {
+         Transaction transaction = new Transaction();
+         transaction.setId(i);
+         transaction.setDescription("Transaction " + i);
+         transaction.setAccountId(i % 5);
+         transaction.setAmount(i);
+         transaction.setDebit(i % 2 == 0);
+         cache.put("transaction_" + i, transaction);
+      }
+   }
+
+   public void testAllEntriesAreEvaluatedOnce() {
+      Query q = Search.getNonIndexedQueryFactory(cache(1)).from(Transaction.class)
+            .having("accountId").eq(3)
+            .toBuilder().build();
+
+      assertEquals(NUM_TRANSACTIONS / 5, q.list().size());
+      assertEquals(NUM_TRANSACTIONS / 5, q.getResultSize());
+   }
+
+   public void testSortingAndPagination() {
+      Query q = Search.getNonIndexedQueryFactory(cache(2)).from(Transaction.class)
+            .having("debit").eq(false)
+            .toBuilder()
+            .orderBy("amount", SortOrder.DESC)
+            .startOffset(2)
+            .maxResults(3)
+            .build();
+
+      List<Transaction> list = q.list();
+      assertEquals(3, list.size());
+      assertEquals(NUM_TRANSACTIONS - 5, list.get(0).getId());
+      assertEquals(NUM_TRANSACTIONS - 7, list.get(1).getId());
+      assertEquals(NUM_TRANSACTIONS - 9, list.get(2).getId());
+      assertEquals(NUM_TRANSACTIONS / 2, q.getResultSize());
+   }
+}
@@ -0,0 +1,206 @@
+package org.infinispan.query.dsl.embedded;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.query.Search;
+import org.infinispan.query.dsl.Query;
+import org.infinispan.query.dsl.QueryFactory;
+import org.infinispan.query.dsl.SortOrder;
+import org.infinispan.query.dsl.embedded.sample_domain_model.Address;
+import org.infinispan.query.dsl.embedded.sample_domain_model.Transaction;
+import org.infinispan.query.dsl.embedded.sample_domain_model.User;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the queries executed by scanning a cache which is not indexed, with some of the entries only present in the
+ * cache store.
+ *
+ * @since 7.0
+ */
+@Test(groups = "functional", testName = "query.dsl.embedded.NonIndexedQueryDslTest")
+public class NonIndexedQueryDslTest extends SingleCacheManagerTest {
+
+   private final DateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd");
+
+   public NonIndexedQueryDslTest() {
+      DATE_FORMAT.setTimeZone(TimeZone.getTimeZone("GMT"));
+   }
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder cfg = getDefaultStandaloneCacheConfig(false);
+      cfg.persistence().addStore(DummyInMemoryStoreConfigurationBuilder.class);
+      return TestCacheManagerFactory.createCacheManager(cfg);
+   }
+
+   @BeforeMethod(alwaysRun = true)
+   protected void populateCache() throws Exception {
+      User user1 = new User();
+      user1.setId(1);
+      user1.setName("John");
+      user1.setSurname("Doe");
+      user1.setGender(User.Gender.MALE);
+      user1.setAge(22);
+      user1.setAccountIds(new HashSet<Integer>(Arrays.asList(1, 2)));
+      Address address1 = new Address();
+      address1.setStreet("Main Street");
+      address1.setPostCode("X1234");
+      user1.setAddresses(Collections.singletonList(address1));
+
+      User user2 = new User();
+      user2.setId(2);
+      user2.setName("Spider");
+      user2.setSurname("Man");
+      user2.setGender(User.Gender.MALE);
+      user2.setAccountIds(Collections.singleton(3));
+      Address address2 = new Address();
+      address2.setStreet("Old Street");
+      address2.setPostCode("Y12");
+      Address address3 = new Address();
+      address3.setStreet("Bond Street");
+      address3.setPostCode("ZZ");
+      user2.setAddresses(Arrays.asList(address2, address3));
+
+      User user3 = new User();
+      user3.setId(3);
+      user3.setName("Spider");
+      user3.setSurname("Woman");
+      user3.setGender(User.Gender.FEMALE);
+      user3.setAge(31);
+      user3.setAccountIds(Collections.<Integer>emptySet());
+
+      cache.put("user_" + user1.getId(), user1);
+      cache.put("user_" + user2.getId(), user2);
+      cache.put("user_" + user3.getId(), user3);
+
+      for (int i = 0; i < 10; i++) {
+         Transaction transaction = new Transaction();
+         transaction.setId(i);
+         transaction.setDescription("Transaction " + i);
+         transaction.setAccountId(i % 3 + 1);
+         transaction.setAmount(i * 10.5);
+         transaction.setDate(DATE_FORMAT.parse("2013-01-" + (i + 10)));
+         transaction.setDebit(i % 2 == 0);
+         cache.put("transaction_" + i, transaction);
+      }
+
+      // some of the entries are only found in the cache store
+      cache.evict("user_2");
+      cache.evict("transaction_3");
+      cache.evict("transaction_8");
+   }
+
+   public void testEq() {
+      Query q = getQueryFactory().from(User.class)
+            .having("name").eq("Spider")
+            .toBuilder().build();
+
+      List<User> list = q.list();
+      assertEquals(2, list.size());
+      assertEquals(2, q.getResultSize());
+   }
+
+   public void testEqInNested() {
+      Query q = getQueryFactory().from(User.class)
+            .having("addresses.postCode").eq("ZZ")
+            .toBuilder().build();
+
+      List<User> list = q.list();
+      assertEquals(1, list.size());
+      assertEquals("Man", list.get(0).getSurname());
+   }
+
+   public void testEnum() {
+      Query q = getQueryFactory().from(User.class)
+            .having("gender").eq(User.Gender.FEMALE)
+            .toBuilder().build();
+
+      List<User> list = q.list();
+      assertEquals(1, list.size());
+      assertEquals(3, list.get(0).getId());
+   }
+
+   public void testIsNullAndNot() {
+      QueryFactory qf = getQueryFactory();
+
+      Query q = qf.from(User.class)
+            .having("age").isNull()
+            .toBuilder().build();
+      List<User> list = q.list();
+      assertEquals(1, list.size());
+      assertEquals(2, list.get(0).getId());
+
+      q = qf.from(User.class)
+            .not().having("age").isNull()
+            .toBuilder().build();
+      assertEquals(2, q.list().size());
+   }
+
+   public void testContainsAny() {
+      Query q = getQueryFactory().from(User.class)
+            .having("accountIds").containsAny(2, 3)
+            .toBuilder().build();
+
+      assertEquals(2, q.list().size());
+   }
+
+   public void testLikeAndRange() {
+      Query q = getQueryFactory().from(Transaction.class)
+            .having("description").like("Transaction _")
+            .and().having("amount").between(30, 63).includeUpper(false)
+            .toBuilder().build();
+
+      List<Transaction> list = q.list();
+      assertEquals(3, list.size());
+   }
+
+   public void testSortingAndPagination() {
+      Query q = getQueryFactory().from(Transaction.class)
+            .having("debit").eq(true)
+            .toBuilder()
+            .orderBy("amount", SortOrder.DESC)
+            .startOffset(1)
+            .maxResults(2)
+            .build();
+
+      List<Transaction> list = q.list();
+      assertEquals(2, list.size());
+      assertEquals(6, list.get(0).getId());
+      assertEquals(4, list.get(1).getId());
+      assertEquals(5, q.getResultSize());
+   }
+
+   public void testProjection() throws Exception {
+      Query q = getQueryFactory().from(Transaction.class)
+            .setProjection("id", "accountId")
+            .having("date").lt(DATE_FORMAT.parse("2013-01-13"))
+            .toBuilder()
+            .orderBy("id", SortOrder.ASC)
+            .build();
+
+      List<Object[]> list = q.list();
+      assertEquals(3, list.size());
+      assertArrayEquals(new Object[]{0, 1}, list.get(0));
+      assertArrayEquals(new Object[]{1, 2}, list.get(1));
+      assertArrayEquals(new Object[]{2, 3}, list.get(2));
+   }
+
+   private QueryFactory getQueryFactory() {
+      return Search.getNonIndexedQueryFactory(cache);
+   }
+}
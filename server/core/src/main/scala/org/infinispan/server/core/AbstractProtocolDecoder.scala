@@ -154,15 +154,13 @@ abstract class AbstractProtocolDecoder[K, V](transport: NettyTransport)
       try {
          if (response != null) {
             if (isTrace) trace("Write response %s", response)
+            // Responses are flushed once all the requests read have been decoded, see channelReadComplete
             response match {
                // We only expect Lists of ChannelBuffer instances, so don't worry about type erasure
-               case l: Array[ByteBuf] => {
-                 l.foreach(ch.write(_))
-                 ch.flush
-               }
-               case a: Array[Byte] => ch.writeAndFlush(wrappedBuffer(a))
-               case cs: CharSequence => ch.writeAndFlush(Unpooled.copiedBuffer(cs, CharsetUtil.UTF_8))
-               case _ => ch.writeAndFlush(response)
+               case l: Array[ByteBuf] => l.foreach(ch.write(_))
+               case a: Array[Byte] => ch.write(wrappedBuffer(a))
+               case cs: CharSequence => ch.write(Unpooled.copiedBuffer(cs, CharsetUtil.UTF_8))
+               case _ => ch.write(response)
             }
          }
          null
@@ -279,6 +277,16 @@ abstract class AbstractProtocolDecoder[K, V](transport: NettyTransport)
       resetParams
    }
 
+   /**
+    * Flushes the responses to all the requests decoded from the bytes read, so that a client pipelining requests
+    * gets their responses with a single flush rather than one per request. The flush goes through the channel,
+    * like the writes, so that it follows them when the decoder runs in a request executor.
+    */
+   override def channelReadComplete(ctx: ChannelHandlerContext) {
+      ctx.channel.flush
+      super.channelReadComplete(ctx)
+   }
+
    override def channelActive(ctx: ChannelHandlerContext) {
       transport.acceptedChannels.add(ctx.channel)
       super.channelActive(ctx)
@@ -9,6 +9,8 @@ import javax.management.{ObjectName, MBeanServer}
 import org.infinispan.server.core.transport.TimeoutEnabledChannelInitializer
 import org.infinispan.server.core.transport.NettyChannelInitializer
 import io.netty.channel.{Channel, ChannelInitializer}
+import io.netty.util.concurrent.DefaultThreadFactory
+import java.util.concurrent.{Executors, ExecutorService}
 
 /**
  * A common protocol server dealing with common property parameter validation and assignment and transport lifecycle.
@@ -18,6 +20,7 @@ import io.netty.channel.{Channel, ChannelInitializer}
  */
 abstract class AbstractProtocolServer(protocolName: String) extends ProtocolServer with Log {
    protected var transport: NettyTransport = _
+   protected var requestExecutor: ExecutorService = _
    protected var cacheManager: EmbeddedCacheManager = _
    protected var configuration: SuitableConfiguration = null.asInstanceOf[SuitableConfiguration]
    private var transportObjName: ObjectName = _
@@ -52,6 +55,9 @@ abstract class AbstractProtocolServer(protocolName: String) extends ProtocolServ
 
    def startTransport() {
       val address = new InetSocketAddress(configuration.host, configuration.port)
+      if (configuration.requestThreads > 0)
+         requestExecutor = Executors.newFixedThreadPool(configuration.requestThreads,
+            new DefaultThreadFactory(getQualifiedName() + "ServerRequest"))
       transport = new NettyTransport(this, getInitializer, address, configuration, getQualifiedName(), cacheManager)
 
       // Register transport MBean regardless
@@ -62,9 +68,9 @@ abstract class AbstractProtocolServer(protocolName: String) extends ProtocolServ
 
    override def getInitializer: ChannelInitializer[Channel] = {
       if (configuration.idleTimeout > 0)
-         new TimeoutEnabledChannelInitializer(this, getEncoder)
+         new TimeoutEnabledChannelInitializer(this, getEncoder, requestExecutor)
       else // Idle timeout logic is disabled with -1 or 0 values
-         new NettyChannelInitializer(this, getEncoder)
+         new NettyChannelInitializer(this, getEncoder, requestExecutor)
    }
 
    protected def registerTransportMBean() {
@@ -103,6 +109,9 @@ abstract class AbstractProtocolServer(protocolName: String) extends ProtocolServ
       if (transport != null)
          transport.stop()
 
+      if (requestExecutor != null)
+         requestExecutor.shutdown()
+
       unregisterTransportMBean()
 
       if (isDebug)
@@ -17,8 +17,11 @@ public abstract class ProtocolServerConfiguration {
    private final SslConfiguration ssl;
    private final boolean tcpNoDelay;
    private final int workerThreads;
+   private final int requestThreads;
+   private final boolean epoll;
+   private final int acceptorThreads;
 
-   protected ProtocolServerConfiguration(String defaultCacheName, String name, String host, int port, int idleTimeout, int recvBufSize, int sendBufSize, SslConfiguration ssl, boolean tcpNoDelay, int workerThreads) {
+   protected ProtocolServerConfiguration(String defaultCacheName, String name, String host, int port, int idleTimeout, int recvBufSize, int sendBufSize, SslConfiguration ssl, boolean tcpNoDelay, int workerThreads, int requestThreads, boolean epoll, int acceptorThreads) {
       this.defaultCacheName = defaultCacheName;
       this.name = name;
       this.host = host;
@@ -29,6 +32,9 @@ protected ProtocolServerConfiguration(String defaultCacheName, String name, Stri
       this.ssl = ssl;
       this.tcpNoDelay = tcpNoDelay;
       this.workerThreads = workerThreads;
+      this.requestThreads = requestThreads;
+      this.epoll = epoll;
+      this.acceptorThreads = acceptorThreads;
    }
 
    public String defaultCacheName() {
@@ -71,10 +77,22 @@ public int workerThreads() {
       return workerThreads;
    }
 
+   public int requestThreads() {
+      return requestThreads;
+   }
+
+   public boolean epoll() {
+      return epoll;
+   }
+
+   public int acceptorThreads() {
+      return acceptorThreads;
+   }
+
    @Override
    public String toString() {
       return "ProtocolServerConfiguration [defaultCacheName=" + defaultCacheName +", name=" + name + ", host=" + host + ", port=" + port + ", idleTimeout=" + idleTimeout + ", recvBufSize=" + recvBufSize + ", sendBufSize="
-            + sendBufSize + ", ssl=" + ssl + ", tcpNoDelay=" + tcpNoDelay + ", workerThreads=" + workerThreads + "]";
+            + sendBufSize + ", ssl=" + ssl + ", tcpNoDelay=" + tcpNoDelay + ", workerThreads=" + workerThreads + ", requestThreads=" + requestThreads + ", epoll=" + epoll + ", acceptorThreads=" + acceptorThreads + "]";
    }
 
 }
@@ -18,6 +18,9 @@
    protected final SslConfigurationBuilder ssl;
    protected boolean tcpNoDelay = true;
    protected int workerThreads = 2 * Runtime.getRuntime().availableProcessors();
+   protected int requestThreads = 0;
+   protected boolean epoll = false;
+   protected int acceptorThreads = 1;
 
    protected ProtocolServerConfigurationBuilder(int port) {
       this.port = port;
@@ -83,6 +86,24 @@ public S workerThreads(int workerThreads) {
       return this.self();
    }
 
+   @Override
+   public S requestThreads(int requestThreads) {
+      this.requestThreads = requestThreads;
+      return this.self();
+   }
+
+   @Override
+   public S epoll(boolean epoll) {
+      this.epoll = epoll;
+      return this.self();
+   }
+
+   @Override
+   public S acceptorThreads(int acceptorThreads) {
+      this.acceptorThreads = acceptorThreads;
+      return this.self();
+   }
+
    @Override
    public void validate() {
       ssl.validate();
@@ -98,6 +119,12 @@ public void validate() {
       if (workerThreads < 0) {
          throw log.illegalWorkerThreads(workerThreads);
       }
+      if (requestThreads < 0) {
+         throw log.illegalRequestThreads(requestThreads);
+      }
+      if (acceptorThreads < 1) {
+         throw log.illegalAcceptorThreads(acceptorThreads);
+      }
    }
 
    @Override
@@ -111,6 +138,9 @@ public Builder<?> read(T template) {
       this.sendBufSize = template.sendBufSize();
       this.tcpNoDelay = template.tcpNoDelay();
       this.workerThreads = template.workerThreads();
+      this.requestThreads = template.requestThreads();
+      this.epoll = template.epoll();
+      this.acceptorThreads = template.acceptorThreads();
       this.ssl.read(template.ssl());
       return this;
    }
@@ -58,6 +58,26 @@
     */
    S workerThreads(int workerThreads);
 
+   /**
+    * Sets the number of threads decoding and executing the requests, instead of the worker threads reading them. The
+    * requests of each connection are still executed in order, but a request blocked on a lock, a store or a remote call
+    * only holds up the requests of its own connection. Defaults to 0, which executes the requests in the worker threads.
+    */
+   S requestThreads(int requestThreads);
+
+   /**
+    * Uses the native epoll transport of Netty, when it is available on the platform, instead of the NIO one. Falls back
+    * to NIO, with a warning, when it isn't. Defaults to false.
+    */
+   S epoll(boolean epoll);
+
+   /**
+    * Sets the number of threads accepting the connections. With the epoll transport, as many server sockets are bound
+    * to the same address with SO_REUSEPORT, so that the kernel spreads the connections among them. The NIO transport
+    * always uses a single acceptor. Defaults to 1.
+    */
+   S acceptorThreads(int acceptorThreads);
+
    /**
     * Builds a configuration object
     */
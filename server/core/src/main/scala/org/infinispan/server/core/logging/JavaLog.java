@@ -83,4 +83,18 @@ public interface JavaLog extends org.infinispan.util.logging.Log {
 
    @Message(value = "Cannot configure custom KeyStore and/or TrustStore when specifying a SSLContext", id = 5018)
    CacheConfigurationException xorSSLContext();
+
+   @Message(value = "Illegal number of requestThreads: %d", id = 5019)
+   IllegalArgumentException illegalRequestThreads(int requestThreads);
+
+   @Message(value = "Illegal number of acceptorThreads: %d", id = 5020)
+   IllegalArgumentException illegalAcceptorThreads(int acceptorThreads);
+
+   @LogMessage(level = WARN)
+   @Message(value = "The native epoll transport is not available, falling back to the NIO transport", id = 5021)
+   void epollNotAvailable(@Cause Throwable cause);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Multiple acceptor threads require the native epoll transport, using a single acceptor thread instead of %d", id = 5022)
+   void multipleAcceptorsNotSupported(int acceptorThreads);
 }
@@ -72,6 +72,11 @@ trait Log {
 
    def logSettingMasterThreadsNotSupported = log.settingMasterThreadsNotSupported
 
+   def logEpollNotAvailable(cause: Throwable) = log.epollNotAvailable(cause)
+
+   def logMultipleAcceptorsNotSupported(acceptorThreads: Int) =
+      log.multipleAcceptorsNotSupported(acceptorThreads)
+
    def logErrorBeforeReadingRequest(t: Throwable) =
       log.errorBeforeReadingRequest(t)
 }
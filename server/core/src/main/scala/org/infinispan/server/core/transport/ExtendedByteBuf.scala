@@ -1,15 +1,56 @@
 package org.infinispan.server.core.transport
 
-import io.netty.buffer.{ByteBuf, Unpooled}
+import io.netty.buffer.{ByteBufAllocator, CompositeByteBuf, ByteBuf, Unpooled}
 import io.netty.util.CharsetUtil
 
 
 object ExtendedByteBuf {
 
+   /**
+    * Arrays of at least this size are added as components of composite buffers, rather than copied into them.
+    */
+   val MinWrappedArrayLength = 256
+
+   /**
+    * Capacity of the first buffer appended to a composite buffer which runs out of space. The following ones are
+    * twice as large, up to {@link #MaxTailCapacity}.
+    */
+   val MinTailCapacity = 256
+   val MaxTailCapacity = 64 * 1024
+
    def wrappedBuffer(array: Array[Byte]*) = Unpooled.wrappedBuffer(array : _*)
    def buffer(capacity: Int) = Unpooled.buffer(capacity)
    def dynamicBuffer = Unpooled.buffer()
 
+   /**
+    * Allocates a composite buffer for responses carrying keys or values, which {@link #writeBytes} and
+    * {@link #writeRangedBytes} wrap instead of copying them. The number of components is not limited, since
+    * reaching the limit would copy all the components into a single buffer.
+    */
+   def compositeBuffer(alloc: ByteBufAllocator): CompositeByteBuf = new AppendingCompositeByteBuf(alloc)
+
+   /**
+    * A composite buffer which grows by appending a new buffer of bounded size when it runs out of space. The default
+    * growth of a composite buffer doubles its whole capacity, wrapped arrays included, so a response made of several
+    * large values would allocate padding as large as all the values written before each of them.
+    */
+   private class AppendingCompositeByteBuf(alloc: ByteBufAllocator)
+         extends CompositeByteBuf(alloc, false, Integer.MAX_VALUE) {
+
+      private var tailCapacity = MinTailCapacity
+
+      override def ensureWritable(minWritableBytes: Int): CompositeByteBuf = {
+         val missing = minWritableBytes - writableBytes
+         if (missing > 0) {
+            // The new buffer is always written to right away, so only the last component can have unused capacity
+            val length = math.max(missing, tailCapacity)
+            tailCapacity = math.min(tailCapacity * 2, MaxTailCapacity)
+            addComponent(alloc.buffer(length).setIndex(0, length))
+         }
+         this
+      }
+   }
+
    def readUnsignedShort(bf: ByteBuf): Int = bf.readUnsignedShort
    def readUnsignedInt(bf: ByteBuf): Int = VInt.read(bf)
    def readUnsignedLong(bf: ByteBuf): Long = VLong.read(bf)
@@ -17,8 +58,11 @@ object ExtendedByteBuf {
    def readRangedBytes(bf: ByteBuf): Array[Byte] = {
       val length = readUnsignedInt(bf)
       if (length > 0) {
+         // Slicing first checks that all the bytes are readable before allocating the array, so that a replaying
+         // decoder waiting for the rest of the bytes does not allocate the array again each time it retries
+         val slice = bf.readSlice(length)
          val array = new Array[Byte](length)
-         bf.readBytes(array)
+         slice.getBytes(slice.readerIndex, array)
          array
       } else {
          Array[Byte]()
@@ -40,7 +84,23 @@ object ExtendedByteBuf {
 
    def writeRangedBytes(src: Array[Byte], bf: ByteBuf) {
       writeUnsignedInt(src.length, bf)
-      bf.writeBytes(src)
+      writeBytes(src, bf)
+   }
+
+   /**
+    * Writes the array to the buffer. If the buffer is a composite one and the array is large enough, the array is
+    * added as a new component of the buffer wrapping it, so that its contents are not copied.
+    */
+   def writeBytes(src: Array[Byte], bf: ByteBuf) {
+      bf match {
+         case c: CompositeByteBuf if src.length >= MinWrappedArrayLength =>
+            // Trim the capacity not written yet, so that the array comes right after the bytes already written. Only
+            // the last component is partly written, and it is sliced rather than removed.
+            c.capacity(c.writerIndex)
+            c.addComponent(Unpooled.wrappedBuffer(src))
+            c.writerIndex(c.writerIndex + src.length)
+         case _ => bf.writeBytes(src)
+      }
    }
 
    def writeString(msg: String, bf: ByteBuf) = writeRangedBytes(msg.getBytes(CharsetUtil.UTF_8), bf)
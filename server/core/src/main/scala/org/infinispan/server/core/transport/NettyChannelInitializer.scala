@@ -6,17 +6,21 @@ import javax.net.ssl.SSLEngine
 import org.infinispan.commons.util.SslContextFactory
 import io.netty.channel.{ChannelInitializer, Channel, ChannelOutboundHandler}
 import io.netty.handler.ssl.SslHandler
+import java.util.concurrent.Executor
 
 /**
  * Pipeline factory for Netty based channels. For each pipeline created, a new decoder is created which means that
  * each incoming connection deals with a unique decoder instance. Since the encoder does not maintain any state,
  * a single encoder instance is shared by all incoming connections, if and only if, the protocol mandates an encoder.
+ * If a request executor is given, the decoder runs in it, one request of the channel at a time, rather than in the
+ * worker thread reading from the channel.
  *
  * @author Galder Zamarreño
  * @since 4.1
  */
 class NettyChannelInitializer(server: ProtocolServer,
-                                  encoder: ChannelOutboundHandler)
+                                  encoder: ChannelOutboundHandler,
+                                  requestExecutor: Executor = null)
       extends ChannelInitializer[Channel] {
 
    override def initChannel(ch: Channel): Unit = {
@@ -24,7 +28,10 @@ class NettyChannelInitializer(server: ProtocolServer,
       val ssl = server.getConfiguration.ssl
       if (ssl.enabled())
          pipeline.addLast("ssl", new SslHandler(createSslEngine(ssl)))
-      pipeline.addLast("decoder", server.getDecoder)
+      if (requestExecutor != null)
+         pipeline.addLast(new OrderedRequestExecutor(requestExecutor, ch), "decoder", server.getDecoder)
+      else
+         pipeline.addLast("decoder", server.getDecoder)
       if (encoder != null)
          pipeline.addLast("encoder", encoder)
    }
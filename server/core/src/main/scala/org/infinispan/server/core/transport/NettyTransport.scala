@@ -18,9 +18,10 @@ import org.infinispan.server.core.configuration.ProtocolServerConfiguration
 import io.netty.util.concurrent.ImmediateEventExecutor
 import io.netty.util.internal.logging.{Log4JLoggerFactory, InternalLoggerFactory}
 import io.netty.bootstrap.ServerBootstrap
-import io.netty.channel.{Channel, ChannelInitializer, ChannelOption}
+import io.netty.channel.{EventLoopGroup, ServerChannel, Channel, ChannelInitializer, ChannelOption}
 import io.netty.channel.nio.NioEventLoopGroup
 import io.netty.channel.socket.nio.NioServerSocketChannel
+import io.netty.channel.epoll.{EpollChannelOption, EpollServerSocketChannel, EpollEventLoopGroup, Epoll}
 import io.netty.buffer.PooledByteBufAllocator
 
 /**
@@ -36,8 +37,17 @@ class NettyTransport(server: ProtocolServer, handler: ChannelInitializer[Channel
    private val serverChannels = new DefaultChannelGroup(threadNamePrefix + "-Channels", ImmediateEventExecutor.INSTANCE)
    val acceptedChannels = new DefaultChannelGroup(threadNamePrefix + "-Accepted", ImmediateEventExecutor.INSTANCE)
 
-   private val masterGroup = new NioEventLoopGroup(1, new InfinispanThreadFactory(threadNamePrefix + "ServerMaster"))
-   private val workerGroup = new NioEventLoopGroup(configuration.workerThreads, new InfinispanThreadFactory(threadNamePrefix + "ServerWorker"))
+   private val useEpoll = configuration.epoll && isEpollAvailable
+   // Only the epoll transport can bind several server sockets to the same address, with SO_REUSEPORT
+   private val acceptorThreads =
+      if (useEpoll || configuration.acceptorThreads == 1) configuration.acceptorThreads
+      else {
+         logMultipleAcceptorsNotSupported(configuration.acceptorThreads)
+         1
+      }
+
+   private val masterGroup = buildEventLoopGroup(acceptorThreads, new InfinispanThreadFactory(threadNamePrefix + "ServerMaster"))
+   private val workerGroup = buildEventLoopGroup(configuration.workerThreads, new InfinispanThreadFactory(threadNamePrefix + "ServerWorker"))
 
    private val totalBytesWritten, totalBytesRead = new AtomicLong
    private val isGlobalStatsEnabled =
@@ -50,7 +60,11 @@ class NettyTransport(server: ProtocolServer, handler: ChannelInitializer[Channel
 
       val bootstrap = new ServerBootstrap()
       bootstrap.group(masterGroup, workerGroup)
-      bootstrap.channel(classOf[NioServerSocketChannel])
+      val channelClass: Class[_ <: ServerChannel] =
+         if (useEpoll) classOf[EpollServerSocketChannel] else classOf[NioServerSocketChannel]
+      bootstrap.channel(channelClass)
+      if (acceptorThreads > 1)
+         bootstrap.option[java.lang.Boolean](EpollChannelOption.SO_REUSEPORT, true)
       bootstrap.childHandler(handler)
       bootstrap.childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
       bootstrap.childOption[java.lang.Boolean](ChannelOption.TCP_NODELAY, configuration.tcpNoDelay) // Sets server side tcpNoDelay
@@ -59,10 +73,23 @@ class NettyTransport(server: ProtocolServer, handler: ChannelInitializer[Channel
       if (configuration.recvBufSize > 0)
          bootstrap.childOption[java.lang.Integer](ChannelOption.SO_RCVBUF, configuration.recvBufSize) // Sets server side receive buffer
 
-      val ch = bootstrap.bind(address).sync().channel()
-      serverChannels.add(ch)
+      // Each server channel is registered with the next acceptor thread
+      for (i <- 0 until acceptorThreads) {
+         val ch = bootstrap.bind(address).sync().channel()
+         serverChannels.add(ch)
+      }
+   }
+
+   private def isEpollAvailable: Boolean = {
+      if (!Epoll.isAvailable)
+         logEpollNotAvailable(Epoll.unavailabilityCause)
+      Epoll.isAvailable
    }
 
+   private def buildEventLoopGroup(threads: Int, threadFactory: ThreadFactory): EventLoopGroup =
+      if (useEpoll) new EpollEventLoopGroup(threads, threadFactory)
+      else new NioEventLoopGroup(threads, threadFactory)
+
    private def isLog4jAvailable: Boolean = {
       try {
          Util.loadClassStrict("org.apache.log4j.Logger",
@@ -0,0 +1,145 @@
+package org.infinispan.server.core.transport
+
+import io.netty.channel.Channel
+import io.netty.util.concurrent.{Future, EventExecutorGroup, AbstractEventExecutor, DefaultPromise, GlobalEventExecutor}
+import java.util.concurrent.{RejectedExecutionException, TimeUnit, ConcurrentLinkedQueue, Executor}
+import java.util.concurrent.atomic.AtomicBoolean
+import org.infinispan.server.core.logging.Log
+
+/**
+ * An event executor running the handler invocations of a single channel, one at a time and in order, in a thread pool
+ * shared by all the channels of a server. The executors of a DefaultEventExecutorGroup are each bound to a single
+ * thread serving several channels, so a request blocked on a lock, a store or a remote call would hold up the requests
+ * of all these channels. Here it only holds up the requests of its own channel, and the other channels are served by
+ * the remaining threads of the pool.
+ *
+ * The pool queue holds at most one task per channel, since the tasks of a channel are drained by a single task. The
+ * tasks of the channel itself are bounded: once maxPendingTasks are waiting, the channel stops reading until half of
+ * them have run, so a client that keeps sending requests while its earlier ones are blocked can't pile them up in
+ * memory.
+ *
+ * The executor owns no thread, so it needn't be shut down along with its channel. Once shut down, it rejects new
+ * tasks and terminates when the queued ones have run.
+ *
+ * @since 7.0
+ */
+class OrderedRequestExecutor(executor: Executor, channel: Channel, maxPendingTasks: Int)
+      extends AbstractEventExecutor with Runnable with Log {
+
+   def this(executor: Executor, channel: Channel) =
+      this(executor, channel, OrderedRequestExecutor.DefaultMaxPendingTasks)
+
+   private val tasks = new ConcurrentLinkedQueue[Runnable]
+   private val scheduled = new AtomicBoolean
+   private val termination = new DefaultPromise[AnyRef](GlobalEventExecutor.INSTANCE)
+   @volatile private var thread: Thread = _
+   @volatile private var shuttingDown = false
+   // Guarded by readLock, so that reading is always resumed once the tasks that suspended it have run
+   private val readLock = new Object
+   private var pendingTasks = 0
+   private var readSuspended = false
+
+   override def parent: EventExecutorGroup = null
+
+   override def inEventLoop: Boolean = inEventLoop(Thread.currentThread)
+
+   override def inEventLoop(t: Thread): Boolean = t == thread
+
+   override def execute(task: Runnable) {
+      if (task == null)
+         throw new NullPointerException("task")
+      if (shuttingDown)
+         throw new RejectedExecutionException("Request executor of " + channel + " is shut down")
+      tasks.add(task)
+      readLock.synchronized {
+         pendingTasks += 1
+         if (pendingTasks >= maxPendingTasks && !readSuspended) {
+            readSuspended = true
+            channel.config.setAutoRead(false)
+         }
+      }
+      scheduleDrain()
+   }
+
+   private def scheduleDrain() {
+      if (scheduled.compareAndSet(false, true)) {
+         try {
+            executor.execute(this)
+         } catch {
+            case e: RejectedExecutionException => {
+               scheduled.set(false)
+               throw e
+            }
+         }
+      }
+   }
+
+   override def run() {
+      thread = Thread.currentThread
+      try {
+         var task = tasks.poll()
+         while (task != null) {
+            try {
+               task.run()
+            } catch {
+               case t: Throwable => warn("Unexpected error running a request task", t)
+            }
+            readLock.synchronized {
+               pendingTasks -= 1
+               if (pendingTasks <= maxPendingTasks / 2 && readSuspended) {
+                  readSuspended = false
+                  channel.config.setAutoRead(true)
+               }
+            }
+            task = tasks.poll()
+         }
+      } finally {
+         thread = null
+         scheduled.set(false)
+         // A task added after the last poll but before the flag was cleared did not schedule a drain
+         if (!tasks.isEmpty)
+            scheduleDrain()
+         else if (shuttingDown)
+            tryTerminate()
+      }
+   }
+
+   private def tryTerminate() {
+      if (tasks.isEmpty && !scheduled.get)
+         termination.trySuccess(null)
+   }
+
+   override def isShuttingDown: Boolean = shuttingDown
+
+   override def isShutdown: Boolean = shuttingDown
+
+   override def isTerminated: Boolean = termination.isDone
+
+   override def awaitTermination(timeout: Long, unit: TimeUnit): Boolean = termination.await(timeout, unit)
+
+   /**
+    * Terminates the executor once the queued tasks have run. There is no quiet period since new tasks are rejected,
+    * and no timeout since a running request can't be interrupted.
+    */
+   override def shutdownGracefully(quietPeriod: Long, timeout: Long, unit: TimeUnit): Future[_] = {
+      shuttingDown = true
+      tryTerminate()
+      termination
+   }
+
+   override def terminationFuture: Future[_] = termination
+
+   override def shutdown() {
+      shutdownGracefully()
+   }
+
+}
+
+object OrderedRequestExecutor {
+
+   /**
+    * The number of tasks of a channel that may be waiting for a request thread before the channel stops reading.
+    */
+   val DefaultMaxPendingTasks = 64
+
+}
@@ -0,0 +1,77 @@
+package org.infinispan.server.core
+
+import org.testng.annotations.Test
+import org.testng.Assert._
+import transport.ExtendedByteBuf._
+import io.netty.buffer.{UnpooledByteBufAllocator, Unpooled}
+
+/**
+ * Tests the writes of arrays to composite buffers, which wrap large arrays rather than copying them.
+ *
+ * @since 7.0
+ */
+@Test(groups = Array("functional"), testName = "server.core.ExtendedByteBufTest")
+class ExtendedByteBufTest {
+
+   def testWriteLargeArrayWrapsIt() {
+      val buf = compositeBuffer(UnpooledByteBufAllocator.DEFAULT)
+      val value = Array.fill[Byte](MinWrappedArrayLength)(7)
+      buf.writeByte(1)
+      writeRangedBytes(value, buf)
+      buf.writeByte(2)
+
+      // The array is a component of its own, so changing it changes the buffer contents
+      value(0) = 8
+      assertEquals(buf.readByte, 1)
+      val read = readRangedBytes(buf)
+      assertEquals(read.length, MinWrappedArrayLength)
+      assertEquals(read(0), 8)
+      assertEquals(read(MinWrappedArrayLength - 1), 7)
+      assertEquals(buf.readByte, 2)
+      assertFalse(buf.isReadable)
+      buf.release
+   }
+
+   def testWriteSmallArrayCopiesIt() {
+      val buf = compositeBuffer(UnpooledByteBufAllocator.DEFAULT)
+      val value = Array[Byte](1, 2, 3)
+      writeRangedBytes(value, buf)
+
+      value(0) = 4
+      val read = readRangedBytes(buf)
+      assertEquals(read, Array[Byte](1, 2, 3))
+      buf.release
+   }
+
+   def testWriteSeveralLargeArraysDoesNotPad() {
+      val buf = compositeBuffer(UnpooledByteBufAllocator.DEFAULT)
+      val value = Array.fill[Byte](100 * 1024)(7)
+      val numValues = 20
+      for (i <- 0 until numValues) {
+         // Like the entries of a bulk get response, a marker and a small key before each value
+         buf.writeByte(1)
+         writeRangedBytes(Array.fill[Byte](10)(i.toByte), buf)
+         writeRangedBytes(value, buf)
+      }
+      buf.writeByte(0)
+
+      // The values are wrapped, and the small writes between them do not grow the buffer by its whole capacity
+      assertTrue(buf.capacity - buf.writerIndex <= MaxTailCapacity,
+         "Capacity " + buf.capacity + " for " + buf.writerIndex + " bytes written")
+      for (i <- 0 until numValues) {
+         assertEquals(buf.readByte, 1)
+         assertEquals(readRangedBytes(buf), Array.fill[Byte](10)(i.toByte))
+         assertEquals(readRangedBytes(buf).length, value.length)
+      }
+      assertEquals(buf.readByte, 0)
+      assertFalse(buf.isReadable)
+      buf.release
+   }
+
+   def testReadEmptyRangedBytes() {
+      val buf = Unpooled.buffer
+      writeRangedBytes(Array[Byte](), buf)
+      assertEquals(readRangedBytes(buf).length, 0)
+   }
+
+}
@@ -0,0 +1,89 @@
+package org.infinispan.server.core
+
+import java.util.concurrent.{RejectedExecutionException, TimeUnit, ConcurrentLinkedQueue, Executor}
+import io.netty.channel.embedded.EmbeddedChannel
+import io.netty.channel.ChannelInboundHandlerAdapter
+import org.infinispan.server.core.transport.OrderedRequestExecutor
+import org.testng.annotations.Test
+import org.testng.Assert._
+
+/**
+ * Tests that the request executor of a channel bounds the tasks waiting for a request thread by suspending the reads
+ * of the channel, and that it terminates once shut down.
+ *
+ * @since 7.0
+ */
+@Test(groups = Array("unit"), testName = "server.core.OrderedRequestExecutorTest")
+class OrderedRequestExecutorTest {
+
+   def testReadsSuspendedWhileTooManyTasksPending() {
+      val pool = new ManualExecutor
+      val channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter)
+      val executor = new OrderedRequestExecutor(pool, channel, 4)
+      var executed = 0
+      val task = new Runnable {
+         override def run() { executed += 1 }
+      }
+
+      for (i <- 0 until 3) executor.execute(task)
+      assertTrue(channel.config.isAutoRead)
+      executor.execute(task)
+      assertFalse(channel.config.isAutoRead)
+
+      // A single drain runs all the tasks, resuming the reads once half of them have run
+      assertEquals(pool.size, 1)
+      pool.runNext()
+      assertEquals(executed, 4)
+      assertTrue(channel.config.isAutoRead)
+      channel.close()
+   }
+
+   def testTerminatesOnceQueuedTasksHaveRun() {
+      val pool = new ManualExecutor
+      val channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter)
+      val executor = new OrderedRequestExecutor(pool, channel)
+      var executed = false
+      executor.execute(new Runnable {
+         override def run() { executed = true }
+      })
+
+      val termination = executor.shutdownGracefully()
+      assertTrue(executor.isShuttingDown)
+      assertFalse(termination.isDone)
+      try {
+         executor.execute(new Runnable {
+            override def run() {}
+         })
+         fail("Tasks should be rejected once the executor is shut down")
+      } catch {
+         case e: RejectedExecutionException => // expected
+      }
+
+      pool.runNext()
+      assertTrue(executed)
+      assertTrue(termination.isSuccess)
+      assertTrue(executor.isTerminated)
+      assertTrue(executor.awaitTermination(0, TimeUnit.SECONDS))
+      channel.close()
+   }
+
+}
+
+/**
+ * Runs the tasks only when told to.
+ */
+class ManualExecutor extends Executor {
+
+   private val tasks = new ConcurrentLinkedQueue[Runnable]
+
+   override def execute(task: Runnable) {
+      tasks.add(task)
+   }
+
+   def size: Int = tasks.size
+
+   def runNext() {
+      tasks.poll().run()
+   }
+
+}
@@ -121,6 +121,15 @@ abstract class AbstractEncoder1x extends AbstractVersionedEncoder with Constants
             if (g.status == Success) writeRangedBytes(g.data.get, buf)
          case q: QueryResponse =>
             writeRangedBytes(q.result, buf)
+         case g: GetAllResponse => {
+            writeUnsignedInt(g.entries.size, buf)
+            for (entry <- asScalaIterator(g.entries.entrySet.iterator)) {
+               writeRangedBytes(entry.getKey, buf)
+               writeRangedBytes(entry.getValue, buf)
+            }
+         }
+         case e: NearCacheInvalidationEvent =>
+            writeRangedBytes(e.key, buf)
          case e: ErrorResponse => writeString(e.msg, buf)
          case _ => if (buf == null)
             throw new IllegalArgumentException("Response received is unknown: " + r)
@@ -5,6 +5,7 @@ import org.infinispan.stats.Stats
 import org.infinispan.server.core.{QueryFacade, RequestParameters}
 import org.infinispan.server.core.transport.NettyTransport
 import org.infinispan.container.entries.CacheEntry
+import org.infinispan.metadata.Metadata
 import io.netty.buffer.ByteBuf
 
 /**
@@ -66,6 +67,12 @@ abstract class AbstractVersionedDecoder {
     */
    def customReadValue(header: HotRodHeader, buffer: ByteBuf, cache: AdvancedCache[Array[Byte], Array[Byte]]): AnyRef
 
+   /**
+    * Handle the reading of the entries of a bulk store operation, storing them with the given metadata.
+    */
+   def customReadEntries(header: HotRodHeader, buffer: ByteBuf, cache: AdvancedCache[Array[Byte], Array[Byte]],
+           metadata: Metadata): AnyRef
+
    /**
     * Create a response for the stats command.
     */
@@ -17,6 +17,8 @@ import transport.NettyTransport
 import org.infinispan.container.entries.{CacheEntry, InternalCacheEntry}
 import org.infinispan.container.versioning.NumericVersion
 import io.netty.buffer.ByteBuf
+import org.infinispan.metadata.Metadata
+import org.infinispan.commons.util.CollectionFactory
 
 /**
  * HotRod protocol decoder specific for specification version 1.0.
@@ -49,6 +51,10 @@ object Decoder10 extends AbstractVersionedDecoder with ServerConstants with Log
          case 0x1B => (GetWithMetadataRequest, false)
          case 0x1D => (BulkGetKeysRequest, false)
          case 0x1F => (QueryRequest, false)
+         // Bulk store and retrieval were added in version 1.4
+         case 0x21 if version >= Constants.VERSION_14 => (PutAllRequest, false)
+         case 0x23 if version >= Constants.VERSION_14 => (GetAllRequest, false)
+         case 0x25 if version >= Constants.VERSION_14 => (AddNearCacheListenerRequest, true)
          case _ => throw new HotRodUnknownOperationException(
                "Unknown operation: " + streamOp, version, messageId)
       }
@@ -86,6 +92,11 @@ object Decoder10 extends AbstractVersionedDecoder with ServerConstants with Log
    override def readParameters(header: HotRodHeader, buffer: ByteBuf): (RequestParameters, Boolean) = {
       header.op match {
          case RemoveRequest => (null, true)
+         case PutAllRequest => {
+            val lifespan = readLifespanOrMaxIdle(buffer, hasFlag(header, ProtocolFlag.DefaultLifespan))
+            val maxIdle = readLifespanOrMaxIdle(buffer, hasFlag(header, ProtocolFlag.DefaultMaxIdle))
+            (new RequestParameters(-1, lifespan, maxIdle, -1), true)
+         }
          case RemoveIfUnmodifiedRequest => (new RequestParameters(-1, -1, -1, buffer.readLong), true)
          case ReplaceIfUnmodifiedRequest => {
             val lifespan = readLifespanOrMaxIdle(buffer, hasFlag(header, ProtocolFlag.DefaultLifespan))
@@ -223,6 +234,14 @@ object Decoder10 extends AbstractVersionedDecoder with ServerConstants with Log
             new QueryResponse(h.version, h.messageId, h.cacheName, h.clientIntel,
                h.topologyId, result)
          }
+         case GetAllRequest => {
+            val count = readUnsignedInt(buffer)
+            val keys = new java.util.HashSet[Array[Byte]](count)
+            for (i <- 0 until count) keys.add(readKey(buffer))
+            if (isTrace) trace("About to create get all response, count = %d", count)
+            new GetAllResponse(h.version, h.messageId, h.cacheName, h.clientIntel,
+               h.topologyId, cache.getAll(keys))
+         }
       }
    }
 
@@ -248,6 +267,22 @@ object Decoder10 extends AbstractVersionedDecoder with ServerConstants with Log
    override def customReadValue(header: HotRodHeader, buffer: ByteBuf,
            cache: AdvancedCache[Array[Byte], Array[Byte]]): AnyRef = null
 
+   override def customReadEntries(h: HotRodHeader, buffer: ByteBuf,
+           cache: AdvancedCache[Array[Byte], Array[Byte]], metadata: Metadata): AnyRef = {
+      val count = readUnsignedInt(buffer)
+      val dataContainer = cache.getCacheConfiguration.dataContainer()
+      val entries = CollectionFactory.makeMap[Array[Byte], Array[Byte]](count,
+         dataContainer.keyEquivalence[Array[Byte]], dataContainer.valueEquivalence[Array[Byte]])
+      for (i <- 0 until count) {
+         val k = readKey(buffer)
+         entries.put(k, readRangedBytes(buffer))
+      }
+      if (isTrace) trace("About to store %d entries", count)
+      cache.putAll(entries, metadata)
+      new Response(h.version, h.messageId, h.cacheName, h.clientIntel,
+                   PutAllResponse, Success, h.topologyId)
+   }
+
    override def createStatsResponse(h: HotRodHeader, cacheStats: Stats, t: NettyTransport): AnyRef = {
       val stats = mutable.Map.empty[String, String]
       stats += ("timeSinceStart" -> cacheStats.getTimeSinceStart.toString)
@@ -305,6 +340,9 @@ object Decoder10 extends AbstractVersionedDecoder with ServerConstants with Log
          case BulkGetRequest => BulkGetResponse
          case GetWithMetadataRequest => GetWithMetadataResponse
          case BulkGetKeysRequest => BulkGetKeysResponse
+         case PutAllRequest => PutAllResponse
+         case GetAllRequest => GetAllResponse
+         case AddNearCacheListenerRequest => AddNearCacheListenerResponse
       }
    }
 
@@ -328,6 +366,10 @@ object OperationResponse extends Enumeration {
    val GetWithMetadataResponse = Value(0x1C)
    val BulkGetKeysResponse = Value(0x1E)
    val QueryResponse = Value(0x20)
+   val PutAllResponse = Value(0x22)
+   val GetAllResponse = Value(0x24)
+   val AddNearCacheListenerResponse = Value(0x26)
+   val NearCacheInvalidationEvent = Value(0x27)
    val ErrorResponse = Value(0x50)
 }
 
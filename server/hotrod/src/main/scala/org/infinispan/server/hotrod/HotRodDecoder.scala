@@ -55,7 +55,7 @@ class HotRodDecoder(cacheManager: EmbeddedCacheManager, transport: NettyTranspor
 
       try {
          val decoder = version match {
-            case VERSION_10 | VERSION_11 | VERSION_12 | VERSION_13 => Decoder10
+            case VERSION_10 | VERSION_11 | VERSION_12 | VERSION_13 | VERSION_14 => Decoder10
             case _ => throw new UnknownVersionException(
                "Unknown version:" + version, version, messageId)
          }
@@ -131,14 +131,40 @@ class HotRodDecoder(cacheManager: EmbeddedCacheManager, transport: NettyTranspor
    override def createMultiGetResponse(pairs: Map[Array[Byte], CacheEntry]): AnyRef =
       null // Unsupported
 
-   override protected def customDecodeHeader(ch: Channel, buffer: ByteBuf): AnyRef =
-      writeResponse(ch, header.decoder.customReadHeader(header, buffer, cache))
+   override protected def customDecodeHeader(ch: Channel, buffer: ByteBuf): AnyRef = {
+      header.op match {
+         // The listener writes the response itself, so that
+         // no invalidation event can reach the client before it
+         case HotRodOperation.AddNearCacheListenerRequest => {
+            val response = new Response(header.version, header.messageId, header.cacheName,
+               header.clientIntel, OperationResponse.AddNearCacheListenerResponse,
+               OperationStatus.Success, header.topologyId)
+            NearCacheInvalidationListener(cache, ch, header).register(cache, response)
+            writeResponse(ch, null)
+         }
+         case _ => writeResponse(ch, header.decoder.customReadHeader(header, buffer, cache))
+      }
+   }
 
-   override protected def customDecodeKey(ch: Channel, buffer: ByteBuf): AnyRef =
-      writeResponse(ch, header.decoder.customReadKey(header, buffer, cache, server.getQueryFacades))
+   override protected def customDecodeKey(ch: Channel, buffer: ByteBuf): AnyRef = {
+      header.op match {
+         // Put all has no leading key, its lifespan and max idle are read
+         // as parameters and the entries are read as its value
+         case HotRodOperation.PutAllRequest => checkpointTo(DecoderState.DECODE_PARAMETERS)
+         case _ => writeResponse(ch, header.decoder.customReadKey(header, buffer, cache, server.getQueryFacades))
+      }
+   }
 
-   override protected def customDecodeValue(ch: Channel, buffer: ByteBuf): AnyRef =
-      writeResponse(ch, header.decoder.customReadValue(header, buffer, cache))
+   override protected def customDecodeValue(ch: Channel, buffer: ByteBuf): AnyRef = {
+      header.op match {
+         case HotRodOperation.PutAllRequest =>
+            // All entries share the metadata, and hence the version, built
+            // from the lifespan and max idle parameters of the request
+            writeResponse(ch, header.decoder.customReadEntries(
+               header, buffer, getOptimizedCache(cache), buildMetadata()))
+         case _ => writeResponse(ch, header.decoder.customReadValue(header, buffer, cache))
+      }
+   }
 
    override def createStatsResponse: AnyRef =
       header.decoder.createStatsResponse(header, cache.getAdvancedCache.getStats, transport)
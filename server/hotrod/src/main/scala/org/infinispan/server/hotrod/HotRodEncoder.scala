@@ -8,6 +8,7 @@ import org.infinispan.commons.util.Util
 import io.netty.handler.codec.MessageToMessageEncoder
 import io.netty.channel.ChannelHandlerContext
 import io.netty.channel.ChannelHandler.Sharable
+import org.infinispan.server.core.transport.ExtendedByteBuf._
 
 /**
  * Hot Rod specific encoder.
@@ -29,17 +30,23 @@ class HotRodEncoder(cacheManager: EmbeddedCacheManager, server: HotRodServer)
 
     // Safe cast
     val r = msg.asInstanceOf[Response]
-    val buf = ctx.alloc().buffer
+    // Responses carrying values wrap them rather than copying them
+    val buf = r match {
+      case _: ResponseWithPrevious | _: GetResponse | _: BulkGetResponse | _: BulkGetKeysResponse
+           | _: GetAllResponse | _: QueryResponse => compositeBuffer(ctx.alloc())
+      case _ => ctx.alloc().buffer
+    }
     val encoder = r.version match {
       case VERSION_10 => Encoders.Encoder10
       case VERSION_11 => Encoders.Encoder11
       case VERSION_12 => Encoders.Encoder12
       case VERSION_13 => Encoders.Encoder13
-      case 0 => Encoders.Encoder13
+      case VERSION_14 => Encoders.Encoder14
+      case 0 => Encoders.Encoder14
     }
 
     r.version match {
-      case VERSION_10 | VERSION_11 | VERSION_12 | VERSION_13 => encoder.writeHeader(r, buf, addressCache, server)
+      case VERSION_10 | VERSION_11 | VERSION_12 | VERSION_13 | VERSION_14 => encoder.writeHeader(r, buf, addressCache, server)
       // if error before reading version, don't send any topology changes
       // cos the encoding might vary from one version to the other
       case 0 => encoder.writeHeader(r, buf, null, null)
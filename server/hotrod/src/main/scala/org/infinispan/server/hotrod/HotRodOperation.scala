@@ -18,4 +18,7 @@ object HotRodOperation extends Enumeration(20) {
    val GetWithMetadataRequest = Value
    val BulkGetKeysRequest = Value
    val QueryRequest = Value
+   val PutAllRequest = Value
+   val GetAllRequest = Value
+   val AddNearCacheListenerRequest = Value
 }
@@ -0,0 +1,104 @@
+package org.infinispan.server.hotrod
+
+import logging.Log
+import org.infinispan.Cache
+import org.infinispan.notifications.Listener
+import org.infinispan.notifications.cachelistener.annotation.{CacheEntryInvalidated, CacheEntryRemoved, CacheEntryModified, CacheEntryCreated}
+import org.infinispan.notifications.cachelistener.event.CacheEntryEvent
+import io.netty.channel.{ChannelFuture, ChannelFutureListener, Channel}
+
+/**
+ * Cache listener that pushes the key of every entry created, modified or removed to the Hot Rod client that
+ * registered it, so that the client can drop the key from its near cache.
+ *
+ * Events are written to the channel the client registered from, as responses to the registration request.
+ * Events fired before the registration response has been written are not sent: the client does not cache
+ * anything until it has received that response. If the client does not keep up with the events, the channel
+ * is closed, which makes the client clear its near cache, rather than buffering an unbounded backlog.
+ *
+ * @since 7.0
+ */
+abstract class NearCacheInvalidationListener(ch: Channel, version: Byte, messageId: Long, cacheName: String)
+      extends Log {
+
+   private val isTrace = isTraceEnabled
+   private var registered = false
+
+   /**
+    * Adds this listener to the cache, writes the given registration response and removes the listener when
+    * the channel is closed.
+    */
+   def register(cache: Cache[Array[Byte], Array[Byte]], response: Response) {
+      cache.addListener(this)
+      synchronized {
+         ch.writeAndFlush(response)
+         registered = true
+      }
+      ch.closeFuture().addListener(new ChannelFutureListener {
+         override def operationComplete(future: ChannelFuture) {
+            if (isTrace) trace("Channel %s closed, removing near cache listener", ch)
+            cache.removeListener(NearCacheInvalidationListener.this)
+         }
+      })
+   }
+
+   @CacheEntryCreated
+   @CacheEntryModified
+   @CacheEntryRemoved
+   def entryChanged(e: CacheEntryEvent[AnyRef, AnyRef]) {
+      if (!e.isPre) invalidate(e.getKey)
+   }
+
+   protected def invalidate(key: AnyRef) {
+      key match {
+         case k: Array[Byte] => synchronized {
+            if (registered && ch.isActive) {
+               if (ch.isWritable) {
+                  ch.writeAndFlush(new NearCacheInvalidationEvent(version, messageId, cacheName, k))
+               } else {
+                  if (isTrace) trace("Channel %s can't keep up with the invalidations, closing it", ch)
+                  ch.close()
+               }
+            }
+         }
+         // Keys stored in compatibility mode are not the client's byte arrays
+         case _ => if (isTrace) trace("Ignoring invalidation of non binary key %s", key)
+      }
+   }
+
+}
+
+/**
+ * Receives the events from all nodes in the cluster.
+ */
+@Listener(clustered = true)
+class ClusteredNearCacheInvalidationListener(ch: Channel, version: Byte, messageId: Long, cacheName: String)
+      extends NearCacheInvalidationListener(ch, version, messageId, cacheName)
+
+/**
+ * Used with local and invalidation mode caches, where cluster listeners are not available. In invalidation mode,
+ * changes made on other nodes arrive as invalidations.
+ */
+@Listener
+class LocalNearCacheInvalidationListener(ch: Channel, version: Byte, messageId: Long, cacheName: String)
+      extends NearCacheInvalidationListener(ch, version, messageId, cacheName) {
+
+   @CacheEntryInvalidated
+   def entryInvalidated(e: CacheEntryEvent[AnyRef, AnyRef]) {
+      if (!e.isPre) invalidate(e.getKey)
+   }
+
+}
+
+object NearCacheInvalidationListener {
+
+   def apply(cache: Cache[Array[Byte], Array[Byte]], ch: Channel, h: HotRodHeader): NearCacheInvalidationListener = {
+      // The header instance is reused for the following requests, so keep a copy of its values
+      val cacheMode = cache.getCacheConfiguration.clustering().cacheMode()
+      if (cacheMode.isClustered && !cacheMode.isInvalidation)
+         new ClusteredNearCacheInvalidationListener(ch, h.version, h.messageId, h.cacheName)
+      else
+         new LocalNearCacheInvalidationListener(ch, h.version, h.messageId, h.cacheName)
+   }
+
+}
@@ -156,6 +156,31 @@ class StatsResponse(override val version: Byte, override val messageId: Long, ov
    }
 }
 
+class GetAllResponse(override val version: Byte, override val messageId: Long, override val cacheName: String,
+        override val clientIntel: Short, override val topologyId: Int,
+        val entries: java.util.Map[Array[Byte], Array[Byte]])
+      extends Response(version, messageId, cacheName, clientIntel, GetAllResponse, Success, topologyId) {
+   override def toString: String = {
+      new StringBuilder().append("GetAllResponse").append("{")
+              .append("version=").append(version)
+              .append(", messageId=").append(messageId)
+              .append(", entries=").append(entries.size)
+              .append("}").toString
+   }
+}
+
+class NearCacheInvalidationEvent(override val version: Byte, override val messageId: Long, override val cacheName: String,
+        val key: Array[Byte])
+      extends Response(version, messageId, cacheName, Constants.INTELLIGENCE_BASIC, NearCacheInvalidationEvent, Success, 0) {
+   override def toString: String = {
+      new StringBuilder().append("NearCacheInvalidationEvent").append("{")
+              .append("version=").append(version)
+              .append(", messageId=").append(messageId)
+              .append(", key=").append(Util.printArray(key, true))
+              .append("}").toString
+   }
+}
+
 class QueryResponse(override val version: Byte, override val messageId: Long, override val cacheName: String,
         override val clientIntel: Short, override val topologyId: Int, val result: Array[Byte])
       extends Response(version, messageId, cacheName, clientIntel, QueryResponse, Success, topologyId) {
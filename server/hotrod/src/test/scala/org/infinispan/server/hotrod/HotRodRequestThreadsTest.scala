@@ -0,0 +1,77 @@
+package org.infinispan.server.hotrod
+
+import java.lang.reflect.Method
+import java.util
+import java.util.concurrent.{Callable, TimeUnit, CountDownLatch}
+import org.infinispan.manager.EmbeddedCacheManager
+import org.infinispan.notifications.Listener
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated
+import org.infinispan.notifications.cachelistener.event.CacheEntryCreatedEvent
+import org.infinispan.server.hotrod.OperationStatus._
+import org.infinispan.server.hotrod.configuration.HotRodServerConfigurationBuilder
+import org.infinispan.server.hotrod.test.HotRodTestingUtil._
+import org.infinispan.server.hotrod.test.{TestResponse, UniquePortThreadLocal}
+import org.testng.Assert._
+import org.testng.annotations.Test
+
+/**
+ * Tests that a request blocked in the cache, when the requests run in the request threads, does not hold up the
+ * requests of the other connections.
+ *
+ * @since 7.0
+ */
+@Test(groups = Array("functional"), testName = "server.hotrod.HotRodRequestThreadsTest")
+class HotRodRequestThreadsTest extends HotRodSingleNodeTest {
+
+   override protected def createStartHotRodServer(cacheManager: EmbeddedCacheManager) =
+      startHotRodServer(cacheManager, UniquePortThreadLocal.get.intValue,
+         new HotRodServerConfigurationBuilder().requestThreads(2))
+
+   def testBlockedRequestDoesNotHoldUpOtherConnections(m: Method) {
+      val blockedKey = k(m, "blocked-")
+      val blocked = new CountDownLatch(1)
+      val release = new CountDownLatch(1)
+      val listener = new BlockingListener(blockedKey, blocked, release)
+      cacheManager.getCache[Array[Byte], Array[Byte]](cacheName).addListener(listener)
+
+      val blockedClient = connectClient
+      val otherClients = List(connectClient, connectClient)
+      try {
+         val blockedPut = fork(new Callable[TestResponse] {
+            override def call(): TestResponse = blockedClient.put(blockedKey, 0, 0, v(m))
+         })
+         assertTrue(blocked.await(10, TimeUnit.SECONDS))
+
+         // Whichever request thread they would have shared with the blocked connection, these go through
+         otherClients.zipWithIndex.foreach { case (c, i) =>
+            val key = k(m, "k-" + i + "-")
+            assertStatus(c.put(key, 0, 0, v(m)), Success)
+            assertSuccess(c.get(key, 0), v(m))
+         }
+         assertFalse(blockedPut.isDone)
+
+         release.countDown()
+         assertStatus(blockedPut.get(10, TimeUnit.SECONDS), Success)
+         assertSuccess(client.get(blockedKey, 0), v(m))
+      } finally {
+         release.countDown()
+         cacheManager.getCache[Array[Byte], Array[Byte]](cacheName).removeListener(listener)
+         killClient(blockedClient)
+         otherClients.foreach(killClient(_))
+      }
+   }
+
+}
+
+@Listener
+class BlockingListener(key: Array[Byte], blocked: CountDownLatch, release: CountDownLatch) {
+
+   @CacheEntryCreated
+   def entryCreated(event: CacheEntryCreatedEvent[Array[Byte], Array[Byte]]) {
+      if (event.isPre && util.Arrays.equals(event.getKey, key)) {
+         blocked.countDown()
+         release.await(30, TimeUnit.SECONDS)
+      }
+   }
+
+}
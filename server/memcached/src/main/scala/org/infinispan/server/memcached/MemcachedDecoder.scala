@@ -1,6 +1,6 @@
 package org.infinispan.server.memcached
 
-import io.netty.buffer.ByteBuf
+import io.netty.buffer.{Unpooled, ByteBuf}
 import io.netty.channel.{ChannelHandlerContext, Channel}
 import logging.Log
 import org.infinispan.server.core.Operation._
@@ -104,11 +104,17 @@ class MemcachedDecoder(memcachedCache: AdvancedCache[String, Array[Byte]], sched
    override protected def get(buffer: ByteBuf): AnyRef = {
       val keys = readKeys(buffer)
       if (keys.length > 1) {
+         val keySet = new util.HashSet[String](keys.length)
+         for (k <- keys)
+            keySet.add(checkKeyLength(k, endOfOp = true, buffer))
+         // Retrieve all keys in a single invocation, so that clustered caches
+         // send one remote get per owner instead of one per key
+         val entries = cache.getAllCacheEntries(keySet)
          val map = new mutable.HashMap[String, CacheEntry]()
-         for (k <- keys) {
-            val entry = cache.getCacheEntry(checkKeyLength(k, endOfOp = true, buffer))
-            if (entry != null)
-               map += (k -> entry)
+         val it = entries.entrySet().iterator()
+         while (it.hasNext) {
+            val e = it.next()
+            map += (e.getKey -> e.getValue)
          }
          createMultiGetResponse(new immutable.HashMap ++ map)
       } else {
@@ -542,13 +548,12 @@ class MemcachedDecoder(memcachedCache: AdvancedCache[String, Array[Byte]], sched
 
    private def buildGetResponse(op: Enumeration#Value, k: String, entry: CacheEntry): ByteBuf = {
       val buf = buildGetHeaderBegin(k, entry, 0)
-      writeGetHeaderData(entry.getValue.asInstanceOf[Array[Byte]], buf)
+      writeGetHeaderData(entry.getValue.asInstanceOf[Array[Byte]], buf, wrappedBuffer(CRLFBytes))
    }
 
    private def buildSingleGetResponse(k: String, entry: CacheEntry): ByteBuf = {
-      val buf = buildGetHeaderBegin(k, entry, END_SIZE)
-      writeGetHeaderData(entry.getValue.asInstanceOf[Array[Byte]], buf)
-      writeGetHeaderEnd(buf)
+      val buf = buildGetHeaderBegin(k, entry, 0)
+      writeGetHeaderData(entry.getValue.asInstanceOf[Array[Byte]], buf, wrappedBuffer(CRLFBytes, END))
    }
 
    private def buildGetHeaderBegin(k: String, entry: CacheEntry,
@@ -564,8 +569,8 @@ class MemcachedDecoder(memcachedCache: AdvancedCache[String, Array[Byte]], sched
       }
 
       val flagsSize = flags.length
-      val buf = buffer(VALUE_SIZE + key.length + data.length + flagsSize
-              + dataSize.length + 6 + extraSpace)
+      val buf = buffer(VALUE_SIZE + key.length + flagsSize
+              + dataSize.length + 4 + extraSpace)
       buf.writeBytes(VALUE)
       buf.writeBytes(key)
       buf.writeByte(SP)
@@ -575,27 +580,23 @@ class MemcachedDecoder(memcachedCache: AdvancedCache[String, Array[Byte]], sched
       buf
    }
 
-   private def writeGetHeaderData(data: Array[Byte], buf: ByteBuf): ByteBuf = {
-      buf.writeBytes(CRLFBytes)
-      buf.writeBytes(data)
+   /**
+    * Completes the header and returns a buffer made of the header, the data and the trailer, which wraps the data
+    * rather than copying it.
+    */
+   private def writeGetHeaderData(data: Array[Byte], buf: ByteBuf, trailer: ByteBuf): ByteBuf = {
       buf.writeBytes(CRLFBytes)
-      buf
-   }
-
-   private def writeGetHeaderEnd(buf: ByteBuf): ByteBuf = {
-      buf.writeBytes(END)
-      buf
+      Unpooled.wrappedBuffer(buf, wrappedBuffer(data), trailer)
    }
 
    private def buildSingleGetWithVersionResponse(k: String, entry: CacheEntry): ByteBuf = {
       val v = entry.getValue.asInstanceOf[Array[Byte]]
       // TODO: Would be nice for EntryVersion to allow retrieving the version itself...
       val version = entry.getMetadata.version().asInstanceOf[NumericVersion].getVersion.toString.getBytes
-      val buf = buildGetHeaderBegin(k, entry, version.length + 1 + END_SIZE)
+      val buf = buildGetHeaderBegin(k, entry, version.length + 1)
       buf.writeByte(SP) // 1
       buf.writeBytes(version) // version.length
-      writeGetHeaderData(v, buf)
-      writeGetHeaderEnd(buf)
+      writeGetHeaderData(v, buf, wrappedBuffer(CRLFBytes, END))
    }
 
    private def friendlyMaxIntCheck(number: String, message: String): Int = {
@@ -0,0 +1,45 @@
+package org.infinispan.server.memcached
+
+import org.infinispan.manager.EmbeddedCacheManager
+import org.infinispan.server.memcached.configuration.MemcachedServerConfigurationBuilder
+import org.infinispan.server.memcached.test.MemcachedTestingUtil._
+import org.infinispan.server.memcached.test.UniquePortThreadLocal
+import org.testng.Assert._
+import org.testng.annotations.Test
+
+/**
+ * Tests that pipelined requests, sent in a single write, are answered in order when the requests run in a request
+ * executor rather than in the IO threads.
+ *
+ * @since 7.0
+ */
+@Test(groups = Array("functional"), testName = "server.memcached.MemcachedPipeliningTest")
+class MemcachedPipeliningTest extends MemcachedSingleNodeTest {
+
+   override protected def createMemcachedServer(cacheManager: EmbeddedCacheManager): MemcachedServer = {
+      val server = new MemcachedServer
+      server.start(new MemcachedServerConfigurationBuilder().host(host)
+            .port(UniquePortThreadLocal.get.intValue).requestThreads(2).build(), cacheManager)
+      server
+   }
+
+   def testPipelinedSetsAndGets(m: java.lang.reflect.Method) {
+      val numRequests = 100
+      val sets = new StringBuilder
+      for (i <- 0 until numRequests)
+         sets.append("set %s-%d 0 0 1\r\n%d\r\n".format(m.getName, i, i % 10))
+      val setResponses = sendMulti(sets.toString(), numRequests, wait = true)
+      setResponses.foreach(assertEquals(_, "STORED"))
+
+      val gets = new StringBuilder
+      for (i <- 0 until numRequests)
+         gets.append("get %s-%d\r\n".format(m.getName, i))
+      val getResponses = sendMulti(gets.toString(), numRequests * 3, wait = true)
+      for (i <- 0 until numRequests) {
+         assertEquals(getResponses(i * 3), "VALUE %s-%d 0 1".format(m.getName, i))
+         assertEquals(getResponses(i * 3 + 1), (i % 10).toString)
+         assertEquals(getResponses(i * 3 + 2), "END")
+      }
+   }
+
+}
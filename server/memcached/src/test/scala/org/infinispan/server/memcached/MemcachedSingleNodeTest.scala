@@ -25,7 +25,7 @@ abstract class MemcachedSingleNodeTest extends SingleCacheManagerTest {
 
    override def createCacheManager: EmbeddedCacheManager = {
       cacheManager = createTestCacheManager
-      memcachedServer = startMemcachedTextServer(cacheManager)
+      memcachedServer = createMemcachedServer(cacheManager)
       memcachedClient = createMemcachedClient(60000, server.getPort)
       cache = cacheManager.getCache[AnyRef, AnyRef](memcachedServer.getConfiguration.cache)
       cacheManager
@@ -33,6 +33,9 @@ abstract class MemcachedSingleNodeTest extends SingleCacheManagerTest {
 
    protected def createTestCacheManager: EmbeddedCacheManager = TestCacheManagerFactory.createCacheManager(false)
 
+   protected def createMemcachedServer(cacheManager: EmbeddedCacheManager): MemcachedServer =
+      startMemcachedTextServer(cacheManager)
+
    @AfterClass(alwaysRun = true)
    override def destroyAfterClass() {
       super.destroyAfterClass()
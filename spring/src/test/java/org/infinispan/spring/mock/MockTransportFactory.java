@@ -2,6 +2,7 @@
 
 import java.net.SocketAddress;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -33,6 +34,11 @@ public void start(Codec codec, Configuration configuration, AtomicInteger topolo
    public void updateServers(final Collection<SocketAddress> newServers) {
    }
 
+   @Override
+   public Collection<SocketAddress> getServers() {
+      return Collections.emptyList();
+   }
+
    @Override
    public void destroy() {
    }
@@ -47,6 +53,16 @@ public Transport getTransport(final byte[] key) {
       return null;
    }
 
+   @Override
+   public SocketAddress getSocketAddress(final byte[] key) {
+      return null;
+   }
+
+   @Override
+   public Transport getAddressTransport(final SocketAddress server) {
+      return null;
+   }
+
    @Override
    public boolean isTcpNoDelay() {
       return false;